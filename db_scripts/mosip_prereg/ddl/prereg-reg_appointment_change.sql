@@ -0,0 +1,52 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_prereg
+-- Table Name   : prereg.reg_appointment_change
+-- Purpose      : Booking change feed: one row per booking or cancellation, numbered in commit order by commit_seq
+--
+-- Create By    : agent
+-- Created Date : 18-Oct-2026
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+-- -------------------------------------------------------------------------------------------------
+
+-- object: prereg.reg_appointment_change | type: TABLE --
+-- DROP TABLE IF EXISTS prereg.reg_appointment_change CASCADE;
+CREATE TABLE prereg.reg_appointment_change(
+	change_id bigserial NOT NULL,
+	prereg_id character varying(36) NOT NULL,
+	regcntr_id character varying(10) NOT NULL,
+	appointment_date date,
+	slot_from_time time,
+	slot_to_time time,
+	change_type character varying(16) NOT NULL,
+	commit_seq bigint,
+	cr_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_rappch_id PRIMARY KEY (change_id),
+	CONSTRAINT uk_rappch_seq UNIQUE (commit_seq)
+);
+-- ddl-end --
+
+-- object: idx_rappch_cntr_seq | type: INDEX --
+-- DROP INDEX IF EXISTS prereg.idx_rappch_cntr_seq CASCADE;
+CREATE INDEX idx_rappch_cntr_seq ON prereg.reg_appointment_change (regcntr_id, commit_seq);
+-- ddl-end --
+
+-- object: idx_rappch_unsequenced | type: INDEX --
+-- DROP INDEX IF EXISTS prereg.idx_rappch_unsequenced CASCADE;
+CREATE INDEX idx_rappch_unsequenced ON prereg.reg_appointment_change (change_id) WHERE commit_seq IS NULL;
+-- ddl-end --
+
+-- object: idx_rappch_crdtimes | type: INDEX --
+-- DROP INDEX IF EXISTS prereg.idx_rappch_crdtimes CASCADE;
+CREATE INDEX idx_rappch_crdtimes ON prereg.reg_appointment_change (cr_dtimes);
+-- ddl-end --
+
+COMMENT ON TABLE prereg.reg_appointment_change IS 'Booking change feed: one row per booking or cancellation, read by registration clients in commit_seq order';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_appointment_change.change_id IS 'Change id, increasing with every change in insert order';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_appointment_change.change_type IS 'BOOKED or CANCELLED';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_appointment_change.commit_seq IS 'Commit sequence, null until the change is sequenced after its transaction commits; the unique constraint also indexes max(commit_seq)';
+-- ddl-end --
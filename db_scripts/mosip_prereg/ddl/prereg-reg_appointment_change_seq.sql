@@ -0,0 +1,29 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_prereg
+-- Table Name   : prereg.reg_appointment_change_seq
+-- Purpose      : Last commit sequence given to the booking changes, locked while a batch of changes is sequenced
+--
+-- Create By    : agent
+-- Created Date : 18-Oct-2026
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+-- -------------------------------------------------------------------------------------------------
+
+-- object: prereg.reg_appointment_change_seq | type: TABLE --
+-- DROP TABLE IF EXISTS prereg.reg_appointment_change_seq CASCADE;
+CREATE TABLE prereg.reg_appointment_change_seq(
+	seq_name character varying(36) NOT NULL,
+	last_seq bigint NOT NULL DEFAULT 0,
+	upd_dtimes timestamp,
+	CONSTRAINT pk_rappchs_name PRIMARY KEY (seq_name)
+);
+-- ddl-end --
+
+COMMENT ON TABLE prereg.reg_appointment_change_seq IS 'Last commit sequence given to the booking changes';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_appointment_change_seq.last_seq IS 'Highest commit_seq written to prereg.reg_appointment_change';
+-- ddl-end --
+
+INSERT INTO prereg.reg_appointment_change_seq (seq_name, last_seq, upd_dtimes) VALUES ('commit_seq', 0, now());
+-- ddl-end --
@@ -0,0 +1,31 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_prereg
+-- Table Name   : prereg.reg_availability_fingerprint
+-- Purpose      : Center hours and holidays the availability of a center was last generated from
+--
+-- Create By    : agent
+-- Created Date : 18-Oct-2026
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+-- -------------------------------------------------------------------------------------------------
+
+-- object: prereg.reg_availability_fingerprint | type: TABLE --
+-- DROP TABLE IF EXISTS prereg.reg_availability_fingerprint CASCADE;
+CREATE TABLE prereg.reg_availability_fingerprint(
+	regcntr_id character varying(10) NOT NULL,
+	center_fingerprint character varying(32),
+	holiday_dates character varying(4000),
+	synced_to_date date,
+	upd_by character varying(256),
+	upd_dtimes timestamp,
+	CONSTRAINT pk_ravlfp_id PRIMARY KEY (regcntr_id)
+);
+-- ddl-end --
+
+COMMENT ON TABLE prereg.reg_availability_fingerprint IS 'Center hours and holidays the availability of a center was last generated from, so that an unchanged center is skipped by the sync';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_availability_fingerprint.center_fingerprint IS 'MD5 hex digest of the working hours, lunch break, kiosks and process time of the center';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_availability_fingerprint.synced_to_date IS 'Last date the availability was generated up to';
+-- ddl-end --
@@ -0,0 +1,41 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_prereg
+-- Table Name   : prereg.reg_slot_hold
+-- Purpose      : Kiosk of a slot held for a pre registration until the booking is confirmed or the hold expires
+--
+-- Create By    : agent
+-- Created Date : 18-Oct-2026
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+-- -------------------------------------------------------------------------------------------------
+
+-- object: prereg.reg_slot_hold | type: TABLE --
+-- DROP TABLE IF EXISTS prereg.reg_slot_hold CASCADE;
+CREATE TABLE prereg.reg_slot_hold(
+	prereg_id character varying(36) NOT NULL,
+	regcntr_id character varying(10) NOT NULL,
+	availability_date date NOT NULL,
+	slot_from_time time NOT NULL,
+	slot_to_time time NOT NULL,
+	expires_dtimes timestamp NOT NULL,
+	cr_by character varying(256),
+	cr_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_rslthld_id PRIMARY KEY (prereg_id)
+);
+-- ddl-end --
+
+-- object: idx_rslthld_slot | type: INDEX --
+-- DROP INDEX IF EXISTS prereg.idx_rslthld_slot CASCADE;
+CREATE INDEX idx_rslthld_slot ON prereg.reg_slot_hold (regcntr_id, availability_date, slot_from_time, slot_to_time);
+-- ddl-end --
+
+-- object: idx_rslthld_expires | type: INDEX --
+-- DROP INDEX IF EXISTS prereg.idx_rslthld_expires CASCADE;
+CREATE INDEX idx_rslthld_expires ON prereg.reg_slot_hold (expires_dtimes);
+-- ddl-end --
+
+COMMENT ON TABLE prereg.reg_slot_hold IS 'Kiosk of a slot held for a pre registration until the booking is confirmed or the hold expires';
+-- ddl-end --
+COMMENT ON COLUMN prereg.reg_slot_hold.expires_dtimes IS 'Time after which the held kiosk is given back to the slot';
+-- ddl-end --
@@ -6,6 +6,8 @@ package io.mosip.preregistration.booking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 
@@ -18,7 +20,7 @@ import org.springframework.context.annotation.FilterType;
  * @since 1.0.0
  *
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = { RedisAutoConfiguration.class, RedisRepositoriesAutoConfiguration.class })
 @ComponentScan(basePackages = "io.mosip.*", excludeFilters = {
 		@ComponentScan.Filter(type = FilterType.REGEX,
 				pattern = {"io\\.mosip\\.kernel\\.zkcryptoservice\\..*",
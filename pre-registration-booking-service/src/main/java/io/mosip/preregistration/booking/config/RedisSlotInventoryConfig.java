@@ -0,0 +1,53 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * This class is used to configure the Redis connection of the distributed slot
+ * inventory. It uses the same connection properties as the cache-provider-redis
+ * module and is only active when ${preregistration.booking.inventory} is
+ * redis.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "preregistration.booking.inventory", havingValue = "redis")
+public class RedisSlotInventoryConfig {
+
+	/**
+	 * Reference for ${redis.cache.hostname} from property file.
+	 */
+	@Value("${redis.cache.hostname:localhost}")
+	private String hostname;
+
+	/**
+	 * Reference for ${redis.cache.port} from property file.
+	 */
+	@Value("${redis.cache.port:6379}")
+	private int port;
+
+	@Bean
+	public JedisConnectionFactory slotInventoryConnectionFactory() {
+		JedisConnectionFactory jedisConFactory = new JedisConnectionFactory();
+		jedisConFactory.setHostName(hostname);
+		jedisConFactory.setPort(port);
+		return jedisConFactory;
+	}
+
+	@Bean
+	public StringRedisTemplate slotInventoryRedisTemplate() {
+		return new StringRedisTemplate(slotInventoryConnectionFactory());
+	}
+
+}
@@ -4,6 +4,10 @@
  */
 package io.mosip.preregistration.booking.controller;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -20,19 +24,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 
 import io.mosip.kernel.core.exception.ParseException;
 import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.AppointmentDetailsDto;
 import io.mosip.preregistration.booking.dto.AvailabilityDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySyncDto;
+import io.mosip.preregistration.booking.dto.BookingChangesDto;
 import io.mosip.preregistration.booking.dto.BookingDataByRegIdDto;
 import io.mosip.preregistration.booking.dto.BookingRequestDTO;
 import io.mosip.preregistration.booking.dto.BookingStatus;
 import io.mosip.preregistration.booking.dto.BookingStatusDTO;
+import io.mosip.preregistration.booking.dto.EarliestSlotDto;
 import io.mosip.preregistration.booking.dto.MultiBookingRequest;
+import io.mosip.preregistration.booking.dto.MultiBookingRequestDTO;
+import io.mosip.preregistration.booking.dto.SlotHoldDto;
 import io.mosip.preregistration.booking.service.BookingServiceIntf;
+import io.mosip.preregistration.booking.service.idempotency.BookingIdempotency;
+import io.mosip.preregistration.booking.service.util.BookingAdmissionControl;
+import io.mosip.preregistration.booking.service.util.BookingAdmissionControl.Admission;
 import io.mosip.preregistration.core.common.dto.BookingRegistrationDTO;
 import io.mosip.preregistration.core.common.dto.CancelBookingResponseDTO;
 import io.mosip.preregistration.core.common.dto.DeleteBookingDTO;
@@ -71,9 +89,25 @@ public class BookingController {
 	
 	@Autowired
 	private RequestValidator requestValidator;
+
+	@Autowired
+	private BookingAdmissionControl admissionControl;
+
+	@Autowired
+	private BookingIdempotency bookingIdempotency;
 	
 	/** The Constant CREATE application. */
 	private static final String BOOKING = "book";
+
+	/** The Constant media type of the streamed exports, one JSON object per line. */
+	private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+	/** Types of the booking responses replayed for an Idempotency-Key. */
+	private static final TypeReference<MainResponseDTO<BookingStatusDTO>> BOOKING_RESPONSE = new TypeReference<MainResponseDTO<BookingStatusDTO>>() {
+	};
+
+	private static final TypeReference<MainResponseDTO<BookingStatus>> MULTI_BOOKING_RESPONSE = new TypeReference<MainResponseDTO<BookingStatus>>() {
+	};
 	
 	
 	/**
@@ -112,6 +146,81 @@ public class BookingController {
 		return ResponseEntity.status(HttpStatus.OK).body(bookingService.getAvailability(registrationCenterId));
 	}
 
+	/**
+	 * Get API to get the per day availability totals for the calendar.
+	 * 
+	 * @param registration_center_id
+	 * @param fromDate
+	 *            the from date, optional
+	 * @param toDate
+	 *            the to date, optional
+	 * @return MainResponseDTO
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getGetappointmentavailability())")
+	@GetMapping(path = "/appointment/availability/{registrationCenterId}/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Fetch availability summary", description = "Fetch availability summary", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Availability summary fetched successfully"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<AvailabilitySummaryDto>> getAvailabilitySummary(
+			@PathVariable("registrationCenterId") String registrationCenterId,
+			@RequestParam(value = "from_date", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String fromDate,
+			@RequestParam(value = "to_date", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") String toDate) {
+		log.info("sessionId", "idType", "id",
+				"In getAvailabilitySummary method of Booking controller to fetch the availability summary for regID: "
+						+ registrationCenterId);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(bookingService.getAvailabilitySummary(registrationCenterId, fromDate, toDate));
+	}
+
+	/**
+	 * Get API to sync the availability of all the registration centers with
+	 * their master data.
+	 * 
+	 * @return MainResponseDTO
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getPutbatchappointmentpreregistrationid())")
+	@GetMapping(path = "/appointment/availability/sync", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Sync availability", description = "Sync availability of all registration centers with master data", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Availability synced successfully"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<AvailabilitySyncDto>> syncAvailability() {
+		log.info("sessionId", "idType", "id", "In syncAvailability method of Booking controller to sync the availability");
+		return ResponseEntity.status(HttpStatus.OK).body(bookingService.syncAvailability());
+	}
+
+	/**
+	 * Get API to get the earliest open slot of the given registration centers,
+	 * or of the registration centers nearest to the location.
+	 * 
+	 * @param latitude
+	 * @param longitude
+	 * @param registrationCenterIds
+	 * @param limit
+	 *            number of nearest centers to search
+	 * @return MainResponseDTO
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getGetappointmentavailability())")
+	@GetMapping(path = "/appointment/availability/earliest", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Fetch earliest availability", description = "Fetch earliest open slot across registration centers", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Earliest availability fetched successfully"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<List<EarliestSlotDto>>> getEarliestAvailability(
+			@RequestParam(value = "latitude", required = false) String latitude,
+			@RequestParam(value = "longitude", required = false) String longitude,
+			@RequestParam(value = "registration_center_ids", required = false) List<String> registrationCenterIds,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		log.info("sessionId", "idType", "id",
+				"In getEarliestAvailability method of Booking controller to fetch the earliest availability");
+		return ResponseEntity.status(HttpStatus.OK).body(
+				bookingService.getEarliestAvailability(latitude, longitude, registrationCenterIds, limit));
+	}
+
 	/**
 	 * Post API to book the appointment.
 	 * 
@@ -128,15 +237,25 @@ public class BookingController {
 			@ApiResponse(responseCode = "201", description = "Created", content = @Content(schema = @Schema(hidden = true))),
 			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
 			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
-			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "409", description = "Request of the Idempotency-Key Still Running", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "422", description = "Idempotency-Key Used With Another Request", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content(schema = @Schema(hidden = true))) })
 	public ResponseEntity<MainResponseDTO<BookingStatusDTO>> bookAppoinment(
 			@PathVariable("preRegistrationId") String preRegistrationId,
-			@Validated @RequestBody(required = true) MainRequestDTO<BookingRequestDTO> bookingDTO, @ApiIgnore Errors errors ) {
+			@Validated @RequestBody(required = true) MainRequestDTO<BookingRequestDTO> bookingDTO, @ApiIgnore Errors errors,
+			@RequestHeader(value = BookingIdempotency.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 		log.info("sessionId", "idType", "id",
 				"In bookAppoinment method of Booking controller to book an appointment for object: " + bookingDTO);
 		requestValidator.validateId(BOOKING, bookingDTO.getId(), errors);
 		DataValidationUtil.validate(errors,BOOKING);
-		return ResponseEntity.status(HttpStatus.OK).body(bookingService.bookAppointment(bookingDTO, preRegistrationId));
+		return ResponseEntity.status(HttpStatus.OK).body(bookingIdempotency.execute(idempotencyKey,
+				BOOKING + ":" + preRegistrationId, bookingDTO.getRequest(), BOOKING_RESPONSE, () -> {
+					try (Admission admission = admissionControl
+							.admit(Collections.singletonList(bookingDTO.getRequest().getRegistrationCenterId()))) {
+						return bookingService.bookAppointment(bookingDTO, preRegistrationId);
+					}
+				}));
 	}
 	
 	/**
@@ -155,14 +274,78 @@ public class BookingController {
 			@ApiResponse(responseCode = "201", description = "Created", content = @Content(schema = @Schema(hidden = true))),
 			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
 			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
-			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "409", description = "Request of the Idempotency-Key Still Running", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "422", description = "Idempotency-Key Used With Another Request", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content(schema = @Schema(hidden = true))) })
 	public ResponseEntity<MainResponseDTO<BookingStatus>> bookMultiAppoinment(
-			@Validated @RequestBody(required = true) MainRequestDTO<MultiBookingRequest> bookingRequest, @ApiIgnore Errors errors) {
+			@Validated @RequestBody(required = true) MainRequestDTO<MultiBookingRequest> bookingRequest, @ApiIgnore Errors errors,
+			@RequestHeader(value = BookingIdempotency.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 		log.info("sessionId", "idType", "id",
 				"In bookAppoinment method of Booking controller to book an appointment for object: " + bookingRequest);
 		requestValidator.validateId(BOOKING, bookingRequest.getId(), errors);
 		DataValidationUtil.validate(errors,BOOKING);
-		return ResponseEntity.status(HttpStatus.OK).body(bookingService.bookMultiAppointment(bookingRequest));
+		String preRegistrationIds = bookingRequest.getRequest().getBookingRequest().stream()
+				.map(MultiBookingRequestDTO::getPreRegistrationId).sorted().collect(Collectors.joining(","));
+		return ResponseEntity.status(HttpStatus.OK).body(bookingIdempotency.execute(idempotencyKey,
+				"multi" + BOOKING + ":" + preRegistrationIds, bookingRequest.getRequest(), MULTI_BOOKING_RESPONSE, () -> {
+					try (Admission admission = admissionControl.admit(bookingRequest.getRequest().getBookingRequest()
+							.stream().map(MultiBookingRequestDTO::getRegistrationCenterId).collect(Collectors.toList()))) {
+						return bookingService.bookMultiAppointment(bookingRequest);
+					}
+				}));
+	}
+
+	/**
+	 * Post API to hold a slot for a limited time before booking it.
+	 * 
+	 * @param MainRequestDTO
+	 * @return MainResponseDTO
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getPostappointmentpreregistrationid())")
+	@PostMapping(path = "/appointment/hold/{preRegistrationId}", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Hold Appointment Slot", description = "Hold Appointment Slot", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Slot Held Successfully"),
+			@ApiResponse(responseCode = "201", description = "Created", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<SlotHoldDto>> holdSlot(
+			@PathVariable("preRegistrationId") String preRegistrationId,
+			@Validated @RequestBody(required = true) MainRequestDTO<BookingRequestDTO> bookingDTO, @ApiIgnore Errors errors) {
+		log.info("sessionId", "idType", "id",
+				"In holdSlot method of Booking controller to hold a slot for object: " + bookingDTO);
+		requestValidator.validateId(BOOKING, bookingDTO.getId(), errors);
+		DataValidationUtil.validate(errors,BOOKING);
+		try (Admission admission = admissionControl
+				.admit(Collections.singletonList(bookingDTO.getRequest().getRegistrationCenterId()))) {
+			return ResponseEntity.status(HttpStatus.OK).body(bookingService.holdSlot(bookingDTO, preRegistrationId));
+		}
+	}
+
+	/**
+	 * Post API to book the held slot.
+	 * 
+	 * @param preRegistrationId
+	 * @return MainResponseDTO
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getPostappointmentpreregistrationid())")
+	@PostMapping(path = "/appointment/hold/{preRegistrationId}/confirm", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Confirm Held Slot", description = "Confirm Held Slot", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Appointment Booked Successfully"),
+			@ApiResponse(responseCode = "201", description = "Created", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<BookingStatusDTO>> confirmSlotHold(
+			@PathVariable("preRegistrationId") String preRegistrationId) {
+		log.info("sessionId", "idType", "id",
+				"In confirmSlotHold method of Booking controller to book the held slot for preRegID: " + preRegistrationId);
+		try (Admission admission = admissionControl.admit(Collections.emptyList())) {
+			return ResponseEntity.status(HttpStatus.OK).body(bookingService.confirmSlotHold(preRegistrationId));
+		}
 	}
 
 	/**
@@ -191,6 +374,29 @@ public class BookingController {
 
 	}
 
+	/**
+	 * Get API to get the booked appointment details of several pre-registration
+	 * ids at once.
+	 * 
+	 * @param preRegistrationIds
+	 *            the pre-registration ids
+	 * @return the appointment details or the errors of each id
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getGetappointmentpreregistrationid())")
+	@GetMapping(path = "/appointment/details", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Fetch Appointment details of several applications", description = "Fetch Appointment details of several applications", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Appointment details fetched Successfully"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<List<AppointmentDetailsDto>>> getAppointmentsDetails(
+			@RequestParam(value = "pre_registration_ids", required = true) List<String> preRegistrationIds) {
+		log.info("sessionId", "idType", "id",
+				"In appointmentDetails method of Booking controller to fetch appointment details for preRegIDs: "
+						+ preRegistrationIds);
+		return ResponseEntity.status(HttpStatus.OK).body(bookingService.getAppointmentDetails(preRegistrationIds));
+	}
+
 	/**
 	 * Put API to cancel the appointment.
 	 * 
@@ -272,6 +478,10 @@ public class BookingController {
 	 *            the from date
 	 * @param toDate
 	 *            the to date
+	 * @param cursor
+	 *            the next cursor of the previous page
+	 * @param pageSize
+	 *            the page size, capped at the max page size
 	 * @return the booked pre-ids for date range
 	 */	
 	//@PreAuthorize("hasAnyRole('INDIVIDUAL','REGISTRATION_OFFICER','REGISTRATION_SUPERVISOR','REGISTRATION_ ADMIN')")
@@ -286,11 +496,13 @@ public class BookingController {
 	public ResponseEntity<MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO>> getBookedDataByDate(
 			@RequestParam(value = "from_date", required = true) @DateTimeFormat(pattern = "yyyy-MM-dd") String fromDate,
 			@RequestParam(value = "to_date") @DateTimeFormat(pattern = "yyyy-MM-dd") String toDate,
-			@PathVariable("registrationCenterId") String regCenterId) {
+			@PathVariable("registrationCenterId") String regCenterId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "page_size", required = false) Integer pageSize) {
 		log.info("sessionId", "idType", "id",
 				"In booking controller for fetching all booked preids " + fromDate + " to " + toDate);
 		return ResponseEntity.status(HttpStatus.OK)
-				.body(bookingService.getBookedPreRegistrationByDate(fromDate, toDate, regCenterId));
+				.body(bookingService.getBookedPreRegistrationByDate(fromDate, toDate, regCenterId, cursor, pageSize));
 	}
 	 
 
@@ -301,6 +513,10 @@ public class BookingController {
 	 *            the from date
 	 * @param toDate
 	 *            the to date
+	 * @param cursor
+	 *            the next cursor of the previous page
+	 * @param pageSize
+	 *            the page size, capped at the max page size
 	 * @return the booked pre-ids for date range
 	 */
 	//@PreAuthorize("hasAnyRole('INDIVIDUAL','REGISTRATION_OFFICER','REGISTRATION_SUPERVISOR','REGISTRATION_ ADMIN')")
@@ -315,10 +531,68 @@ public class BookingController {
 	public ResponseEntity<MainResponseDTO<BookingDataByRegIdDto>> getBookedDataByRegId(
 			@RequestParam(value = "from_date", required = true) @DateTimeFormat(pattern = "yyyy-MM-dd") String fromDate,
 			@RequestParam(value = "to_date") @DateTimeFormat(pattern = "yyyy-MM-dd") String toDate,
-			@PathVariable("registrationCenterId") String regCenterId) {
+			@PathVariable("registrationCenterId") String regCenterId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "page_size", required = false) Integer pageSize) {
 		log.info("sessionId", "idType", "id",
 				"In booking controller for fetching all booked preids " + fromDate + " to " + toDate);
 		return ResponseEntity.status(HttpStatus.OK)
-				.body(bookingService.getBookedPreRegistrations(fromDate, toDate, regCenterId));
+				.body(bookingService.getBookedPreRegistrations(fromDate, toDate, regCenterId, cursor, pageSize));
+	}
+
+	/**
+	 * Get API to stream all the booked pre-ids of the registration center within
+	 * from-date and to-date range as NDJSON.
+	 *
+	 * @param fromDate
+	 *            the from date
+	 * @param toDate
+	 *            the to date
+	 * @return the booked pre-ids for date range, one per line
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getGetappointmentregistrationcenterid())")
+	@GetMapping(path = "/appointment/registrationCenterId/{registrationCenterId}/stream", produces = APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Stream Pre-Registartion ids By Booked Date Time And Registration center id",
+			description = "Stream Pre-Registartion ids By Booked Date Time And Registration center id", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Booked data successfully streamed"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<StreamingResponseBody> streamBookedDataByRegId(
+			@RequestParam(value = "from_date", required = true) @DateTimeFormat(pattern = "yyyy-MM-dd") String fromDate,
+			@RequestParam(value = "to_date") @DateTimeFormat(pattern = "yyyy-MM-dd") String toDate,
+			@PathVariable("registrationCenterId") String regCenterId) {
+		log.info("sessionId", "idType", "id",
+				"In booking controller for streaming all booked preids " + fromDate + " to " + toDate);
+		return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+				.body(bookingService.streamBookedPreRegistrations(fromDate, toDate, regCenterId));
+	}
+
+	/**
+	 * Get API to fetch the booking changes of the registration center after the
+	 * watermark of the previous call, or without one, the bookings of the
+	 * registration center a page at a time with the watermark to sync from.
+	 *
+	 * @param since
+	 *            the watermark of the previous call
+	 * @param cursor
+	 *            the cursor of the previous snapshot page
+	 * @return the booking changes and the new watermark
+	 */
+	@PreAuthorize("hasAnyRole(@authorizedRoles.getGetappointmentregistrationcenterid())")
+	@GetMapping(path = "/appointment/registrationCenterId/{registrationCenterId}/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Get booking changes of Registration center id since watermark",
+			description = "Get booking changes of Registration center id since watermark", tags = "booking-controller")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Booking changes successfully retrieved"),
+			@ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "403", description = "Forbidden", content = @Content(schema = @Schema(hidden = true))),
+			@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(hidden = true))) })
+	public ResponseEntity<MainResponseDTO<BookingChangesDto>> getBookingChangesByRegId(
+			@RequestParam(value = "since", required = false) Long since,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@PathVariable("registrationCenterId") String regCenterId) {
+		log.info("sessionId", "idType", "id", "In booking controller for fetching booking changes since " + since);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(bookingService.getBookingChanges(regCenterId, since, cursor));
 	}
 }
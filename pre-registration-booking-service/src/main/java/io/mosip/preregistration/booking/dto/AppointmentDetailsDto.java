@@ -0,0 +1,51 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.mosip.preregistration.core.common.dto.BookingRegistrationDTO;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the result of one pre registration id of the bulk
+ * appointment details lookup: either its appointment or the errors of the id.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentDetailsDto implements Serializable {
+
+	private static final long serialVersionUID = 2760458394415137920L;
+
+	/**
+	 * pre registration id
+	 */
+	@ApiModelProperty(value = "Pre Registration ID", position = 1)
+	private String preRegistrationId;
+	/**
+	 * appointment of the pre registration id
+	 */
+	@ApiModelProperty(value = "Appointment", position = 2)
+	private BookingRegistrationDTO appointment;
+	/**
+	 * errors of the pre registration id
+	 */
+	@ApiModelProperty(value = "Errors", position = 3)
+	private List<ExceptionJSONInfoDTO> errors;
+
+}
@@ -0,0 +1,36 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the availability summary of a registration center, one
+ * aggregate per day of the date range.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AvailabilitySummaryDto {
+
+	private String regCenterId;
+
+	private String fromDate;
+
+	private String toDate;
+
+	private List<DateSummaryDto> dates;
+
+}
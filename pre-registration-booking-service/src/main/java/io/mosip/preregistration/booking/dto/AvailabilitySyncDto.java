@@ -0,0 +1,60 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the outcome of an availability sync: the synced date
+ * range, the centers synced, skipped or failed and the rows written.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AvailabilitySyncDto {
+
+	private String fromDate;
+
+	private String toDate;
+
+	private int syncedCenters;
+
+	/** Centers whose master data did not change since the previous sync. */
+	private int skippedCenters;
+
+	private List<String> failedCenters;
+
+	private long insertedSlots;
+
+	private long updatedSlots;
+
+	private long deletedSlots;
+
+	/** Slots no longer generated but kept closed, as they are still booked. */
+	private long keptBookedSlots;
+
+	private long movedBookings;
+
+	private long cancelledBookings;
+
+	/** Bookings not moved or cancelled, as they changed during the sync. */
+	private long skippedBookings;
+
+	/** Slots and bookings written. */
+	private long changedRows;
+
+	private long durationMillis;
+
+}
@@ -0,0 +1,51 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the read only projection of a booking of
+ * reg_appointment, written as one line of the streamed export of the booked
+ * pre registrations of a registration center.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class BookedAppointmentDto {
+
+	private String preRegistrationId;
+
+	@JsonProperty("appointment_date")
+	private LocalDate regDate;
+
+	@JsonProperty("time_slot_from")
+	private LocalTime slotFromTime;
+
+	@JsonProperty("time_slot_to")
+	private LocalTime slotToTime;
+
+	public BookedAppointmentDto(String preRegistrationId, LocalDate regDate, LocalTime slotFromTime,
+			LocalTime slotToTime) {
+		this.preRegistrationId = preRegistrationId;
+		this.regDate = regDate;
+		this.slotFromTime = slotFromTime;
+		this.slotToTime = slotToTime;
+	}
+
+}
@@ -0,0 +1,60 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is used to return one change of the booking change feed.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+public class BookingChangeDto implements Serializable {
+
+	private static final long serialVersionUID = -3172641823576529304L;
+
+	/**
+	 * pre-Registration Id
+	 */
+	@ApiModelProperty(value = "Pre-Registration ID", position = 1)
+	private String preRegistrationId;
+	/**
+	 * BOOKED or CANCELLED
+	 */
+	@JsonProperty("change_type")
+	@ApiModelProperty(value = "Change Type", position = 2)
+	private String changeType;
+	/**
+	 * booked Date
+	 */
+	@JsonProperty("appointment_date")
+	@ApiModelProperty(value = "Appointment Date", position = 3)
+	private String regDate;
+	/**
+	 * booked from Time Slot
+	 */
+	@JsonProperty("time_slot_from")
+	@ApiModelProperty(value = "From Time Slot", position = 4)
+	private String slotFromTime;
+	/**
+	 * booked to Time Slot
+	 */
+	@JsonProperty("time_slot_to")
+	@ApiModelProperty(value = "To Time Slot", position = 5)
+	private String slotToTime;
+
+}
@@ -0,0 +1,63 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is used to return the booking changes of a registration
+ * center since a watermark.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+public class BookingChangesDto implements Serializable {
+
+	private static final long serialVersionUID = 8843295461273906514L;
+
+	/**
+	 * registration Center Id
+	 */
+	@JsonProperty("registration_center_id")
+	@ApiModelProperty(value = "Registration Center ID", position = 1)
+	private String registrationCenterId;
+	/**
+	 * watermark to pass as since on the next call
+	 */
+	@ApiModelProperty(value = "Watermark", position = 2)
+	private Long watermark;
+	/**
+	 * true if more changes are available after the watermark
+	 */
+	@JsonProperty("has_more")
+	@ApiModelProperty(value = "More Changes Available", position = 3)
+	private boolean hasMore;
+	/**
+	 * changes in order
+	 */
+	@ApiModelProperty(value = "Changes", position = 4)
+	private List<BookingChangeDto> changes;
+	/**
+	 * cursor of the next snapshot page, absent on the last page and on changes
+	 */
+	@JsonProperty("next_cursor")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	@ApiModelProperty(value = "Next Snapshot Page Cursor", position = 5)
+	private String nextCursor;
+
+}
@@ -0,0 +1,82 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This class is the position of a page of bookings: the date, slot and pre
+ * registration id of the last booking returned. It is handed to the client as
+ * an opaque URL safe token, and the next page seeks past it.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class BookingCursor {
+
+	private static final String SEPARATOR = "|";
+
+	private final LocalDate regDate;
+
+	private final LocalTime slotFromTime;
+
+	private final String preRegistrationId;
+
+	/**
+	 * @param bookingEntity
+	 * @return the cursor pointing at the booking
+	 */
+	public static BookingCursor of(RegistrationBookingEntity bookingEntity) {
+		return new BookingCursor(bookingEntity.getRegDate(), bookingEntity.getSlotFromTime(),
+				bookingEntity.getPreregistrationId());
+	}
+
+	/**
+	 * @return the token of the cursor
+	 */
+	public String encode() {
+		String key = regDate + SEPARATOR + slotFromTime + SEPARATOR + preRegistrationId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param token
+	 * @return the cursor of the token
+	 * @throws InvalidRequestParameterException
+	 *             if the token is not a cursor
+	 */
+	public static BookingCursor decode(String token) {
+		try {
+			String[] key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+					.split("\\" + SEPARATOR, 3);
+			if (key.length == 3 && !key[2].isEmpty()) {
+				return new BookingCursor(LocalDate.parse(key[0]), LocalTime.parse(key[1]), key[2]);
+			}
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			// falls through to the invalid cursor error
+		}
+		throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_039.getCode(),
+				ErrorMessages.INVALID_BOOKING_CURSOR.getMessage(), null);
+	}
+
+}
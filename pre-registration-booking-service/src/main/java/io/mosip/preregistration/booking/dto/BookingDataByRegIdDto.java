@@ -3,6 +3,8 @@ package io.mosip.preregistration.booking.dto;
 import java.time.LocalDate;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -16,4 +18,7 @@ public class BookingDataByRegIdDto {
 
 	private Map<String, Map<LocalDate, SlotTimeDto>> idsWithAppointmentDate;
 
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String nextCursor;
+
 }
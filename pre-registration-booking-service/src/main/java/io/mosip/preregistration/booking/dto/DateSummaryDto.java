@@ -0,0 +1,47 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the per day aggregate of reg_available_slot shown by the
+ * availability calendar: the free kiosks and open slots of the day, without
+ * the slots themselves.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class DateSummaryDto {
+
+	private String date;
+
+	private boolean isHoliday;
+
+	/** Sum of the available kiosks of the slots of the day. */
+	private long availableKiosks;
+
+	/** Number of slots of the day with an available kiosk. */
+	private long openSlots;
+
+	public DateSummaryDto(LocalDate regDate, Long slotsPerDay, Long availableKiosks, Long openSlots) {
+		this.date = regDate.toString();
+		/* A day with a single slot is a holiday */
+		this.isHoliday = slotsPerDay == 1;
+		this.availableKiosks = availableKiosks == null ? 0 : availableKiosks;
+		this.openSlots = openSlots == null ? 0 : openSlots;
+	}
+
+}
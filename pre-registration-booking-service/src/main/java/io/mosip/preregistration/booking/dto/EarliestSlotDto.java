@@ -0,0 +1,68 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the earliest open slot of one registration center
+ * returned by the earliest availability search.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EarliestSlotDto implements Serializable {
+
+	private static final long serialVersionUID = -3311590874472063425L;
+
+	/**
+	 * registration center id
+	 */
+	@ApiModelProperty(value = "Registration Center ID", position = 1)
+	private String registrationCenterId;
+	/**
+	 * registration center name
+	 */
+	@ApiModelProperty(value = "Registration Center Name", position = 2)
+	private String registrationCenterName;
+	/**
+	 * distance of the center from the searched location, in km
+	 */
+	@ApiModelProperty(value = "Distance in km", position = 3)
+	private Double distanceKm;
+	/**
+	 * date of the slot
+	 */
+	@ApiModelProperty(value = "Registration Date", position = 4)
+	private String regDate;
+	/**
+	 * slot from time
+	 */
+	@ApiModelProperty(value = "Slot From Time", position = 5)
+	private String slotFromTime;
+	/**
+	 * slot to time
+	 */
+	@ApiModelProperty(value = "Slot To Time", position = 6)
+	private String slotToTime;
+	/**
+	 * available kiosks of the slot
+	 */
+	@ApiModelProperty(value = "Available Kiosks", position = 7)
+	private int availableKiosks;
+
+}
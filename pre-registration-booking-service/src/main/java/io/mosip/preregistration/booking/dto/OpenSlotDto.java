@@ -0,0 +1,59 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the read only projection of an open slot of
+ * reg_available_slot, kept by the next open slot index of a registration
+ * center.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@ToString
+public class OpenSlotDto {
+
+	private final String regcntrId;
+
+	private final LocalDate regDate;
+
+	private final LocalTime fromTime;
+
+	private final LocalTime toTime;
+
+	private final int availableKiosks;
+
+	public OpenSlotDto(String regcntrId, LocalDate regDate, LocalTime fromTime, LocalTime toTime,
+			int availableKiosks) {
+		this.regcntrId = regcntrId;
+		this.regDate = regDate;
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		this.availableKiosks = availableKiosks;
+	}
+
+	/**
+	 * @param regDate
+	 * @param fromTime
+	 * @return true if this slot starts before the given slot
+	 */
+	public boolean isBefore(LocalDate regDate, LocalTime fromTime) {
+		int byDate = this.regDate.compareTo(regDate);
+		return byDate < 0 || byDate == 0 && this.fromTime.isBefore(fromTime);
+	}
+
+	public boolean isSlot(LocalDate regDate, LocalTime fromTime, LocalTime toTime) {
+		return this.regDate.equals(regDate) && this.fromTime.equals(fromTime) && this.toTime.equals(toTime);
+	}
+
+}
@@ -0,0 +1,37 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.mosip.preregistration.core.common.dto.PreRegIdsByRegCenterIdResponseDTO;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is one page of the booked pre registration ids of a
+ * registration center, with the cursor of the next page.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@ToString(callSuper = true)
+public class PreRegIdsByRegCenterIdPageDTO extends PreRegIdsByRegCenterIdResponseDTO {
+
+	private static final long serialVersionUID = -6021738571190431647L;
+
+	/**
+	 * cursor of the next page, absent on the last page
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	@ApiModelProperty(value = "Next Page Cursor", position = 3)
+	private String nextCursor;
+
+}
@@ -0,0 +1,47 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This DTO class is the read only projection of a slot of reg_available_slot
+ * used to build the availability calendar, without hydrating the entity.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class SlotAvailabilityDto {
+
+	private LocalDate regDate;
+
+	private LocalTime fromTime;
+
+	private LocalTime toTime;
+
+	private int availableKiosks;
+
+	/** Number of slots of the day, a day with a single slot is a holiday. */
+	private int slotsPerDay;
+
+	public SlotAvailabilityDto(LocalDate regDate, LocalTime fromTime, LocalTime toTime, int availableKiosks) {
+		this.regDate = regDate;
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		this.availableKiosks = availableKiosks;
+	}
+
+}
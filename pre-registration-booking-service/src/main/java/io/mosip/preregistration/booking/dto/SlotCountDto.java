@@ -0,0 +1,44 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This DTO class is a number of kiosks of a slot: the bookings or holds
+ * counted in a slot, or the kiosk change of a slot to write to
+ * reg_available_slot.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@ToString
+public class SlotCountDto {
+
+	private final String regcntrId;
+
+	private final LocalDate regDate;
+
+	private final LocalTime fromTime;
+
+	private final LocalTime toTime;
+
+	private final long count;
+
+	public SlotCountDto(String regcntrId, LocalDate regDate, LocalTime fromTime, LocalTime toTime, long count) {
+		this.regcntrId = regcntrId;
+		this.regDate = regDate;
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,64 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.dto;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * This DTO class is used to return a temporary slot hold.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+@Setter
+public class SlotHoldDto implements Serializable {
+
+	private static final long serialVersionUID = 6409236527011382114L;
+
+	/**
+	 * pre-Registration Id
+	 */
+	@ApiModelProperty(value = "Pre-Registration ID", position = 1)
+	private String preRegistrationId;
+	/**
+	 * registration Center Id
+	 */
+	@JsonProperty("registration_center_id")
+	@ApiModelProperty(value = "Registration Center ID", position = 2)
+	private String registrationCenterId;
+	/**
+	 * held Date
+	 */
+	@JsonProperty("appointment_date")
+	@ApiModelProperty(value = "Appointment Date", position = 3)
+	private String regDate;
+	/**
+	 * held from Time Slot
+	 */
+	@JsonProperty("time_slot_from")
+	@ApiModelProperty(value = "From Time Slot", position = 4)
+	private String slotFromTime;
+	/**
+	 * held to Time Slot
+	 */
+	@JsonProperty("time_slot_to")
+	@ApiModelProperty(value = "To Time Slot", position = 5)
+	private String slotToTime;
+	/**
+	 * hold expiry Date Time
+	 */
+	@JsonProperty("expires_at")
+	@ApiModelProperty(value = "Hold Expiry Date Time", position = 6)
+	private String expiresAt;
+
+}
@@ -0,0 +1,67 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This entity class defines the database table details of the availability
+ * fingerprints. A registration center has one row, written by the availability
+ * sync with the master data its slots were last generated from, so that the
+ * next sync only regenerates the dates whose master data changed.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Entity
+@Table(name = "reg_availability_fingerprint", schema = "prereg")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AvailabilityFingerprintEntity implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Registration center id. */
+	@Id
+	@Column(name = "regcntr_id")
+	private String regcntrId;
+
+	/** Hash of the working hours and kiosks of the center. */
+	@Column(name = "center_fingerprint")
+	private String centerFingerprint;
+
+	/** Holidays of the center up to the synced date, comma separated. */
+	@Column(name = "holiday_dates", length = 4000)
+	private String holidayDates;
+
+	/** Last date whose slots were generated. */
+	@Column(name = "synced_to_date")
+	private LocalDate syncedTo;
+
+	/** Updated by. */
+	@Column(name = "upd_by")
+	private String updBy;
+
+	/** Updated date time. */
+	@Column(name = "upd_dtimes")
+	private LocalDateTime updDate;
+
+}
@@ -0,0 +1,105 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This entity class defines the database table details of the booking change
+ * log. Every booking created, moved, cancelled or deleted appends a row. Once
+ * the row is committed it is given its commit sequence, the watermark
+ * registration clients sync from: unlike the change id, the commit sequence
+ * never hands out a value below one already read.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Entity
+@Table(name = "reg_appointment_change", schema = "prereg")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class BookingChangeEntity implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	public enum ChangeType {
+		/** The pre registration is booked in the slot, replacing any earlier booking. */
+		BOOKED,
+		/** The pre registration is no longer booked in the registration center. */
+		CANCELLED
+	}
+
+	/** Change id, increasing with every change. */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "change_id")
+	private Long changeId;
+
+	/** Pre registration id. */
+	@Column(name = "prereg_id")
+	private String preregistrationId;
+
+	/** Registration center id. */
+	@Column(name = "regcntr_id")
+	private String regcntrId;
+
+	/** Registration date. */
+	@Column(name = "appointment_date")
+	private LocalDate regDate;
+
+	/** Slot from time. */
+	@Column(name = "slot_from_time")
+	private LocalTime fromTime;
+
+	/** Slot to time. */
+	@Column(name = "slot_to_time")
+	private LocalTime toTime;
+
+	/** Change type. */
+	@Enumerated(EnumType.STRING)
+	@Column(name = "change_type")
+	private ChangeType changeType;
+
+	/** Commit sequence, null until the change is sequenced after its commit. */
+	@Column(name = "commit_seq")
+	private Long commitSeq;
+
+	/** Created date time. */
+	@Column(name = "cr_dtimes")
+	private LocalDateTime crDate;
+
+	public BookingChangeEntity(String preregistrationId, String regcntrId, LocalDate regDate, LocalTime fromTime,
+			LocalTime toTime, ChangeType changeType) {
+		this.preregistrationId = preregistrationId;
+		this.regcntrId = regcntrId;
+		this.regDate = regDate;
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		this.changeType = changeType;
+		this.crDate = LocalDateTime.now();
+	}
+
+}
@@ -0,0 +1,59 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This entity class defines the database table details of the sequence of the
+ * booking change log. The row is locked while committed changes are given
+ * their commit sequence, so that the sequences are handed out one stamping at
+ * a time and in commit order.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Entity
+@Table(name = "reg_appointment_change_seq", schema = "prereg")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class BookingChangeSequenceEntity implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Sequence name. */
+	@Id
+	@Column(name = "seq_name")
+	private String seqName;
+
+	/** Last commit sequence handed out. */
+	@Column(name = "last_seq")
+	private long lastSeq;
+
+	/** Updated date time. */
+	@Column(name = "upd_dtimes")
+	private LocalDateTime updDate;
+
+	public BookingChangeSequenceEntity(String seqName) {
+		this.seqName = seqName;
+		this.updDate = LocalDateTime.now();
+	}
+
+}
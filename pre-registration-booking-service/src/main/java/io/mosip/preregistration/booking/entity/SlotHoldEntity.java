@@ -0,0 +1,75 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This entity class defines the database table details of the temporary slot
+ * holds. A pre registration holds at most one slot, whose kiosk stays reserved
+ * until the hold is confirmed or expires.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Entity
+@Table(name = "reg_slot_hold", schema = "prereg")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class SlotHoldEntity implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Pre registration id. */
+	@Id
+	@Column(name = "prereg_id")
+	private String preregistrationId;
+
+	/** Registration center id. */
+	@Column(name = "regcntr_id")
+	private String regcntrId;
+
+	/** Registration date. */
+	@Column(name = "availability_date")
+	private LocalDate regDate;
+
+	/** Slot from time. */
+	@Column(name = "slot_from_time")
+	private LocalTime fromTime;
+
+	/** Slot to time. */
+	@Column(name = "slot_to_time")
+	private LocalTime toTime;
+
+	/** Expiry date time. */
+	@Column(name = "expires_dtimes")
+	private LocalDateTime expiresAt;
+
+	/** Created by. */
+	@Column(name = "cr_by")
+	private String crBy;
+
+	/** Created date time. */
+	@Column(name = "cr_dtimes")
+	private LocalDateTime crDate;
+
+}
@@ -50,7 +50,20 @@ public enum ErrorCodes {
 	PRG_BOOK_RCI_033("PRG_BOOK_RCI_033"),// notification failed exception
 	PRG_BOOK_RCI_034("PRG_BOOK_RCI_034"),
 	PRG_BOOK_RCI_035("PRG_BOOK_RCI_035"),// reg center id not found
-	PRG_BOOK_RCI_036("PRG_BOOK_RCI_036"); //Appointmnet cannot be booked for incomplete application
+	PRG_BOOK_RCI_036("PRG_BOOK_RCI_036"), //Appointmnet cannot be booked for incomplete application
+	PRG_BOOK_RCI_037("PRG_BOOK_RCI_037"), // Slot lock could not be acquired
+	PRG_BOOK_RCI_038("PRG_BOOK_RCI_038"), // Slot hold not found or expired
+	PRG_BOOK_RCI_039("PRG_BOOK_RCI_039"), // Invalid booking page cursor
+	PRG_BOOK_RCI_040("PRG_BOOK_RCI_040"), // Too many pre registration ids
+	PRG_BOOK_RCI_041("PRG_BOOK_RCI_041"), // Invalid search location
+	PRG_BOOK_RCI_042("PRG_BOOK_RCI_042"), // Too many registration center ids
+	PRG_BOOK_RCI_043("PRG_BOOK_RCI_043"), // Too many booking requests
+	PRG_BOOK_RCI_044("PRG_BOOK_RCI_044"), // Invalid idempotency key
+	PRG_BOOK_RCI_045("PRG_BOOK_RCI_045"), // Availability sync already running
+	PRG_BOOK_RCI_046("PRG_BOOK_RCI_046"), // Slots changed during availability sync
+	PRG_BOOK_RCI_047("PRG_BOOK_RCI_047"), // Idempotency key used with another request
+	PRG_BOOK_RCI_048("PRG_BOOK_RCI_048"), // Request of the idempotency key still running
+	PRG_BOOK_RCI_049("PRG_BOOK_RCI_049"); // Application status not given for the user
 	
 
 	/**
@@ -179,7 +179,62 @@ public enum ErrorMessages {
 	
 	APPOINTMENT_CANNOT_BE_BOOKED_FOR_PREFETCHED_APPLICATION("Appointment cannot be booked for prefetched application"),
 
-	CANCEL_BOOKING_CANNOT_BE_DONE("Appointment cancelling cannot be done within");
+	APPOINTMENT_CANNOT_BE_BOOKED_FOR_APPLICATION_STATUS("Appointment cannot be booked for the status of the application"),
+
+	CANCEL_BOOKING_CANNOT_BE_DONE("Appointment cancelling cannot be done within"),
+
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_037
+	 */
+	SLOT_LOCK_NOT_ACQUIRED("Selected slot is busy, please try again"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_038
+	 */
+	SLOT_HOLD_NOT_FOUND("Slot hold not found or expired, please select the slot again"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_039
+	 */
+	INVALID_BOOKING_CURSOR("Invalid cursor, please fetch the bookings from the first page"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_040
+	 */
+	TOO_MANY_PRE_REGISTRATION_IDS("Too many pre registration ids, the limit is"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_041
+	 */
+	INVALID_SEARCH_LOCATION("Either a valid latitude and longitude or the registration center ids are required"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_042
+	 */
+	TOO_MANY_REGISTRATION_CENTER_IDS("Too many registration center ids, the limit is"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_043
+	 */
+	TOO_MANY_BOOKING_REQUESTS("Too many booking requests, please retry later"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_044
+	 */
+	INVALID_IDEMPOTENCY_KEY("Invalid Idempotency-Key header, the maximum length is"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_045
+	 */
+	AVAILABILITY_SYNC_RUNNING("Availability sync already running, please retry later"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_046
+	 */
+	AVAILABILITY_SYNC_CONFLICT("Slots booked or changed during the availability sync, not deleted:"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_047
+	 */
+	IDEMPOTENCY_KEY_REUSED("Idempotency-Key already used with another request"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_048
+	 */
+	IDEMPOTENT_REQUEST_RUNNING("Request of the Idempotency-Key still running, please retry later"),
+	/**
+	 * ErrorMessage for PRG_BOOK_RCI_049
+	 */
+	APPLICATION_STATUS_NOT_FOUND_FOR_USER("Application status not found for the logged in user");
 	/**
 	 * @param code
 	 */
@@ -0,0 +1,32 @@
+package io.mosip.preregistration.booking.exception;
+
+import io.mosip.kernel.core.exception.BaseUncheckedException;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import lombok.Getter;
+
+/**
+ * This exception is thrown when an Idempotency-Key is sent again with another
+ * request than the one it was first used with.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+public class IdempotencyKeyReusedException extends BaseUncheckedException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 2731470264519408863L;
+	private MainResponseDTO<?> mainResponseDTO;
+
+	public IdempotencyKeyReusedException(String errorCode, String errorMessage) {
+		super(errorCode, errorMessage, null);
+	}
+
+	public IdempotencyKeyReusedException(String errorCode, String errorMessage, MainResponseDTO<?> response) {
+		super(errorCode, errorMessage, null);
+		this.mainResponseDTO = response;
+	}
+}
@@ -0,0 +1,32 @@
+package io.mosip.preregistration.booking.exception;
+
+import io.mosip.kernel.core.exception.BaseUncheckedException;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import lombok.Getter;
+
+/**
+ * This exception is thrown when the first attempt of a request with the same
+ * Idempotency-Key is still running after the wait of its retry.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+public class IdempotentRequestRunningException extends BaseUncheckedException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -6057417180323986412L;
+	private MainResponseDTO<?> mainResponseDTO;
+
+	public IdempotentRequestRunningException(String errorCode, String errorMessage) {
+		super(errorCode, errorMessage, null);
+	}
+
+	public IdempotentRequestRunningException(String errorCode, String errorMessage, MainResponseDTO<?> response) {
+		super(errorCode, errorMessage, null);
+		this.mainResponseDTO = response;
+	}
+}
@@ -0,0 +1,38 @@
+package io.mosip.preregistration.booking.exception;
+
+import io.mosip.kernel.core.exception.BaseUncheckedException;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import lombok.Getter;
+
+/**
+ * This exception is thrown when a booking request is not admitted because the
+ * booking service is at its concurrency limit.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Getter
+public class TooManyBookingRequestsException extends BaseUncheckedException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 4125841306215748210L;
+	private MainResponseDTO<?> mainResponseDTO;
+
+	/** Seconds after which the request may be retried. */
+	private final long retryAfterSeconds;
+
+	public TooManyBookingRequestsException(String errorCode, String errorMessage, long retryAfterSeconds) {
+		super(errorCode, errorMessage, null);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public TooManyBookingRequestsException(String errorCode, String errorMessage, long retryAfterSeconds,
+			MainResponseDTO<?> response) {
+		super(errorCode, errorMessage, null);
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.mainResponseDTO = response;
+	}
+}
@@ -18,6 +18,7 @@ import javax.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -54,11 +55,14 @@ import io.mosip.preregistration.booking.exception.CancelAppointmentFailedExcepti
 import io.mosip.preregistration.booking.exception.DemographicGetStatusException;
 import io.mosip.preregistration.booking.exception.DemographicStatusUpdationException;
 import io.mosip.preregistration.booking.exception.DocumentNotFoundException;
+import io.mosip.preregistration.booking.exception.IdempotencyKeyReusedException;
+import io.mosip.preregistration.booking.exception.IdempotentRequestRunningException;
 import io.mosip.preregistration.booking.exception.InvalidDateTimeFormatException;
 import io.mosip.preregistration.booking.exception.JsonException;
 import io.mosip.preregistration.booking.exception.OperationNotAllowedException;
 import io.mosip.preregistration.booking.exception.RecordNotFoundException;
 import io.mosip.preregistration.booking.exception.TimeSpanException;
+import io.mosip.preregistration.booking.exception.TooManyBookingRequestsException;
 import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
 import io.mosip.preregistration.core.common.dto.MainResponseDTO;
 import io.mosip.preregistration.core.common.dto.ResponseWrapper;
@@ -387,6 +391,61 @@ public class BookingExceptionHandler {
 
 	}
 
+	/**
+	 * @param e
+	 * @return error response with status 429 and the Retry-After header
+	 */
+	@ExceptionHandler(TooManyBookingRequestsException.class)
+	public ResponseEntity<MainResponseDTO<?>> tooManyBookingRequests(final TooManyBookingRequestsException e) {
+		ExceptionJSONInfoDTO errorDetails = new ExceptionJSONInfoDTO(e.getErrorCode(), e.getErrorText());
+		MainResponseDTO<?> errorRes = new MainResponseDTO<>();
+		List<ExceptionJSONInfoDTO> errorList = new ArrayList<>();
+		errorList.add(errorDetails);
+		errorRes.setErrors(errorList);
+		errorRes.setId(idUrl);
+		errorRes.setVersion(versionUrl);
+		errorRes.setResponsetime(DateUtils.formatDate(new Date(), utcDateTimePattern));
+
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).body(errorRes);
+	}
+
+	/**
+	 * @param e
+	 * @return error response with status 422
+	 */
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<MainResponseDTO<?>> idempotencyKeyReused(final IdempotencyKeyReusedException e) {
+		ExceptionJSONInfoDTO errorDetails = new ExceptionJSONInfoDTO(e.getErrorCode(), e.getErrorText());
+		MainResponseDTO<?> errorRes = new MainResponseDTO<>();
+		List<ExceptionJSONInfoDTO> errorList = new ArrayList<>();
+		errorList.add(errorDetails);
+		errorRes.setErrors(errorList);
+		errorRes.setId(idUrl);
+		errorRes.setVersion(versionUrl);
+		errorRes.setResponsetime(DateUtils.formatDate(new Date(), utcDateTimePattern));
+
+		return new ResponseEntity<>(errorRes, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	/**
+	 * @param e
+	 * @return error response with status 409
+	 */
+	@ExceptionHandler(IdempotentRequestRunningException.class)
+	public ResponseEntity<MainResponseDTO<?>> idempotentRequestRunning(final IdempotentRequestRunningException e) {
+		ExceptionJSONInfoDTO errorDetails = new ExceptionJSONInfoDTO(e.getErrorCode(), e.getErrorText());
+		MainResponseDTO<?> errorRes = new MainResponseDTO<>();
+		List<ExceptionJSONInfoDTO> errorList = new ArrayList<>();
+		errorList.add(errorDetails);
+		errorRes.setErrors(errorList);
+		errorRes.setId(idUrl);
+		errorRes.setVersion(versionUrl);
+		errorRes.setResponsetime(DateUtils.formatDate(new Date(), utcDateTimePattern));
+
+		return new ResponseEntity<>(errorRes, HttpStatus.CONFLICT);
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ResponseWrapper<ServiceError>> methodArgumentNotValidException(
 			final HttpServletRequest httpServletRequest, final MethodArgumentNotValidException e) throws IOException {
@@ -0,0 +1,25 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+
+/**
+ * This repository interface is used to define the JPA methods of the
+ * availability fingerprints of the registration centers.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Repository("availabilityFingerprintRepository")
+@Transactional
+public interface AvailabilityFingerprintRepository extends BaseRepository<AvailabilityFingerprintEntity, String> {
+
+}
@@ -6,6 +6,7 @@ package io.mosip.preregistration.booking.repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 import javax.transaction.Transactional;
@@ -13,10 +14,14 @@ import javax.persistence.LockModeType;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.dto.DateSummaryDto;
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
 import io.mosip.preregistration.booking.entity.AvailibityEntity;
 
 /**
@@ -31,6 +36,108 @@ import io.mosip.preregistration.booking.entity.AvailibityEntity;
 @Repository("bookingAvailabilityRepository")
 @Transactional
 public interface BookingAvailabilityRepository extends BaseRepository<AvailibityEntity, String> {
+
+	public static final String reserveKioskQuery = "UPDATE AvailibityEntity e SET e.availableKiosks = e.availableKiosks - 1 WHERE e.regDate = ?1 and e.regcntrId = ?2 and e.fromTime = ?3 and e.toTime = ?4 and e.availableKiosks > 0";
+	public static final String releaseKioskQuery = "UPDATE AvailibityEntity e SET e.availableKiosks = e.availableKiosks + 1 WHERE e.regDate = ?1 and e.regcntrId = ?2 and e.fromTime = ?3 and e.toTime = ?4";
+	public static final String reserveKiosksQuery = "UPDATE AvailibityEntity e SET e.availableKiosks = e.availableKiosks - ?5 WHERE e.regDate = ?1 and e.regcntrId = ?2 and e.fromTime = ?3 and e.toTime = ?4 and e.availableKiosks >= ?5";
+	public static final String releaseKiosksQuery = "UPDATE AvailibityEntity e SET e.availableKiosks = e.availableKiosks + ?5 WHERE e.regDate = ?1 and e.regcntrId = ?2 and e.fromTime = ?3 and e.toTime = ?4";
+	public static final String availabilitySummaryQuery = "SELECT new io.mosip.preregistration.booking.dto.DateSummaryDto(e.regDate, count(e), sum(e.availableKiosks), sum(case when e.availableKiosks > 0 then 1 else 0 end)) FROM AvailibityEntity e WHERE e.regcntrId = ?1 and e.regDate >= ?2 and e.regDate <= ?3 GROUP BY e.regDate ORDER BY e.regDate";
+	public static final String nextOpenSlotsQuery = "SELECT new io.mosip.preregistration.booking.dto.OpenSlotDto(e.regcntrId, e.regDate, e.fromTime, e.toTime, e.availableKiosks) FROM AvailibityEntity e WHERE e.regcntrId in ?1 and e.availableKiosks > 0 and e.regDate = (SELECT min(a.regDate) FROM AvailibityEntity a WHERE a.regcntrId = e.regcntrId and a.regDate >= ?2 and a.availableKiosks > 0) ORDER BY e.regcntrId, e.fromTime";
+	public static final String deleteDateSlotsQuery = "DELETE FROM prereg.reg_available_slot s WHERE s.regcntr_id = ?1 AND s.availability_date = ?2 AND NOT EXISTS (SELECT 1 FROM prereg.reg_appointment b WHERE b.regcntr_id = s.regcntr_id AND b.appointment_date = s.availability_date AND b.slot_from_time = s.slot_from_time AND b.slot_to_time = s.slot_to_time)";
+	public static final String slotAvailabilityQuery = "SELECT new io.mosip.preregistration.booking.dto.SlotAvailabilityDto(e.regDate, e.fromTime, e.toTime, e.availableKiosks) FROM AvailibityEntity e WHERE e.regcntrId = ?1 and e.regDate >= ?2 and e.regDate <= ?3 ORDER BY e.regDate, e.fromTime";
+
+	/**
+	 * Reserves one kiosk of the slot with a single guarded update.
+	 * 
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return 1 if a kiosk was reserved, 0 if the slot is full or not found
+	 */
+	@Modifying
+	@Query(reserveKioskQuery)
+	public int reserveKiosk(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime);
+
+	/**
+	 * Releases one kiosk of the slot.
+	 * 
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return 1 if the kiosk was released, 0 if the slot is not found
+	 */
+	@Modifying
+	@Query(releaseKioskQuery)
+	public int releaseKiosk(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime);
+
+	/**
+	 * Reserves several kiosks of the slot with a single guarded update, only if
+	 * all of them are available.
+	 * 
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return number of updated rows
+	 */
+	@Modifying
+	@Query(reserveKiosksQuery)
+	public int reserveKiosks(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks);
+
+	/**
+	 * Releases several kiosks of the slot. The update has no guard, so a negative
+	 * number of kiosks takes them away.
+	 * 
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return number of updated rows
+	 */
+	@Modifying
+	@Query(releaseKiosksQuery)
+	public int releaseKiosks(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks);
+
+	/**
+	 * Returns the slots of the center between the dates as read only projections
+	 * ordered by date and slot time.
+	 * 
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of SlotAvailabilityDto
+	 */
+	@Query(slotAvailabilityQuery)
+	public List<SlotAvailabilityDto> findSlotAvailability(String regcntrId, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Returns the per day totals of the slots of the center between the dates,
+	 * aggregated by the database, ordered by date.
+	 * 
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of DateSummaryDto
+	 */
+	@Query(availabilitySummaryQuery)
+	public List<DateSummaryDto> findAvailabilitySummary(String regcntrId, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Returns the open slots of the first day with an open slot, on or after the
+	 * date, of each of the centers, ordered by center and slot time.
+	 * 
+	 * @param regcntrIds
+	 * @param fromDate
+	 * @return List of OpenSlotDto
+	 */
+	@Query(nextOpenSlotsQuery)
+	public List<OpenSlotDto> findNextOpenSlots(Collection<String> regcntrIds, LocalDate fromDate);
 	
 
 	/**
@@ -131,8 +238,11 @@ public interface BookingAvailabilityRepository extends BaseRepository<Availibity
 	 * 
 	 * @param regDate
 	 * @param regcntrId
-	 * @return deleted number of slots
+	 * @return deleted number of slots, deleted with one statement; booked slots
+	 *         are kept
 	 */
+	@Modifying
+	@Query(value = deleteDateSlotsQuery, nativeQuery = true)
 	public int deleteByRegcntrIdAndRegDate( String regcntrId ,LocalDate regDate);
 	
 	/**
@@ -0,0 +1,56 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+
+/**
+ * This repository interface is used to define the JPA methods of the booking
+ * change log.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Repository("bookingChangeRepository")
+@Transactional
+public interface BookingChangeRepository extends BaseRepository<BookingChangeEntity, Long> {
+
+	public static final String latestCommitSeqQuery = "SELECT max(c.commitSeq) FROM BookingChangeEntity c";
+
+	public static final String unsequencedQuery = "SELECT c FROM BookingChangeEntity c WHERE c.commitSeq IS NULL ORDER BY c.changeId";
+
+	/**
+	 * @param regcntrId
+	 * @param commitSeq
+	 * @param pageable
+	 * @return the changes of the registration center after the commit sequence,
+	 *         in commit sequence order
+	 */
+	public List<BookingChangeEntity> findByRegcntrIdAndCommitSeqGreaterThanOrderByCommitSeqAsc(String regcntrId,
+			Long commitSeq, Pageable pageable);
+
+	/**
+	 * @return the latest commit sequence, or null
+	 */
+	@Query(latestCommitSeqQuery)
+	public Long findLatestCommitSeq();
+
+	/**
+	 * @param pageable
+	 * @return the committed changes not sequenced yet, in change id order
+	 */
+	@Query(unsequencedQuery)
+	public List<BookingChangeEntity> findUnsequenced(Pageable pageable);
+
+}
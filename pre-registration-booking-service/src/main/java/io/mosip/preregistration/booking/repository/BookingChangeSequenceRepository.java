@@ -0,0 +1,39 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.repository;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.entity.BookingChangeSequenceEntity;
+
+/**
+ * This repository interface is used to define the JPA methods of the sequence
+ * of the booking change log.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Repository("bookingChangeSequenceRepository")
+@Transactional
+public interface BookingChangeSequenceRepository extends BaseRepository<BookingChangeSequenceEntity, String> {
+
+	public static final String lockBySeqNameQuery = "SELECT s FROM BookingChangeSequenceEntity s WHERE s.seqName = ?1";
+
+	/**
+	 * @param seqName
+	 * @return the sequence, locked until the end of the transaction, or null
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query(lockBySeqNameQuery)
+	public BookingChangeSequenceEntity lockBySeqName(String seqName);
+
+}
@@ -5,15 +5,27 @@
 package io.mosip.preregistration.booking.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.dto.BookedAppointmentDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
 import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
 
 /**
@@ -31,8 +43,17 @@ import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
 public interface RegistrationBookingRepository extends BaseRepository<RegistrationBookingEntity, String> {
 
 	public static final String preIdQuery = "SELECT u FROM RegistrationBookingEntity u WHERE u.preregistrationId = ?1";
+	public static final String preIdsQuery = "SELECT u FROM RegistrationBookingEntity u WHERE u.preregistrationId in ?1";
 	public static final String deletePreIdQuery = "delete from RegistrationBookingEntity u where u.preregistrationId = ?1";
 	public static final String getPreIdQuery = "select u from RegistrationBookingEntity u where u.registrationCenterId=?3 and u.regDate between ?1 and ?2";
+	public static final String bookedAppointmentsQuery = "select new io.mosip.preregistration.booking.dto.BookedAppointmentDto(u.preregistrationId, u.regDate, u.slotFromTime, u.slotToTime) from RegistrationBookingEntity u where u.registrationCenterId = ?3 and u.regDate between ?1 and ?2 order by u.regDate, u.slotFromTime";
+	public static final String bookedAppointmentsFetchSize = "500";
+	public static final String bookingPageQuery = "select u from RegistrationBookingEntity u where u.registrationCenterId = ?3 and u.regDate between ?1 and ?2 order by u.regDate, u.slotFromTime, u.preregistrationId";
+	public static final String bookingPageAfterQuery = "select u from RegistrationBookingEntity u where u.registrationCenterId = ?3 and u.regDate between ?1 and ?2 and (u.regDate > ?4 or (u.regDate = ?4 and (u.slotFromTime > ?5 or (u.slotFromTime = ?5 and u.preregistrationId > ?6)))) order by u.regDate, u.slotFromTime, u.preregistrationId";
+	public static final String bookedKiosksQuery = "select new io.mosip.preregistration.booking.dto.SlotCountDto(u.registrationCenterId, u.regDate, u.slotFromTime, u.slotToTime, count(u)) from RegistrationBookingEntity u where u.registrationCenterId = ?1 and u.regDate between ?2 and ?3 group by u.registrationCenterId, u.regDate, u.slotFromTime, u.slotToTime";
+	public static final String moveBookingQuery = "update RegistrationBookingEntity u set u.registrationCenterId = ?2, u.regDate = ?3, u.slotFromTime = ?4, u.slotToTime = ?5, u.bookingDateTime = ?6, u.upBy = ?7, u.updDate = ?6 where u.preregistrationId = ?1";
+	public static final String moveBookingsQuery = "update RegistrationBookingEntity u set u.registrationCenterId = ?2, u.regDate = ?3, u.slotFromTime = ?4, u.slotToTime = ?5, u.bookingDateTime = ?6, u.upBy = ?7, u.updDate = ?6 where u.preregistrationId in ?1";
+	public static final String deletePreIdsQuery = "delete from RegistrationBookingEntity u where u.preregistrationId in ?1";
 
 	@Query(preIdQuery)
 	RegistrationBookingEntity getDemographicEntityPreRegistrationId(@Param("preRegId") String preRegId);
@@ -48,11 +69,70 @@ public interface RegistrationBookingRepository extends BaseRepository<Registrati
 	@Query(preIdQuery)
 	public List<RegistrationBookingEntity> findByDemographicEntityPreRegistrationId(String preId);
 
+	/**
+	 * @param preIds
+	 * @return the bookings of the pre registration ids, with one query
+	 */
+	@Query(preIdsQuery)
+	public List<RegistrationBookingEntity> findByPreRegistrationIds(Collection<String> preIds);
+
+	/**
+	 * @param preIds
+	 * @return the bookings of the pre registration ids, locked for update until
+	 *         the transaction completes
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query(preIdsQuery)
+	public List<RegistrationBookingEntity> lockByPreRegistrationIds(Collection<String> preIds);
+
 	@Transactional
 	@Modifying
 	@Query(deletePreIdQuery)
 	public int deleteByDemographicEntityPreRegistrationId(String preregistrationId);
 
+	/**
+	 * Moves the booking of the pre registration to another slot in place.
+	 * 
+	 * @param preregistrationId
+	 * @param registrationCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param bookingDateTime
+	 * @param updatedBy
+	 * @return number of updated rows
+	 */
+	@Modifying
+	@Query(moveBookingQuery)
+	public int moveBooking(String preregistrationId, String registrationCenterId, LocalDate regDate,
+			LocalTime slotFromTime, LocalTime slotToTime, LocalDateTime bookingDateTime, String updatedBy);
+
+	/**
+	 * Moves the bookings of the pre registrations to the same slot with one
+	 * update.
+	 * 
+	 * @param preregistrationIds
+	 * @param registrationCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param bookingDateTime
+	 * @param updatedBy
+	 * @return number of updated rows
+	 */
+	@Modifying
+	@Query(moveBookingsQuery)
+	public int moveBookings(Collection<String> preregistrationIds, String registrationCenterId, LocalDate regDate,
+			LocalTime slotFromTime, LocalTime slotToTime, LocalDateTime bookingDateTime, String updatedBy);
+
+	/**
+	 * @param preregistrationIds
+	 * @return number of deleted rows
+	 */
+	@Modifying
+	@Query(deletePreIdsQuery)
+	public int deleteByPreRegistrationIds(Collection<String> preregistrationIds);
+
 	/**
 	 * @param start
 	 *            pass startTime
@@ -64,6 +144,65 @@ public interface RegistrationBookingRepository extends BaseRepository<Registrati
 	public List<RegistrationBookingEntity> findByRegDateBetweenAndRegistrationCenterId(LocalDate start, LocalDate end,
 			String regCenterId);
 
+	/**
+	 * @param start
+	 *            pass startTime
+	 * @param end
+	 *            pass endTime
+	 * @param regCenterId
+	 * @param pageable
+	 * @return the first page of bookings between start and end date, ordered by
+	 *         date, slot and pre registration id
+	 */
+	@Query(bookingPageQuery)
+	public List<RegistrationBookingEntity> findBookingPage(LocalDate start, LocalDate end, String regCenterId,
+			Pageable pageable);
+
+	/**
+	 * @param start
+	 *            pass startTime
+	 * @param end
+	 *            pass endTime
+	 * @param regCenterId
+	 * @param afterDate
+	 * @param afterFromTime
+	 * @param afterPreId
+	 * @param pageable
+	 * @return the page of bookings between start and end date seeking past the
+	 *         last booking of the previous page, ordered by date, slot and pre
+	 *         registration id
+	 */
+	@Query(bookingPageAfterQuery)
+	public List<RegistrationBookingEntity> findBookingPageAfter(LocalDate start, LocalDate end, String regCenterId,
+			LocalDate afterDate, LocalTime afterFromTime, String afterPreId, Pageable pageable);
+
+	/**
+	 * Streams the bookings of the registration center between start and end
+	 * date as projections, fetching bookedAppointmentsFetchSize rows per round
+	 * trip. Must be consumed and closed inside a transaction.
+	 * 
+	 * @param start
+	 *            pass startTime
+	 * @param end
+	 *            pass endTime
+	 * @param regCenterId
+	 * @return stream of booked appointments ordered by date and slot
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = bookedAppointmentsFetchSize))
+	@Query(bookedAppointmentsQuery)
+	public Stream<BookedAppointmentDto> streamBookedAppointments(LocalDate start, LocalDate end, String regCenterId);
+
+	/**
+	 * Counts the bookings of each slot of the center between the dates.
+	 * 
+	 * @param regCenterId
+	 * @param start
+	 * @param end
+	 * @return List of SlotCountDto
+	 */
+	@Query(bookedKiosksQuery)
+	public List<SlotCountDto> findBookedKiosks(String regCenterId, LocalDate start, LocalDate end);
+
 	public List<RegistrationBookingEntity> findByRegistrationCenterIdAndRegDate(String registrationCenterId,
 			LocalDate regDate);
 
@@ -0,0 +1,87 @@
+/* 
+ * Copyright
+ * 
+ */
+package io.mosip.preregistration.booking.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.SlotHoldEntity;
+
+/**
+ * This repository interface is used to define the JPA methods of the temporary
+ * slot holds.
+ * 
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Repository("slotHoldRepository")
+@Transactional
+public interface SlotHoldRepository extends BaseRepository<SlotHoldEntity, String> {
+
+	public static final String deleteHoldQuery = "DELETE FROM SlotHoldEntity h WHERE h.preregistrationId = ?1";
+	public static final String heldKiosksQuery = "SELECT new io.mosip.preregistration.booking.dto.SlotCountDto(h.regcntrId, h.regDate, h.fromTime, h.toTime, count(h)) FROM SlotHoldEntity h WHERE h.regcntrId = ?1 and h.regDate between ?2 and ?3 GROUP BY h.regcntrId, h.regDate, h.fromTime, h.toTime";
+	public static final String deleteExpiredHoldsQuery = "DELETE FROM SlotHoldEntity h WHERE h.regcntrId = ?1 and h.regDate = ?2 and h.fromTime = ?3 and h.toTime = ?4 and h.expiresAt < ?5";
+
+	/**
+	 * @param preregistrationId
+	 * @return the hold of the pre registration, or null
+	 */
+	public SlotHoldEntity findByPreregistrationId(String preregistrationId);
+
+	/**
+	 * @param expiresAt
+	 * @return holds that expired before the given time
+	 */
+	public List<SlotHoldEntity> findByExpiresAtBefore(LocalDateTime expiresAt);
+
+	/**
+	 * Counts the holds of each slot of the center between the dates, expired or
+	 * not, as their kiosks stay reserved until they are swept.
+	 * 
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of SlotCountDto
+	 */
+	@Query(heldKiosksQuery)
+	public List<SlotCountDto> findHeldKiosks(String regcntrId, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Deletes the hold of the pre registration. Only the caller deleting the
+	 * row owns the held kiosk.
+	 * 
+	 * @param preregistrationId
+	 * @return number of deleted rows
+	 */
+	@Modifying
+	@Query(deleteHoldQuery)
+	public int deleteHold(String preregistrationId);
+
+	/**
+	 * Deletes the holds of the slot that expired before the given time.
+	 * 
+	 * @param regcntrId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param expiresAt
+	 * @return number of deleted rows
+	 */
+	@Modifying
+	@Query(deleteExpiredHoldsQuery)
+	public int deleteExpiredHolds(String regcntrId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			LocalDateTime expiresAt);
+
+}
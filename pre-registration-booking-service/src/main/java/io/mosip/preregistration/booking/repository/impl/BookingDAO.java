@@ -4,32 +4,64 @@
  */
 package io.mosip.preregistration.booking.repository.impl;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import io.mosip.kernel.core.dataaccess.exception.DataAccessLayerException;
+import io.mosip.preregistration.booking.dto.BookedAppointmentDto;
+import io.mosip.preregistration.booking.dto.BookingCursor;
+import io.mosip.preregistration.booking.dto.DateSummaryDto;
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
 import io.mosip.preregistration.booking.dto.SlotTimeDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
 import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeSequenceEntity;
+import io.mosip.preregistration.booking.entity.SlotHoldEntity;
 import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
 import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
 import io.mosip.preregistration.booking.exception.AvailabilityUpdationFailedException;
 import io.mosip.preregistration.booking.exception.AvailablityNotFoundException;
 import io.mosip.preregistration.booking.exception.BookingDataNotFoundException;
 import io.mosip.preregistration.booking.exception.RecordNotFoundException;
+import io.mosip.preregistration.booking.repository.AvailabilityFingerprintRepository;
 import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository;
+import io.mosip.preregistration.booking.repository.BookingChangeRepository;
+import io.mosip.preregistration.booking.repository.BookingChangeSequenceRepository;
 import io.mosip.preregistration.booking.repository.DemographicRepository;
 import io.mosip.preregistration.booking.repository.RegistrationBookingRepository;
+import io.mosip.preregistration.booking.repository.SlotHoldRepository;
 import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
 import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
 import io.mosip.preregistration.core.exception.RecordFailedToDeleteException;
@@ -60,6 +92,51 @@ public class BookingDAO {
 	@Qualifier("demographicRepository")
 	private DemographicRepository demographicRepository;
 
+	/** Autowired reference for {@link #bookingChangeRepository}. */
+	@Autowired
+	@Qualifier("bookingChangeRepository")
+	private BookingChangeRepository bookingChangeRepository;
+
+	/** Autowired reference for {@link #bookingChangeSequenceRepository}. */
+	@Autowired
+	@Qualifier("bookingChangeSequenceRepository")
+	private BookingChangeSequenceRepository bookingChangeSequenceRepository;
+
+	/** Autowired reference for {@link #slotHoldRepository}. */
+	@Autowired
+	@Qualifier("slotHoldRepository")
+	private SlotHoldRepository slotHoldRepository;
+
+	/** Autowired reference for {@link #availabilityFingerprintRepository}. */
+	@Autowired
+	@Qualifier("availabilityFingerprintRepository")
+	private AvailabilityFingerprintRepository availabilityFingerprintRepository;
+
+	/**
+	 * Reference for ${preregistration.booking.availability.overfetch.days} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.availability.overfetch.days:7}")
+	private long overFetchDays;
+
+	/**
+	 * Reference for ${preregistration.booking.jdbc.batch.size} from property file
+	 */
+	@Value("${preregistration.booking.jdbc.batch.size:50}")
+	private int jdbcBatchSize;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private static final String DELETE_SLOT_SQL = "DELETE FROM prereg.reg_available_slot s WHERE s.regcntr_id = ? AND s.availability_date = ? AND s.slot_from_time = ? AND s.available_kiosks = ? AND NOT EXISTS (SELECT 1 FROM prereg.reg_appointment b WHERE b.regcntr_id = s.regcntr_id AND b.appointment_date = s.availability_date AND b.slot_from_time = s.slot_from_time AND b.slot_to_time = s.slot_to_time)";
+
+	private static final String UPDATE_SLOT_SQL = "UPDATE prereg.reg_available_slot SET slot_to_time = ?, available_kiosks = available_kiosks + ?, upd_by = ?, upd_dtimes = ? WHERE regcntr_id = ? AND availability_date = ? AND slot_from_time = ?";
+
+	private static final String INSERT_SLOT_SQL = "INSERT INTO prereg.reg_available_slot (regcntr_id, availability_date, slot_from_time, slot_to_time, available_kiosks, cr_by, cr_dtimes, is_deleted) VALUES (?, ?, ?, ?, ?, ?, ?, false)";
+
+	/** Name of the sequence row of the booking change log. */
+	private static final String COMMIT_SEQUENCE = "commit_seq";
+
 	/**
 	 * @param Registration center id
 	 * @param Registration date
@@ -198,6 +275,392 @@ public class BookingDAO {
 		return entity;
 	}
 
+	/**
+	 * This method finds the bookings of several pre registration ids with one
+	 * query. Ids without booking are left out.
+	 *
+	 * @param preregistrationIds
+	 * @return List of RegistrationBookingEntity
+	 */
+	public List<RegistrationBookingEntity> findByPreRegistrationIds(Collection<String> preregistrationIds) {
+		try {
+			return registrationBookingRepository.findByPreRegistrationIds(preregistrationIds);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method finds the existing booking of the pre registration id, if any.
+	 *
+	 * @param preregistrationId
+	 * @return RegistrationBookingEntity or null when not booked.
+	 */
+	public RegistrationBookingEntity findBookingIfPresent(String preregistrationId) {
+		try {
+			return registrationBookingRepository.getDemographicEntityPreRegistrationId(preregistrationId);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method reserves one kiosk of the slot, only if a kiosk is available.
+	 *
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return true if a kiosk was reserved
+	 */
+	public boolean reserveKiosk(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime) {
+		try {
+			return bookingAvailabilityRepository.reserveKiosk(regDate, regcntrId, slotFromTime, slotToTime) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method releases one kiosk of the slot.
+	 *
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return true if the kiosk was released
+	 */
+	public boolean releaseKiosk(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime) {
+		try {
+			return bookingAvailabilityRepository.releaseKiosk(regDate, regcntrId, slotFromTime, slotToTime) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method reserves several kiosks of the slot in one update, only if all
+	 * of them are available.
+	 *
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return true if the kiosks were reserved
+	 */
+	public boolean reserveKiosks(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		try {
+			return bookingAvailabilityRepository.reserveKiosks(regDate, regcntrId, slotFromTime, slotToTime,
+					kiosks) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method releases several kiosks of the slot in one update.
+	 *
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return true if the kiosks were released
+	 */
+	public boolean releaseKiosks(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		try {
+			return bookingAvailabilityRepository.releaseKiosks(regDate, regcntrId, slotFromTime, slotToTime,
+					kiosks) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method writes the kiosk changes of several slots in one transaction,
+	 * without guard.
+	 *
+	 * @param kioskChanges
+	 *            kiosks to add to each slot, negative to remove
+	 */
+	@Transactional
+	public void adjustKiosks(List<SlotCountDto> kioskChanges) {
+		try {
+			for (SlotCountDto kioskChange : kioskChanges) {
+				bookingAvailabilityRepository.releaseKiosks(kioskChange.getRegDate(), kioskChange.getRegcntrId(),
+						kioskChange.getFromTime(), kioskChange.getToTime(), (int) kioskChange.getCount());
+			}
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method writes the slot changes of an availability sync in one
+	 * transaction, sending each kind of change to the database in JDBC batches of
+	 * ${preregistration.booking.jdbc.batch.size}. The removed slots are deleted
+	 * first, so that a slot can be replaced by one with the same start time; a
+	 * slot is deleted only while it has no booking and its available kiosks are
+	 * still those read by the sync, otherwise nothing else is written. An update
+	 * sets the end time of the slot and adds its count to the available kiosks,
+	 * so that the bookings made meanwhile are kept.
+	 *
+	 * @param deletedSlots
+	 *            slots as read by the sync
+	 * @param updatedSlots
+	 *            new end time and kiosks to add of each slot
+	 * @param insertedSlots
+	 * @param user
+	 *            user recorded as creator or updater
+	 * @return number of slots not deleted, as booked or changed meanwhile
+	 */
+	@Transactional
+	public int applyAvailabilityChanges(List<AvailibityEntity> deletedSlots, List<SlotCountDto> updatedSlots,
+			List<AvailibityEntity> insertedSlots, String user) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		try {
+			return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+				try (PreparedStatement delete = connection.prepareStatement(DELETE_SLOT_SQL)) {
+					int deleted = executeBatches(delete, deletedSlots, (statement, slot) -> {
+						statement.setString(1, slot.getRegcntrId());
+						statement.setDate(2, Date.valueOf(slot.getRegDate()));
+						statement.setTime(3, Time.valueOf(slot.getFromTime()));
+						statement.setInt(4, slot.getAvailableKiosks());
+					});
+					if (deleted < deletedSlots.size()) {
+						return deletedSlots.size() - deleted;
+					}
+				}
+				try (PreparedStatement update = connection.prepareStatement(UPDATE_SLOT_SQL)) {
+					executeBatches(update, updatedSlots, (statement, slot) -> {
+						statement.setTime(1, Time.valueOf(slot.getToTime()));
+						statement.setInt(2, (int) slot.getCount());
+						statement.setString(3, user);
+						statement.setTimestamp(4, now);
+						statement.setString(5, slot.getRegcntrId());
+						statement.setDate(6, Date.valueOf(slot.getRegDate()));
+						statement.setTime(7, Time.valueOf(slot.getFromTime()));
+					});
+				}
+				try (PreparedStatement insert = connection.prepareStatement(INSERT_SLOT_SQL)) {
+					executeBatches(insert, insertedSlots, (statement, slot) -> {
+						statement.setString(1, slot.getRegcntrId());
+						statement.setDate(2, Date.valueOf(slot.getRegDate()));
+						statement.setTime(3, Time.valueOf(slot.getFromTime()));
+						statement.setTime(4, Time.valueOf(slot.getToTime()));
+						statement.setInt(5, slot.getAvailableKiosks());
+						statement.setString(6, user);
+						statement.setTimestamp(7, now);
+					});
+				}
+				return 0;
+			});
+		} catch (PersistenceException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	@FunctionalInterface
+	private interface StatementSetter<T> {
+		void set(PreparedStatement statement, T row) throws SQLException;
+	}
+
+	/** @return number of rows changed, a row whose count is not known as one */
+	private <T> int executeBatches(PreparedStatement statement, List<T> rows, StatementSetter<T> setter)
+			throws SQLException {
+		int batched = 0;
+		int changed = 0;
+		for (T row : rows) {
+			setter.set(statement, row);
+			statement.addBatch();
+			if (++batched % jdbcBatchSize == 0) {
+				changed += changedRows(statement.executeBatch());
+			}
+		}
+		if (batched % jdbcBatchSize != 0) {
+			changed += changedRows(statement.executeBatch());
+		}
+		return changed;
+	}
+
+	private static int changedRows(int[] counts) {
+		int changed = 0;
+		for (int count : counts) {
+			changed += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+		}
+		return changed;
+	}
+
+	/**
+	 * This method counts the bookings and the holds of each slot of the center
+	 * between the dates, the kiosks taken from the slots.
+	 *
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of SlotCountDto, bookings and holds of a slot as separate
+	 *         entries
+	 */
+	public List<SlotCountDto> findTakenKiosks(String regcntrId, LocalDate startDate, LocalDate endDate) {
+		try {
+			List<SlotCountDto> takenKiosks = new ArrayList<>(
+					registrationBookingRepository.findBookedKiosks(regcntrId, startDate, endDate));
+			takenKiosks.addAll(slotHoldRepository.findHeldKiosks(regcntrId, startDate, endDate));
+			return takenKiosks;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method moves one kiosk from the slot of an existing booking to a new
+	 * slot, only if a kiosk of the new slot is available. The two rows are
+	 * updated in registration center, date and start time order, whichever slot
+	 * is the old one, so that concurrent moves between the same two slots in
+	 * opposite directions cannot deadlock on the rows. This row order is separate
+	 * from the order of the slot locks, which are taken by stripe index.
+	 *
+	 * @param regDate
+	 * @param regcntrId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param newRegDate
+	 * @param newRegcntrId
+	 * @param newSlotFromTime
+	 * @param newSlotToTime
+	 */
+	@Transactional
+	public void moveKiosk(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime,
+			LocalDate newRegDate, String newRegcntrId, LocalTime newSlotFromTime, LocalTime newSlotToTime) {
+		int order = regcntrId.compareTo(newRegcntrId);
+		if (order == 0) {
+			order = regDate.compareTo(newRegDate);
+		}
+		if (order == 0) {
+			order = slotFromTime.compareTo(newSlotFromTime);
+		}
+		if (order == 0 && slotToTime.equals(newSlotToTime)) {
+			return;
+		}
+		try {
+			if (order < 0) {
+				releaseOrFail(regDate, regcntrId, slotFromTime, slotToTime);
+				reserveOrFail(newRegDate, newRegcntrId, newSlotFromTime, newSlotToTime);
+			} else {
+				reserveOrFail(newRegDate, newRegcntrId, newSlotFromTime, newSlotToTime);
+				releaseOrFail(regDate, regcntrId, slotFromTime, slotToTime);
+			}
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	private void reserveOrFail(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime) {
+		if (bookingAvailabilityRepository.reserveKiosk(regDate, regcntrId, slotFromTime, slotToTime) == 0) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+		}
+	}
+
+	private void releaseOrFail(LocalDate regDate, String regcntrId, LocalTime slotFromTime, LocalTime slotToTime) {
+		if (bookingAvailabilityRepository.releaseKiosk(regDate, regcntrId, slotFromTime, slotToTime) == 0) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+		}
+	}
+
+	/**
+	 * This method moves the booking of the pre registration to the new slot by
+	 * updating its row in place.
+	 *
+	 * @param preregistrationId
+	 * @param regcntrId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param updatedBy
+	 * @return true if the booking was moved, false if it is not found
+	 */
+	public boolean moveBooking(String preregistrationId, String regcntrId, LocalDate regDate, LocalTime slotFromTime,
+			LocalTime slotToTime, String updatedBy) {
+		try {
+			return registrationBookingRepository.moveBooking(preregistrationId, regcntrId, regDate, slotFromTime,
+					slotToTime, LocalDateTime.now(), updatedBy) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method moves the bookings of the pre registrations to the same slot
+	 * with one update.
+	 *
+	 * @param preregistrationIds
+	 * @param regcntrId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param updatedBy
+	 * @return number of moved bookings
+	 */
+	public int moveBookings(Collection<String> preregistrationIds, String regcntrId, LocalDate regDate,
+			LocalTime slotFromTime, LocalTime slotToTime, String updatedBy) {
+		try {
+			return registrationBookingRepository.moveBookings(preregistrationIds, regcntrId, regDate, slotFromTime,
+					slotToTime, LocalDateTime.now(), updatedBy);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method reads the bookings of the pre registrations and locks them
+	 * until the transaction completes, so that they are not moved or cancelled
+	 * meanwhile.
+	 *
+	 * @param preregistrationIds
+	 * @return the current bookings
+	 */
+	public List<RegistrationBookingEntity> lockBookings(Collection<String> preregistrationIds) {
+		try {
+			return registrationBookingRepository.lockByPreRegistrationIds(preregistrationIds);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method deletes the bookings of the pre registrations with one
+	 * statement.
+	 *
+	 * @param preregistrationIds
+	 * @return number of deleted bookings
+	 */
+	public int deleteBookings(Collection<String> preregistrationIds) {
+		try {
+			return registrationBookingRepository.deleteByPreRegistrationIds(preregistrationIds);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
 	/**
 	 * @param availibityEntity
 	 * @return AvailibityEntity
@@ -232,6 +695,214 @@ public class BookingDAO {
 		return entity;
 	}
 
+	/**
+	 * This method inserts the new bookings with one flush, sending the inserts to
+	 * the database in JDBC batches of ${preregistration.booking.jdbc.batch.size}.
+	 *
+	 * @param bookingEntities
+	 * @return List of RegistrationBookingEntity
+	 */
+	public List<RegistrationBookingEntity> saveRegistrationEntitiesForBooking(
+			List<RegistrationBookingEntity> bookingEntities) {
+		try {
+			Session session = entityManager.unwrap(Session.class);
+			Integer sessionBatchSize = session.getJdbcBatchSize();
+			session.setJdbcBatchSize(jdbcBatchSize);
+			try {
+				for (RegistrationBookingEntity bookingEntity : bookingEntities) {
+					entityManager.persist(bookingEntity);
+				}
+				entityManager.flush();
+			} finally {
+				session.setJdbcBatchSize(sessionBatchSize);
+			}
+		} catch (PersistenceException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+		return bookingEntities;
+	}
+
+	/**
+	 * This method appends the changes to the booking change log.
+	 *
+	 * @param bookingChanges
+	 * @return List of BookingChangeEntity
+	 */
+	public List<BookingChangeEntity> saveBookingChanges(List<BookingChangeEntity> bookingChanges) {
+		try {
+			return bookingChangeRepository.saveAll(bookingChanges);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @return the availability fingerprints of all the registration centers
+	 */
+	public List<AvailabilityFingerprintEntity> findAvailabilityFingerprints() {
+		try {
+			return availabilityFingerprintRepository.findAll();
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param fingerprint
+	 * @return AvailabilityFingerprintEntity
+	 */
+	public AvailabilityFingerprintEntity saveAvailabilityFingerprint(AvailabilityFingerprintEntity fingerprint) {
+		try {
+			return availabilityFingerprintRepository.save(fingerprint);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param regcntrId
+	 * @param afterCommitSeq
+	 * @param limit
+	 * @return at most limit changes of the registration center after the commit
+	 *         sequence, in commit sequence order
+	 */
+	public List<BookingChangeEntity> findBookingChanges(String regcntrId, long afterCommitSeq, int limit) {
+		try {
+			return bookingChangeRepository.findByRegcntrIdAndCommitSeqGreaterThanOrderByCommitSeqAsc(regcntrId,
+					afterCommitSeq, PageRequest.of(0, limit));
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @return the latest commit sequence of the booking changes, 0 if none
+	 */
+	public long findLatestBookingChangeSeq() {
+		try {
+			Long commitSeq = bookingChangeRepository.findLatestCommitSeq();
+			return commitSeq == null ? 0 : commitSeq;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method gives the committed booking changes not sequenced yet their
+	 * commit sequence, in change id order. The sequence row is locked for the
+	 * whole transaction, so a change committed after an earlier stamping always
+	 * gets a sequence above those already handed out, whatever its change id.
+	 *
+	 * @param limit
+	 *            largest number of changes sequenced
+	 * @return number of sequenced changes
+	 */
+	@Transactional
+	public int sequenceBookingChanges(int limit) {
+		try {
+			BookingChangeSequenceEntity sequence = bookingChangeSequenceRepository.lockBySeqName(COMMIT_SEQUENCE);
+			if (sequence == null) {
+				sequence = bookingChangeSequenceRepository.save(new BookingChangeSequenceEntity(COMMIT_SEQUENCE));
+			}
+			List<BookingChangeEntity> bookingChanges = bookingChangeRepository
+					.findUnsequenced(PageRequest.of(0, limit));
+			if (bookingChanges.isEmpty()) {
+				return 0;
+			}
+			long commitSeq = sequence.getLastSeq();
+			for (BookingChangeEntity bookingChange : bookingChanges) {
+				bookingChange.setCommitSeq(++commitSeq);
+			}
+			bookingChangeRepository.saveAll(bookingChanges);
+			sequence.setLastSeq(commitSeq);
+			sequence.setUpdDate(LocalDateTime.now());
+			bookingChangeSequenceRepository.save(sequence);
+			return bookingChanges.size();
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param preregistrationId
+	 * @return the slot hold of the pre registration, or null
+	 */
+	public SlotHoldEntity findSlotHold(String preregistrationId) {
+		try {
+			return slotHoldRepository.findByPreregistrationId(preregistrationId);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param slotHoldEntity
+	 * @return SlotHoldEntity
+	 */
+	public SlotHoldEntity saveSlotHold(SlotHoldEntity slotHoldEntity) {
+		try {
+			return slotHoldRepository.save(slotHoldEntity);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param preregistrationId
+	 * @return true if this call removed the hold
+	 */
+	public boolean deleteSlotHold(String preregistrationId) {
+		try {
+			return slotHoldRepository.deleteHold(preregistrationId) > 0;
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * @param expiredBefore
+	 * @return List of SlotHoldEntity expired before the given time
+	 */
+	public List<SlotHoldEntity> findExpiredSlotHolds(LocalDateTime expiredBefore) {
+		try {
+			return slotHoldRepository.findByExpiresAtBefore(expiredBefore);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method removes the expired holds of the slot in one statement.
+	 *
+	 * @param regcntrId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param expiredBefore
+	 * @return number of removed holds
+	 */
+	public int deleteExpiredSlotHolds(String regcntrId, LocalDate regDate, LocalTime slotFromTime,
+			LocalTime slotToTime, LocalDateTime expiredBefore) {
+		try {
+			return slotHoldRepository.deleteExpiredHolds(regcntrId, regDate, slotFromTime, slotToTime,
+					expiredBefore);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+	}
+
 	/**
 	 * @param regcntrId
 	 * @param regDate
@@ -309,6 +980,65 @@ public class BookingDAO {
 		return listOfPreIds;
 	}
 
+	/**
+	 * This method fetches one page of the bookings of the registration center
+	 * between the dates, seeking past the booking the cursor points to.
+	 * 
+	 * @param fromLocaldate
+	 * @param toLocaldate
+	 * @param regCenterId
+	 * @param cursor
+	 *            last booking of the previous page, null for the first page
+	 * @param limit
+	 * @return at most limit bookings, ordered by date, slot and pre registration
+	 *         id
+	 */
+	public List<RegistrationBookingEntity> findBookingPage(LocalDate fromLocaldate, LocalDate toLocaldate,
+			String regCenterId, BookingCursor cursor, int limit) {
+		try {
+			if (cursor == null) {
+				return registrationBookingRepository.findBookingPage(fromLocaldate, toLocaldate, regCenterId,
+						PageRequest.of(0, limit));
+			}
+			LocalDate start = cursor.getRegDate().isAfter(fromLocaldate) ? cursor.getRegDate() : fromLocaldate;
+			return registrationBookingRepository.findBookingPageAfter(start, toLocaldate, regCenterId,
+					cursor.getRegDate(), cursor.getSlotFromTime(), cursor.getPreRegistrationId(),
+					PageRequest.of(0, limit));
+		} catch (DataAccessLayerException e) {
+			throw new BookingDataNotFoundException(ErrorCodes.PRG_BOOK_RCI_032.getCode(),
+					ErrorMessages.RECORD_NOT_FOUND_FOR_DATE_RANGE_AND_REG_CENTER_ID.getMessage());
+		}
+	}
+
+	/**
+	 * This method hands the bookings of the registration center between the
+	 * dates to the consumer one at a time, reading them from a database cursor
+	 * so that memory use does not grow with the number of bookings.
+	 *
+	 * @param fromLocaldate
+	 * @param toLocaldate
+	 * @param regCenterId
+	 * @param consumer
+	 * @return number of bookings read
+	 */
+	@Transactional(readOnly = true)
+	public long streamBookedAppointments(LocalDate fromLocaldate, LocalDate toLocaldate, String regCenterId,
+			Consumer<BookedAppointmentDto> consumer) {
+		long count = 0;
+		try (Stream<BookedAppointmentDto> appointments = registrationBookingRepository
+				.streamBookedAppointments(fromLocaldate, toLocaldate, regCenterId)) {
+			Iterator<BookedAppointmentDto> iterator = appointments.iterator();
+			while (iterator.hasNext()) {
+				consumer.accept(iterator.next());
+				count++;
+			}
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.BOOKING_TABLE_NOT_ACCESSIBLE.getMessage());
+		}
+		return count;
+	}
+
 	public boolean findRegistrationCenterId(String regCenterId) {
 		List<AvailibityEntity> entityList = null;
 		try {
@@ -377,6 +1107,7 @@ public class BookingDAO {
 	}
 
 	/**
+	 * This method deletes the slots of the center and date that have no booking.
 	 * 
 	 * @param regId
 	 * @param regDate
@@ -465,4 +1196,113 @@ public class BookingDAO {
 		return entityList;
 	}
 
+	/**
+	 * This method returns the per day totals of the slots of the center between
+	 * the dates.
+	 * 
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of DateSummaryDto ordered by date
+	 */
+	public List<DateSummaryDto> findAvailabilitySummary(String regcntrId, LocalDate startDate, LocalDate endDate) {
+		try {
+			return bookingAvailabilityRepository.findAvailabilitySummary(regcntrId, startDate, endDate);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method returns the open slots of the first open day, on or after the
+	 * date, of each of the centers with a single query.
+	 * 
+	 * @param regcntrIds
+	 * @param fromDate
+	 * @return List of OpenSlotDto ordered by center and slot time
+	 */
+	public List<OpenSlotDto> findNextOpenSlots(Collection<String> regcntrIds, LocalDate fromDate) {
+		try {
+			return bookingAvailabilityRepository.findNextOpenSlots(regcntrIds, fromDate);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+	}
+
+	/**
+	 * This method returns the slot projections of the center between the dates,
+	 * with the number of slots of their day set while walking the rows.
+	 * 
+	 * @param regcntrId
+	 * @param startDate
+	 * @param endDate
+	 * @return List of SlotAvailabilityDto ordered by date and slot time
+	 */
+	public List<SlotAvailabilityDto> findSlotAvailability(String regcntrId, LocalDate startDate,
+			LocalDate endDate) {
+		List<SlotAvailabilityDto> slotList = null;
+		try {
+			slotList = bookingAvailabilityRepository.findSlotAvailability(regcntrId, startDate, endDate);
+		} catch (DataAccessLayerException e) {
+			throw new TableNotAccessibleException(ErrorCodes.PRG_BOOK_RCI_016.getCode(),
+					ErrorMessages.AVAILABILITY_TABLE_NOT_ACCESSABLE.getMessage());
+		}
+		if (slotList == null) {
+			return new ArrayList<>();
+		}
+		int dayStart = 0;
+		for (int i = 1; i <= slotList.size(); i++) {
+			if (i == slotList.size() || !slotList.get(i).getRegDate().equals(slotList.get(dayStart).getRegDate())) {
+				for (int j = dayStart; j < i; j++) {
+					slotList.get(j).setSlotsPerDay(i - dayStart);
+				}
+				dayStart = i;
+			}
+		}
+		return slotList;
+	}
+
+	/**
+	 * This method returns the slots of the display window of a center,
+	 * extended by one day for every holiday found in it (and in each extension),
+	 * the same way getAvailability used to do with one query per extension. The
+	 * window is over-fetched by
+	 * ${preregistration.booking.availability.overfetch.days} so that a single
+	 * query normally covers all the extensions. A holiday has a single slot, so
+	 * the holidays are counted while walking the rows.
+	 *
+	 * @param regcntrId
+	 * @param fromDate
+	 * @param noOfDays
+	 * @return List of SlotAvailabilityDto ordered by date and slot time
+	 */
+	public List<SlotAvailabilityDto> findAvailabilityWindow(String regcntrId, LocalDate fromDate, long noOfDays) {
+		LocalDate endDate = fromDate.plusDays(noOfDays - 1);
+		LocalDate fetchedTo = endDate.plusDays(overFetchDays);
+		List<SlotAvailabilityDto> slotList = new ArrayList<>(findSlotAvailability(regcntrId, fromDate, fetchedTo));
+
+		int windowSize = 0;
+		while (true) {
+			while (endDate.isAfter(fetchedTo)) {
+				LocalDate nextFrom = fetchedTo.plusDays(1);
+				fetchedTo = endDate.plusDays(overFetchDays);
+				slotList.addAll(findSlotAvailability(regcntrId, nextFrom, fetchedTo));
+			}
+			long noOfHoliday = 0;
+			while (windowSize < slotList.size() && !slotList.get(windowSize).getRegDate().isAfter(endDate)) {
+				if (slotList.get(windowSize).getSlotsPerDay() == 1) {
+					noOfHoliday++;
+				}
+				windowSize++;
+			}
+			if (noOfHoliday == 0) {
+				break;
+			}
+			endDate = endDate.plusDays(noOfHoliday);
+		}
+		return slotList.subList(0, windowSize);
+	}
+
 }
@@ -1,16 +1,26 @@
 package io.mosip.preregistration.booking.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -20,32 +30,69 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
 import io.mosip.kernel.core.logger.spi.Logger;
 import io.mosip.preregistration.booking.codes.RequestCodes;
+import io.mosip.preregistration.booking.dto.AppointmentDetailsDto;
 import io.mosip.preregistration.booking.dto.AvailabilityDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySyncDto;
+import io.mosip.preregistration.booking.dto.BookingChangeDto;
+import io.mosip.preregistration.booking.dto.BookingChangesDto;
+import io.mosip.preregistration.booking.dto.BookingCursor;
 import io.mosip.preregistration.booking.dto.BookingDataByRegIdDto;
 import io.mosip.preregistration.booking.dto.BookingRequestDTO;
 import io.mosip.preregistration.booking.dto.BookingStatus;
 import io.mosip.preregistration.booking.dto.BookingStatusDTO;
 import io.mosip.preregistration.booking.dto.DateTimeDto;
+import io.mosip.preregistration.booking.dto.EarliestSlotDto;
 import io.mosip.preregistration.booking.dto.MultiBookingRequest;
 import io.mosip.preregistration.booking.dto.MultiBookingRequestDTO;
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.dto.PreRegIdsByRegCenterIdPageDTO;
 import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
+import io.mosip.preregistration.booking.dto.SlotHoldDto;
 import io.mosip.preregistration.booking.dto.SlotTimeDto;
 import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity.ChangeType;
+import io.mosip.preregistration.booking.entity.SlotHoldEntity;
 import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
 import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
 import io.mosip.preregistration.booking.exception.AvailablityNotFoundException;
+import io.mosip.preregistration.booking.exception.BookingDataNotFoundException;
 import io.mosip.preregistration.booking.exception.DemographicGetStatusException;
 import io.mosip.preregistration.booking.exception.RecordNotFoundException;
 import io.mosip.preregistration.booking.exception.util.BookingExceptionCatcher;
 import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.sync.AvailabilitySync;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
 import io.mosip.preregistration.booking.service.util.BookingLock;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingLockManager.SlotLocks;
 import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.CenterLocator;
+import io.mosip.preregistration.booking.service.util.CenterLocator.NearbyCenter;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.booking.service.util.SlotCommitQueue;
 import io.mosip.preregistration.core.code.AuditLogVariables;
 import io.mosip.preregistration.core.code.EventId;
 import io.mosip.preregistration.core.code.EventName;
@@ -55,12 +102,13 @@ import io.mosip.preregistration.core.common.dto.AuditRequestDto;
 import io.mosip.preregistration.core.common.dto.BookingRegistrationDTO;
 import io.mosip.preregistration.core.common.dto.CancelBookingResponseDTO;
 import io.mosip.preregistration.core.common.dto.DeleteBookingDTO;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
 import io.mosip.preregistration.core.common.dto.MainRequestDTO;
 import io.mosip.preregistration.core.common.dto.MainResponseDTO;
 import io.mosip.preregistration.core.common.dto.PreRegIdsByRegCenterIdResponseDTO;
 import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
 import io.mosip.preregistration.core.config.LoggerConfiguration;
-import io.mosip.preregistration.core.util.AuditLogUtil;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
 import io.mosip.preregistration.core.util.UUIDGeneratorUtil;
 import io.mosip.preregistration.core.util.ValidationUtil;
 
@@ -104,7 +152,28 @@ public class BookingService implements BookingServiceIntf {
 	private BookingDAO bookingDAO;
 
 	@Autowired
-	private BookingLock bookingLock;
+	private BookingLockManager bookingLockManager;
+
+	@Autowired
+	private SlotInventory slotInventory;
+
+	@Autowired
+	private AvailabilityCache availabilityCache;
+
+	@Autowired
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Autowired
+	private SlotCommitQueue slotCommitQueue;
+
+	@Autowired
+	private CenterLocator centerLocator;
+
+	@Autowired
+	private ApplicationStatusClient applicationStatusClient;
+
+	@Autowired
+	private AvailabilitySync availabilitySync;
 
 	@Value("${version}")
 	String versionUrl;
@@ -142,15 +211,80 @@ public class BookingService implements BookingServiceIntf {
 	@Autowired
 	private ValidationUtil validationUtil;
 
+	/**
+	 * Reference for ${preregistration.booking.details.max.ids} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.details.max.ids:100}")
+	int detailsMaxIds;
+
+	/**
+	 * Reference for ${preregistration.booking.earliest.default.centers} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.earliest.default.centers:10}")
+	int earliestDefaultCenters;
+
+	/**
+	 * Reference for ${preregistration.booking.earliest.max.centers} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.earliest.max.centers:50}")
+	int earliestMaxCenters;
+
+	/**
+	 * Reference for ${preregistration.booking.page.max.size} from property file
+	 */
+	@Value("${preregistration.booking.page.max.size:500}")
+	int bookingPageMaxSize;
+
+	/**
+	 * Reference for ${preregistration.booking.changes.page.size} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.changes.page.size:1000}")
+	int changesPageSize;
+
+	/**
+	 * Reference for ${preregistration.booking.hold.ttl.seconds} from property file
+	 */
+	@Value("${preregistration.booking.hold.ttl.seconds:600}")
+	long holdTtlSeconds;
+
+	/**
+	 * Reference for ${preregistration.booking.group.commit} from property file
+	 */
+	@Value("${preregistration.booking.group.commit:false}")
+	boolean groupCommit;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** New transaction of the commit of a booking, opened once its slot is free. */
+	private TransactionTemplate commitTransaction;
+
 	@PostConstruct
 	public void setupBookingService() {
-
+		if (meterRegistry == null) {
+			meterRegistry = new SimpleMeterRegistry();
+		}
+		commitTransaction = new TransactionTemplate(transactionManager);
+		commitTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
 	}
 
 	private Logger log = LoggerConfiguration.logConfig(BookingService.class);
 
+	/** Separates the watermark from the booking cursor in a snapshot cursor. */
+	private static final String SNAPSHOT_CURSOR_SEPARATOR = ".";
+
+	private final ObjectMapper exportMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
 	@Autowired
-	private AuditLogUtil auditLogUtil;
+	private AuditQueue auditQueue;
 
 	public AuthUserDetails authUserDetails() {
 		return (AuthUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -170,36 +304,20 @@ public class BookingService implements BookingServiceIntf {
 		response.setVersion(versionUrl);
 		boolean isSaveSuccess = false;
 
-		LocalDate endDate = LocalDate.now().plusDays(displayDays + availabilityOffset).minusDays(1);
 		LocalDate fromDate = LocalDate.now().plusDays(availabilityOffset);
 		AvailabilityDto availability = new AvailabilityDto();
 		try {
-			if (serviceUtil.isValidRegCenter(regID)) {
-				int noOfHoliday = 0;
-				List<AvailibityEntity> availableEntity = bookingDAO.findAvailability(regID, fromDate, endDate);
-				List<DateTimeDto> dateTimeList = new ArrayList<>();
-				if (availableEntity == null) {
-					throw new RecordNotFoundException(ErrorCodes.PRG_BOOK_RCI_015.getCode(),
-							ErrorMessages.NO_TIME_SLOTS_ASSIGNED_TO_THAT_REG_CENTER.getMessage());
-				}
-
-				noOfHoliday = getSlot(dateTimeList, noOfHoliday, availableEntity);
-				while (noOfHoliday > 0) {
-					fromDate = endDate.plusDays(1);
-					endDate = endDate.plusDays(noOfHoliday);
-					availableEntity = bookingDAO.findAvailability(regID, fromDate, endDate);
-					if (availableEntity == null) {
-						log.info("sessionId", "idType", "id",
-								"There no slots available in case of holidays present in the given date range and no of Holidays is  "
-										+ noOfHoliday);
-						noOfHoliday = 0;
-					} else {
-						noOfHoliday = 0;
-						noOfHoliday = getSlot(dateTimeList, noOfHoliday, availableEntity);
-					}
-				}
-				availability.setCenterDetails(dateTimeList);
+			AvailabilityDto cachedAvailability = availabilityCache.get(regID, fromDate);
+			if (cachedAvailability != null) {
+				availability = cachedAvailability;
+				isSaveSuccess = true;
+			} else if (serviceUtil.isValidRegCenter(regID)) {
+				long generation = availabilityCache.generation(regID);
+				/* Holidays are already replaced by the following working days */
+				List<SlotAvailabilityDto> slotList = bookingDAO.findAvailabilityWindow(regID, fromDate, displayDays);
+				availability.setCenterDetails(serviceUtil.dateTimeSetter(slotList));
 				availability.setRegCenterId(regID);
+				availabilityCache.put(regID, fromDate, availability, generation);
 				isSaveSuccess = true;
 			}
 		} catch (Exception ex) {
@@ -222,6 +340,202 @@ public class BookingService implements BookingServiceIntf {
 		return response;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getAvailabilitySummary(java.lang.String, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public MainResponseDTO<AvailabilitySummaryDto> getAvailabilitySummary(String regID, String fromDateStr,
+			String toDateStr) {
+		log.info("sessionId", "idType", "id", "In getAvailabilitySummary method of Booking Service");
+		MainResponseDTO<AvailabilitySummaryDto> response = new MainResponseDTO<>();
+		response.setId(idUrlAvailability);
+		response.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		AvailabilitySummaryDto summary = new AvailabilitySummaryDto();
+		try {
+			if (fromDateStr == null || fromDateStr.isEmpty()) {
+				fromDateStr = LocalDate.now().plusDays(availabilityOffset).toString();
+			}
+			serviceUtil.validateFromDateAndToDate(fromDateStr, toDateStr, "yyyy-MM-dd");
+			LocalDate fromDate = LocalDate.parse(fromDateStr);
+			LocalDate toDate = toDateStr == null || toDateStr.isEmpty() ? fromDate.plusDays(displayDays - 1)
+					: LocalDate.parse(toDateStr);
+
+			AvailabilitySummaryDto cachedSummary = availabilityCache.getSummary(regID, fromDate, toDate);
+			if (cachedSummary != null) {
+				summary = cachedSummary;
+				isSaveSuccess = true;
+			} else if (serviceUtil.isValidRegCenter(regID)) {
+				long generation = availabilityCache.generation(regID);
+				summary.setRegCenterId(regID);
+				summary.setFromDate(fromDate.toString());
+				summary.setToDate(toDate.toString());
+				summary.setDates(bookingDAO.findAvailabilitySummary(regID, fromDate, toDate));
+				availabilityCache.putSummary(regID, fromDate, toDate, summary, generation);
+				isSaveSuccess = true;
+			}
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getAvailabilitySummary method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_401.toString(), EventName.RETRIEVE.toString(), EventType.BUSINESS.toString(),
+						"Availability summary retrieved successfully for booking",
+						AuditLogVariables.MULTIPLE_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(), regID);
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Availability summary failed to get", AuditLogVariables.NO_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(), regID);
+			}
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		response.setResponse(summary);
+		return response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.service.BookingServiceIntf#
+	 * syncAvailability()
+	 */
+	@Override
+	public MainResponseDTO<AvailabilitySyncDto> syncAvailability() {
+		log.info("sessionId", "idType", "id", "In syncAvailability method of Booking Service");
+		MainResponseDTO<AvailabilitySyncDto> response = new MainResponseDTO<>();
+		response.setId(idUrlSync);
+		response.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		try {
+			response.setResponse(availabilitySync.sync(authUserDetails().getUserId()));
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "In syncAvailability method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(), EventType.BUSINESS.toString(),
+						"Availability synced successfully", AuditLogVariables.NO_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(), null);
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Availability failed to sync", AuditLogVariables.NO_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(), null);
+			}
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		return response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.service.BookingServiceIntf#
+	 * getEarliestAvailability(java.lang.String, java.lang.String,
+	 * java.util.List, java.lang.Integer)
+	 */
+	@Override
+	public MainResponseDTO<List<EarliestSlotDto>> getEarliestAvailability(String latitude, String longitude,
+			List<String> regCenterIds, Integer limit) {
+		log.info("sessionId", "idType", "id", "In getEarliestAvailability method of Booking Service");
+		MainResponseDTO<List<EarliestSlotDto>> response = new MainResponseDTO<>();
+		response.setId(idUrlAvailability);
+		response.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		List<EarliestSlotDto> earliestSlots = new ArrayList<>();
+		try {
+			double[] location = searchLocation(latitude, longitude);
+			Map<String, Double> distances = new LinkedHashMap<>();
+			if (regCenterIds != null && !regCenterIds.isEmpty()) {
+				Set<String> distinctRegCenterIds = new LinkedHashSet<>(regCenterIds);
+				distinctRegCenterIds.remove(null);
+				if (distinctRegCenterIds.size() > earliestMaxCenters) {
+					throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_042.getCode(),
+							ErrorMessages.TOO_MANY_REGISTRATION_CENTER_IDS.getMessage() + " " + earliestMaxCenters,
+							null);
+				}
+				for (String regCenterId : distinctRegCenterIds) {
+					distances.put(regCenterId,
+							location == null ? null : centerLocator.distanceKm(regCenterId, location[0], location[1]));
+				}
+			} else if (location != null) {
+				int centers = limit == null || limit <= 0 ? earliestDefaultCenters
+						: Math.min(limit, earliestMaxCenters);
+				for (NearbyCenter nearby : centerLocator.nearest(location[0], location[1], centers)) {
+					distances.put(nearby.getCenter().getId(), nearby.getDistanceKm());
+				}
+			} else {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_041.getCode(),
+						ErrorMessages.INVALID_SEARCH_LOCATION.getMessage(), null);
+			}
+
+			LocalDate fromDate = LocalDate.now().plusDays(availabilityOffset);
+			for (OpenSlotDto slot : nextOpenSlotIndex.get(distances.keySet(), fromDate).values()) {
+				EarliestSlotDto earliestSlot = new EarliestSlotDto();
+				earliestSlot.setRegistrationCenterId(slot.getRegcntrId());
+				RegistrationCenterDto center = centerLocator.getCenter(slot.getRegcntrId());
+				earliestSlot.setRegistrationCenterName(center == null ? null : center.getName());
+				earliestSlot.setDistanceKm(distances.get(slot.getRegcntrId()));
+				earliestSlot.setRegDate(slot.getRegDate().toString());
+				earliestSlot.setSlotFromTime(slot.getFromTime().toString());
+				earliestSlot.setSlotToTime(slot.getToTime().toString());
+				earliestSlot.setAvailableKiosks(slot.getAvailableKiosks());
+				earliestSlots.add(earliestSlot);
+			}
+			earliestSlots.sort(Comparator.comparing(EarliestSlotDto::getRegDate)
+					.thenComparing(EarliestSlotDto::getSlotFromTime).thenComparing(EarliestSlotDto::getDistanceKm,
+							Comparator.nullsLast(Comparator.naturalOrder())));
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getEarliestAvailability method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_401.toString(), EventName.RETRIEVE.toString(), EventType.BUSINESS.toString(),
+						"Earliest availability retrieved successfully for booking",
+						AuditLogVariables.MULTIPLE_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(), null);
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Earliest availability failed to get", AuditLogVariables.NO_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(), null);
+			}
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		response.setResponse(earliestSlots);
+		return response;
+	}
+
+	/**
+	 * @param latitude
+	 * @param longitude
+	 * @return latitude and longitude, or null if neither is given
+	 */
+	private double[] searchLocation(String latitude, String longitude) {
+		if (serviceUtil.isNull(latitude) && serviceUtil.isNull(longitude)) {
+			return null;
+		}
+		try {
+			double[] location = { Double.parseDouble(latitude), Double.parseDouble(longitude) };
+			if (Math.abs(location[0]) <= 90 && Math.abs(location[1]) <= 180) {
+				return location;
+			}
+		} catch (NullPointerException | NumberFormatException ex) {
+			// falls through to the invalid location error
+		}
+		throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_041.getCode(),
+				ErrorMessages.INVALID_SEARCH_LOCATION.getMessage(), null);
+	}
+
 	/**
 	 * Retrieve number of holidays based on date Time, number of holidays and
 	 * available slots
@@ -251,275 +565,631 @@ public class BookingService implements BookingServiceIntf {
 	 * java.lang.String)
 	 */
 	@Override
-	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+	//Please note that this method is NOT creating a new transaction: the commit opens
+	//its own once the slot is free, so that waiting requests hold no connection.
 	public MainResponseDTO<BookingStatusDTO> bookAppointment(MainRequestDTO<BookingRequestDTO> bookingRequestDTOs,
 			String preRegistrationId) {
-		bookingLock.setDate(bookingRequestDTOs.getRequest().getRegDate());
-		bookingLock.setRegistrationCenter(bookingRequestDTOs.getRequest().getRegDate());
-		bookingLock.setTimeslot(bookingRequestDTOs.getRequest().getSlotFromTime());
 		log.info("sessionId", "idType", "id", "In bookAppointment method of Booking Service");
 		MainResponseDTO<BookingStatusDTO> responseDTO = new MainResponseDTO<>();
 		responseDTO.setId(idUrlBookAppointment);
 		responseDTO.setVersion(versionUrl);
 		boolean isSaveSuccess = false;
-		synchronized (bookingLock) {
+		BookingStatusDTO response = new BookingStatusDTO();
+		try {
 
-			log.info("Sync block :", preRegistrationId, " Start", "");
+			BookingRequestDTO bookingRequestDTO = bookingRequestDTOs.getRequest();
+			Map<String, String> dateMap = new HashMap<>();
+			dateMap.put(RequestCodes.REG_DATE.getCode(), bookingRequestDTO.getRegDate());
+			dateMap.put(RequestCodes.FROM_SLOT_TIME.getCode(), bookingRequestDTO.getSlotFromTime());
+			dateMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), preRegistrationId);
+			if (serviceUtil.validateAppointmentDate(dateMap)
+					&& serviceUtil.mandatoryParameterCheck(preRegistrationId, bookingRequestDTO)
+					&& serviceUtil.slotTimeValidCheck(preRegistrationId, bookingRequestDTO)) {
+
+				/* Pre-flight, without any lock: status, center and optimistic availability */
+				long preflightStart = System.nanoTime();
+				List<BookingLock> slots = new ArrayList<>();
+				addSlotLocks(slots, preRegistrationId, bookingRequestDTO);
+
+				/* Getting Status From Demographic */
+				String preRegStatusCode = serviceUtil.getApplicationBookingStatus(preRegistrationId);
+				log.info("preRegStatusCode : {}", preRegStatusCode);
+				checkBookableStatus(preRegStatusCode);
+
+				/* Checking the availability of slots */
+				checkSlotAvailability(bookingRequestDTO);
+
+				BookingRequestDTO oldBooking = preRegStatusCode.equals(StatusCodes.BOOKED.getCode())
+						? oldBookingOf(bookingDAO.findByPreRegistrationId(preRegistrationId),
+								bookingRequestDTOs.getRequesttime())
+						: null;
+				recordPhase("book", "preflight", preflightStart);
+
+				if (groupCommit && (preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
+						|| preRegStatusCode.equals(StatusCodes.CANCELLED.getCode()))) {
+
+					/* Commit of the new booking in a group with the other bookings of the slot */
+					long commitStart = System.nanoTime();
+					response = bookInGroup(preRegistrationId, bookingRequestDTO, slots);
+					recordPhase("book", "commit", commitStart);
 
-			BookingStatusDTO response = new BookingStatusDTO();
-			try {
+				} else {
 
-				BookingRequestDTO bookingRequestDTO = bookingRequestDTOs.getRequest();
+					/* Commit, holding the locks of the requested slot and the currently booked slot */
+					try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
+						log.info("Slot lock :", preRegistrationId, " acquired", "");
+						long commitStart = System.nanoTime();
+						response = commitTransaction.execute(status -> commitBooking(preRegistrationId,
+								preRegStatusCode, oldBooking, bookingRequestDTO));
+						recordPhase("book", "commit", commitStart);
+					}
+				}
+
+			}
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "In bookAppointment method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, responseDTO);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(), EventType.BUSINESS.toString(),
+						"Appointment booked successfully", AuditLogVariables.MULTIPLE_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(),
+						bookingRequestDTOs.getRequest().getRegistrationCenterId());
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Appointment failed to book", AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(), bookingRequestDTOs.getRequest().getRegistrationCenterId());
+			}
+		}
+		responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
+		responseDTO.setResponse(response);
+		return responseDTO;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * bookMultiAppointment(io.mosip.preregistration.core.common.dto.MainRequestDTO)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+	public MainResponseDTO<BookingStatus> bookMultiAppointment(MainRequestDTO<MultiBookingRequest> bookingRequestDTOs) {
+
+		log.info("sessionId", "idType", "id", "In bookMultiAppointment method of Booking Service");
+		MainResponseDTO<BookingStatus> responseDTO = new MainResponseDTO<>();
+		BookingStatus response = new BookingStatus();
+		responseDTO.setId(idUrlBookAppointment);
+		responseDTO.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		List<BookingStatusDTO> respList = new ArrayList<>();
+		try {
+			/* Pre-flight, without any lock: status, centers and optimistic availability */
+			long preflightStart = System.nanoTime();
+			List<MultiBookingRequestDTO> validRequests = new ArrayList<>();
+			List<BookingLock> slots = new ArrayList<>();
+			for (MultiBookingRequestDTO bookingRequestDTO : bookingRequestDTOs.getRequest().getBookingRequest()) {
 				Map<String, String> dateMap = new HashMap<>();
 				dateMap.put(RequestCodes.REG_DATE.getCode(), bookingRequestDTO.getRegDate());
 				dateMap.put(RequestCodes.FROM_SLOT_TIME.getCode(), bookingRequestDTO.getSlotFromTime());
-				dateMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), preRegistrationId);
-				if (serviceUtil.validateAppointmentDate(dateMap)) {
-					/* Getting Status From Demographic */
-					String preRegStatusCode = serviceUtil.getApplicationBookingStatus(preRegistrationId);
-					log.info("preRegStatusCode : {}", preRegStatusCode);
-
-					if (preRegStatusCode.equals(StatusCodes.APPLICATION_INCOMPLETE.getCode())
-							|| preRegStatusCode.equals(StatusCodes.PREFETCHED.getCode())) {
-
-						if (preRegStatusCode.equals(StatusCodes.APPLICATION_INCOMPLETE.getCode())) {
-							throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
-									ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_INCOMPLETE_APPLICATION.getMessage());
-						} else {
-							throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
-									ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_PREFETCHED_APPLICATION.getMessage());
-						}
+				dateMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), bookingRequestDTO.getPreRegistrationId());
+				BookingRequestDTO bookingRequest = toBookingRequest(bookingRequestDTO);
+				if (serviceUtil.validateAppointmentDate(dateMap)
+						&& serviceUtil.mandatoryParameterCheck(bookingRequestDTO.getPreRegistrationId(), bookingRequest)
+						&& serviceUtil.slotTimeValidCheck(bookingRequestDTO.getPreRegistrationId(), bookingRequest)) {
+					validRequests.add(bookingRequestDTO);
+					addSlotLocks(slots, bookingRequestDTO.getPreRegistrationId(), bookingRequest);
+				}
+			}
+
+			/* Getting Status From Demographic for all the applicants */
+			List<String> preIds = new ArrayList<>();
+			validRequests.forEach(bookingRequestDTO -> preIds.add(bookingRequestDTO.getPreRegistrationId()));
+			Map<String, String> preRegStatusCodes = applicationStatusClient.getApplicationStatuses(preIds);
+
+			/* Grouping the new bookings and the replaced bookings by slot */
+			Map<BookingRequestDTO, List<String>> bookingsBySlot = new LinkedHashMap<>();
+			Map<BookingRequestDTO, Integer> releasesBySlot = new LinkedHashMap<>();
+			List<String> replacedPreIds = new ArrayList<>();
+			List<BookingChangeEntity> bookingChanges = new ArrayList<>();
+			for (MultiBookingRequestDTO bookingRequestDTO : validRequests) {
+				String preRegStatusCode = preRegStatusCodes.get(bookingRequestDTO.getPreRegistrationId());
+				log.debug("preRegStatusCode" + preRegStatusCode);
+				checkBookableStatus(preRegStatusCode);
+
+				if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+					BookingRequestDTO oldBooking = oldBookingOf(
+							bookingDAO.findByPreRegistrationId(bookingRequestDTO.getPreRegistrationId()),
+							bookingRequestDTOs.getRequesttime());
+					releasesBySlot.merge(oldBooking, 1, Integer::sum);
+					replacedPreIds.add(bookingRequestDTO.getPreRegistrationId());
+					bookingChanges.add(
+							bookingChange(bookingRequestDTO.getPreRegistrationId(), oldBooking, ChangeType.CANCELLED));
+				} else if (preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
+					replacedPreIds.add(bookingRequestDTO.getPreRegistrationId());
+				} else if (!preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
+						&& !preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())) {
+					continue;
+				}
+				bookingsBySlot.computeIfAbsent(toBookingRequest(bookingRequestDTO), slot -> new ArrayList<>())
+						.add(bookingRequestDTO.getPreRegistrationId());
+			}
+
+			/* Checking the availability of slots, once per slot */
+			for (BookingRequestDTO slot : bookingsBySlot.keySet()) {
+				checkSlotAvailability(slot);
+			}
+			recordPhase("multibook", "preflight", preflightStart);
+
+			/* Commit, holding the locks of all requested and currently booked slots */
+			try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
+				log.info("Slot lock :", bookingRequestDTOs.getRequest().getBookingRequest().get(0).getPreRegistrationId(),
+						" acquired", "");
+				long commitStart = System.nanoTime();
+
+				/* Deleting old bookings */
+				for (String preRegistrationId : replacedPreIds) {
+					deleteOldBooking(preRegistrationId);
+				}
+
+				/* Increase availability, once per old slot */
+				for (Entry<BookingRequestDTO, Integer> release : releasesBySlot.entrySet()) {
+					releaseKiosks(release.getKey(), release.getValue());
+				}
 
+				/* Reducing the availability once per slot, then inserting all the bookings */
+				List<RegistrationBookingEntity> bookingEntities = new ArrayList<>();
+				for (Entry<BookingRequestDTO, List<String>> booking : bookingsBySlot.entrySet()) {
+					reserveKiosks(booking.getKey(), booking.getValue().size());
+					for (String preRegistrationId : booking.getValue()) {
+						bookingEntities.add(serviceUtil.bookingEntitySetter(preRegistrationId, booking.getKey()));
+						bookingChanges.add(bookingChange(preRegistrationId, booking.getKey(), ChangeType.BOOKED));
 					}
+				}
+				if (!bookingEntities.isEmpty()) {
+					bookingDAO.saveRegistrationEntitiesForBooking(bookingEntities);
+					bookingDAO.saveBookingChanges(bookingChanges);
+				}
+				for (int i = 0; i < bookingEntities.size(); i++) {
+					BookingStatusDTO bookingStatusDTO = new BookingStatusDTO();
+					bookingStatusDTO.setBookingMessage("Appointment booked successfully");
+					respList.add(bookingStatusDTO);
+				}
+				recordPhase("multibook", "commit", commitStart);
+			}
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In bookMultiAppointment method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, responseDTO);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(), EventType.BUSINESS.toString(),
+						"Appointment booked successfully", AuditLogVariables.MULTIPLE_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(),
+						bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegistrationCenterId());
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Appointment failed to book", AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(),
+						bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegistrationCenterId());
+			}
+		}
+		responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
+		response.setBookingStatusResponse(respList);
+		responseDTO.setResponse(response);
+		return responseDTO;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * holdSlot(io.mosip.preregistration.core.common.dto.MainRequestDTO,
+	 * java.lang.String)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+	public MainResponseDTO<SlotHoldDto> holdSlot(MainRequestDTO<BookingRequestDTO> bookingRequestDTOs,
+			String preRegistrationId) {
+		log.info("sessionId", "idType", "id", "In holdSlot method of Booking Service");
+		MainResponseDTO<SlotHoldDto> responseDTO = new MainResponseDTO<>();
+		responseDTO.setId(idUrlBookAppointment);
+		responseDTO.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		SlotHoldDto response = new SlotHoldDto();
+		try {
+			BookingRequestDTO bookingRequestDTO = bookingRequestDTOs.getRequest();
+			Map<String, String> dateMap = new HashMap<>();
+			dateMap.put(RequestCodes.REG_DATE.getCode(), bookingRequestDTO.getRegDate());
+			dateMap.put(RequestCodes.FROM_SLOT_TIME.getCode(), bookingRequestDTO.getSlotFromTime());
+			dateMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), preRegistrationId);
+			if (serviceUtil.validateAppointmentDate(dateMap)
+					&& serviceUtil.mandatoryParameterCheck(preRegistrationId, bookingRequestDTO)
+					&& serviceUtil.slotTimeValidCheck(preRegistrationId, bookingRequestDTO)) {
+
+				/* Pre-flight, without any lock: status, center and optimistic availability */
+				List<BookingLock> slots = new ArrayList<>();
+				slots.add(new BookingLock(bookingRequestDTO.getRegistrationCenterId(),
+						LocalDate.parse(bookingRequestDTO.getRegDate()),
+						LocalTime.parse(bookingRequestDTO.getSlotFromTime())));
+				SlotHoldEntity previousHold = bookingDAO.findSlotHold(preRegistrationId);
+				if (previousHold != null) {
+					slots.add(new BookingLock(previousHold.getRegcntrId(), previousHold.getRegDate(),
+							previousHold.getFromTime()));
+				}
 
-					if (serviceUtil.mandatoryParameterCheck(preRegistrationId, bookingRequestDTO)
-							&& serviceUtil.slotTimeValidCheck(preRegistrationId, bookingRequestDTO)) {
+				String preRegStatusCode = serviceUtil.getApplicationBookingStatus(preRegistrationId);
+				checkBookableStatus(preRegStatusCode);
+				if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+					oldBookingOf(bookingDAO.findByPreRegistrationId(preRegistrationId),
+							bookingRequestDTOs.getRequesttime());
+				} else if (!preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
+						&& !preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())
+						&& !preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
+					throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
+							ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_APPLICATION_STATUS.getMessage());
+				}
 
-						/* Checking the availability of slots */
-						checkSlotAvailability(bookingRequestDTO);
+				checkSlotAvailability(bookingRequestDTO);
 
-						if (preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
-								|| preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())) {
+				/* Commit, holding the locks of the requested slot and the previously held slot */
+				try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
 
-							/* Creating new booking */
-							response = book(preRegistrationId, bookingRequestDTO);
+					/* Giving back the kiosk of the previous hold, if it is still owned */
+					if (previousHold != null && bookingDAO.deleteSlotHold(preRegistrationId)) {
+						releaseKiosk(previousHold.getRegDate(), previousHold.getRegcntrId(),
+								previousHold.getFromTime(), previousHold.getToTime());
+					}
 
-						} else if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+					/* Reserving the kiosk until the hold expires */
+					reserveKiosks(bookingRequestDTO, 1);
+					SlotHoldEntity hold = new SlotHoldEntity();
+					hold.setPreregistrationId(preRegistrationId);
+					hold.setRegcntrId(bookingRequestDTO.getRegistrationCenterId());
+					hold.setRegDate(LocalDate.parse(bookingRequestDTO.getRegDate()));
+					hold.setFromTime(LocalTime.parse(bookingRequestDTO.getSlotFromTime()));
+					hold.setToTime(LocalTime.parse(bookingRequestDTO.getSlotToTime()));
+					hold.setCrBy(authUserDetails().getUserId());
+					hold.setCrDate(LocalDateTime.now());
+					hold.setExpiresAt(hold.getCrDate().plusSeconds(holdTtlSeconds));
+					bookingDAO.saveSlotHold(hold);
+
+					response.setPreRegistrationId(preRegistrationId);
+					response.setRegistrationCenterId(bookingRequestDTO.getRegistrationCenterId());
+					response.setRegDate(bookingRequestDTO.getRegDate());
+					response.setSlotFromTime(bookingRequestDTO.getSlotFromTime());
+					response.setSlotToTime(bookingRequestDTO.getSlotToTime());
+					response.setExpiresAt(hold.getExpiresAt().toString());
+				}
+			}
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "In holdSlot method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, responseDTO);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(), EventType.BUSINESS.toString(),
+						"Slot held successfully", AuditLogVariables.MULTIPLE_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(),
+						bookingRequestDTOs.getRequest().getRegistrationCenterId());
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Slot failed to hold", AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(), bookingRequestDTOs.getRequest().getRegistrationCenterId());
+			}
+		}
+		responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
+		responseDTO.setResponse(response);
+		return responseDTO;
+	}
 
-							/* Concatenating Booking date and slot from time */
-							RegistrationBookingEntity bookingEntity = bookingDAO
-									.findByPreRegistrationId(preRegistrationId);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * confirmSlotHold(java.lang.String)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+	public MainResponseDTO<BookingStatusDTO> confirmSlotHold(String preRegistrationId) {
+		log.info("sessionId", "idType", "id", "In confirmSlotHold method of Booking Service");
+		MainResponseDTO<BookingStatusDTO> responseDTO = new MainResponseDTO<>();
+		responseDTO.setId(idUrlBookAppointment);
+		responseDTO.setVersion(versionUrl);
+		boolean isSaveSuccess = false;
+		BookingStatusDTO response = new BookingStatusDTO();
+		String regCenterId = null;
+		try {
+			SlotHoldEntity hold = bookingDAO.findSlotHold(preRegistrationId);
+			if (hold == null || !hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+				throw new RecordNotFoundException(ErrorCodes.PRG_BOOK_RCI_038.getCode(),
+						ErrorMessages.SLOT_HOLD_NOT_FOUND.getMessage());
+			}
+			regCenterId = hold.getRegcntrId();
+			BookingRequestDTO heldSlot = new BookingRequestDTO();
+			heldSlot.setRegistrationCenterId(hold.getRegcntrId());
+			heldSlot.setRegDate(hold.getRegDate().toString());
+			heldSlot.setSlotFromTime(hold.getFromTime().toString());
+			heldSlot.setSlotToTime(hold.getToTime().toString());
+
+			/* Pre-flight, without any lock: status and re-book time span */
+			List<BookingLock> slots = new ArrayList<>();
+			addSlotLocks(slots, preRegistrationId, heldSlot);
+			String preRegStatusCode = serviceUtil.getApplicationBookingStatus(preRegistrationId);
+			checkBookableStatus(preRegStatusCode);
+			BookingRequestDTO oldBooking = null;
+			if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+				oldBooking = oldBookingOf(bookingDAO.findByPreRegistrationId(preRegistrationId), new Date());
+			}
 
-							System.out.println("Booking Entity " + bookingEntity);
+			/* Commit, holding the locks of the held slot and the currently booked slot */
+			try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
 
-							BookingRequestDTO oldBooking = new BookingRequestDTO();
-							oldBooking.setRegDate(bookingEntity.getRegDate().toString());
-							oldBooking.setRegistrationCenterId(bookingEntity.getRegistrationCenterId());
-							oldBooking.setSlotFromTime(bookingEntity.getSlotFromTime().toString());
-							oldBooking.setSlotToTime(bookingEntity.getSlotToTime().toString());
+				/* Only the caller removing the hold owns its kiosk */
+				if (!bookingDAO.deleteSlotHold(preRegistrationId)) {
+					throw new RecordNotFoundException(ErrorCodes.PRG_BOOK_RCI_038.getCode(),
+							ErrorMessages.SLOT_HOLD_NOT_FOUND.getMessage());
+				}
 
-							String str = bookingEntity.getRegDate() + " " + bookingEntity.getSlotFromTime();
-							DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-							LocalDateTime bookedDateTime = LocalDateTime.parse(str, formatter);
+				if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+					deleteOldBooking(preRegistrationId);
+					increaseAvailability(oldBooking);
+				} else if (preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
+					deleteOldBooking(preRegistrationId);
+				} else if (!preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
+						&& !preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())) {
+					releaseKiosk(hold.getRegDate(), hold.getRegcntrId(), hold.getFromTime(), hold.getToTime());
+					heldSlot = null;
+				}
 
-							log.info("sessionId", "idType", "id",
-									"In bookAppointment method of Booking Service for booking Date Time- "
-											+ bookedDateTime);
-							/* Time span check for re-book */
-							serviceUtil.timeSpanCheckForRebook(bookedDateTime, bookingRequestDTOs.getRequesttime());
+				/* Creating the booking on the already reserved kiosk */
+				if (heldSlot != null) {
+					bookingDAO.saveRegistrationEntityForBooking(
+							serviceUtil.bookingEntitySetter(preRegistrationId, heldSlot));
+					List<BookingChangeEntity> bookingChanges = new ArrayList<>();
+					if (oldBooking != null) {
+						bookingChanges.add(bookingChange(preRegistrationId, oldBooking, ChangeType.CANCELLED));
+					}
+					bookingChanges.add(bookingChange(preRegistrationId, heldSlot, ChangeType.BOOKED));
+					bookingDAO.saveBookingChanges(bookingChanges);
+					response.setBookingMessage("Appointment booked successfully");
+				}
+			}
+			isSaveSuccess = true;
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "In confirmSlotHold method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, responseDTO);
+		} finally {
+			if (isSaveSuccess) {
+				setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(), EventType.BUSINESS.toString(),
+						"Appointment booked successfully", AuditLogVariables.MULTIPLE_ID.toString(),
+						authUserDetails().getUserId(), authUserDetails().getUsername(), regCenterId);
+			} else {
+				setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(), EventType.SYSTEM.toString(),
+						"Appointment failed to book", AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
+						authUserDetails().getUsername(), regCenterId);
+			}
+		}
+		responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
+		responseDTO.setResponse(response);
+		return responseDTO;
+	}
 
-							/* Deleting old booking */
-							deleteOldBooking(preRegistrationId);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * releaseExpiredHolds(io.mosip.preregistration.booking.dto.BookingRequestDTO,
+	 * java.time.LocalDateTime)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+	public int releaseExpiredHolds(BookingRequestDTO slot, LocalDateTime expiredBefore) {
+		int released = bookingDAO.deleteExpiredSlotHolds(slot.getRegistrationCenterId(),
+				LocalDate.parse(slot.getRegDate()), LocalTime.parse(slot.getSlotFromTime()),
+				LocalTime.parse(slot.getSlotToTime()), expiredBefore);
+		if (released > 0) {
+			releaseKiosks(slot, released);
+			log.info("sessionId", "idType", "id", "In releaseExpiredHolds method of Booking Service, " + released
+					+ " expired holds released for Reg center " + slot.getRegistrationCenterId());
+		}
+		return released;
+	}
 
-							/* Increase availability */
-							increaseAvailability(oldBooking);
+	/**
+	 * This method moves an existing booking to the new slot, updating the booking
+	 * row in place and both kiosk counters.
+	 * 
+	 * @param preRegistrationId
+	 * @param oldBooking
+	 * @param bookingRequestDTO
+	 * @return BookingStatusDTO
+	 */
+	private BookingStatusDTO moveBooking(String preRegistrationId, BookingRequestDTO oldBooking,
+			BookingRequestDTO bookingRequestDTO) {
+		LocalDate regDate = LocalDate.parse(bookingRequestDTO.getRegDate());
+		LocalTime slotFromTime = LocalTime.parse(bookingRequestDTO.getSlotFromTime());
+		LocalTime slotToTime = LocalTime.parse(bookingRequestDTO.getSlotToTime());
+		if (!slotInventory.move(oldBooking.getRegistrationCenterId(), LocalDate.parse(oldBooking.getRegDate()),
+				LocalTime.parse(oldBooking.getSlotFromTime()), LocalTime.parse(oldBooking.getSlotToTime()),
+				bookingRequestDTO.getRegistrationCenterId(), regDate, slotFromTime, slotToTime)) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+		}
+		availabilityCache.evict(oldBooking.getRegistrationCenterId());
+		availabilityCache.evict(bookingRequestDTO.getRegistrationCenterId());
+		nextOpenSlotIndex.released(oldBooking.getRegistrationCenterId(), LocalDate.parse(oldBooking.getRegDate()),
+				LocalTime.parse(oldBooking.getSlotFromTime()));
+		nextOpenSlotIndex.reserved(bookingRequestDTO.getRegistrationCenterId(), regDate, slotFromTime, slotToTime);
+		if (!bookingDAO.moveBooking(preRegistrationId, bookingRequestDTO.getRegistrationCenterId(), regDate,
+				slotFromTime, slotToTime, authUserDetails().getUserId())) {
+			throw new BookingDataNotFoundException(ErrorCodes.PRG_BOOK_RCI_013.getCode(),
+					ErrorMessages.BOOKING_DATA_NOT_FOUND.getMessage());
+		}
+		bookingDAO.saveBookingChanges(Arrays.asList(bookingChange(preRegistrationId, oldBooking, ChangeType.CANCELLED),
+				bookingChange(preRegistrationId, bookingRequestDTO, ChangeType.BOOKED)));
+		BookingStatusDTO bookingStatusDTO = new BookingStatusDTO();
+		bookingStatusDTO.setBookingMessage("Appointment booked successfully");
+		return bookingStatusDTO;
+	}
 
-							/* Creating new booking */
-							response = book(preRegistrationId, bookingRequestDTO);
+	/**
+	 * This method rejects the applications that cannot be booked.
+	 * 
+	 * @param preRegStatusCode
+	 */
+	private void checkBookableStatus(String preRegStatusCode) {
+		if (preRegStatusCode.equals(StatusCodes.APPLICATION_INCOMPLETE.getCode())) {
+			throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
+					ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_INCOMPLETE_APPLICATION.getMessage());
+		} else if (preRegStatusCode.equals(StatusCodes.PREFETCHED.getCode())) {
+			throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
+					ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_PREFETCHED_APPLICATION.getMessage());
+		}
+	}
 
-						} else if (preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
+	/**
+	 * This method returns the slot of the current booking, after checking that it
+	 * is far enough in the future to be re-booked.
+	 * 
+	 * @param bookingEntity
+	 * @param requestTime
+	 * @return the currently booked slot
+	 */
+	private BookingRequestDTO oldBookingOf(RegistrationBookingEntity bookingEntity, Date requestTime) {
+		BookingRequestDTO oldBooking = new BookingRequestDTO();
+		oldBooking.setRegDate(bookingEntity.getRegDate().toString());
+		oldBooking.setRegistrationCenterId(bookingEntity.getRegistrationCenterId());
+		oldBooking.setSlotFromTime(bookingEntity.getSlotFromTime().toString());
+		oldBooking.setSlotToTime(bookingEntity.getSlotToTime().toString());
+
+		/* Concatenating Booking date and slot from time */
+		String str = bookingEntity.getRegDate() + " " + bookingEntity.getSlotFromTime();
+		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+		LocalDateTime bookedDateTime = LocalDateTime.parse(str, formatter);
+		log.info("sessionId", "idType", "id",
+				"In oldBookingOf method of Booking Service for booking Date Time- " + bookedDateTime);
+
+		/* Time span check for re-book */
+		serviceUtil.timeSpanCheckForRebook(bookedDateTime, requestTime);
+		return oldBooking;
+	}
 
-							/* Deleting old booking */
-							deleteOldBooking(preRegistrationId);
+	/**
+	 * This method creates the change log entry of a pre registration in a slot.
+	 * 
+	 * @param preRegistrationId
+	 * @param slot
+	 * @param changeType
+	 * @return BookingChangeEntity
+	 */
+	private BookingChangeEntity bookingChange(String preRegistrationId, BookingRequestDTO slot,
+			ChangeType changeType) {
+		return new BookingChangeEntity(preRegistrationId, slot.getRegistrationCenterId(),
+				LocalDate.parse(slot.getRegDate()), LocalTime.parse(slot.getSlotFromTime()),
+				LocalTime.parse(slot.getSlotToTime()), changeType);
+	}
 
-							/* Creating new booking */
-							response = book(preRegistrationId, bookingRequestDTO);
-						}
+	/**
+	 * This method creates the change log entry of a booking.
+	 * 
+	 * @param bookingEntity
+	 * @param changeType
+	 * @return BookingChangeEntity
+	 */
+	private BookingChangeEntity bookingChange(RegistrationBookingEntity bookingEntity, ChangeType changeType) {
+		return new BookingChangeEntity(bookingEntity.getPreregistrationId(), bookingEntity.getRegistrationCenterId(),
+				bookingEntity.getRegDate(), bookingEntity.getSlotFromTime(), bookingEntity.getSlotToTime(),
+				changeType);
+	}
 
-					}
+	/**
+	 * This method records the duration of a booking phase as
+	 * prereg.booking.phase.
+	 * 
+	 * @param operation
+	 * @param phase
+	 * @param startNanos
+	 */
+	private void recordPhase(String operation, String phase, long startNanos) {
+		Timer.builder("prereg.booking.phase").tag("operation", operation).tag("phase", phase)
+				.register(meterRegistry).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
 
-				}
-				isSaveSuccess = true;
-			} catch (Exception ex) {
-				log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
-				log.error("sessionId", "idType", "id",
-						"In bookAppointment method of Booking Service- " + ex.getMessage());
-				new BookingExceptionCatcher().handle(ex, responseDTO);
-			} finally {
-				if (isSaveSuccess) {
-					setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(),
-							EventType.BUSINESS.toString(), "Appointment booked successfully",
-							AuditLogVariables.MULTIPLE_ID.toString(), authUserDetails().getUserId(),
-							authUserDetails().getUsername(), bookingRequestDTOs.getRequest().getRegistrationCenterId());
-				} else {
-					setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(),
-							EventType.SYSTEM.toString(), "Appointment failed to book",
-							AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
-							authUserDetails().getUsername(), bookingRequestDTOs.getRequest().getRegistrationCenterId());
-				}
-			}
-			responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
-			responseDTO.setResponse(response);
-			log.info("Sync block :", preRegistrationId, " End", "");
-			return responseDTO;
+	/**
+	 * This method reserves the kiosks of several bookings of the same slot with
+	 * one update, only if all of them are available.
+	 * 
+	 * @param bookingRequestDTO
+	 * @param kiosks
+	 */
+	private void reserveKiosks(BookingRequestDTO bookingRequestDTO, int kiosks) {
+		if (!slotInventory.reserve(bookingRequestDTO.getRegistrationCenterId(),
+				LocalDate.parse(bookingRequestDTO.getRegDate()), LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
+				LocalTime.parse(bookingRequestDTO.getSlotToTime()), kiosks)) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
 		}
+		availabilityCache.evict(bookingRequestDTO.getRegistrationCenterId());
+		nextOpenSlotIndex.reserved(bookingRequestDTO.getRegistrationCenterId(),
+				LocalDate.parse(bookingRequestDTO.getRegDate()), LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
+				LocalTime.parse(bookingRequestDTO.getSlotToTime()));
+		log.info("In Availablity of bookMultiAppointment method", kiosks + " kiosks reserved",
+				" for Reg center" + bookingRequestDTO.getRegistrationCenterId(),
+				" and Date and Time " + bookingRequestDTO.getRegDate() + " " + bookingRequestDTO.getSlotFromTime());
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * This method gives back the kiosks of several removed bookings of the same
+	 * slot with one update.
 	 * 
-	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
-	 * bookMultiAppointment(io.mosip.preregistration.core.common.dto.MainRequestDTO)
+	 * @param oldBooking
+	 * @param kiosks
 	 */
-	@Override
-	@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
-	public MainResponseDTO<BookingStatus> bookMultiAppointment(MainRequestDTO<MultiBookingRequest> bookingRequestDTOs) {
-
-		log.info("sessionId", "idType", "id", "In bookMultiAppointment method of Booking Service");
+	private void releaseKiosks(BookingRequestDTO oldBooking, int kiosks) {
+		if (!slotInventory.release(oldBooking.getRegistrationCenterId(), LocalDate.parse(oldBooking.getRegDate()),
+				LocalTime.parse(oldBooking.getSlotFromTime()), LocalTime.parse(oldBooking.getSlotToTime()), kiosks)) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+		}
+		availabilityCache.evict(oldBooking.getRegistrationCenterId());
+		nextOpenSlotIndex.released(oldBooking.getRegistrationCenterId(), LocalDate.parse(oldBooking.getRegDate()),
+				LocalTime.parse(oldBooking.getSlotFromTime()));
+	}
 
-		bookingLock.setDate(bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegDate());
-		bookingLock.setRegistrationCenter(bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegDate());
-		bookingLock.setTimeslot(bookingRequestDTOs.getRequest().getBookingRequest().get(0).getSlotFromTime());
-
-		synchronized (bookingLock) {
-			log.info("Sync block :", bookingRequestDTOs.getRequest().getBookingRequest().get(0).getPreRegistrationId(),
-					" Start", "");
-			MainResponseDTO<BookingStatus> responseDTO = new MainResponseDTO<>();
-			BookingStatus response = new BookingStatus();
-			responseDTO.setId(idUrlBookAppointment);
-			responseDTO.setVersion(versionUrl);
-			boolean isSaveSuccess = false;
-			List<BookingStatusDTO> respList = new ArrayList<>();
-			try {
-				for (MultiBookingRequestDTO bookingRequestDTO : bookingRequestDTOs.getRequest().getBookingRequest()) {
-					Map<String, String> dateMap = new HashMap<>();
-					dateMap.put(RequestCodes.REG_DATE.getCode(), bookingRequestDTO.getRegDate());
-					dateMap.put(RequestCodes.FROM_SLOT_TIME.getCode(), bookingRequestDTO.getSlotFromTime());
-					dateMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), bookingRequestDTO.getPreRegistrationId());
-					if (serviceUtil.validateAppointmentDate(dateMap)) {
-						/* Getting Status From Demographic */
-						String preRegStatusCode = serviceUtil
-								.getApplicationBookingStatus(bookingRequestDTO.getPreRegistrationId());
-						log.debug("preRegStatusCode" + preRegStatusCode);
-
-						if (preRegStatusCode.equals(StatusCodes.APPLICATION_INCOMPLETE.getCode())
-								|| preRegStatusCode.equals(StatusCodes.PREFETCHED.getCode())) {
-
-							if (preRegStatusCode.equals(StatusCodes.APPLICATION_INCOMPLETE.getCode())) {
-								throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
-										ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_INCOMPLETE_APPLICATION
-												.getMessage());
-							} else {
-								throw new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
-										ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_PREFETCHED_APPLICATION
-												.getMessage());
-							}
-
-						}
-
-						// Taking one booking request from multiple
-						BookingRequestDTO bookingRequest = new BookingRequestDTO();
-						bookingRequest.setRegDate(bookingRequestDTO.getRegDate());
-						bookingRequest.setRegistrationCenterId(bookingRequestDTO.getRegistrationCenterId());
-						bookingRequest.setSlotFromTime(bookingRequestDTO.getSlotFromTime());
-						bookingRequest.setSlotToTime(bookingRequestDTO.getSlotToTime());
-
-						if (serviceUtil.mandatoryParameterCheck(bookingRequestDTO.getPreRegistrationId(),
-								bookingRequest)
-								&& serviceUtil.slotTimeValidCheck(bookingRequestDTO.getPreRegistrationId(),
-										bookingRequest)) {
-
-							/* Checking the availability of slots */
-							checkSlotAvailability(bookingRequest);
-
-							if (preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
-									|| preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())) {
-
-								/* Creating new booking */
-								respList.add(book(bookingRequestDTO.getPreRegistrationId(), bookingRequest));
-
-							} else if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
-
-								/* Concatenating Booking date and slot from time */
-								RegistrationBookingEntity bookingEntity = bookingDAO
-										.findByPreRegistrationId(bookingRequestDTO.getPreRegistrationId());
-								BookingRequestDTO oldBooking = new BookingRequestDTO();
-								oldBooking.setRegDate(bookingEntity.getRegDate().toString());
-								oldBooking.setRegistrationCenterId(bookingEntity.getRegistrationCenterId());
-								oldBooking.setSlotFromTime(bookingEntity.getSlotFromTime().toString());
-								oldBooking.setSlotToTime(bookingEntity.getSlotToTime().toString());
-
-								String str = bookingEntity.getRegDate() + " " + bookingEntity.getSlotFromTime();
-								DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-								LocalDateTime bookedDateTime = LocalDateTime.parse(str, formatter);
-
-								log.info("sessionId", "idType", "id",
-										"In bookMultiAppointment method of Booking Service for booking Date Time- "
-												+ bookedDateTime);
-								/* Time span check for re-book */
-								serviceUtil.timeSpanCheckForRebook(bookedDateTime, bookingRequestDTOs.getRequesttime());
-
-								/* Deleting old booking */
-								deleteOldBooking(bookingRequestDTO.getPreRegistrationId());
-
-								/* Increase availability */
-								increaseAvailability(oldBooking);
-
-								/* Creating new booking */
-								respList.add(book(bookingRequestDTO.getPreRegistrationId(), bookingRequest));
-
-							} else if (preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
-
-								/* Deleting old booking */
-								deleteOldBooking(bookingRequestDTO.getPreRegistrationId());
-
-								/* Creating new booking */
-								respList.add(book(bookingRequestDTO.getPreRegistrationId(), bookingRequest));
-							}
-
-						}
-					}
-				}
-				isSaveSuccess = true;
-			} catch (Exception ex) {
-				log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
-				log.error("sessionId", "idType", "id",
-						"In bookMultiAppointment method of Booking Service- " + ex.getMessage());
-				new BookingExceptionCatcher().handle(ex, responseDTO);
-			} finally {
-				if (isSaveSuccess) {
-					setAuditValues(EventId.PRE_407.toString(), EventName.PERSIST.toString(),
-							EventType.BUSINESS.toString(), "Appointment booked successfully",
-							AuditLogVariables.MULTIPLE_ID.toString(), authUserDetails().getUserId(),
-							authUserDetails().getUsername(),
-							bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegistrationCenterId());
-				} else {
-					setAuditValues(EventId.PRE_405.toString(), EventName.EXCEPTION.toString(),
-							EventType.SYSTEM.toString(), "Appointment failed to book",
-							AuditLogVariables.NO_ID.toString(), authUserDetails().getUserId(),
-							authUserDetails().getUsername(),
-							bookingRequestDTOs.getRequest().getBookingRequest().get(0).getRegistrationCenterId());
-				}
-			}
-			responseDTO.setResponsetime(serviceUtil.getCurrentResponseTime());
-			response.setBookingStatusResponse(respList);
-			responseDTO.setResponse(response);
-			log.info("Sync block :", bookingRequestDTOs.getRequest().getBookingRequest().get(0).getPreRegistrationId(),
-					" End", "");
-			return responseDTO;
+	/**
+	 * This method adds the lock keys of the requested slot and of the slot
+	 * currently booked by the pre registration id, if any.
+	 *
+	 * @param slots
+	 * @param preRegistrationId
+	 * @param bookingRequestDTO
+	 */
+	private void addSlotLocks(List<BookingLock> slots, String preRegistrationId, BookingRequestDTO bookingRequestDTO) {
+		slots.add(new BookingLock(bookingRequestDTO.getRegistrationCenterId(),
+				LocalDate.parse(bookingRequestDTO.getRegDate()), LocalTime.parse(bookingRequestDTO.getSlotFromTime())));
+		RegistrationBookingEntity existing = bookingDAO.findBookingIfPresent(preRegistrationId);
+		if (existing != null) {
+			slots.add(new BookingLock(existing.getRegistrationCenterId(), existing.getRegDate(),
+					existing.getSlotFromTime()));
 		}
 	}
 
+	private BookingRequestDTO toBookingRequest(MultiBookingRequestDTO bookingRequestDTO) {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegDate(bookingRequestDTO.getRegDate());
+		bookingRequest.setRegistrationCenterId(bookingRequestDTO.getRegistrationCenterId());
+		bookingRequest.setSlotFromTime(bookingRequestDTO.getSlotFromTime());
+		bookingRequest.setSlotToTime(bookingRequestDTO.getSlotToTime());
+		return bookingRequest;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -558,6 +1228,74 @@ public class BookingService implements BookingServiceIntf {
 		return responseDto;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getAppointmentDetails(java.util.List)
+	 */
+	@Override
+	public MainResponseDTO<List<AppointmentDetailsDto>> getAppointmentDetails(List<String> preRegIds) {
+		log.info("sessionId", "idType", "id", "In getAppointmentDetails method of Booking Service");
+		MainResponseDTO<List<AppointmentDetailsDto>> responseDto = new MainResponseDTO<>();
+		responseDto.setId(idUrlFetch);
+		responseDto.setVersion(versionUrl);
+		try {
+			if (preRegIds == null || preRegIds.isEmpty() || preRegIds.contains(null)) {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_006.getCode(),
+						ErrorMessages.PREREGISTRATION_ID_NOT_ENTERED.getMessage(), null);
+			}
+			Set<String> distinctPreRegIds = new LinkedHashSet<>(preRegIds);
+			if (distinctPreRegIds.size() > detailsMaxIds) {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_040.getCode(),
+						ErrorMessages.TOO_MANY_PRE_REGISTRATION_IDS.getMessage() + " " + detailsMaxIds, null);
+			}
+
+			/* This call will check if the PRIDs belong to the logged in user or not */
+			Map<String, MainResponseDTO<String>> statuses = applicationStatusClient
+					.getApplicationStatusResponses(distinctPreRegIds);
+			List<String> ownedPreRegIds = distinctPreRegIds.stream()
+					.filter(preRegId -> statuses.get(preRegId).getErrors() == null).collect(Collectors.toList());
+			Map<String, RegistrationBookingEntity> entities = new HashMap<>();
+			if (!ownedPreRegIds.isEmpty()) {
+				bookingDAO.findByPreRegistrationIds(ownedPreRegIds)
+						.forEach(entity -> entities.put(entity.getPreregistrationId(), entity));
+			}
+
+			List<AppointmentDetailsDto> appointmentDetails = new ArrayList<>();
+			for (String preRegId : distinctPreRegIds) {
+				AppointmentDetailsDto appointmentDetailsDto = new AppointmentDetailsDto();
+				appointmentDetailsDto.setPreRegistrationId(preRegId);
+				RegistrationBookingEntity entity = entities.get(preRegId);
+				if (statuses.get(preRegId).getErrors() != null) {
+					appointmentDetailsDto.setErrors(statuses.get(preRegId).getErrors());
+				} else if (entity == null) {
+					appointmentDetailsDto.setErrors(Collections.singletonList(new ExceptionJSONInfoDTO(
+							ErrorCodes.PRG_BOOK_RCI_013.getCode(), ErrorMessages.BOOKING_DATA_NOT_FOUND.getMessage())));
+				} else {
+					BookingRegistrationDTO bookingRegistrationDTO = new BookingRegistrationDTO();
+					bookingRegistrationDTO.setRegDate(entity.getRegDate().toString());
+					bookingRegistrationDTO.setRegistrationCenterId(entity.getRegistrationCenterId());
+					bookingRegistrationDTO.setSlotFromTime(entity.getSlotFromTime().toString());
+					bookingRegistrationDTO.setSlotToTime(entity.getSlotToTime().toString());
+					appointmentDetailsDto.setAppointment(bookingRegistrationDTO);
+				}
+				appointmentDetails.add(appointmentDetailsDto);
+			}
+			responseDto.setResponse(appointmentDetails);
+			responseDto.setErrors(null);
+			responseDto.setResponsetime(serviceUtil.getCurrentResponseTime());
+
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getAppointmentDetails method of Booking Service- " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, responseDto);
+		}
+
+		return responseDto;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -618,35 +1356,31 @@ public class BookingService implements BookingServiceIntf {
 		response.setId(idUrlBookAppointment);
 		response.setVersion(versionUrl);
 		try {
-			AvailibityEntity availableEntity;
-
-			availableEntity = bookingDAO.findFirstByRegDateAndRegcntrIdAndFromTimeAndToTime(
-					LocalDate.parse(bookingRequestDTO.getRegDate()), bookingRequestDTO.getRegistrationCenterId(),
-					LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
+			/* Reduce Availability, only if a kiosk is still available */
+			if (!slotInventory.reserve(bookingRequestDTO.getRegistrationCenterId(),
+					LocalDate.parse(bookingRequestDTO.getRegDate()), LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
+					LocalTime.parse(bookingRequestDTO.getSlotToTime()))) {
+				throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+						ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+			}
+			availabilityCache.evict(bookingRequestDTO.getRegistrationCenterId());
+			nextOpenSlotIndex.reserved(bookingRequestDTO.getRegistrationCenterId(),
+					LocalDate.parse(bookingRequestDTO.getRegDate()), LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
 					LocalTime.parse(bookingRequestDTO.getSlotToTime()));
-			log.info("In Availablity of book method",
-					"available slots before update :" + availableEntity.getAvailableKiosks(),
-					" for Reg center" + availableEntity.getRegcntrId(),
-					" and Date and Time " + availableEntity.getRegDate() + " " + availableEntity.getFromTime());
-			if (serviceUtil.isKiosksAvailable(availableEntity)) {
-				/* Updating booking */
-				bookingDAO.saveRegistrationEntityForBooking(
-						serviceUtil.bookingEntitySetter(preRegistrationId, bookingRequestDTO));
-				/* Reduce Availability */
-				availableEntity.setAvailableKiosks(availableEntity.getAvailableKiosks() - 1);
-				AvailibityEntity availableUpdate = bookingDAO.updateAvailibityEntity(availableEntity);
-
-				log.info("In Availablity of book method",
-						"available slots after upadate :" + availableUpdate.getAvailableKiosks(),
-						" for Reg center" + availableUpdate.getRegcntrId(),
-						" and Date and Time " + availableUpdate.getRegDate() + " " + availableUpdate.getFromTime());
-
-				/* Updating demographic */
-				// serviceUtil.updateDemographicStatus(preRegistrationId,
-				// StatusCodes.BOOKED.getCode());
-				bookingStatusDTO.setBookingMessage("Appointment booked successfully");
+			log.info("In Availablity of book method", "kiosk reserved",
+					" for Reg center" + bookingRequestDTO.getRegistrationCenterId(), " and Date and Time "
+							+ bookingRequestDTO.getRegDate() + " " + bookingRequestDTO.getSlotFromTime());
 
-			}
+			/* Updating booking */
+			bookingDAO.saveRegistrationEntityForBooking(
+					serviceUtil.bookingEntitySetter(preRegistrationId, bookingRequestDTO));
+			bookingDAO.saveBookingChanges(
+					Collections.singletonList(bookingChange(preRegistrationId, bookingRequestDTO, ChangeType.BOOKED)));
+
+			/* Updating demographic */
+			// serviceUtil.updateDemographicStatus(preRegistrationId,
+			// StatusCodes.BOOKED.getCode());
+			bookingStatusDTO.setBookingMessage("Appointment booked successfully");
 
 		} catch (Exception ex) {
 			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
@@ -657,6 +1391,125 @@ public class BookingService implements BookingServiceIntf {
 		return bookingStatusDTO;
 	}
 
+	/**
+	 * This method commits the booking of the pre registration id according to
+	 * its application status, in the transaction of the caller.
+	 * 
+	 * @param preRegistrationId
+	 * @param preRegStatusCode
+	 * @param oldBooking
+	 *            the current booking, when the application is booked
+	 * @param bookingRequestDTO
+	 * @return BookingStatusDTO
+	 */
+	private BookingStatusDTO commitBooking(String preRegistrationId, String preRegStatusCode,
+			BookingRequestDTO oldBooking, BookingRequestDTO bookingRequestDTO) {
+		if (preRegStatusCode.equals(StatusCodes.PENDING_APPOINTMENT.getCode())
+				|| preRegStatusCode.equals(StatusCodes.CANCELLED.getCode())) {
+
+			/* Creating new booking */
+			return book(preRegistrationId, bookingRequestDTO);
+
+		} else if (preRegStatusCode.equals(StatusCodes.BOOKED.getCode())) {
+
+			/* Moving the booking and its kiosk to the new slot */
+			return moveBooking(preRegistrationId, oldBooking, bookingRequestDTO);
+
+		} else if (preRegStatusCode.equals(StatusCodes.EXPIRED.getCode())) {
+
+			/* Deleting old booking */
+			deleteOldBooking(preRegistrationId);
+
+			/* Creating new booking */
+			return book(preRegistrationId, bookingRequestDTO);
+		}
+		return new BookingStatusDTO();
+	}
+
+	/**
+	 * This method books a new appointment in a group with the other new bookings
+	 * of the slot, see {@link SlotCommitQueue}. The request waits for its group
+	 * outside any transaction; the leader of the group takes the locks of its
+	 * slots and then opens the one transaction committing the group, and a
+	 * request whose group rolled back does the same for its booking alone.
+	 * 
+	 * @param preRegistrationId
+	 * @param bookingRequestDTO
+	 * @param slots
+	 *            locks of the requested slot and the currently booked slot
+	 * @return BookingStatusDTO
+	 */
+	private BookingStatusDTO bookInGroup(String preRegistrationId, BookingRequestDTO bookingRequestDTO,
+			List<BookingLock> slots) {
+		slotCommitQueue.book(slots.get(0), preRegistrationId, authUserDetails().getUserId(), userIds -> {
+			try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
+				return commitTransaction.execute(status -> bookGroup(bookingRequestDTO, userIds));
+			}
+		}, () -> {
+			try (SlotLocks slotLocks = bookingLockManager.lock(slots)) {
+				commitTransaction.execute(status -> book(preRegistrationId, bookingRequestDTO));
+			}
+		});
+		BookingStatusDTO bookingStatusDTO = new BookingStatusDTO();
+		bookingStatusDTO.setBookingMessage("Appointment booked successfully");
+		return bookingStatusDTO;
+	}
+
+	/**
+	 * This method books a group of new appointments of the same slot with one
+	 * capacity check, one counter update and one batch of inserts. The bookings
+	 * are granted in order while kiosks are available; the rest are rejected.
+	 * Each booking is created by the user who requested it.
+	 * 
+	 * @param bookingRequestDTO
+	 * @param userIds
+	 *            the user booking each pre registration id, in order
+	 * @return the reason of rejection of each rejected id
+	 */
+	private Map<String, RuntimeException> bookGroup(BookingRequestDTO bookingRequestDTO,
+			LinkedHashMap<String, String> userIds) {
+		List<String> preRegistrationIds = new ArrayList<>(userIds.keySet());
+		int granted = Math.min(Math.max(availableKiosks(bookingRequestDTO), 0), preRegistrationIds.size());
+		if (granted > 0) {
+			reserveKiosks(bookingRequestDTO, granted);
+			List<RegistrationBookingEntity> bookingEntities = new ArrayList<>();
+			List<BookingChangeEntity> bookingChanges = new ArrayList<>();
+			for (String preRegistrationId : preRegistrationIds.subList(0, granted)) {
+				bookingEntities.add(serviceUtil.bookingEntitySetter(preRegistrationId, bookingRequestDTO,
+						userIds.get(preRegistrationId)));
+				bookingChanges.add(bookingChange(preRegistrationId, bookingRequestDTO, ChangeType.BOOKED));
+			}
+			bookingDAO.saveRegistrationEntitiesForBooking(bookingEntities);
+			bookingDAO.saveBookingChanges(bookingChanges);
+		}
+		Map<String, RuntimeException> rejected = new HashMap<>();
+		for (String preRegistrationId : preRegistrationIds.subList(granted, preRegistrationIds.size())) {
+			rejected.put(preRegistrationId, new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage()));
+		}
+		return rejected;
+	}
+
+	/**
+	 * This method gives the kiosks available on the slot, from the slot
+	 * inventory when it keeps them, else from the slot table.
+	 * 
+	 * @param bookingRequestDTO
+	 * @return available kiosks
+	 */
+	private int availableKiosks(BookingRequestDTO bookingRequestDTO) {
+		LocalDate regDate = LocalDate.parse(bookingRequestDTO.getRegDate());
+		LocalTime slotFromTime = LocalTime.parse(bookingRequestDTO.getSlotFromTime());
+		LocalTime slotToTime = LocalTime.parse(bookingRequestDTO.getSlotToTime());
+		OptionalInt inventoryKiosks = slotInventory.availableKiosks(bookingRequestDTO.getRegistrationCenterId(),
+				regDate, slotFromTime, slotToTime);
+		if (inventoryKiosks != null && inventoryKiosks.isPresent()) {
+			return inventoryKiosks.getAsInt();
+		}
+		return bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(regDate,
+				bookingRequestDTO.getRegistrationCenterId(), slotFromTime, slotToTime).getAvailableKiosks();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -673,7 +1526,6 @@ public class BookingService implements BookingServiceIntf {
 		response.setId(idUrlCancel);
 		response.setVersion(versionUrl);
 		boolean isSaveSuccess = false;
-		AvailibityEntity availableEntity;
 		RegistrationBookingEntity bookingEntity;
 		try {
 			if (serviceUtil.mandatoryParameterCheckforCancel(preRegistrationId)) {
@@ -681,10 +1533,6 @@ public class BookingService implements BookingServiceIntf {
 					/* Getting Booking details */
 					bookingEntity = bookingDAO.findByPreRegistrationId(preRegistrationId);
 
-					availableEntity = bookingDAO.findFirstByRegDateAndRegcntrIdAndFromTimeAndToTime(
-							bookingEntity.getRegDate(), bookingEntity.getRegistrationCenterId(),
-							bookingEntity.getSlotFromTime(), bookingEntity.getSlotToTime());
-
 					/* For batch condition will skip */
 					if (!isBatchUser) {
 						String str = bookingEntity.getRegDate() + " " + bookingEntity.getSlotFromTime();
@@ -702,9 +1550,10 @@ public class BookingService implements BookingServiceIntf {
 					// StatusCodes.CANCELLED.getCode());
 
 					/* No. of Availability. update */
-					availableEntity.setAvailableKiosks(availableEntity.getAvailableKiosks() + 1);
-
-					bookingDAO.updateAvailibityEntity(availableEntity);
+					releaseKiosk(bookingEntity.getRegDate(), bookingEntity.getRegistrationCenterId(),
+							bookingEntity.getSlotFromTime(), bookingEntity.getSlotToTime());
+					bookingDAO.saveBookingChanges(
+							Collections.singletonList(bookingChange(bookingEntity, ChangeType.CANCELLED)));
 
 					cancelBookingResponseDTO.setTransactionId(UUIDGeneratorUtil.generateId());
 					cancelBookingResponseDTO
@@ -747,7 +1596,6 @@ public class BookingService implements BookingServiceIntf {
 		response.setVersion(versionUrl);
 		DeleteBookingDTO deleteDto = new DeleteBookingDTO();
 		Map<String, String> requestParamMap = new HashMap<>();
-		AvailibityEntity availableEntity;
 		boolean isSaveSuccess = false;
 		try {
 			requestParamMap.put(RequestCodes.PRE_REGISTRAION_ID.getCode(), preregId);
@@ -759,16 +1607,12 @@ public class BookingService implements BookingServiceIntf {
 				LocalDateTime bookedDateTime = LocalDateTime.parse(str, formatter);
 				serviceUtil.timeSpanCheckForCancle(bookedDateTime);
 				bookingDAO.deleteByPreRegistrationId(preregId);
-				availableEntity = bookingDAO.findFirstByRegDateAndRegcntrIdAndFromTimeAndToTime(
-						LocalDate.parse(registrationEntityList.getRegDate().toString()),
-						registrationEntityList.getRegistrationCenterId(),
-						LocalTime.parse(registrationEntityList.getSlotFromTime().toString()),
-						LocalTime.parse(registrationEntityList.getSlotToTime().toString()));
-				/* No. of Availability. update */
-				availableEntity.setAvailableKiosks(availableEntity.getAvailableKiosks() + 1);
 
-				/* Updating slot in DB */
-				bookingDAO.updateAvailibityEntity(availableEntity);
+				/* No. of Availability. update */
+				releaseKiosk(registrationEntityList.getRegDate(), registrationEntityList.getRegistrationCenterId(),
+						registrationEntityList.getSlotFromTime(), registrationEntityList.getSlotToTime());
+				bookingDAO.saveBookingChanges(
+						Collections.singletonList(bookingChange(registrationEntityList, ChangeType.CANCELLED)));
 
 				deleteDto.setPreRegistrationId(registrationEntityList.getPreregistrationId());
 				deleteDto.setDeletedBy(registrationEntityList.getCrBy());
@@ -822,16 +1666,13 @@ public class BookingService implements BookingServiceIntf {
 			}
 
 			bookingDAO.findRegistrationCenterId(bookingRequestDTO.getRegistrationCenterId());
-			AvailibityEntity entity = bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(
-					LocalDate.parse(bookingRequestDTO.getRegDate()), bookingRequestDTO.getRegistrationCenterId(),
-					LocalTime.parse(bookingRequestDTO.getSlotFromTime()),
-					LocalTime.parse(bookingRequestDTO.getSlotToTime()));
-			log.info("In Availablity", "available slots :" + entity.getAvailableKiosks(),
-					" for Reg center" + entity.getRegcntrId(),
-					" and Date and Time " + entity.getRegDate() + " " + entity.getFromTime());
+			int availableKiosks = availableKiosks(bookingRequestDTO);
+			log.info("In Availablity", "available slots :" + availableKiosks,
+					" for Reg center" + bookingRequestDTO.getRegistrationCenterId(),
+					" and Date and Time " + bookingRequestDTO.getRegDate() + " " + bookingRequestDTO.getSlotFromTime());
 
 			log.info("sessionId", "idType", "id", "In checkSlotAvailability method of Booking Service");
-			if (entity.getAvailableKiosks() < 1) {
+			if (availableKiosks < 1) {
 				throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
 						ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
 			}
@@ -884,12 +1725,8 @@ public class BookingService implements BookingServiceIntf {
 		response.setId(idUrlIncreaseAvailability);
 		response.setVersion(versionUrl);
 		try {
-			AvailibityEntity availableEntity;
-			availableEntity = bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(
-					LocalDate.parse(oldBooking.getRegDate()), oldBooking.getRegistrationCenterId(),
+			releaseKiosk(LocalDate.parse(oldBooking.getRegDate()), oldBooking.getRegistrationCenterId(),
 					LocalTime.parse(oldBooking.getSlotFromTime()), LocalTime.parse(oldBooking.getSlotToTime()));
-			availableEntity.setAvailableKiosks(availableEntity.getAvailableKiosks() + 1);
-			bookingDAO.updateAvailibityEntity(availableEntity);
 			log.info("sessionId", "idType", "id", "In increaseAvailability method of Booking Service");
 
 		} catch (Exception ex) {
@@ -902,6 +1739,23 @@ public class BookingService implements BookingServiceIntf {
 
 	}
 
+	/**
+	 * This method gives back one kiosk to the slot of a removed booking.
+	 * 
+	 * @param regDate
+	 * @param regCenterId
+	 * @param slotFromTime
+	 * @param slotToTime
+	 */
+	private void releaseKiosk(LocalDate regDate, String regCenterId, LocalTime slotFromTime, LocalTime slotToTime) {
+		if (!slotInventory.release(regCenterId, regDate, slotFromTime, slotToTime)) {
+			throw new AvailablityNotFoundException(ErrorCodes.PRG_BOOK_RCI_002.getCode(),
+					ErrorMessages.AVAILABILITY_NOT_FOUND_FOR_THE_SELECTED_TIME.getMessage());
+		}
+		availabilityCache.evict(regCenterId);
+		nextOpenSlotIndex.released(regCenterId, regDate, slotFromTime);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -924,7 +1778,7 @@ public class BookingService implements BookingServiceIntf {
 		auditRequestDto.setModuleId(AuditLogVariables.BOOK.toString());
 		auditRequestDto.setModuleName(AuditLogVariables.BOOKING_SERVICE.toString());
 		auditRequestDto.setId(ref_id);
-		auditLogUtil.saveAuditDetails(auditRequestDto);
+		auditQueue.submit(auditRequestDto);
 	}
 
 	/*
@@ -1011,4 +1865,302 @@ public class BookingService implements BookingServiceIntf {
 		return response;
 
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getBookedPreRegistrationByDate(java.lang.String, java.lang.String,
+	 * java.lang.String, java.lang.String, java.lang.Integer)
+	 */
+	@Override
+	public MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO> getBookedPreRegistrationByDate(String fromDateStr,
+			String toDateStr, String regCenterId, String cursor, Integer pageSize) {
+		if (cursor == null && pageSize == null) {
+			return getBookedPreRegistrationByDate(fromDateStr, toDateStr, regCenterId);
+		}
+		log.info("sessionId", "idType", "id", "In getBookedPreRegistrationByDate method of booking service ");
+		MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO> response = new MainResponseDTO<>();
+		response.setId(idUrlBookingByDate);
+		response.setVersion(versionUrl);
+		try {
+			int limit = bookingPageSize(pageSize);
+			List<RegistrationBookingEntity> entities = bookingPage(fromDateStr, toDateStr, regCenterId, cursor, limit);
+			PreRegIdsByRegCenterIdPageDTO responseDTO = new PreRegIdsByRegCenterIdPageDTO();
+			responseDTO.setNextCursor(nextCursor(entities, limit));
+			responseDTO.setPreRegistrationIds(entities.stream().map(RegistrationBookingEntity::getPreregistrationId)
+					.collect(Collectors.toList()));
+			responseDTO.setRegistrationCenterId(regCenterId);
+			response.setResponse(responseDTO);
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getPreRegistrationByDate method of pre-registration service - " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		return response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getBookedPreRegistrations(java.lang.String, java.lang.String,
+	 * java.lang.String, java.lang.String, java.lang.Integer)
+	 */
+	@Override
+	public MainResponseDTO<BookingDataByRegIdDto> getBookedPreRegistrations(String fromDateStr, String toDateStr,
+			String regCenterId, String cursor, Integer pageSize) {
+		if (cursor == null && pageSize == null) {
+			return getBookedPreRegistrations(fromDateStr, toDateStr, regCenterId);
+		}
+		log.info("sessionId", "idType", "id", "In getBookedPreRegistrations method of booking service ");
+		MainResponseDTO<BookingDataByRegIdDto> response = new MainResponseDTO<>();
+		response.setId(idUrlBookingByDate);
+		response.setVersion(versionUrl);
+		try {
+			int limit = bookingPageSize(pageSize);
+			List<RegistrationBookingEntity> entities = bookingPage(fromDateStr, toDateStr, regCenterId, cursor, limit);
+			BookingDataByRegIdDto responseDTO = new BookingDataByRegIdDto();
+			responseDTO.setNextCursor(nextCursor(entities, limit));
+			Map<String, Map<LocalDate, SlotTimeDto>> idsWithSlotTime = new LinkedHashMap<>();
+			for (RegistrationBookingEntity entity : entities) {
+				idsWithSlotTime.put(entity.getPreregistrationId(), Collections.singletonMap(entity.getRegDate(),
+						new SlotTimeDto(entity.getSlotFromTime(), entity.getSlotToTime())));
+			}
+			responseDTO.setRegistrationCenterId(regCenterId);
+			responseDTO.setIdsWithAppointmentDate(idsWithSlotTime);
+			response.setResponse(responseDTO);
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getBookedPreRegistrations method of pre-registration service - " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		return response;
+	}
+
+	/**
+	 * This method caps the requested page size at
+	 * ${preregistration.booking.page.max.size}.
+	 * 
+	 * @param pageSize
+	 * @return the page size to fetch
+	 */
+	private int bookingPageSize(Integer pageSize) {
+		if (pageSize == null || pageSize > bookingPageMaxSize) {
+			return bookingPageMaxSize;
+		}
+		return Math.max(1, pageSize);
+	}
+
+	/**
+	 * This method validates the request and fetches one booking more than the
+	 * page size, to know if there is a next page.
+	 * 
+	 * @param fromDateStr
+	 * @param toDateStr
+	 * @param regCenterId
+	 * @param cursor
+	 * @param limit
+	 * @return up to limit + 1 bookings after the cursor
+	 */
+	private List<RegistrationBookingEntity> bookingPage(String fromDateStr, String toDateStr, String regCenterId,
+			String cursor, int limit) {
+		if (toDateStr == null || toDateStr.isEmpty()) {
+			toDateStr = fromDateStr;
+		}
+		String format = "yyyy-MM-dd";
+		serviceUtil.validateFromDateAndToDate(fromDateStr, toDateStr, format);
+		if (regCenterId == null || regCenterId.isEmpty()) {
+			throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_007.getCode(),
+					ErrorMessages.REGISTRATION_CENTER_ID_NOT_ENTERED.getMessage(), null);
+		}
+		BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
+		DateTimeFormatter parseFormatter = DateTimeFormatter.ofPattern(format);
+		List<RegistrationBookingEntity> entities = bookingDAO.findBookingPage(
+				LocalDate.parse(fromDateStr, parseFormatter), LocalDate.parse(toDateStr, parseFormatter), regCenterId,
+				after, limit + 1);
+		if (after == null && entities.isEmpty()) {
+			throw new BookingDataNotFoundException(ErrorCodes.PRG_BOOK_RCI_032.getCode(),
+					ErrorMessages.RECORD_NOT_FOUND_FOR_DATE_RANGE_AND_REG_CENTER_ID.getMessage());
+		}
+		return entities;
+	}
+
+	/**
+	 * This method drops the look ahead booking from the page.
+	 * 
+	 * @param entities
+	 * @param limit
+	 * @return the cursor of the next page, null on the last page
+	 */
+	private String nextCursor(List<RegistrationBookingEntity> entities, int limit) {
+		if (entities.size() <= limit) {
+			return null;
+		}
+		entities.subList(limit, entities.size()).clear();
+		return BookingCursor.of(entities.get(limit - 1)).encode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * streamBookedPreRegistrations(java.lang.String, java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public StreamingResponseBody streamBookedPreRegistrations(String fromDateStr, String toDateStr,
+			String regCenterId) {
+		log.info("sessionId", "idType", "id", "In streamBookedPreRegistrations method of booking service ");
+		MainResponseDTO<?> response = new MainResponseDTO<>();
+		response.setId(idUrlBookingByDate);
+		response.setVersion(versionUrl);
+		try {
+			if (toDateStr == null || toDateStr.isEmpty()) {
+				toDateStr = fromDateStr;
+			}
+			String format = "yyyy-MM-dd";
+			serviceUtil.validateFromDateAndToDate(fromDateStr, toDateStr, format);
+			if (regCenterId == null || regCenterId.isEmpty()) {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_007.getCode(),
+						ErrorMessages.REGISTRATION_CENTER_ID_NOT_ENTERED.getMessage(), null);
+			}
+			DateTimeFormatter parseFormatter = DateTimeFormatter.ofPattern(format);
+			LocalDate fromDate = LocalDate.parse(fromDateStr, parseFormatter);
+			LocalDate toDate = LocalDate.parse(toDateStr, parseFormatter);
+			return out -> {
+				long count = bookingDAO.streamBookedAppointments(fromDate, toDate, regCenterId, appointment -> {
+					try {
+						out.write(exportMapper.writeValueAsBytes(appointment));
+						out.write('\n');
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+				log.info("sessionId", "idType", "id", "In streamBookedPreRegistrations method of booking service, "
+						+ count + " bookings streamed for Reg center " + regCenterId);
+			};
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In streamBookedPreRegistrations method of pre-registration service - " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getBookingChanges(java.lang.String, java.lang.Long)
+	 */
+	@Override
+	public MainResponseDTO<BookingChangesDto> getBookingChanges(String regCenterId, Long since) {
+		return getBookingChanges(regCenterId, since, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.preregistration.booking.serviceimpl.service.BookingServiceIntf#
+	 * getBookingChanges(java.lang.String, java.lang.Long, java.lang.String)
+	 */
+	@Override
+	public MainResponseDTO<BookingChangesDto> getBookingChanges(String regCenterId, Long since, String cursor) {
+		log.info("sessionId", "idType", "id", "In getBookingChanges method of booking service ");
+		MainResponseDTO<BookingChangesDto> response = new MainResponseDTO<>();
+		response.setId(idUrlBookingByDate);
+		response.setVersion(versionUrl);
+		BookingChangesDto bookingChangesDto = new BookingChangesDto();
+		try {
+			if (regCenterId == null || regCenterId.isEmpty()) {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_007.getCode(),
+						ErrorMessages.REGISTRATION_CENTER_ID_NOT_ENTERED.getMessage(), null);
+			}
+			bookingChangesDto.setRegistrationCenterId(regCenterId);
+			bookingChangesDto.setChanges(new ArrayList<>());
+
+			/* The watermark is the commit sequence, only given to committed changes */
+			if (since == null) {
+				bookingSnapshot(bookingChangesDto, regCenterId, cursor);
+			} else {
+				List<BookingChangeEntity> bookingChanges = bookingDAO.findBookingChanges(regCenterId, since,
+						changesPageSize + 1);
+				bookingChangesDto.setHasMore(bookingChanges.size() > changesPageSize);
+				long watermark = since;
+				for (BookingChangeEntity bookingChange : bookingChanges.subList(0,
+						Math.min(bookingChanges.size(), changesPageSize))) {
+					BookingChangeDto bookingChangeDto = new BookingChangeDto();
+					bookingChangeDto.setPreRegistrationId(bookingChange.getPreregistrationId());
+					bookingChangeDto.setChangeType(bookingChange.getChangeType().name());
+					bookingChangeDto.setRegDate(bookingChange.getRegDate().toString());
+					bookingChangeDto.setSlotFromTime(bookingChange.getFromTime().toString());
+					bookingChangeDto.setSlotToTime(bookingChange.getToTime().toString());
+					bookingChangesDto.getChanges().add(bookingChangeDto);
+					watermark = bookingChange.getCommitSeq();
+				}
+				bookingChangesDto.setWatermark(watermark);
+			}
+		} catch (Exception ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In getBookingChanges method of pre-registration service - " + ex.getMessage());
+			new BookingExceptionCatcher().handle(ex, response);
+		}
+		response.setResponsetime(serviceUtil.getCurrentResponseTime());
+		response.setResponse(bookingChangesDto);
+		return response;
+	}
+
+	/**
+	 * This method fills one page of the bookings of the registration center from
+	 * today as BOOKED changes. The watermark is read before the first page and
+	 * carried in the cursor, so that every page gives the watermark read before
+	 * any booking. A change sequenced at or below it was committed before that
+	 * read and is in the snapshot, while a change sequenced above it is given
+	 * again by the feed, where applying it twice does no harm.
+	 * 
+	 * @param bookingChangesDto
+	 * @param regCenterId
+	 * @param cursor
+	 *            cursor of the previous snapshot page, null for the first page
+	 */
+	private void bookingSnapshot(BookingChangesDto bookingChangesDto, String regCenterId, String cursor) {
+		long watermark;
+		BookingCursor after = null;
+		if (cursor == null) {
+			watermark = bookingDAO.findLatestBookingChangeSeq();
+		} else {
+			String[] position = cursor.split("\\" + SNAPSHOT_CURSOR_SEPARATOR, 2);
+			try {
+				watermark = Long.parseLong(position[0]);
+			} catch (NumberFormatException ex) {
+				throw new InvalidRequestParameterException(ErrorCodes.PRG_BOOK_RCI_039.getCode(),
+						ErrorMessages.INVALID_BOOKING_CURSOR.getMessage(), null);
+			}
+			after = BookingCursor.decode(position.length == 2 ? position[1] : "");
+		}
+		LocalDate today = LocalDate.now();
+		List<RegistrationBookingEntity> bookings = bookingDAO.findBookingPage(today, today.plusDays(syncDays),
+				regCenterId, after, changesPageSize + 1);
+		String nextCursor = nextCursor(bookings, changesPageSize);
+		for (RegistrationBookingEntity booking : bookings) {
+			BookingChangeDto bookingChangeDto = new BookingChangeDto();
+			bookingChangeDto.setPreRegistrationId(booking.getPreregistrationId());
+			bookingChangeDto.setChangeType(ChangeType.BOOKED.name());
+			bookingChangeDto.setRegDate(booking.getRegDate().toString());
+			bookingChangeDto.setSlotFromTime(booking.getSlotFromTime().toString());
+			bookingChangeDto.setSlotToTime(booking.getSlotToTime().toString());
+			bookingChangesDto.getChanges().add(bookingChangeDto);
+		}
+		bookingChangesDto.setHasMore(nextCursor != null);
+		bookingChangesDto.setNextCursor(
+				nextCursor == null ? null : watermark + SNAPSHOT_CURSOR_SEPARATOR + nextCursor);
+		bookingChangesDto.setWatermark(watermark);
+	}
 }
@@ -1,14 +1,23 @@
 package io.mosip.preregistration.booking.service;
 
+import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import io.mosip.preregistration.booking.dto.AppointmentDetailsDto;
 import io.mosip.preregistration.booking.dto.AvailabilityDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySyncDto;
+import io.mosip.preregistration.booking.dto.BookingChangesDto;
 import io.mosip.preregistration.booking.dto.BookingDataByRegIdDto;
 import io.mosip.preregistration.booking.dto.BookingRequestDTO;
 import io.mosip.preregistration.booking.dto.BookingStatus;
 import io.mosip.preregistration.booking.dto.BookingStatusDTO;
+import io.mosip.preregistration.booking.dto.EarliestSlotDto;
 import io.mosip.preregistration.booking.dto.MultiBookingRequest;
+import io.mosip.preregistration.booking.dto.SlotHoldDto;
 import io.mosip.preregistration.core.common.dto.BookingRegistrationDTO;
 import io.mosip.preregistration.core.common.dto.CancelBookingResponseDTO;
 import io.mosip.preregistration.core.common.dto.DeleteBookingDTO;
@@ -27,6 +36,41 @@ public interface BookingServiceIntf {
 	 */
 	MainResponseDTO<AvailabilityDto> getAvailability(String regID);
 
+	/**
+	 * Gives the per day totals of the availability of the registration center,
+	 * from the first bookable date for the display days unless a date range is
+	 * given.
+	 * 
+	 * @param regID pass the RegistartionId
+	 * @param fromDateStr pass fromDate, optional
+	 * @param toDateStr pass toDate, optional
+	 * @return AvailabilitySummaryDto return the per day totals
+	 */
+	MainResponseDTO<AvailabilitySummaryDto> getAvailabilitySummary(String regID, String fromDateStr,
+			String toDateStr);
+
+	/**
+	 * Generates the slots of all the registration centers from their master data
+	 * for the sync days, writing only the slots that changed. Centers whose
+	 * master data did not change since the previous sync are skipped.
+	 * 
+	 * @return AvailabilitySyncDto return the outcome of the sync
+	 */
+	MainResponseDTO<AvailabilitySyncDto> syncAvailability();
+
+	/**
+	 * Gives the earliest open slot of each of the registration centers, or of
+	 * the registration centers nearest to the location, earliest first.
+	 * 
+	 * @param latitude pass the latitude of the location, optional
+	 * @param longitude pass the longitude of the location, optional
+	 * @param regCenterIds pass the registration center ids, optional
+	 * @param limit pass the number of nearest centers to search, optional
+	 * @return List of EarliestSlotDto
+	 */
+	MainResponseDTO<List<EarliestSlotDto>> getEarliestAvailability(String latitude, String longitude,
+			List<String> regCenterIds, Integer limit);
+
 
 	/**
 	 * This method use to book the appointment.
@@ -53,6 +97,18 @@ public interface BookingServiceIntf {
 	 */
 	MainResponseDTO<BookingRegistrationDTO> getAppointmentDetails(String preRegID);
 
+	/**
+	 * This Method is used to fetch the appointment details of several
+	 * pre-registration ids, checking the status of all of them with one batched
+	 * call and reading all the bookings with one query. Each id gets either its
+	 * appointment or its errors.
+	 * 
+	 * @param preRegIds
+	 *            pass the pre-registration ids
+	 * @return MainResponseDTO<List<AppointmentDetailsDto>>
+	 */
+	MainResponseDTO<List<AppointmentDetailsDto>> getAppointmentDetails(List<String> preRegIds);
+
 	/**
 	 * This method will cancel the appointment based on the preRegistrationId.
 	 * 
@@ -166,5 +222,124 @@ public interface BookingServiceIntf {
 	MainResponseDTO<BookingDataByRegIdDto> getBookedPreRegistrations(String fromDateStr,
 			String toDateStr, String regCenterId);
 
+	/**
+	 * This Method is used to retrieve one page of the booked PreIds by date and
+	 * regCenterId, ordered by date, slot and PreId. Without cursor and page size
+	 * all the PreIds are retrieved.
+	 * 
+	 * @param fromDateStr
+	 *            pass fromDate
+	 * @param toDateStr
+	 *            pass toDate
+	 * @param regCenterId
+	 * @param cursor
+	 *            pass the next cursor of the previous page
+	 * @param pageSize
+	 *            pass the page size
+	 * @return MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO>
+	 */
+	MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO> getBookedPreRegistrationByDate(String fromDateStr,
+			String toDateStr, String regCenterId, String cursor, Integer pageSize);
+
+	/**
+	 * This Method is used to retrieve one page of the booked PreIds with their
+	 * slots by date and regCenterId, ordered by date, slot and PreId. Without
+	 * cursor and page size all the PreIds are retrieved.
+	 * 
+	 * @param fromDateStr
+	 *            pass fromDate
+	 * @param toDateStr
+	 *            pass toDate
+	 * @param regCenterId
+	 * @param cursor
+	 *            pass the next cursor of the previous page
+	 * @param pageSize
+	 *            pass the page size
+	 * @return MainResponseDTO<BookingDataByRegIdDto>
+	 */
+	MainResponseDTO<BookingDataByRegIdDto> getBookedPreRegistrations(String fromDateStr, String toDateStr,
+			String regCenterId, String cursor, Integer pageSize);
+
+	/**
+	 * This Method is used to hold a kiosk of the slot for the pre registration
+	 * until ${preregistration.booking.hold.ttl.seconds} elapse. A new hold
+	 * replaces the previous hold of the pre registration.
+	 * 
+	 * @param bookingRequestDTOs
+	 *            pass the slot to hold
+	 * @param preRegistrationId
+	 *            pass the pre registration id
+	 * @return MainResponseDTO<SlotHoldDto>
+	 */
+	MainResponseDTO<SlotHoldDto> holdSlot(MainRequestDTO<BookingRequestDTO> bookingRequestDTOs,
+			String preRegistrationId);
+
+	/**
+	 * This Method is used to book the held slot of the pre registration on the
+	 * already reserved kiosk.
+	 * 
+	 * @param preRegistrationId
+	 *            pass the pre registration id
+	 * @return MainResponseDTO<BookingStatusDTO>
+	 */
+	MainResponseDTO<BookingStatusDTO> confirmSlotHold(String preRegistrationId);
+
+	/**
+	 * This Method is used to remove the expired holds of the slot and give back
+	 * their kiosks with one update.
+	 * 
+	 * @param slot
+	 *            pass the held slot
+	 * @param expiredBefore
+	 *            pass the expiry limit
+	 * @return number of released holds
+	 */
+	int releaseExpiredHolds(BookingRequestDTO slot, LocalDateTime expiredBefore);
+
+	/**
+	 * This Method is used to stream the booked PreIds of the regCenterId between
+	 * the dates as NDJSON, one booking per line, without loading them all into
+	 * memory. The request is validated before the stream is returned.
+	 * 
+	 * @param fromDateStr
+	 *            pass fromDate
+	 * @param toDateStr
+	 *            pass toDate
+	 * @param regCenterId
+	 * @return StreamingResponseBody writing the bookings
+	 */
+	StreamingResponseBody streamBookedPreRegistrations(String fromDateStr, String toDateStr, String regCenterId);
+
+	/**
+	 * This Method is used to fetch the booking changes of the regCenterId after
+	 * the watermark. Without a watermark, the first page of the bookings of the
+	 * regCenterId is returned with the watermark to start syncing from.
+	 * 
+	 * @param regCenterId
+	 *            pass regCenterId
+	 * @param since
+	 *            pass the watermark of the previous call
+	 * @return MainResponseDTO<BookingChangesDto>
+	 */
+	MainResponseDTO<BookingChangesDto> getBookingChanges(String regCenterId, Long since);
+
+	/**
+	 * This Method is used to fetch the booking changes of the regCenterId after
+	 * the watermark. Without a watermark, the bookings of the regCenterId from
+	 * today are returned as BOOKED changes, a page at a time, together with the
+	 * watermark read before the first page. Once the last page is read, syncing
+	 * goes on from that watermark; changes after it may repeat bookings of the
+	 * snapshot.
+	 * 
+	 * @param regCenterId
+	 *            pass regCenterId
+	 * @param since
+	 *            pass the watermark of the previous call, null for the snapshot
+	 * @param cursor
+	 *            pass the cursor of the previous snapshot page, null for the
+	 *            first page
+	 * @return MainResponseDTO<BookingChangesDto>
+	 */
+	MainResponseDTO<BookingChangesDto> getBookingChanges(String regCenterId, Long since, String cursor);
 
-}
\ No newline at end of file
+}
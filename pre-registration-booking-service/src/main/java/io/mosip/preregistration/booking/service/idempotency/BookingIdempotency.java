@@ -0,0 +1,302 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.idempotency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.IdempotencyKeyReusedException;
+import io.mosip.preregistration.booking.exception.IdempotentRequestRunningException;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * This class makes the booking requests carrying an Idempotency-Key header
+ * idempotent. The first attempt claims the key in the store with a
+ * placeholder, atomically, and replaces it with its successful response; a
+ * retry with the same key gets the response back without running the request
+ * again, and a retry arriving while the first attempt runs polls the store for
+ * its response, on any instance. Keys are scoped by user and operation, and
+ * bound to a hash of the request body: the same key with another body is
+ * rejected. Failed requests are not stored so they can be retried. Replayed
+ * responses are reported as prereg.booking.idempotency.replayed.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class BookingIdempotency {
+
+	/** Header carrying the idempotency key. */
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+	private static final String KEY_PREFIX = "prereg:idempotency:";
+
+	/** Stored value of a running request: RUNNING:hash:attempt. */
+	private static final String RUNNING = "RUNNING:";
+
+	/** Stored value of a completed request: DONE:hash:response. */
+	private static final String DONE = "DONE:";
+
+	private static final long POLL_MILLIS = 50;
+
+	/** Operation of the error response, for its id. */
+	private static final String BOOKING = "book";
+
+	private Logger log = LoggerConfiguration.logConfig(BookingIdempotency.class);
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.enabled} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.idempotency.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.key.max.length} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.idempotency.key.max.length:128}")
+	private int keyMaxLength;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.wait.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.idempotency.wait.millis:30000}")
+	private long waitMillis;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.running.ttl.seconds}
+	 * from property file
+	 */
+	@Value("${preregistration.booking.idempotency.running.ttl.seconds:120}")
+	private long runningTtlSeconds;
+
+	private final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private Counter replayed;
+
+	public BookingIdempotency() {
+	}
+
+	public BookingIdempotency(IdempotencyStore idempotencyStore, int keyMaxLength, long waitMillis,
+			long runningTtlSeconds) {
+		this.enabled = true;
+		this.idempotencyStore = idempotencyStore;
+		this.keyMaxLength = keyMaxLength;
+		this.waitMillis = waitMillis;
+		this.runningTtlSeconds = runningTtlSeconds;
+		setupIdempotency();
+	}
+
+	@PostConstruct
+	public void setupIdempotency() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		replayed = Counter.builder("prereg.booking.idempotency.replayed").register(registry);
+	}
+
+	/**
+	 * This method runs the request once per idempotency key, giving the stored
+	 * response to its retries. Requests without a key are always run.
+	 *
+	 * @param idempotencyKey
+	 *            value of the Idempotency-Key header, or null
+	 * @param operation
+	 *            the operation and its target, part of the scope of the key
+	 * @param requestBody
+	 *            the request, whose hash is bound to the key
+	 * @param responseType
+	 * @param request
+	 * @return the response of the request, or of its first attempt
+	 * @throws InvalidRequestParameterException
+	 *             if the key is too long
+	 * @throws IdempotencyKeyReusedException
+	 *             if the key was used with another request body
+	 * @throws IdempotentRequestRunningException
+	 *             if the first attempt is still running after the wait
+	 */
+	public <T> MainResponseDTO<T> execute(String idempotencyKey, String operation, Object requestBody,
+			TypeReference<MainResponseDTO<T>> responseType, Supplier<MainResponseDTO<T>> request) {
+		if (!enabled || idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+			return request.get();
+		}
+		if (idempotencyKey.length() > keyMaxLength) {
+			throw new InvalidRequestParameterException(
+					Collections.singletonList(new ExceptionJSONInfoDTO(ErrorCodes.PRG_BOOK_RCI_044.getCode(),
+							ErrorMessages.INVALID_IDEMPOTENCY_KEY.getMessage() + " " + keyMaxLength)),
+					BOOKING, new MainResponseDTO<>());
+		}
+		String key = KEY_PREFIX + operation + ":" + userId() + ":" + idempotencyKey;
+		String requestHash = hash(requestBody);
+		String placeholder = RUNNING + requestHash + ":" + UUID.randomUUID();
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+		while (!claim(key, placeholder)) {
+			String stored = storedValue(key);
+			if (stored != null) {
+				boolean done = stored.startsWith(DONE);
+				if (!stored.startsWith(requestHash + ":", done ? DONE.length() : RUNNING.length())) {
+					throw new IdempotencyKeyReusedException(ErrorCodes.PRG_BOOK_RCI_047.getCode(),
+							ErrorMessages.IDEMPOTENCY_KEY_REUSED.getMessage());
+				}
+				if (done) {
+					MainResponseDTO<T> response = read(
+							stored.substring(DONE.length() + requestHash.length() + 1), responseType);
+					if (response != null) {
+						replayed.increment();
+						return response;
+					}
+					/* The stored response is not readable, this attempt runs without it */
+					return request.get();
+				}
+			}
+			if (System.nanoTime() - deadline > 0) {
+				throw new IdempotentRequestRunningException(ErrorCodes.PRG_BOOK_RCI_048.getCode(),
+						ErrorMessages.IDEMPOTENT_REQUEST_RUNNING.getMessage());
+			}
+			pause();
+		}
+		boolean stored = false;
+		try {
+			MainResponseDTO<T> response = request.get();
+			if (response != null && (response.getErrors() == null || response.getErrors().isEmpty())) {
+				String json = write(response);
+				if (json != null) {
+					stored = storeResponse(key, DONE + requestHash + ":" + json);
+				}
+			}
+			return response;
+		} finally {
+			if (!stored) {
+				release(key, placeholder);
+			}
+		}
+	}
+
+	/**
+	 * Claims the key for this attempt. If the store is not writable the attempt
+	 * runs without the key.
+	 */
+	private boolean claim(String key, String placeholder) {
+		try {
+			return idempotencyStore.putIfAbsent(key, placeholder, runningTtlSeconds);
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Idempotency store not writable - " + ex.getMessage());
+			return true;
+		}
+	}
+
+	private void release(String key, String placeholder) {
+		try {
+			idempotencyStore.remove(key, placeholder);
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Idempotency key not released - " + ex.getMessage());
+		}
+	}
+
+	private void pause() {
+		try {
+			TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IdempotentRequestRunningException(ErrorCodes.PRG_BOOK_RCI_048.getCode(),
+					ErrorMessages.IDEMPOTENT_REQUEST_RUNNING.getMessage());
+		}
+	}
+
+	private String hash(Object requestBody) {
+		try {
+			return DigestUtils.md5DigestAsHex(mapper.writeValueAsBytes(requestBody));
+		} catch (JsonProcessingException ex) {
+			log.error("sessionId", "idType", "id", "Request body not hashed - " + ex.getMessage());
+			return DigestUtils.md5DigestAsHex(String.valueOf(requestBody).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private String storedValue(String key) {
+		try {
+			return idempotencyStore.get(key);
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Idempotency store not readable - " + ex.getMessage());
+			return null;
+		}
+	}
+
+	private boolean storeResponse(String key, String value) {
+		try {
+			idempotencyStore.put(key, value);
+			return true;
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Idempotency store not writable - " + ex.getMessage());
+			return false;
+		}
+	}
+
+	private String write(MainResponseDTO<?> response) {
+		try {
+			return mapper.writeValueAsString(response);
+		} catch (JsonProcessingException ex) {
+			log.error("sessionId", "idType", "id", "Response not stored - " + ex.getMessage());
+			return null;
+		}
+	}
+
+	private <T> MainResponseDTO<T> read(String json, TypeReference<MainResponseDTO<T>> responseType) {
+		if (json == null) {
+			return null;
+		}
+		try {
+			return mapper.readValue(json, responseType);
+		} catch (IOException ex) {
+			log.error("sessionId", "idType", "id", "Stored response not readable - " + ex.getMessage());
+			return null;
+		}
+	}
+
+	private static String userId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getPrincipal() instanceof AuthUserDetails) {
+			return ((AuthUserDetails) authentication.getPrincipal()).getUserId();
+		}
+		return "";
+	}
+
+}
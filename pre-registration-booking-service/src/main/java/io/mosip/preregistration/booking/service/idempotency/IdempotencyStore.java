@@ -0,0 +1,54 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.idempotency;
+
+/**
+ * This interface stores the booking requests by idempotency key: first a
+ * placeholder claiming the key while the request runs, then its response, so
+ * that the retries of a request get the response of the first attempt. The
+ * store is chosen by ${preregistration.booking.idempotency.store}: local
+ * (default) keeps them in memory of each instance, redis shares them between
+ * the instances.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+public interface IdempotencyStore {
+
+	/**
+	 * @param key
+	 * @return the stored value, or null if absent or expired
+	 */
+	String get(String key);
+
+	/**
+	 * Stores the value of the key only if the key is absent, atomically.
+	 *
+	 * @param key
+	 * @param value
+	 * @param ttlSeconds
+	 *            seconds after which the value may expire
+	 * @return true if stored
+	 */
+	boolean putIfAbsent(String key, String value, long ttlSeconds);
+
+	/**
+	 * Stores the value of the key until it expires.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	void put(String key, String value);
+
+	/**
+	 * Removes the key only if its value is still the given one.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	void remove(String key, String value);
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.idempotency;
+
+import java.time.Duration;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.mosip.preregistration.booking.service.util.TtlCache;
+
+/**
+ * This class keeps the requests in memory, at most
+ * ${preregistration.booking.idempotency.cache.size} of them, each for
+ * ${preregistration.booking.idempotency.ttl.seconds}. A placeholder is always
+ * replaced or removed by the request holding it, so it keeps the same expiry.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "preregistration.booking.idempotency.store", havingValue = "local", matchIfMissing = true)
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.cache.size} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.idempotency.cache.size:10000}")
+	private int cacheSize;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.idempotency.ttl.seconds:3600}")
+	private long ttlSeconds;
+
+	private TtlCache<String, String> responses;
+
+	public LocalIdempotencyStore() {
+	}
+
+	public LocalIdempotencyStore(int cacheSize, long ttlSeconds) {
+		this.cacheSize = cacheSize;
+		this.ttlSeconds = ttlSeconds;
+		setupCache();
+	}
+
+	@PostConstruct
+	public void setupCache() {
+		responses = new TtlCache<>(cacheSize, Duration.ofSeconds(ttlSeconds));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * get(java.lang.String)
+	 */
+	@Override
+	public String get(String key) {
+		return responses.get(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * putIfAbsent(java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public synchronized boolean putIfAbsent(String key, String value, long ttlSeconds) {
+		if (responses.get(key) != null) {
+			return false;
+		}
+		responses.put(key, value);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * put(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public synchronized void put(String key, String value) {
+		responses.put(key, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * remove(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public synchronized void remove(String key, String value) {
+		if (value.equals(responses.get(key))) {
+			responses.invalidate(key);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class keeps the requests in Redis for
+ * ${preregistration.booking.idempotency.ttl.seconds}, so that a retry landing
+ * on another instance gets the same response. It uses the same connection
+ * properties as the cache-provider-redis module, with a connection of its own
+ * so it does not depend on the slot inventory backend.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "preregistration.booking.idempotency.store", havingValue = "redis")
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+	/** Deletes KEYS[1] only if its value is ARGV[1]. */
+	private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+					+ "return 0",
+			Long.class);
+
+	/**
+	 * Reference for ${redis.cache.hostname} from property file.
+	 */
+	@Value("${redis.cache.hostname:localhost}")
+	private String hostname;
+
+	/**
+	 * Reference for ${redis.cache.port} from property file.
+	 */
+	@Value("${redis.cache.port:6379}")
+	private int port;
+
+	/**
+	 * Reference for ${preregistration.booking.idempotency.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.idempotency.ttl.seconds:3600}")
+	private long ttlSeconds;
+
+	private JedisConnectionFactory connectionFactory;
+
+	private StringRedisTemplate redisTemplate;
+
+	@PostConstruct
+	public void setupConnection() {
+		connectionFactory = new JedisConnectionFactory();
+		connectionFactory.setHostName(hostname);
+		connectionFactory.setPort(port);
+		connectionFactory.afterPropertiesSet();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		redisTemplate.afterPropertiesSet();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		connectionFactory.destroy();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * get(java.lang.String)
+	 */
+	@Override
+	public String get(String key) {
+		return redisTemplate.opsForValue().get(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * put(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void put(String key, String value) {
+		redisTemplate.opsForValue().set(key, value, ttlSeconds, TimeUnit.SECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * putIfAbsent(java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public boolean putIfAbsent(String key, String value, long ttlSeconds) {
+		return Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(
+				key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8),
+				Expiration.seconds(ttlSeconds), SetOption.ifAbsent())));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.idempotency.IdempotencyStore#
+	 * remove(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void remove(String key, String value) {
+		redisTemplate.execute(REMOVE_SCRIPT, Collections.singletonList(key), value);
+	}
+
+}
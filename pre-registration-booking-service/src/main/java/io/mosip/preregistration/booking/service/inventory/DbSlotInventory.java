@@ -0,0 +1,97 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.inventory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+
+/**
+ * This class keeps the kiosk counters in the reg_available_slot table, using
+ * guarded single statement updates. This is the default backend.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "preregistration.booking.inventory", havingValue = "db", matchIfMissing = true)
+public class DbSlotInventory implements SlotInventory {
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return bookingDAO.reserveKiosk(regDate, regCenterId, slotFromTime, slotToTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return bookingDAO.releaseKiosk(regDate, regCenterId, slotFromTime, slotToTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		return bookingDAO.reserveKiosks(regDate, regCenterId, slotFromTime, slotToTime, kiosks);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		return bookingDAO.releaseKiosks(regDate, regCenterId, slotFromTime, slotToTime, kiosks);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * move(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, java.lang.String, java.time.LocalDate,
+	 * java.time.LocalTime, java.time.LocalTime)
+	 */
+	@Override
+	public boolean move(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			String newRegCenterId, LocalDate newRegDate, LocalTime newSlotFromTime, LocalTime newSlotToTime) {
+		bookingDAO.moveKiosk(regDate, regCenterId, slotFromTime, slotToTime, newRegDate, newRegCenterId,
+				newSlotFromTime, newSlotToTime);
+		return true;
+	}
+
+}
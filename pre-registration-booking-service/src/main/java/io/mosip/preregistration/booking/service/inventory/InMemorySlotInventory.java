@@ -0,0 +1,647 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.inventory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class keeps the kiosk counters of the slots in memory, as the
+ * authoritative inventory of a single booking service instance. The counters
+ * of a center and day are one primitive array indexed by the slot ordinal,
+ * updated with compare and set. Kiosk changes of committed bookings are added
+ * up per slot and written to reg_available_slot every
+ * ${preregistration.booking.inventory.flush.interval.millis}, all the slots
+ * in one transaction, and the cached availability of their centers is evicted
+ * once written. The booking rows themselves are still inserted by the booking
+ * transaction.
+ * <p>
+ * A day is loaded on first use and on startup. Its counters are rebuilt as the
+ * kiosks of the center less the bookings and holds of each slot, so that
+ * changes not written before a crash are recovered, and the table is corrected
+ * by the next write. The day is read without any lock, and is read again if a
+ * write or a change of an evicted day happened before it could be published.
+ * <p>
+ * Only reservations change the counters before the booking transaction
+ * commits; released kiosks are given back once it has committed. A day
+ * evicted while transactions still hold reservations on it hands those
+ * reservations over to the counters loaded in its place.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "preregistration.booking.inventory", havingValue = "memory")
+public class InMemorySlotInventory implements SlotInventory {
+
+	private Logger log = LoggerConfiguration.logConfig(InMemorySlotInventory.class);
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired
+	private BookingServiceUtil serviceUtil;
+
+	@Autowired
+	private AvailabilityCache availabilityCache;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Reference for ${preregistration.availability.sync} from property file
+	 */
+	@Value("${preregistration.availability.sync:7}")
+	private int syncDays;
+
+	/**
+	 * Reference for ${preregistration.booking.inventory.flush.interval.millis}
+	 * from property file
+	 */
+	@Value("${preregistration.booking.inventory.flush.interval.millis:500}")
+	private long flushIntervalMillis;
+
+	private final Map<String, DaySlots> days = new ConcurrentHashMap<>();
+
+	private final Set<DaySlots> dirty = ConcurrentHashMap.newKeySet();
+
+	/** Evicted days still holding reservations of open transactions. */
+	private final Map<String, DaySlots> retired = new ConcurrentHashMap<>();
+
+	/**
+	 * Writes of {@link #flush()} and changes of evicted days so far, taken
+	 * before a day is read and checked when it is published.
+	 */
+	private final AtomicLong changes = new AtomicLong();
+
+	private ScheduledExecutorService flusher;
+
+	private Counter flushedChanges;
+
+	@PostConstruct
+	public void setupFlusher() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		flushedChanges = Counter.builder("prereg.booking.inventory.flushed").register(registry);
+		Gauge.builder("prereg.booking.inventory.dirty.days", dirty, Set::size).register(registry);
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "slot-inventory-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * This method loads the counters of the open days of all the centers. Days
+	 * already loaded on first use are kept.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		LocalDate fromDate = LocalDate.now();
+		int loaded = 0;
+		for (String regCenterId : bookingDAO.findRegCenter(fromDate)) {
+			loaded += load(regCenterId, fromDate, fromDate.plusDays(syncDays));
+		}
+		log.info("sessionId", "idType", "id", "Slot inventory loaded in memory for " + loaded + " days");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return reserve(regCenterId, regDate, slotFromTime, slotToTime, 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return release(regCenterId, regDate, slotFromTime, slotToTime, 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		DaySlots day = day(regCenterId, regDate);
+		int slot = day == null ? -1 : day.ordinal(slotFromTime, slotToTime);
+		if (slot < 0) {
+			return false;
+		}
+		while (true) {
+			int available = day.kiosks.get(slot);
+			if (available < kiosks) {
+				return false;
+			}
+			if (day.kiosks.compareAndSet(slot, available, available - kiosks)) {
+				break;
+			}
+		}
+		reserved(day, slot, kiosks);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		DaySlots day = day(regCenterId, regDate);
+		int slot = day == null ? -1 : day.ordinal(slotFromTime, slotToTime);
+		if (slot < 0) {
+			return false;
+		}
+		released(day, slot, kiosks);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * availableKiosks(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public OptionalInt availableKiosks(String regCenterId, LocalDate regDate, LocalTime slotFromTime,
+			LocalTime slotToTime) {
+		DaySlots day = day(regCenterId, regDate);
+		int slot = day == null ? -1 : day.ordinal(slotFromTime, slotToTime);
+		return slot < 0 ? OptionalInt.empty() : OptionalInt.of(day.kiosks.get(slot));
+	}
+
+	/**
+	 * Writes the kiosk changes added up since the last write in one
+	 * transaction, and evicts the cached availability of their centers, which
+	 * may have been read before the write. Changes that could not be written
+	 * are kept for the next write.
+	 *
+	 * @return number of slots written
+	 */
+	public synchronized int flush() {
+		List<SlotCountDto> kioskChanges = new ArrayList<>();
+		List<DaySlots> changedDays = new ArrayList<>();
+		List<Integer> changedSlots = new ArrayList<>();
+		for (Iterator<DaySlots> iterator = dirty.iterator(); iterator.hasNext();) {
+			DaySlots day = iterator.next();
+			iterator.remove();
+			for (int slot = 0; slot < day.fromSeconds.length; slot++) {
+				int change = day.unwritten.getAndSet(slot, 0);
+				if (change != 0) {
+					kioskChanges.add(new SlotCountDto(day.regCenterId, day.regDate,
+							LocalTime.ofSecondOfDay(day.fromSeconds[slot]), LocalTime.ofSecondOfDay(day.toSeconds[slot]),
+							change));
+					changedDays.add(day);
+					changedSlots.add(slot);
+				}
+			}
+		}
+		if (kioskChanges.isEmpty()) {
+			return 0;
+		}
+		try {
+			bookingDAO.adjustKiosks(kioskChanges);
+		} catch (RuntimeException ex) {
+			for (int i = 0; i < kioskChanges.size(); i++) {
+				unwritten(changedDays.get(i), changedSlots.get(i), (int) kioskChanges.get(i).getCount());
+			}
+			throw ex;
+		}
+		changes.incrementAndGet();
+		Set<String> writtenCenters = new HashSet<>();
+		for (SlotCountDto kioskChange : kioskChanges) {
+			if (writtenCenters.add(kioskChange.getRegcntrId())) {
+				availabilityCache.evict(kioskChange.getRegcntrId());
+			}
+		}
+		flushedChanges.increment(kioskChanges.size());
+		return kioskChanges.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * evict(java.util.Collection)
+	 */
+	@Override
+	public synchronized void evict(Collection<AvailibityEntity> changedSlots) {
+		flushQuietly();
+		for (AvailibityEntity slot : changedSlots) {
+			String key = keyOf(slot.getRegcntrId(), slot.getRegDate());
+			DaySlots day = days.remove(key);
+			if (day != null && day.hasPending()) {
+				retired.put(key, day);
+			}
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Slot inventory write behind failed - " + ex.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flusher.shutdownNow();
+		flushQuietly();
+	}
+
+	private DaySlots day(String regCenterId, LocalDate regDate) {
+		DaySlots day = days.get(keyOf(regCenterId, regDate));
+		if (day == null) {
+			load(regCenterId, regDate, regDate);
+			day = days.get(keyOf(regCenterId, regDate));
+		}
+		return day;
+	}
+
+	/**
+	 * Loads the days of the center not loaded yet, reading them again until no
+	 * write or change of an evicted day came in between the read and the
+	 * publication.
+	 *
+	 * @return number of loaded days
+	 */
+	private int load(String regCenterId, LocalDate fromDate, LocalDate toDate) {
+		int loaded = 0;
+		while (true) {
+			long changesBefore = changes.get();
+			List<DaySlots> readDays = read(regCenterId, fromDate, toDate);
+			if (readDays.isEmpty()) {
+				return loaded;
+			}
+			boolean published = publish(regCenterId, readDays, changesBefore);
+			for (DaySlots day : readDays) {
+				if (days.get(keyOf(regCenterId, day.regDate)) == day) {
+					loaded++;
+				}
+			}
+			if (published) {
+				return loaded;
+			}
+		}
+	}
+
+	/**
+	 * Reads the days of the center not loaded yet. The counter of a slot is the
+	 * kiosks of the center less its bookings and holds; a holiday, a day with a
+	 * single slot, and the centers whose kiosks are not known keep the counter
+	 * of the table.
+	 */
+	private List<DaySlots> read(String regCenterId, LocalDate fromDate, LocalDate toDate) {
+		List<AvailibityEntity> slots = bookingDAO.findAvailability(regCenterId, fromDate, toDate);
+		if (slots == null || slots.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<String, Long> takenKiosks = new HashMap<>();
+		for (SlotCountDto taken : bookingDAO.findTakenKiosks(regCenterId, fromDate, toDate)) {
+			takenKiosks.merge(taken.getRegDate() + " " + taken.getFromTime() + " " + taken.getToTime(),
+					taken.getCount(), Long::sum);
+		}
+		Integer centerKiosks = centerKiosks(regCenterId);
+		Map<LocalDate, List<AvailibityEntity>> slotsByDate = new TreeMap<>();
+		for (AvailibityEntity slot : slots) {
+			slotsByDate.computeIfAbsent(slot.getRegDate(), date -> new ArrayList<>()).add(slot);
+		}
+		List<DaySlots> readDays = new ArrayList<>();
+		for (Map.Entry<LocalDate, List<AvailibityEntity>> slotsOfDate : slotsByDate.entrySet()) {
+			if (days.containsKey(keyOf(regCenterId, slotsOfDate.getKey()))) {
+				continue;
+			}
+			List<AvailibityEntity> daySlots = slotsOfDate.getValue();
+			daySlots.sort((slot, other) -> slot.getFromTime().compareTo(other.getFromTime()));
+			boolean recounted = centerKiosks != null && daySlots.size() > 1;
+			DaySlots day = new DaySlots(regCenterId, slotsOfDate.getKey(), daySlots.size(), recounted);
+			for (int slot = 0; slot < daySlots.size(); slot++) {
+				AvailibityEntity entity = daySlots.get(slot);
+				day.fromSeconds[slot] = entity.getFromTime().toSecondOfDay();
+				day.toSeconds[slot] = entity.getToTime().toSecondOfDay();
+				int kiosks = entity.getAvailableKiosks();
+				if (recounted) {
+					long taken = takenKiosks.getOrDefault(
+							entity.getRegDate() + " " + entity.getFromTime() + " " + entity.getToTime(), 0L);
+					kiosks = (int) Math.max(0, centerKiosks - taken);
+				}
+				day.kiosks.set(slot, kiosks);
+				day.unwritten.set(slot, kiosks - entity.getAvailableKiosks());
+			}
+			readDays.add(day);
+		}
+		return readDays;
+	}
+
+	/**
+	 * Publishes the days read, taking over from the evicted days. Runs under the
+	 * lock of {@link #flush()}, so that no write lands while it checks that the
+	 * days read are still current.
+	 *
+	 * @return false if a write or a change of an evicted day came in after the
+	 *         read, and the days not published yet must be read again
+	 */
+	private synchronized boolean publish(String regCenterId, List<DaySlots> readDays, long changesBefore) {
+		boolean current = true;
+		int corrected = 0;
+		for (DaySlots day : readDays) {
+			String key = keyOf(regCenterId, day.regDate);
+			if (days.containsKey(key)) {
+				continue;
+			}
+			DaySlots evicted = retired.get(key);
+			current = changes.get() == changesBefore && (evicted == null || takeOver(evicted, day, changesBefore));
+			if (!current) {
+				break;
+			}
+			if (evicted != null) {
+				retired.remove(key, evicted);
+			}
+			days.put(key, day);
+			if (day.hasUnwritten()) {
+				dirty.add(day);
+				corrected++;
+			}
+		}
+		if (corrected > 0) {
+			log.info("sessionId", "idType", "id", "Slot inventory corrected the counters of " + corrected
+					+ " days of Reg center " + regCenterId + " from its bookings");
+		}
+		return current;
+	}
+
+	/** Kiosks of the center from the masterdata, or null if not known. */
+	private Integer centerKiosks(String regCenterId) {
+		try {
+			List<RegistrationCenterDto> centers = serviceUtil.getRegCenterMasterData(regCenterId);
+			if (centers != null && !centers.isEmpty() && centers.get(0).getNumberOfKiosks() != null) {
+				return (int) centers.get(0).getNumberOfKiosks();
+			}
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Kiosks of Reg center " + regCenterId
+					+ " not known, using the slot table counters - " + ex.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Moves the open reservations of an evicted day onto the counters loaded in
+	 * its place, and the changes not written yet where the new counters were
+	 * not recounted from the bookings. Reservations completing afterwards are
+	 * applied to the new counters.
+	 *
+	 * @return false if the evicted day changed after the new counters were read
+	 */
+	private boolean takeOver(DaySlots evicted, DaySlots day, long changesBefore) {
+		synchronized (evicted) {
+			if (changes.get() != changesBefore) {
+				return false;
+			}
+			for (int slot = 0; slot < evicted.fromSeconds.length; slot++) {
+				int newSlot = day.ordinal(evicted.fromSeconds[slot], evicted.toSeconds[slot]);
+				if (newSlot < 0) {
+					continue;
+				}
+				int pending = evicted.pending.get(slot);
+				day.pending.addAndGet(newSlot, pending);
+				day.kiosks.addAndGet(newSlot, -pending);
+				int change = evicted.unwritten.getAndSet(slot, 0);
+				if (!day.recounted) {
+					day.kiosks.addAndGet(newSlot, change);
+					day.unwritten.addAndGet(newSlot, change);
+				}
+			}
+			evicted.successor = day;
+		}
+		return true;
+	}
+
+	/**
+	 * Queues the reserved kiosks for writing once the surrounding transaction
+	 * commits, or gives them back if the transaction rolls back.
+	 */
+	private void reserved(DaySlots day, int slot, int kiosks) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			unwritten(day, slot, -kiosks);
+			return;
+		}
+		day.pending.addAndGet(slot, kiosks);
+		int fromSecond = day.fromSeconds[slot];
+		int toSecond = day.toSeconds[slot];
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				completed(day, fromSecond, toSecond, -kiosks, status == TransactionSynchronization.STATUS_COMMITTED,
+						true);
+			}
+		});
+	}
+
+	/**
+	 * Gives the released kiosks back once the surrounding transaction commits,
+	 * so that they cannot be taken while the cancellation may still roll back.
+	 */
+	private void released(DaySlots day, int slot, int kiosks) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			day.kiosks.addAndGet(slot, kiosks);
+			unwritten(day, slot, kiosks);
+			return;
+		}
+		int fromSecond = day.fromSeconds[slot];
+		int toSecond = day.toSeconds[slot];
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				completed(day, fromSecond, toSecond, kiosks, true, false);
+			}
+		});
+	}
+
+	/**
+	 * Applies a completed kiosk change to the day, or to the counters that
+	 * took over from it after an evict.
+	 */
+	private void completed(DaySlots day, int fromSecond, int toSecond, int change, boolean committed,
+			boolean reservation) {
+		DaySlots current = day;
+		while (true) {
+			synchronized (current) {
+				if (current.successor == null) {
+					int slot = current.ordinal(fromSecond, toSecond);
+					if (slot < 0) {
+						return;
+					}
+					String key = keyOf(current.regCenterId, current.regDate);
+					if (retired.get(key) == current) {
+						changes.incrementAndGet();
+					}
+					if (reservation) {
+						current.pending.addAndGet(slot, change);
+					}
+					if (committed) {
+						if (!reservation) {
+							current.kiosks.addAndGet(slot, change);
+						}
+						unwritten(current, slot, change);
+					} else {
+						current.kiosks.addAndGet(slot, -change);
+					}
+					if (!current.hasPending()) {
+						retired.remove(key, current);
+					}
+					return;
+				}
+			}
+			current = current.successor;
+		}
+	}
+
+	private void unwritten(DaySlots day, int slot, int change) {
+		day.unwritten.addAndGet(slot, change);
+		dirty.add(day);
+	}
+
+	private static String keyOf(String regCenterId, LocalDate regDate) {
+		return regCenterId + ":" + regDate;
+	}
+
+	/**
+	 * The slots of a center and day, ordered by start time. Slot times are kept
+	 * as seconds of the day.
+	 */
+	private static final class DaySlots {
+
+		private final String regCenterId;
+
+		private final LocalDate regDate;
+
+		private final int[] fromSeconds;
+
+		private final int[] toSeconds;
+
+		private final AtomicIntegerArray kiosks;
+
+		/** Kiosk changes not written to the table yet. */
+		private final AtomicIntegerArray unwritten;
+
+		/** Kiosks reserved by transactions not completed yet. */
+		private final AtomicIntegerArray pending;
+
+		/** Whether the counters were recounted from the bookings when loaded. */
+		private final boolean recounted;
+
+		/** The counters loaded in place of this day after an evict. */
+		private volatile DaySlots successor;
+
+		private DaySlots(String regCenterId, LocalDate regDate, int slots, boolean recounted) {
+			this.regCenterId = regCenterId;
+			this.regDate = regDate;
+			this.fromSeconds = new int[slots];
+			this.toSeconds = new int[slots];
+			this.kiosks = new AtomicIntegerArray(slots);
+			this.unwritten = new AtomicIntegerArray(slots);
+			this.pending = new AtomicIntegerArray(slots);
+			this.recounted = recounted;
+		}
+
+		/** @return the ordinal of the slot, or -1 if not found */
+		private int ordinal(LocalTime slotFromTime, LocalTime slotToTime) {
+			return ordinal(slotFromTime.toSecondOfDay(), slotToTime.toSecondOfDay());
+		}
+
+		private int ordinal(int fromSecond, int toSecond) {
+			int slot = Arrays.binarySearch(fromSeconds, fromSecond);
+			return slot >= 0 && toSeconds[slot] == toSecond ? slot : -1;
+		}
+
+		private boolean hasUnwritten() {
+			return hasNonZero(unwritten);
+		}
+
+		private boolean hasPending() {
+			return hasNonZero(pending);
+		}
+
+		private static boolean hasNonZero(AtomicIntegerArray values) {
+			for (int slot = 0; slot < values.length(); slot++) {
+				if (values.get(slot) != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.inventory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class keeps the kiosk counters of the slots in Redis, so that all the
+ * replicas of the booking service share one atomic counter per slot. Reserve
+ * and release are done with server side scripts: a reservation is taken at
+ * once and undone if the booking transaction rolls back, a release is only
+ * given back once the transaction commits. The reg_available_slot table is
+ * updated asynchronously after the commit.
+ * <p>
+ * Every change not yet written to the table is counted in a pending key of the
+ * slot, shared by all the replicas. While changes are pending the counter is
+ * neither loaded from the table nor dropped by an eviction, as the table does
+ * not have them yet; an eviction meanwhile marks the counter stale and the
+ * last pending write drops it. A write the table refuses drops the counter the
+ * same way, so that it is loaded again. Counters are loaded on startup and
+ * lazily for slots not yet present in Redis, as the kiosks of the center less
+ * the bookings and holds of the slot: the available kiosks of the table lag
+ * behind the committed bookings until the write behind has run, and miss the
+ * changes of a crash meanwhile. A holiday and the centers whose kiosks are not
+ * known keep the counter of the table.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "preregistration.booking.inventory", havingValue = "redis")
+public class RedisSlotInventory implements SlotInventory {
+
+	private Logger log = LoggerConfiguration.logConfig(RedisSlotInventory.class);
+
+	static final String KEY_PREFIX = "prereg:slot:";
+
+	/*
+	 * Every script takes the counter, pending and stale keys of the slot.
+	 */
+
+	/**
+	 * Returns -1 if the slot is not loaded, 0 if ARGV[1] kiosks are not free, 1
+	 * if reserved and counted as pending for ARGV[2] ms.
+	 */
+	static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+			"local kiosks = redis.call('GET', KEYS[1]) "
+					+ "if not kiosks then return -1 end "
+					+ "if tonumber(kiosks) < tonumber(ARGV[1]) then return 0 end "
+					+ "redis.call('DECRBY', KEYS[1], ARGV[1]) "
+					+ "redis.call('INCR', KEYS[2]) "
+					+ "redis.call('PEXPIRE', KEYS[2], ARGV[2]) "
+					+ "return 1",
+			Long.class);
+
+	/**
+	 * Counts a change as pending for ARGV[2] ms, then returns -1 if the slot is
+	 * not loaded, 1 if ARGV[1] kiosks are released.
+	 */
+	static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('INCR', KEYS[2]) "
+					+ "redis.call('PEXPIRE', KEYS[2], ARGV[2]) "
+					+ "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end "
+					+ "redis.call('INCRBY', KEYS[1], ARGV[1]) "
+					+ "return 1",
+			Long.class);
+
+	/** Counts a change written straight to the table as pending for ARGV[1] ms. */
+	static final RedisScript<Long> PENDING_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('INCR', KEYS[2]) "
+					+ "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+					+ "return 1",
+			Long.class);
+
+	private static final String COMPLETE = "if redis.call('DECR', KEYS[2]) > 0 then return 0 end "
+			+ "redis.call('DEL', KEYS[2]) "
+			+ "if redis.call('DEL', KEYS[3]) == 1 then redis.call('DEL', KEYS[1]) end "
+			+ "return 1";
+
+	/**
+	 * Ends a pending change, dropping the counter if it is stale and no other
+	 * change is pending. Returns 1 if no change is pending any more.
+	 */
+	static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(COMPLETE, Long.class);
+
+	/** Gives back the ARGV[1] kiosks of a rolled back reservation and ends it. */
+	static final RedisScript<Long> UNDO_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCRBY', KEYS[1], ARGV[1]) end " + COMPLETE,
+			Long.class);
+
+	/**
+	 * Drops the counter, or marks it stale for ARGV[1] ms while changes are
+	 * pending. Returns 1 if dropped.
+	 */
+	static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+			"if tonumber(redis.call('GET', KEYS[2]) or '0') > 0 then "
+					+ "redis.call('SET', KEYS[3], '1', 'PX', ARGV[1]) "
+					+ "return 0 end "
+					+ "redis.call('DEL', KEYS[1]) "
+					+ "return 1",
+			Long.class);
+
+	/**
+	 * Sets the counter to ARGV[1] for ARGV[2] ms if absent. Returns 0 without
+	 * setting it while changes are pending, 1 otherwise.
+	 */
+	static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end "
+					+ "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2], 'NX') "
+					+ "return 1",
+			Long.class);
+
+	private static final long NOT_LOADED = -1L;
+
+	@Autowired
+	@Qualifier("slotInventoryRedisTemplate")
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired
+	private BookingServiceUtil serviceUtil;
+
+	@Autowired
+	private AvailabilityCache availabilityCache;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Reference for ${preregistration.availability.sync} from property file
+	 */
+	@Value("${preregistration.availability.sync:7}")
+	private int syncDays;
+
+	/**
+	 * Reference for ${preregistration.booking.inventory.pending.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.inventory.pending.ttl.seconds:300}")
+	private long pendingTtlSeconds;
+
+	private ExecutorService writeBehind;
+
+	private Counter reconciled;
+
+	@PostConstruct
+	public void setupWriteBehind() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		reconciled = Counter.builder("prereg.booking.inventory.reconciled").register(registry);
+		writeBehind = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "slot-inventory-write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * This method loads the counters of all the open slots from the database,
+	 * keeping the counters already present in Redis and those with pending
+	 * changes.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		LocalDate fromDate = LocalDate.now();
+		LocalDate toDate = fromDate.plusDays(syncDays);
+		List<String> regCenters = bookingDAO.findRegCenter(fromDate);
+		byte[] loadScript = LOAD_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+		int loaded = 0;
+		for (String regCenterId : regCenters) {
+			List<AvailibityEntity> slots = bookingDAO.findAvailability(regCenterId, fromDate, toDate);
+			if (slots == null || slots.isEmpty()) {
+				continue;
+			}
+			Integer centerKiosks = centerKiosks(regCenterId);
+			Map<String, Long> takenKiosks = takenKiosks(regCenterId, fromDate, toDate);
+			redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (AvailibityEntity slot : slots) {
+					List<String> keys = keysOf(slot.getRegcntrId(), slot.getRegDate(), slot.getFromTime(),
+							slot.getToTime());
+					connection.eval(loadScript, ReturnType.INTEGER, 3, bytes(keys.get(0)), bytes(keys.get(1)),
+							bytes(keys.get(2)), bytes(String.valueOf(counterOf(slot, centerKiosks, takenKiosks))),
+							bytes(String.valueOf(ttlOf(slot.getRegDate()))));
+				}
+				return null;
+			});
+			loaded += slots.size();
+		}
+		log.info("sessionId", "idType", "id", "Slot inventory loaded into Redis for " + loaded + " slots");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return reserve(regCenterId, regDate, slotFromTime, slotToTime, 1,
+				() -> bookingDAO.reserveKiosk(regDate, regCenterId, slotFromTime, slotToTime));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return release(regCenterId, regDate, slotFromTime, slotToTime, 1,
+				() -> bookingDAO.releaseKiosk(regDate, regCenterId, slotFromTime, slotToTime));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * reserve(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		return reserve(regCenterId, regDate, slotFromTime, slotToTime, kiosks,
+				() -> bookingDAO.reserveKiosks(regDate, regCenterId, slotFromTime, slotToTime, kiosks));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * release(java.lang.String, java.time.LocalDate, java.time.LocalTime,
+	 * java.time.LocalTime, int)
+	 */
+	@Override
+	public boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks) {
+		return release(regCenterId, regDate, slotFromTime, slotToTime, kiosks,
+				() -> bookingDAO.releaseKiosks(regDate, regCenterId, slotFromTime, slotToTime, kiosks));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.preregistration.booking.service.inventory.SlotInventory#
+	 * evict(java.util.Collection)
+	 */
+	@Override
+	public void evict(Collection<AvailibityEntity> changedSlots) {
+		for (AvailibityEntity slot : changedSlots) {
+			List<String> keys = keysOf(slot.getRegcntrId(), slot.getRegDate(), slot.getFromTime(), slot.getToTime());
+			redisTemplate.execute(EVICT_SCRIPT, keys, String.valueOf(pendingTtlMillis()));
+		}
+	}
+
+	/**
+	 * Reserves the kiosks in Redis, loading the counter first if needed. While
+	 * the counter cannot be loaded as changes are pending, the kiosks are
+	 * reserved in the table within the booking transaction instead.
+	 */
+	private boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks, BooleanSupplier databaseWrite) {
+		List<String> keys = keysOf(regCenterId, regDate, slotFromTime, slotToTime);
+		long result = execute(RESERVE_SCRIPT, keys, kiosks, pendingTtlMillis());
+		if (result == NOT_LOADED && load(regCenterId, regDate, slotFromTime, slotToTime)) {
+			result = execute(RESERVE_SCRIPT, keys, kiosks, pendingTtlMillis());
+		}
+		if (result == NOT_LOADED) {
+			return reserveInDatabase(keys, databaseWrite);
+		}
+		if (result == 0) {
+			return false;
+		}
+		String change = "reserve " + kiosks + " of " + keys.get(0);
+		afterCompletion(() -> writeBehind(regCenterId, databaseWrite, keys, change),
+				() -> execute(UNDO_SCRIPT, keys, kiosks, pendingTtlMillis()));
+		return true;
+	}
+
+	/**
+	 * Gives back the kiosks in Redis and the table once the booking transaction
+	 * commits, so that they cannot be taken by another booking before.
+	 */
+	private boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			int kiosks, BooleanSupplier databaseWrite) {
+		List<String> keys = keysOf(regCenterId, regDate, slotFromTime, slotToTime);
+		if (!Boolean.TRUE.equals(redisTemplate.hasKey(keys.get(0))) && bookingDAO
+				.findByRegDateAndRegcntrIdAndFromTimeAndToTime(regDate, regCenterId, slotFromTime, slotToTime) == null) {
+			return false;
+		}
+		String change = "release " + kiosks + " of " + keys.get(0);
+		afterCompletion(() -> {
+			execute(RELEASE_SCRIPT, keys, kiosks, pendingTtlMillis());
+			writeBehind(regCenterId, databaseWrite, keys, change);
+		}, null);
+		return true;
+	}
+
+	/**
+	 * Writes the reservation to the table at once, counted as pending until the
+	 * booking transaction completes so that the counter is not loaded without
+	 * it.
+	 */
+	private boolean reserveInDatabase(List<String> keys, BooleanSupplier databaseWrite) {
+		redisTemplate.execute(PENDING_SCRIPT, keys, String.valueOf(pendingTtlMillis()));
+		Runnable complete = () -> redisTemplate.execute(COMPLETE_SCRIPT, keys);
+		boolean reserved;
+		try {
+			reserved = databaseWrite.getAsBoolean();
+		} catch (RuntimeException ex) {
+			complete.run();
+			throw ex;
+		}
+		afterCompletion(complete, complete);
+		return reserved;
+	}
+
+	/**
+	 * Loads the counter of a single slot from the database.
+	 *
+	 * @return false if the slot does not exist, or if changes are pending and
+	 *         the counter was not loaded
+	 */
+	private boolean load(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		AvailibityEntity slot = bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(regDate, regCenterId,
+				slotFromTime, slotToTime);
+		if (slot == null) {
+			return false;
+		}
+		long counter = counterOf(slot, centerKiosks(regCenterId), takenKiosks(regCenterId, regDate, regDate));
+		return execute(LOAD_SCRIPT, keysOf(regCenterId, regDate, slotFromTime, slotToTime), counter,
+				ttlOf(regDate)) == 1;
+	}
+
+	/**
+	 * Counter of the slot, the kiosks of the center less the bookings and holds
+	 * of the slot. A holiday and the centers whose kiosks are not known keep the
+	 * counter of the table.
+	 */
+	private static long counterOf(AvailibityEntity slot, Integer centerKiosks, Map<String, Long> takenKiosks) {
+		if (centerKiosks == null || slot.getFromTime().equals(slot.getToTime())) {
+			return slot.getAvailableKiosks();
+		}
+		long taken = takenKiosks.getOrDefault(slotOf(slot.getRegDate(), slot.getFromTime(), slot.getToTime()), 0L);
+		return Math.max(0, centerKiosks - taken);
+	}
+
+	/** Bookings and holds of each slot of the center between the dates. */
+	private Map<String, Long> takenKiosks(String regCenterId, LocalDate fromDate, LocalDate toDate) {
+		Map<String, Long> takenKiosks = new HashMap<>();
+		for (SlotCountDto taken : bookingDAO.findTakenKiosks(regCenterId, fromDate, toDate)) {
+			takenKiosks.merge(slotOf(taken.getRegDate(), taken.getFromTime(), taken.getToTime()), taken.getCount(),
+					Long::sum);
+		}
+		return takenKiosks;
+	}
+
+	/** Kiosks of the center from the masterdata, or null if not known. */
+	private Integer centerKiosks(String regCenterId) {
+		try {
+			List<RegistrationCenterDto> centers = serviceUtil.getRegCenterMasterData(regCenterId);
+			if (centers != null && !centers.isEmpty() && centers.get(0).getNumberOfKiosks() != null) {
+				return (int) centers.get(0).getNumberOfKiosks();
+			}
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id", "Kiosks of Reg center " + regCenterId
+					+ " not known, using the slot table counters - " + ex.getMessage());
+		}
+		return null;
+	}
+
+	private static String slotOf(LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return regDate + " " + slotFromTime + " " + slotToTime;
+	}
+
+	private long execute(RedisScript<Long> script, List<String> keys, long count, long ttl) {
+		Long result = redisTemplate.execute(script, keys, String.valueOf(count), String.valueOf(ttl));
+		return result == null ? NOT_LOADED : result;
+	}
+
+	/**
+	 * Writes the change to the table on the write behind thread, and evicts the
+	 * cached availability of the center, which may have been read before the
+	 * write. A write the table refuses or fails drops the counter once no change
+	 * is pending, so that it is loaded again from the table.
+	 */
+	private void writeBehind(String regCenterId, BooleanSupplier databaseWrite, List<String> keys, String change) {
+		writeBehind.execute(() -> {
+			boolean written = false;
+			try {
+				written = databaseWrite.getAsBoolean();
+				if (written) {
+					availabilityCache.evict(regCenterId);
+				} else {
+					log.error("sessionId", "idType", "id",
+							"Slot inventory write behind not applied for " + change + ", counter reloaded");
+				}
+			} catch (RuntimeException ex) {
+				log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+				log.error("sessionId", "idType", "id",
+						"Slot inventory write behind failed for " + change + " - " + ex.getMessage());
+			} finally {
+				try {
+					if (!written) {
+						reconciled.increment();
+						redisTemplate.execute(EVICT_SCRIPT, keys, String.valueOf(pendingTtlMillis()));
+					}
+					redisTemplate.execute(COMPLETE_SCRIPT, keys);
+				} catch (RuntimeException ex) {
+					log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+					log.error("sessionId", "idType", "id",
+							"Slot inventory pending change not ended for " + change + " - " + ex.getMessage());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Runs committed once the surrounding transaction commits, or rolledBack, if
+	 * any, if it rolls back. Without a transaction committed runs at once.
+	 */
+	private void afterCompletion(Runnable committed, Runnable rolledBack) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			committed.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					committed.run();
+				} else if (rolledBack != null) {
+					rolledBack.run();
+				}
+			}
+		});
+	}
+
+	@PreDestroy
+	public void flush() throws InterruptedException {
+		writeBehind.shutdown();
+		if (!writeBehind.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.error("sessionId", "idType", "id", "Slot inventory write behind did not complete on shutdown");
+		}
+	}
+
+	static String keyOf(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		return KEY_PREFIX + "{" + regCenterId + ":" + regDate + ":" + slotFromTime + "-" + slotToTime + "}";
+	}
+
+	/**
+	 * Counter, pending and stale keys of the slot, in the same cluster hash slot
+	 * so that a script can use all three.
+	 */
+	static List<String> keysOf(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime) {
+		String key = keyOf(regCenterId, regDate, slotFromTime, slotToTime);
+		return Arrays.asList(key, key + ":pending", key + ":stale");
+	}
+
+	private long pendingTtlMillis() {
+		return TimeUnit.SECONDS.toMillis(pendingTtlSeconds);
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/** Counters expire one day after the slot date. */
+	private static long ttlOf(LocalDate regDate) {
+		long ttl = Duration.between(LocalDateTime.now(), regDate.plusDays(2).atStartOfDay()).toMillis();
+		return Math.max(ttl, TimeUnit.HOURS.toMillis(1));
+	}
+
+}
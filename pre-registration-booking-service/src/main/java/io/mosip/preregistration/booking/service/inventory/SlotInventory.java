@@ -0,0 +1,118 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.inventory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.OptionalInt;
+
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+
+/**
+ * This interface defines the kiosk counter of the appointment slots used while
+ * booking. The backend is selected with
+ * ${preregistration.booking.inventory}.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+public interface SlotInventory {
+
+	/**
+	 * Reserves one kiosk of the slot, only if a kiosk is available.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return true if a kiosk was reserved
+	 */
+	boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime);
+
+	/**
+	 * Gives back one kiosk to the slot.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return true if the kiosk was released, false if the slot is not found
+	 */
+	boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime);
+
+	/**
+	 * Reserves several kiosks of the slot at once, only if all of them are
+	 * available.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return true if the kiosks were reserved, false if none was
+	 */
+	boolean reserve(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime, int kiosks);
+
+	/**
+	 * Gives back several kiosks to the slot at once.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param kiosks
+	 * @return true if the kiosks were released, false if the slot is not found
+	 */
+	boolean release(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime, int kiosks);
+
+	/**
+	 * Gives the available kiosks of the slot when the backend holds them
+	 * itself, so that reading them does not need the database.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @return the available kiosks, or empty if not held by the backend
+	 */
+	default OptionalInt availableKiosks(String regCenterId, LocalDate regDate, LocalTime slotFromTime,
+			LocalTime slotToTime) {
+		return OptionalInt.empty();
+	}
+
+	/**
+	 * Moves the kiosk of an existing booking to a new slot, only if a kiosk of the
+	 * new slot is available.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param slotFromTime
+	 * @param slotToTime
+	 * @param newRegCenterId
+	 * @param newRegDate
+	 * @param newSlotFromTime
+	 * @param newSlotToTime
+	 * @return true if the kiosk was moved, false if the new slot is full or a
+	 *         slot is not found
+	 */
+	default boolean move(String regCenterId, LocalDate regDate, LocalTime slotFromTime, LocalTime slotToTime,
+			String newRegCenterId, LocalDate newRegDate, LocalTime newSlotFromTime, LocalTime newSlotToTime) {
+		return reserve(newRegCenterId, newRegDate, newSlotFromTime, newSlotToTime)
+				&& release(regCenterId, regDate, slotFromTime, slotToTime);
+	}
+
+	/**
+	 * Drops the counters the backend holds for the slots changed by the
+	 * availability sync, so that they are loaded again from the database.
+	 *
+	 * @param changedSlots
+	 *            slots as they were before and after the change
+	 */
+	default void evict(Collection<AvailibityEntity> changedSlots) {
+	}
+
+}
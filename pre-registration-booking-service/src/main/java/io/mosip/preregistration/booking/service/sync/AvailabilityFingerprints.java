@@ -0,0 +1,116 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+
+/**
+ * This class computes the availability fingerprint of a registration center:
+ * a hash of the master data the slots of a working day are generated from, the
+ * holidays of the center and the last synced date. Comparing it with the
+ * fingerprint of the previous sync gives the dates whose slots must be
+ * generated again; the holidays are kept as dates rather than hashed, as the
+ * synced dates move every day and only the changed holidays are regenerated.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AvailabilityFingerprints {
+
+	private static final String DATE_SEPARATOR = ",";
+
+	/**
+	 * This method computes the fingerprint of the center synced up to the date.
+	 *
+	 * @param center
+	 * @param holidays
+	 * @param fromDate
+	 * @param toDate
+	 * @param user
+	 *            user recorded as updater of the fingerprint
+	 * @return AvailabilityFingerprintEntity
+	 */
+	public AvailabilityFingerprintEntity fingerprint(RegistrationCenterDto center, Set<LocalDate> holidays,
+			LocalDate fromDate, LocalDate toDate, String user) {
+		StringJoiner hours = new StringJoiner("|");
+		hours.add(String.valueOf(center.getIsActive())).add(String.valueOf(center.getCenterStartTime()))
+				.add(String.valueOf(center.getCenterEndTime())).add(String.valueOf(center.getLunchStartTime()))
+				.add(String.valueOf(center.getLunchEndTime())).add(String.valueOf(center.getPerKioskProcessTime()))
+				.add(String.valueOf(center.getNumberOfKiosks()));
+		StringJoiner holidayDates = new StringJoiner(DATE_SEPARATOR);
+		for (LocalDate holiday : new TreeSet<>(holidays)) {
+			if (!holiday.isBefore(fromDate) && !holiday.isAfter(toDate)) {
+				holidayDates.add(holiday.toString());
+			}
+		}
+		AvailabilityFingerprintEntity fingerprint = new AvailabilityFingerprintEntity();
+		fingerprint.setRegcntrId(center.getId());
+		fingerprint.setCenterFingerprint(DigestUtils.md5DigestAsHex(hours.toString().getBytes(StandardCharsets.UTF_8)));
+		fingerprint.setHolidayDates(holidayDates.toString());
+		fingerprint.setSyncedTo(toDate);
+		fingerprint.setUpdBy(user);
+		fingerprint.setUpdDate(LocalDateTime.now());
+		return fingerprint;
+	}
+
+	/**
+	 * This method gives the dates whose slots must be generated again: all of
+	 * them if the center was never synced or its working hours or kiosks
+	 * changed, else the dates after the last synced date and the dates that
+	 * became or stopped being a holiday.
+	 *
+	 * @param synced
+	 *            fingerprint of the previous sync, or null
+	 * @param current
+	 *            fingerprint of the current master data
+	 * @param fromDate
+	 * @param toDate
+	 * @return the dates to regenerate, in order
+	 */
+	public List<LocalDate> affectedDates(AvailabilityFingerprintEntity synced, AvailabilityFingerprintEntity current,
+			LocalDate fromDate, LocalDate toDate) {
+		boolean allDates = synced == null || synced.getSyncedTo() == null
+				|| !current.getCenterFingerprint().equals(synced.getCenterFingerprint());
+		Set<LocalDate> syncedHolidays = allDates ? null : holidays(synced);
+		Set<LocalDate> currentHolidays = allDates ? null : holidays(current);
+		List<LocalDate> dates = new ArrayList<>();
+		for (LocalDate regDate = fromDate; !regDate.isAfter(toDate); regDate = regDate.plusDays(1)) {
+			if (allDates || regDate.isAfter(synced.getSyncedTo())
+					|| syncedHolidays.contains(regDate) != currentHolidays.contains(regDate)) {
+				dates.add(regDate);
+			}
+		}
+		return dates;
+	}
+
+	private static Set<LocalDate> holidays(AvailabilityFingerprintEntity fingerprint) {
+		Set<LocalDate> holidays = new HashSet<>();
+		if (fingerprint.getHolidayDates() != null) {
+			for (String holiday : fingerprint.getHolidayDates().split(DATE_SEPARATOR)) {
+				if (!holiday.isEmpty()) {
+					holidays.add(LocalDate.parse(holiday));
+				}
+			}
+		}
+		return holidays;
+	}
+
+}
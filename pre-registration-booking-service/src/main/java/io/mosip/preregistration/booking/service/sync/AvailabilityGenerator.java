@@ -0,0 +1,412 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.sync;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * This class computes the appointment slots of a registration center from its
+ * master data, and the changes turning the slots of the table into them. A
+ * working day is cut into slots of the kiosk process time from the center
+ * start time to the lunch start time and from the lunch end time to the
+ * center end time, the last slot of each part taking the minutes left over. A
+ * holiday is a single closed slot at midnight. Each slot has the kiosks of the
+ * center less the kiosks booked or held on it. The bookings of a slot that is
+ * not generated any more are moved to the nearest slot of the same day with a
+ * free kiosk, or cancelled if there is none.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AvailabilityGenerator {
+
+	/** Start and end time of the closed slot of a holiday. */
+	public static final LocalTime HOLIDAY_TIME = LocalTime.MIDNIGHT;
+
+	/**
+	 * This method generates the slots of the center between the dates, with the
+	 * kiosks of the center.
+	 *
+	 * @param center
+	 * @param holidays
+	 * @param fromDate
+	 * @param toDate
+	 * @return List of AvailibityEntity, none if the center is closed
+	 */
+	public List<AvailibityEntity> generate(RegistrationCenterDto center, Set<LocalDate> holidays, LocalDate fromDate,
+			LocalDate toDate) {
+		List<LocalDate> dates = new ArrayList<>();
+		for (LocalDate regDate = fromDate; !regDate.isAfter(toDate); regDate = regDate.plusDays(1)) {
+			dates.add(regDate);
+		}
+		return generate(center, holidays, dates);
+	}
+
+	/**
+	 * This method generates the slots of the center on the dates, with the
+	 * kiosks of the center.
+	 *
+	 * @param center
+	 * @param holidays
+	 * @param dates
+	 * @return List of AvailibityEntity, none if the center is closed
+	 */
+	public List<AvailibityEntity> generate(RegistrationCenterDto center, Set<LocalDate> holidays,
+			Collection<LocalDate> dates) {
+		List<AvailibityEntity> slots = new ArrayList<>();
+		List<LocalTime[]> daySlots = daySlots(center);
+		if (daySlots.isEmpty()) {
+			return slots;
+		}
+		for (LocalDate regDate : dates) {
+			if (holidays.contains(regDate)) {
+				slots.add(slot(center.getId(), regDate, HOLIDAY_TIME, HOLIDAY_TIME, 0));
+				continue;
+			}
+			for (LocalTime[] daySlot : daySlots) {
+				slots.add(slot(center.getId(), regDate, daySlot[0], daySlot[1], center.getNumberOfKiosks()));
+			}
+		}
+		return slots;
+	}
+
+	/**
+	 * Start and end times of the slots of a working day, none if the center is
+	 * inactive or its hours or kiosks are not known.
+	 */
+	private static List<LocalTime[]> daySlots(RegistrationCenterDto center) {
+		List<LocalTime[]> daySlots = new ArrayList<>();
+		if (Boolean.FALSE.equals(center.getIsActive()) || center.getCenterStartTime() == null
+				|| center.getCenterEndTime() == null || center.getPerKioskProcessTime() == null
+				|| center.getNumberOfKiosks() == null || center.getNumberOfKiosks() <= 0) {
+			return daySlots;
+		}
+		int perKioskMinutes = center.getPerKioskProcessTime().getHour() * 60
+				+ center.getPerKioskProcessTime().getMinute();
+		if (perKioskMinutes <= 0) {
+			return daySlots;
+		}
+		LocalTime lunchStart = center.getLunchStartTime();
+		LocalTime lunchEnd = center.getLunchEndTime();
+		if (lunchStart != null && lunchEnd != null && lunchStart.isAfter(center.getCenterStartTime())
+				&& !lunchEnd.isBefore(lunchStart) && lunchEnd.isBefore(center.getCenterEndTime())) {
+			addSlots(daySlots, center.getCenterStartTime(), lunchStart, perKioskMinutes);
+			addSlots(daySlots, lunchEnd, center.getCenterEndTime(), perKioskMinutes);
+		} else {
+			addSlots(daySlots, center.getCenterStartTime(), center.getCenterEndTime(), perKioskMinutes);
+		}
+		return daySlots;
+	}
+
+	private static void addSlots(List<LocalTime[]> daySlots, LocalTime start, LocalTime end, int perKioskMinutes) {
+		int minutes = (end.toSecondOfDay() - start.toSecondOfDay()) / 60;
+		int count = minutes / perKioskMinutes;
+		for (int slot = 0; slot < count; slot++) {
+			LocalTime fromTime = start.plusMinutes((long) slot * perKioskMinutes);
+			LocalTime toTime = slot == count - 1 ? end : fromTime.plusMinutes(perKioskMinutes);
+			daySlots.add(new LocalTime[] { fromTime, toTime });
+		}
+	}
+
+	private static AvailibityEntity slot(String regCenterId, LocalDate regDate, LocalTime fromTime, LocalTime toTime,
+			int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(regCenterId);
+		slot.setRegDate(regDate);
+		slot.setFromTime(fromTime);
+		slot.setToTime(toTime);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	/**
+	 * This method compares the generated slots with the slots of the table. A
+	 * slot not generated any more is deleted, or closed if still booked; a
+	 * generated slot is inserted, or its kiosks are updated to the kiosks of the
+	 * center less its booked kiosks. A slot whose end time changed is replaced,
+	 * unless booked.
+	 *
+	 * @param generated
+	 *            slots computed from the master data
+	 * @param existing
+	 *            slots of the table for the same dates
+	 * @param takenKiosks
+	 *            booked and held kiosks of the slots
+	 * @return the changes to write
+	 */
+	public SlotChanges diff(List<AvailibityEntity> generated, List<AvailibityEntity> existing,
+			List<SlotCountDto> takenKiosks) {
+		return diff(generated, existing, takenKiosks, Collections.emptyList());
+	}
+
+	/**
+	 * This method compares the generated slots with the slots of the table, as
+	 * {@link #diff(List, List, List)}, after moving the given bookings off the
+	 * slots not generated any more: each one goes to the generated slot of its
+	 * day nearest in time with a free kiosk, or is cancelled if there is none.
+	 * A date whose slots are all deleted is cleared as a whole.
+	 *
+	 * @param generated
+	 *            slots computed from the master data
+	 * @param existing
+	 *            slots of the table for the same dates
+	 * @param takenKiosks
+	 *            booked and held kiosks of the slots
+	 * @param bookings
+	 *            bookings of the same dates
+	 * @return the changes to write
+	 */
+	public SlotChanges diff(List<AvailibityEntity> generated, List<AvailibityEntity> existing,
+			List<SlotCountDto> takenKiosks, List<RegistrationBookingEntity> bookings) {
+		Map<String, Long> taken = new HashMap<>();
+		for (SlotCountDto slot : takenKiosks) {
+			taken.merge(keyOf(slot.getRegDate(), slot.getFromTime()), slot.getCount(), Long::sum);
+		}
+		Map<String, AvailibityEntity> wanted = new LinkedHashMap<>();
+		for (AvailibityEntity slot : generated) {
+			wanted.put(keyOf(slot.getRegDate(), slot.getFromTime()), slot);
+		}
+		SlotChanges changes = new SlotChanges();
+		Map<String, Long> movedIn = moveBookings(wanted, existing, bookings, taken, changes);
+		Map<LocalDate, Integer> keptSlots = new HashMap<>();
+		for (AvailibityEntity slot : existing) {
+			String key = keyOf(slot.getRegDate(), slot.getFromTime());
+			AvailibityEntity wantedSlot = wanted.remove(key);
+			long booked = taken.getOrDefault(key, 0L);
+			if (wantedSlot != null && wantedSlot.getToTime().equals(slot.getToTime())) {
+				booked += movedIn.getOrDefault(key, 0L);
+				int kiosks = (int) Math.max(0, wantedSlot.getAvailableKiosks() - booked);
+				changes.update(slot, slot.getToTime(), kiosks - slot.getAvailableKiosks());
+				keptSlots.merge(slot.getRegDate(), 1, Integer::sum);
+			} else if (booked > 0) {
+				changes.keptBooked++;
+				changes.update(slot, slot.getToTime(), -slot.getAvailableKiosks());
+				keptSlots.merge(slot.getRegDate(), 1, Integer::sum);
+			} else {
+				changes.deleted.add(slot);
+				changes.changedSlots.add(slot);
+				if (wantedSlot != null) {
+					changes.insert(wantedSlot, movedIn.getOrDefault(key, 0L));
+				}
+			}
+		}
+		for (Map.Entry<String, AvailibityEntity> slot : wanted.entrySet()) {
+			changes.insert(slot.getValue(),
+					taken.getOrDefault(slot.getKey(), 0L) + movedIn.getOrDefault(slot.getKey(), 0L));
+		}
+		changes.clearDates(keptSlots);
+		return changes;
+	}
+
+	/**
+	 * Moves the bookings whose slot is not generated any more to the generated
+	 * slot of the same day nearest in time with a free kiosk, or cancels them,
+	 * and takes them off the taken kiosks of their slot. A slot whose end time
+	 * changed cannot take the bookings while it is held, as it is kept.
+	 *
+	 * @return bookings moved to each generated slot
+	 */
+	private static Map<String, Long> moveBookings(Map<String, AvailibityEntity> wanted, List<AvailibityEntity> existing,
+			List<RegistrationBookingEntity> bookings, Map<String, Long> taken, SlotChanges changes) {
+		Map<String, Long> movedIn = new HashMap<>();
+		if (bookings.isEmpty()) {
+			return movedIn;
+		}
+		Map<String, Long> held = new HashMap<>(taken);
+		Map<String, Long> staying = new HashMap<>();
+		List<RegistrationBookingEntity> moving = new ArrayList<>();
+		for (RegistrationBookingEntity booking : bookings) {
+			String key = keyOf(booking.getRegDate(), booking.getSlotFromTime());
+			held.merge(key, -1L, Long::sum);
+			AvailibityEntity wantedSlot = wanted.get(key);
+			if (wantedSlot != null && wantedSlot.getToTime().equals(booking.getSlotToTime())) {
+				staying.merge(key, 1L, Long::sum);
+			} else {
+				moving.add(booking);
+			}
+		}
+		Map<String, AvailibityEntity> existingSlots = new HashMap<>();
+		for (AvailibityEntity slot : existing) {
+			existingSlots.put(keyOf(slot.getRegDate(), slot.getFromTime()), slot);
+		}
+		Map<LocalDate, List<AvailibityEntity>> targets = new TreeMap<>();
+		Map<AvailibityEntity, Long> freeKiosks = new HashMap<>();
+		for (Map.Entry<String, AvailibityEntity> slot : wanted.entrySet()) {
+			AvailibityEntity existingSlot = existingSlots.get(slot.getKey());
+			long heldKiosks = Math.max(0, held.getOrDefault(slot.getKey(), 0L));
+			if (existingSlot != null && !existingSlot.getToTime().equals(slot.getValue().getToTime())
+					&& heldKiosks > 0) {
+				continue;
+			}
+			freeKiosks.put(slot.getValue(),
+					slot.getValue().getAvailableKiosks() - heldKiosks - staying.getOrDefault(slot.getKey(), 0L));
+			targets.computeIfAbsent(slot.getValue().getRegDate(), regDate -> new ArrayList<>()).add(slot.getValue());
+		}
+		moving.sort(Comparator.comparing(RegistrationBookingEntity::getRegDate)
+				.thenComparing(RegistrationBookingEntity::getSlotFromTime)
+				.thenComparing(RegistrationBookingEntity::getPreregistrationId));
+		for (RegistrationBookingEntity booking : moving) {
+			taken.merge(keyOf(booking.getRegDate(), booking.getSlotFromTime()), -1L, Long::sum);
+			AvailibityEntity target = null;
+			for (AvailibityEntity slot : targets.getOrDefault(booking.getRegDate(), Collections.emptyList())) {
+				if (freeKiosks.get(slot) > 0 && (target == null || distance(booking, slot) < distance(booking, target))) {
+					target = slot;
+				}
+			}
+			if (target == null) {
+				changes.cancelled.add(booking);
+			} else {
+				freeKiosks.merge(target, -1L, Long::sum);
+				movedIn.merge(keyOf(target.getRegDate(), target.getFromTime()), 1L, Long::sum);
+				changes.moved.computeIfAbsent(target, slot -> new ArrayList<>()).add(booking);
+			}
+		}
+		return movedIn;
+	}
+
+	private static long distance(RegistrationBookingEntity booking, AvailibityEntity slot) {
+		return Math.abs(slot.getFromTime().toSecondOfDay() - booking.getSlotFromTime().toSecondOfDay());
+	}
+
+	private static String keyOf(LocalDate regDate, LocalTime fromTime) {
+		return regDate + " " + fromTime;
+	}
+
+	/**
+	 * Slot changes of a registration center.
+	 */
+	public static final class SlotChanges {
+
+		private final List<AvailibityEntity> deleted = new ArrayList<>();
+
+		private final List<SlotCountDto> updated = new ArrayList<>();
+
+		private final List<AvailibityEntity> inserted = new ArrayList<>();
+
+		private final List<AvailibityEntity> changedSlots = new ArrayList<>();
+
+		private final List<LocalDate> clearedDates = new ArrayList<>();
+
+		private int clearedSlots;
+
+		private final Map<AvailibityEntity, List<RegistrationBookingEntity>> moved = new LinkedHashMap<>();
+
+		private final List<RegistrationBookingEntity> cancelled = new ArrayList<>();
+
+		private int keptBooked;
+
+		private void update(AvailibityEntity slot, LocalTime toTime, int kiosks) {
+			if (kiosks != 0 || !toTime.equals(slot.getToTime())) {
+				updated.add(new SlotCountDto(slot.getRegcntrId(), slot.getRegDate(), slot.getFromTime(), toTime, kiosks));
+				changedSlots.add(slot);
+			}
+		}
+
+		private void insert(AvailibityEntity slot, long booked) {
+			slot.setAvailableKiosks((int) Math.max(0, slot.getAvailableKiosks() - booked));
+			inserted.add(slot);
+			changedSlots.add(slot);
+		}
+
+		/**
+		 * Moves the deleted slots of the dates without a kept slot to the cleared
+		 * dates.
+		 */
+		private void clearDates(Map<LocalDate, Integer> keptSlots) {
+			Map<LocalDate, List<AvailibityEntity>> deletedSlots = new TreeMap<>();
+			for (AvailibityEntity slot : deleted) {
+				deletedSlots.computeIfAbsent(slot.getRegDate(), regDate -> new ArrayList<>()).add(slot);
+			}
+			for (Map.Entry<LocalDate, List<AvailibityEntity>> date : deletedSlots.entrySet()) {
+				if (!keptSlots.containsKey(date.getKey())) {
+					clearedDates.add(date.getKey());
+					clearedSlots += date.getValue().size();
+					deleted.removeAll(date.getValue());
+				}
+			}
+		}
+
+		/** @return slots to delete */
+		public List<AvailibityEntity> getDeleted() {
+			return deleted;
+		}
+
+		/** @return end time and kiosks to add of the slots to update */
+		public List<SlotCountDto> getUpdated() {
+			return updated;
+		}
+
+		/** @return slots to insert */
+		public List<AvailibityEntity> getInserted() {
+			return inserted;
+		}
+
+		/** @return changed slots, as they were before and after the change */
+		public List<AvailibityEntity> getChangedSlots() {
+			return changedSlots;
+		}
+
+		/** @return slots not generated any more but kept closed as booked */
+		public int getKeptBooked() {
+			return keptBooked;
+		}
+
+		/** @return dates whose slots are all to delete */
+		public List<LocalDate> getClearedDates() {
+			return clearedDates;
+		}
+
+		/** @return number of slots to delete, one by one or by clearing dates */
+		public int getDeletedCount() {
+			return deleted.size() + clearedSlots;
+		}
+
+		/** @return bookings to move, by new slot */
+		public Map<AvailibityEntity, List<RegistrationBookingEntity>> getMoved() {
+			return moved;
+		}
+
+		/** @return bookings to cancel */
+		public List<RegistrationBookingEntity> getCancelled() {
+			return cancelled;
+		}
+
+		/** @return number of bookings to move */
+		public int getMovedCount() {
+			int movedCount = 0;
+			for (List<RegistrationBookingEntity> bookings : moved.values()) {
+				movedCount += bookings.size();
+			}
+			return movedCount;
+		}
+
+		/** @return true if nothing is to write */
+		public boolean isEmpty() {
+			return deleted.isEmpty() && updated.isEmpty() && inserted.isEmpty() && clearedDates.isEmpty()
+					&& moved.isEmpty() && cancelled.isEmpty();
+		}
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.sync;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.AvailabilitySyncDto;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.OperationNotAllowedException;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator.SlotChanges;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.booking.service.util.RegistrationCenterCache;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class syncs the appointment slots of all the registration centers with
+ * their master data over the next ${preregistration.availability.sync} days.
+ * The centers are synced in parallel on a fork join pool of
+ * ${preregistration.booking.availability.sync.parallelism} threads. A center
+ * whose availability fingerprint did not change since the previous sync is
+ * skipped; otherwise its cached master data is evicted, so that bookings see
+ * the change, and only the slots of the dates whose master data changed
+ * are generated, compared with the slots and bookings of the table, and the
+ * changes are written in one transaction per center, see
+ * {@link AvailabilityWriter}. A center that fails, or whose slots were booked
+ * or changed while it was synced, is reported and does not stop the others. One sync runs at a time; its
+ * duration, skipped centers and written rows are reported as
+ * prereg.booking.availability.sync.*.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AvailabilitySync {
+
+	private Logger log = LoggerConfiguration.logConfig(AvailabilitySync.class);
+
+	/**
+	 * Reference for ${preregistration.availability.sync} from property file
+	 */
+	@Value("${preregistration.availability.sync:7}")
+	private int syncDays;
+
+	/**
+	 * Reference for ${preregistration.booking.availability.sync.parallelism} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.availability.sync.parallelism:8}")
+	private int parallelism;
+
+	@Autowired
+	private BookingServiceUtil serviceUtil;
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired
+	private AvailabilityGenerator availabilityGenerator;
+
+	@Autowired
+	private AvailabilityFingerprints availabilityFingerprints;
+
+	@Autowired
+	private AvailabilityWriter availabilityWriter;
+
+	@Autowired
+	private SlotInventory slotInventory;
+
+	@Autowired
+	private AvailabilityCache availabilityCache;
+
+	@Autowired
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Autowired
+	private RegistrationCenterCache regCenterCache;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private final ReentrantLock running = new ReentrantLock();
+
+	private Timer syncTimer;
+
+	private Counter insertedSlots;
+
+	private Counter updatedSlots;
+
+	private Counter deletedSlots;
+
+	private Counter movedBookings;
+
+	private Counter cancelledBookings;
+
+	private Counter skippedCenters;
+
+	@PostConstruct
+	public void setupSync() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		syncTimer = Timer.builder("prereg.booking.availability.sync.duration").register(registry);
+		insertedSlots = Counter.builder("prereg.booking.availability.sync.slots").tag("change", "insert")
+				.register(registry);
+		updatedSlots = Counter.builder("prereg.booking.availability.sync.slots").tag("change", "update")
+				.register(registry);
+		deletedSlots = Counter.builder("prereg.booking.availability.sync.slots").tag("change", "delete")
+				.register(registry);
+		movedBookings = Counter.builder("prereg.booking.availability.sync.bookings").tag("change", "move")
+				.register(registry);
+		cancelledBookings = Counter.builder("prereg.booking.availability.sync.bookings").tag("change", "cancel")
+				.register(registry);
+		skippedCenters = Counter.builder("prereg.booking.availability.sync.skipped").register(registry);
+	}
+
+	/**
+	 * This method syncs the slots of all the registration centers of the master
+	 * data from today.
+	 *
+	 * @param user
+	 *            user recorded as creator or updater of the slots
+	 * @return the outcome of the sync
+	 * @throws OperationNotAllowedException
+	 *             if a sync is already running
+	 */
+	public AvailabilitySyncDto sync(String user) {
+		if (!running.tryLock()) {
+			throw new OperationNotAllowedException(ErrorCodes.PRG_BOOK_RCI_045.getCode(),
+					ErrorMessages.AVAILABILITY_SYNC_RUNNING.getMessage());
+		}
+		try {
+			long start = System.nanoTime();
+			LocalDate fromDate = LocalDate.now();
+			LocalDate toDate = fromDate.plusDays(syncDays - 1L);
+			Map<String, RegistrationCenterDto> centers = new LinkedHashMap<>();
+			for (RegistrationCenterDto center : serviceUtil.fetchAllRegCenterMasterData()) {
+				centers.putIfAbsent(center.getId(), center);
+			}
+			Map<String, AvailabilityFingerprintEntity> fingerprints = new HashMap<>();
+			for (AvailabilityFingerprintEntity fingerprint : bookingDAO.findAvailabilityFingerprints()) {
+				fingerprints.put(fingerprint.getRegcntrId(), fingerprint);
+			}
+
+			AvailabilitySyncDto outcome = new AvailabilitySyncDto();
+			outcome.setFromDate(fromDate.toString());
+			outcome.setToDate(toDate.toString());
+			outcome.setFailedCenters(new ArrayList<>());
+			inParallel(() -> {
+				centers.values().parallelStream().forEach(
+						center -> syncCenter(center, fingerprints.get(center.getId()), fromDate, toDate, user, outcome));
+				return null;
+			});
+			long duration = System.nanoTime() - start;
+			syncTimer.record(duration, TimeUnit.NANOSECONDS);
+			outcome.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(duration));
+			log.info("sessionId", "idType", "id", "Availability sync completed - " + outcome);
+			return outcome;
+		} finally {
+			running.unlock();
+		}
+	}
+
+	private <T> T inParallel(Callable<T> task) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(task).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Availability sync interrupted", ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Syncs the slots of the dates of one center whose master data changed since
+	 * the fingerprint of the previous sync, and adds the written changes to the
+	 * outcome.
+	 */
+	private void syncCenter(RegistrationCenterDto center, AvailabilityFingerprintEntity synced, LocalDate fromDate,
+			LocalDate toDate, String user, AvailabilitySyncDto outcome) {
+		try {
+			Set<LocalDate> holidays = serviceUtil.getHolidayListMasterData(center, fromDate, toDate);
+			AvailabilityFingerprintEntity fingerprint = availabilityFingerprints.fingerprint(center, holidays,
+					fromDate, toDate, user);
+			List<LocalDate> dates = availabilityFingerprints.affectedDates(synced, fingerprint, fromDate, toDate);
+			if (dates.isEmpty()) {
+				skippedCenters.increment();
+				addOutcome(outcome, null, 0);
+				return;
+			}
+			regCenterCache.evict(center.getId());
+			LocalDate firstDate = dates.get(0);
+			LocalDate lastDate = dates.get(dates.size() - 1);
+			Set<LocalDate> affected = new HashSet<>(dates);
+			List<AvailibityEntity> existing = new ArrayList<>();
+			for (AvailibityEntity slot : bookingDAO.findAvailability(center.getId(), firstDate, lastDate)) {
+				if (affected.contains(slot.getRegDate())) {
+					existing.add(slot);
+				}
+			}
+			List<SlotCountDto> takenKiosks = new ArrayList<>();
+			Set<LocalDate> takenDates = new HashSet<>();
+			for (SlotCountDto slot : bookingDAO.findTakenKiosks(center.getId(), firstDate, lastDate)) {
+				if (affected.contains(slot.getRegDate())) {
+					takenKiosks.add(slot);
+					takenDates.add(slot.getRegDate());
+				}
+			}
+			List<RegistrationBookingEntity> bookings = new ArrayList<>();
+			for (LocalDate regDate : dates) {
+				if (takenDates.contains(regDate)) {
+					bookings.addAll(bookingDAO.findAllPreIds(center.getId(), regDate));
+				}
+			}
+
+			SlotChanges changes = availabilityGenerator.diff(
+					availabilityGenerator.generate(center, holidays, dates), existing, takenKiosks, bookings);
+			int skippedBookings = availabilityWriter.write(center.getId(), changes, fingerprint, user);
+			if (!changes.isEmpty()) {
+				slotInventory.evict(changes.getChangedSlots());
+				availabilityCache.evict(center.getId());
+				nextOpenSlotIndex.evict(center.getId());
+				insertedSlots.increment(changes.getInserted().size());
+				updatedSlots.increment(changes.getUpdated().size());
+				deletedSlots.increment(changes.getDeletedCount());
+				movedBookings.increment(changes.getMovedCount());
+				cancelledBookings.increment(changes.getCancelled().size());
+			}
+			addOutcome(outcome, changes, skippedBookings);
+		} catch (RuntimeException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"Availability sync failed for Reg center " + center.getId() + " - " + ex.getMessage());
+			synchronized (outcome) {
+				outcome.getFailedCenters().add(center.getId());
+			}
+		}
+	}
+
+	/**
+	 * Adds the written changes of a center to the outcome, or a skipped center if
+	 * none.
+	 */
+	private static void addOutcome(AvailabilitySyncDto outcome, SlotChanges changes, int skippedBookings) {
+		synchronized (outcome) {
+			if (changes == null) {
+				outcome.setSkippedCenters(outcome.getSkippedCenters() + 1);
+				return;
+			}
+			outcome.setSyncedCenters(outcome.getSyncedCenters() + 1);
+			outcome.setInsertedSlots(outcome.getInsertedSlots() + changes.getInserted().size());
+			outcome.setUpdatedSlots(outcome.getUpdatedSlots() + changes.getUpdated().size());
+			outcome.setDeletedSlots(outcome.getDeletedSlots() + changes.getDeletedCount());
+			outcome.setKeptBookedSlots(outcome.getKeptBookedSlots() + changes.getKeptBooked());
+			outcome.setMovedBookings(outcome.getMovedBookings() + changes.getMovedCount());
+			outcome.setCancelledBookings(outcome.getCancelledBookings() + changes.getCancelled().size());
+			outcome.setSkippedBookings(outcome.getSkippedBookings() + skippedBookings);
+			outcome.setChangedRows(outcome.getChangedRows() + changes.getInserted().size()
+					+ changes.getUpdated().size() + changes.getDeletedCount() + changes.getMovedCount()
+					+ changes.getCancelled().size() - skippedBookings);
+		}
+	}
+
+}
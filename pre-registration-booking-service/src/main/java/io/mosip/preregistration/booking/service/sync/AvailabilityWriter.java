@@ -0,0 +1,142 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.sync;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity.ChangeType;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.AvailabilityUpdationFailedException;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator.SlotChanges;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * This class writes the slot changes of a registration center and its new
+ * availability fingerprint in one transaction: the bookings are moved with one
+ * update per new slot and cancelled with one delete, the cleared dates are
+ * deleted with one statement each, then the slots are written in batches.
+ * <p>
+ * The bookings to move or cancel are locked first, and those moved or
+ * cancelled by their user since the sync read them are skipped. A slot is only
+ * deleted while it has no booking and its kiosks did not change; otherwise the
+ * whole change of the center rolls back, to be retried by the next sync.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AvailabilityWriter {
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	/**
+	 * This method writes the changes of the center.
+	 *
+	 * @param regcntrId
+	 * @param changes
+	 * @param fingerprint
+	 *            fingerprint of the master data the changes were generated
+	 *            from
+	 * @param user
+	 *            user recorded as creator or updater of the rows
+	 * @return number of bookings skipped, as changed since they were read
+	 * @throws AvailabilityUpdationFailedException
+	 *             if a slot to delete was booked or changed since it was read
+	 */
+	@Transactional
+	public int write(String regcntrId, SlotChanges changes, AvailabilityFingerprintEntity fingerprint, String user) {
+		Map<String, RegistrationBookingEntity> current = lockBookings(changes);
+		int skipped = 0;
+		List<BookingChangeEntity> bookingChanges = new ArrayList<>();
+		for (Map.Entry<AvailibityEntity, List<RegistrationBookingEntity>> moved : changes.getMoved().entrySet()) {
+			AvailibityEntity slot = moved.getKey();
+			List<String> preregistrationIds = new ArrayList<>();
+			for (RegistrationBookingEntity booking : moved.getValue()) {
+				if (!unchanged(booking, current)) {
+					skipped++;
+					continue;
+				}
+				preregistrationIds.add(booking.getPreregistrationId());
+				bookingChanges.add(new BookingChangeEntity(booking.getPreregistrationId(), regcntrId,
+						slot.getRegDate(), slot.getFromTime(), slot.getToTime(), ChangeType.BOOKED));
+			}
+			if (!preregistrationIds.isEmpty()) {
+				bookingDAO.moveBookings(preregistrationIds, regcntrId, slot.getRegDate(), slot.getFromTime(),
+						slot.getToTime(), user);
+			}
+		}
+		List<String> cancelledIds = new ArrayList<>();
+		for (RegistrationBookingEntity booking : changes.getCancelled()) {
+			if (!unchanged(booking, current)) {
+				skipped++;
+				continue;
+			}
+			cancelledIds.add(booking.getPreregistrationId());
+			bookingChanges.add(new BookingChangeEntity(booking.getPreregistrationId(), regcntrId,
+					booking.getRegDate(), booking.getSlotFromTime(), booking.getSlotToTime(), ChangeType.CANCELLED));
+		}
+		if (!cancelledIds.isEmpty()) {
+			bookingDAO.deleteBookings(cancelledIds);
+		}
+		if (!bookingChanges.isEmpty()) {
+			bookingDAO.saveBookingChanges(bookingChanges);
+		}
+		int notDeleted = changes.getDeletedCount() - changes.getDeleted().size();
+		for (LocalDate regDate : changes.getClearedDates()) {
+			notDeleted -= bookingDAO.deleteSlots(regcntrId, regDate);
+		}
+		if (notDeleted == 0) {
+			notDeleted = bookingDAO.applyAvailabilityChanges(changes.getDeleted(), changes.getUpdated(),
+					changes.getInserted(), user);
+		}
+		if (notDeleted > 0) {
+			throw new AvailabilityUpdationFailedException(ErrorCodes.PRG_BOOK_RCI_046.getCode(),
+					ErrorMessages.AVAILABILITY_SYNC_CONFLICT.getMessage() + " " + notDeleted);
+		}
+		bookingDAO.saveAvailabilityFingerprint(fingerprint);
+		return skipped;
+	}
+
+	/** @return the current bookings to move or cancel, locked, by id */
+	private Map<String, RegistrationBookingEntity> lockBookings(SlotChanges changes) {
+		List<String> preregistrationIds = new ArrayList<>();
+		changes.getMoved().values()
+				.forEach(bookings -> bookings.forEach(booking -> preregistrationIds.add(booking.getPreregistrationId())));
+		changes.getCancelled().forEach(booking -> preregistrationIds.add(booking.getPreregistrationId()));
+		Map<String, RegistrationBookingEntity> current = new HashMap<>();
+		if (!preregistrationIds.isEmpty()) {
+			for (RegistrationBookingEntity booking : bookingDAO.lockBookings(preregistrationIds)) {
+				current.put(booking.getPreregistrationId(), booking);
+			}
+		}
+		return current;
+	}
+
+	/** @return true if the booking is still on the slot the sync read */
+	private static boolean unchanged(RegistrationBookingEntity read, Map<String, RegistrationBookingEntity> current) {
+		RegistrationBookingEntity booking = current.get(read.getPreregistrationId());
+		return booking != null && Objects.equals(booking.getRegistrationCenterId(), read.getRegistrationCenterId())
+				&& Objects.equals(booking.getRegDate(), read.getRegDate())
+				&& Objects.equals(booking.getSlotFromTime(), read.getSlotFromTime())
+				&& Objects.equals(booking.getSlotToTime(), read.getSlotToTime());
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.DemographicGetStatusException;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class fetches the application status of several pre-registrations at
+ * once. By default, the single status endpoint is called for each id on a
+ * bounded pool of ${preregistration.booking.status.parallelism} threads, with
+ * the security context of the caller.
+ * <p>
+ * If ${preregistration.booking.status.bulk.url} is set, the statuses are first
+ * requested from it in one call. The endpoint takes a POST of a
+ * {@link MainRequestDTO} whose request is the list of pre-registration ids,
+ * and answers a {@link MainResponseDTO} whose response maps each id to its
+ * status code. Like the single status endpoint, it must only give the status
+ * of the ids owned by the user of the request, leaving the others out of the
+ * map or mapping them to no status. Such an id is fetched with the single
+ * status endpoint by {@link #getApplicationStatuses(Collection)}, and given an
+ * error by {@link #getApplicationStatusResponses(Collection)}. An answer of 404
+ * or 405 switches back to the single status endpoint for the life of the
+ * service.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class ApplicationStatusClient {
+
+	private Logger log = LoggerConfiguration.logConfig(ApplicationStatusClient.class);
+
+	@Autowired
+	private BookingServiceUtil serviceUtil;
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	/**
+	 * Reference for ${preregistration.booking.status.bulk.url} from property
+	 * file. The endpoint must filter the ids by the user of the request, as the
+	 * statuses it gives are taken as owned by the caller.
+	 */
+	@Value("${preregistration.booking.status.bulk.url:}")
+	private String bulkStatusUrl;
+
+	/**
+	 * Reference for ${preregistration.booking.status.parallelism} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.status.parallelism:4}")
+	private int parallelism;
+
+	/**
+	 * Reference for ${preregistration.booking.status.timeout.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.status.timeout.millis:30000}")
+	private long timeoutMillis;
+
+	private volatile boolean bulkSupported;
+
+	private ExecutorService statusPool;
+
+	@PostConstruct
+	public void setupPool() {
+		bulkSupported = bulkStatusUrl != null && !bulkStatusUrl.isEmpty();
+		AtomicInteger threadCount = new AtomicInteger();
+		statusPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "application-status-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		statusPool.shutdownNow();
+	}
+
+	/**
+	 * @param preIds
+	 * @return status code by pre-registration id, in the order of the ids
+	 */
+	public Map<String, String> getApplicationStatuses(Collection<String> preIds) {
+		Set<String> pending = new LinkedHashSet<>(preIds);
+		Map<String, String> statuses = new LinkedHashMap<>();
+		if (pending.size() > 1 && bulkSupported) {
+			Map<String, String> bulkStatuses = fetchBulk(pending);
+			if (bulkStatuses != null) {
+				statuses.putAll(bulkStatuses);
+				pending.removeAll(statuses.keySet());
+			}
+		}
+		if (pending.size() == 1) {
+			String preId = pending.iterator().next();
+			statuses.put(preId, serviceUtil.getApplicationBookingStatus(preId));
+		} else if (!pending.isEmpty()) {
+			statuses.putAll(fetchParallel(pending, serviceUtil::getApplicationBookingStatus));
+		}
+		Map<String, String> ordered = new LinkedHashMap<>();
+		for (String preId : preIds) {
+			ordered.put(preId, statuses.get(preId));
+		}
+		return ordered;
+	}
+
+	/**
+	 * Unlike {@link #getApplicationStatuses(Collection)}, an id the demographic
+	 * service rejects, e.g. one not owned by the caller, does not fail the
+	 * others: its response carries the errors instead of the status. An id the
+	 * bulk endpoint gives no status for is not owned by the caller either.
+	 * 
+	 * @param preIds
+	 * @return status response by pre-registration id, in the order of the ids
+	 */
+	public Map<String, MainResponseDTO<String>> getApplicationStatusResponses(Collection<String> preIds) {
+		Set<String> pending = new LinkedHashSet<>(preIds);
+		Map<String, MainResponseDTO<String>> responses = new LinkedHashMap<>();
+		if (pending.size() > 1 && bulkSupported) {
+			Map<String, String> bulkStatuses = fetchBulk(pending);
+			if (bulkStatuses != null) {
+				for (String preId : pending) {
+					MainResponseDTO<String> response = new MainResponseDTO<>();
+					if (bulkStatuses.containsKey(preId)) {
+						response.setResponse(bulkStatuses.get(preId));
+					} else {
+						response.setErrors(Collections.singletonList(
+								new ExceptionJSONInfoDTO(ErrorCodes.PRG_BOOK_RCI_049.getCode(),
+										ErrorMessages.APPLICATION_STATUS_NOT_FOUND_FOR_USER.getMessage())));
+					}
+					responses.put(preId, response);
+				}
+				pending.clear();
+			}
+		}
+		if (pending.size() == 1) {
+			String preId = pending.iterator().next();
+			responses.put(preId, serviceUtil.getApplicationStatus(preId));
+		} else if (!pending.isEmpty()) {
+			responses.putAll(fetchParallel(pending, serviceUtil::getApplicationStatus));
+		}
+		Map<String, MainResponseDTO<String>> ordered = new LinkedHashMap<>();
+		for (String preId : preIds) {
+			ordered.put(preId, responses.get(preId));
+		}
+		return ordered;
+	}
+
+	/**
+	 * @param preIds
+	 * @return status code of the ids the bulk endpoint gives a status for, or
+	 *         null if it did not answer a map of statuses
+	 */
+	private Map<String, String> fetchBulk(Collection<String> preIds) {
+		MainRequestDTO<List<String>> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(new ArrayList<>(preIds));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+		log.info("sessionId", "idType", "id", "In call to prereg rest service :" + bulkStatusUrl);
+		try {
+			ResponseEntity<MainResponseDTO<Map<String, String>>> responseEntity = restTemplate.exchange(bulkStatusUrl,
+					HttpMethod.POST, new HttpEntity<>(request, headers),
+					new ParameterizedTypeReference<MainResponseDTO<Map<String, String>>>() {
+					});
+			MainResponseDTO<Map<String, String>> body = responseEntity.getBody();
+			if (body == null || body.getResponse() == null) {
+				if (body != null && body.getErrors() != null && !body.getErrors().isEmpty()) {
+					throw new DemographicGetStatusException(body.getErrors().get(0).getErrorCode(),
+							body.getErrors().get(0).getMessage());
+				}
+				return null;
+			}
+			Map<String, String> statuses = new LinkedHashMap<>();
+			for (String preId : preIds) {
+				String status = body.getResponse().get(preId);
+				if (status != null && !status.isEmpty()) {
+					statuses.put(preId, status);
+				}
+			}
+			return statuses;
+		} catch (HttpClientErrorException ex) {
+			if (ex.getStatusCode() != HttpStatus.NOT_FOUND && ex.getStatusCode() != HttpStatus.METHOD_NOT_ALLOWED) {
+				throw ex;
+			}
+			log.error("sessionId", "idType", "id",
+					"Bulk application status not available, using single status calls - " + ex.getMessage());
+			bulkSupported = false;
+			return null;
+		}
+	}
+
+	private <T> Map<String, T> fetchParallel(Collection<String> preIds, Function<String, T> fetch) {
+		SecurityContext securityContext = SecurityContextHolder.getContext();
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		Map<String, Future<T>> futures = new LinkedHashMap<>();
+		for (String preId : preIds) {
+			futures.put(preId, statusPool.submit(() -> {
+				SecurityContextHolder.setContext(securityContext);
+				RequestContextHolder.setRequestAttributes(requestAttributes);
+				try {
+					return fetch.apply(preId);
+				} finally {
+					RequestContextHolder.resetRequestAttributes();
+					SecurityContextHolder.clearContext();
+				}
+			}));
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		Map<String, T> statuses = new LinkedHashMap<>();
+		try {
+			for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+				statuses.put(future.getKey(),
+						future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+			}
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new RestClientException("rest call failed", ex.getCause());
+		} catch (TimeoutException ex) {
+			throw new RestClientException("rest call failed", ex);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RestClientException("rest call failed", ex);
+		} finally {
+			futures.values().forEach(future -> future.cancel(true));
+		}
+		return statuses;
+	}
+
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.core.code.AuditLogVariables;
+import io.mosip.preregistration.core.common.dto.AuditRequestDto;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+import io.mosip.preregistration.core.util.AuditLogUtil;
+
+/**
+ * This class sends the audit records of the booking service to the audit
+ * manager from a background thread, so that the remote call is not made on the
+ * request thread. Records are completed when submitted, with their action
+ * time, host and user, and are sent as they are. They wait in a queue of
+ * ${preregistration.booking.audit.queue.capacity} and are drained in batches of
+ * ${preregistration.booking.audit.batch.size}. The audit manager client only
+ * takes one record per call, so a batch is sent as runs of records of the same
+ * user, each run under the security context of the request that created it.
+ * When the queue is full the ${preregistration.booking.audit.overflow.policy}
+ * applies:
+ * <ul>
+ * <li>BLOCK waits up to ${preregistration.booking.audit.block.timeout.millis}
+ * for room, then drops the record</li>
+ * <li>DROP drops the record</li>
+ * <li>SPILL hands the record to a spill thread which appends it to
+ * ${preregistration.booking.audit.spill.file}</li>
+ * </ul>
+ * Spilled records are sent a batch at a time after each live batch, with the
+ * security context of that batch, and are removed from the file only once
+ * sent. Records of a batch the audit manager does not accept are spilled
+ * with the SPILL policy and queued again otherwise, after which the worker
+ * waits ${preregistration.booking.audit.retry.delay.millis} before the next
+ * batch. Queued records are sent before shutdown.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AuditQueue {
+
+	public enum OverflowPolicy {
+		BLOCK, DROP, SPILL
+	}
+
+	private Logger log = LoggerConfiguration.logConfig(AuditQueue.class);
+
+	@Autowired
+	private AuditLogUtil auditLogUtil;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.queue.capacity} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.audit.queue.capacity:10000}")
+	private int capacity;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.batch.size} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.audit.batch.size:100}")
+	private int batchSize;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.overflow.policy} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.audit.overflow.policy:DROP}")
+	private OverflowPolicy overflowPolicy;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.block.timeout.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.audit.block.timeout.millis:1000}")
+	private long blockTimeoutMillis;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.spill.file} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.audit.spill.file:${java.io.tmpdir}/prereg-booking-audit.ndjson}")
+	private String spillFile;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.shutdown.timeout.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.audit.shutdown.timeout.seconds:30}")
+	private long shutdownTimeoutSeconds;
+
+	/**
+	 * Reference for ${preregistration.booking.audit.retry.delay.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.audit.retry.delay.millis:1000}")
+	private long retryDelayMillis;
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	private final Object spillLock = new Object();
+
+	private BlockingQueue<AuditRecord> queue;
+
+	private BlockingQueue<AuditRequestDto> spillQueue;
+
+	private Thread worker;
+
+	private Thread spillWorker;
+
+	private String hostIp;
+
+	private String hostName;
+
+	private volatile boolean running;
+
+	private Counter sent;
+
+	private Counter dropped;
+
+	private Counter spilled;
+
+	private Counter failed;
+
+	@PostConstruct
+	public void start() {
+		queue = new ArrayBlockingQueue<>(capacity);
+		spillQueue = new ArrayBlockingQueue<>(capacity);
+		hostIp = auditLogUtil.getServerIp();
+		hostName = auditLogUtil.getServerName();
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		sent = Counter.builder("prereg.booking.audit.records").tag("result", "sent").register(registry);
+		dropped = Counter.builder("prereg.booking.audit.records").tag("result", "dropped").register(registry);
+		spilled = Counter.builder("prereg.booking.audit.records").tag("result", "spilled").register(registry);
+		failed = Counter.builder("prereg.booking.audit.records").tag("result", "failed").register(registry);
+		Gauge.builder("prereg.booking.audit.queue.size", queue, Collection::size).register(registry);
+		running = true;
+		worker = new Thread(this::drain, "booking-audit-worker");
+		worker.setDaemon(true);
+		worker.start();
+		spillWorker = new Thread(this::drainSpill, "booking-audit-spill");
+		spillWorker.setDaemon(true);
+		spillWorker.start();
+	}
+
+	/**
+	 * Completes the audit record and queues it to be sent with the security
+	 * context of the caller.
+	 *
+	 * @param auditRequestDto
+	 */
+	public void submit(AuditRequestDto auditRequestDto) {
+		SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+		securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+		AuditRecord record = new AuditRecord(complete(auditRequestDto), securityContext);
+		if (queue.offer(record)) {
+			return;
+		}
+		switch (overflowPolicy) {
+		case BLOCK:
+			try {
+				if (queue.offer(record, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+					return;
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			dropped.increment();
+			break;
+		case SPILL:
+			if (!spillQueue.offer(record.auditRequestDto)) {
+				dropped.increment();
+			}
+			break;
+		default:
+			dropped.increment();
+		}
+	}
+
+	/**
+	 * Fills the record the way {@link AuditLogUtil#saveAuditDetails} does, but
+	 * at submit time, so that the action time is the time of the request and
+	 * the record can be sent as it is later on.
+	 */
+	private AuditRequestDto complete(AuditRequestDto auditRequestDto) {
+		AuditRequestDto record = new AuditRequestDto();
+		record.setEventId(auditRequestDto.getEventId());
+		record.setEventName(auditRequestDto.getEventName());
+		record.setEventType(auditRequestDto.getEventType());
+		record.setDescription(auditRequestDto.getDescription());
+		record.setModuleId(auditRequestDto.getModuleId());
+		record.setModuleName(auditRequestDto.getModuleName());
+		record.setActionTimeStamp(auditRequestDto.getActionTimeStamp() != null ? auditRequestDto.getActionTimeStamp()
+				: LocalDateTime.now(ZoneId.of("UTC")));
+		record.setApplicationId(AuditLogVariables.MOSIP_1.toString());
+		record.setApplicationName(AuditLogVariables.PREREGISTRATION.toString());
+		record.setHostIp(hostIp);
+		record.setHostName(hostName);
+		record.setCreatedBy(AuditLogVariables.SYSTEM.toString());
+		record.setId(orElse(auditRequestDto.getId(), AuditLogVariables.NO_ID));
+		record.setIdType(AuditLogVariables.PRE_REGISTRATION_ID.toString());
+		record.setSessionUserId(orElse(auditRequestDto.getSessionUserId(), AuditLogVariables.SYSTEM));
+		record.setSessionUserName(orElse(auditRequestDto.getSessionUserName(), AuditLogVariables.SYSTEM));
+		return record;
+	}
+
+	private static String orElse(String value, AuditLogVariables other) {
+		return value == null || value.isEmpty() ? other.toString() : value;
+	}
+
+	private void drain() {
+		List<AuditRecord> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				AuditRecord first = queue.poll(1, TimeUnit.SECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				int done = sendBatch(batch);
+				if (done < batch.size()) {
+					retry(batch.subList(done, batch.size()));
+					Thread.sleep(retryDelayMillis);
+					continue;
+				}
+				replaySpill(batch.get(batch.size() - 1).securityContext);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Sends the batch as runs of consecutive records of the same user, each run
+	 * with the security context of its first record, stopping at the first
+	 * record the audit manager does not accept.
+	 *
+	 * @return the number of records sent
+	 */
+	private int sendBatch(List<AuditRecord> batch) {
+		int done = 0;
+		while (done < batch.size()) {
+			SecurityContext securityContext = batch.get(done).securityContext;
+			List<AuditRequestDto> run = new ArrayList<>();
+			for (int i = done; i < batch.size()
+					&& sameUser(batch.get(i).securityContext, securityContext); i++) {
+				run.add(batch.get(i).auditRequestDto);
+			}
+			int sentOfRun = send(run, securityContext);
+			done += sentOfRun;
+			if (sentOfRun < run.size()) {
+				return done;
+			}
+		}
+		return done;
+	}
+
+	private static boolean sameUser(SecurityContext context, SecurityContext other) {
+		return Objects.equals(context.getAuthentication(), other.getAuthentication());
+	}
+
+	/**
+	 * Keeps the records the audit manager did not accept: spills them with the
+	 * SPILL policy, to be sent with the spilled records, and queues them again
+	 * otherwise. A record that finds no room is dropped.
+	 */
+	private void retry(List<AuditRecord> records) {
+		if (overflowPolicy == OverflowPolicy.SPILL) {
+			List<AuditRequestDto> unsent = new ArrayList<>(records.size());
+			for (AuditRecord record : records) {
+				unsent.add(record.auditRequestDto);
+			}
+			spill(unsent);
+			return;
+		}
+		for (AuditRecord record : records) {
+			if (!queue.offer(record)) {
+				dropped.increment();
+			}
+		}
+	}
+
+	/**
+	 * Sends the records in order with the given security context, stopping at
+	 * the first one the audit manager does not accept.
+	 *
+	 * @return the number of records sent
+	 */
+	private int send(List<AuditRequestDto> records, SecurityContext securityContext) {
+		SecurityContextHolder.setContext(securityContext);
+		try {
+			int count = 0;
+			for (AuditRequestDto record : records) {
+				if (!callAuditManager(record)) {
+					return count;
+				}
+				count++;
+			}
+			return count;
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private boolean callAuditManager(AuditRequestDto record) {
+		try {
+			if (auditLogUtil.callAuditManager(record)) {
+				sent.increment();
+				return true;
+			}
+			failed.increment();
+			log.error("sessionId", "idType", "id", "Audit record not accepted by the audit manager");
+		} catch (RuntimeException ex) {
+			failed.increment();
+			log.error("sessionId", "idType", "id", "Audit record could not be sent - " + ex.getMessage());
+		}
+		return false;
+	}
+
+	private void drainSpill() {
+		List<AuditRequestDto> batch = new ArrayList<>(batchSize);
+		while (running || !spillQueue.isEmpty()) {
+			try {
+				AuditRequestDto first = spillQueue.poll(1, TimeUnit.SECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				spillQueue.drainTo(batch, batchSize - 1);
+				spill(batch);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void spill(List<AuditRequestDto> records) {
+		synchronized (spillLock) {
+			try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(spillFile), StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				for (AuditRequestDto record : records) {
+					writer.write(mapper.writeValueAsString(record));
+					writer.newLine();
+				}
+				spilled.increment(records.size());
+			} catch (IOException ex) {
+				dropped.increment(records.size());
+				log.error("sessionId", "idType", "id", "Audit records could not be spilled - " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Sends the first batch of spilled records with the given security context
+	 * and removes from the file the ones that were sent. A record that cannot be
+	 * read is dropped so that it does not hold back the others.
+	 */
+	private void replaySpill(SecurityContext securityContext) {
+		List<String> lines;
+		try {
+			lines = readSpill();
+		} catch (IOException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Spilled audit records could not be read - " + ex.getMessage());
+			return;
+		}
+		if (lines.isEmpty()) {
+			return;
+		}
+		int done = 0;
+		for (String line : lines) {
+			AuditRequestDto record;
+			try {
+				record = mapper.readValue(line, AuditRequestDto.class);
+			} catch (IOException ex) {
+				dropped.increment();
+				log.error("sessionId", "idType", "id", "Spilled audit record dropped - " + ex.getMessage());
+				done++;
+				continue;
+			}
+			if (send(Collections.singletonList(record), securityContext) == 0) {
+				break;
+			}
+			done++;
+		}
+		try {
+			removeSpilled(done);
+		} catch (IOException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Sent audit records could not be removed from the spill file - "
+					+ ex.getMessage());
+		}
+	}
+
+	private List<String> readSpill() throws IOException {
+		synchronized (spillLock) {
+			Path path = Paths.get(spillFile);
+			if (!Files.exists(path)) {
+				return Collections.emptyList();
+			}
+			List<String> lines = new ArrayList<>(batchSize);
+			try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+				String line;
+				while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+					if (!line.isEmpty()) {
+						lines.add(line);
+					}
+				}
+			}
+			return lines;
+		}
+	}
+
+	/** Drops the first records of the spill file, deleting it once empty. */
+	private void removeSpilled(int count) throws IOException {
+		if (count == 0) {
+			return;
+		}
+		synchronized (spillLock) {
+			Path path = Paths.get(spillFile);
+			List<String> lines = new ArrayList<>();
+			for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+				if (!line.isEmpty()) {
+					lines.add(line);
+				}
+			}
+			if (count >= lines.size()) {
+				Files.delete(path);
+				return;
+			}
+			Path remaining = Paths.get(spillFile + ".tmp");
+			Files.write(remaining, lines.subList(count, lines.size()), StandardCharsets.UTF_8);
+			Files.move(remaining, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+	}
+
+	/**
+	 * Stops accepting work and sends the queued records, waiting up to
+	 * ${preregistration.booking.audit.shutdown.timeout.seconds}. Records still
+	 * queued after that are spilled with the SPILL policy.
+	 */
+	@PreDestroy
+	public void flush() throws InterruptedException {
+		running = false;
+		worker.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+		if (worker.isAlive()) {
+			worker.interrupt();
+			List<AuditRecord> remaining = new ArrayList<>();
+			queue.drainTo(remaining);
+			if (overflowPolicy == OverflowPolicy.SPILL) {
+				for (AuditRecord record : remaining) {
+					if (!spillQueue.offer(record.auditRequestDto)) {
+						dropped.increment();
+					}
+				}
+			} else {
+				dropped.increment(remaining.size());
+			}
+			log.error("sessionId", "idType", "id",
+					"Audit queue not drained on shutdown, " + remaining.size() + " records left");
+		}
+		spillWorker.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+	}
+
+	public int size() {
+		return queue.size();
+	}
+
+	private static final class AuditRecord {
+
+		private final AuditRequestDto auditRequestDto;
+
+		private final SecurityContext securityContext;
+
+		private AuditRecord(AuditRequestDto auditRequestDto, SecurityContext securityContext) {
+			this.auditRequestDto = auditRequestDto;
+			this.securityContext = securityContext;
+		}
+	}
+
+}
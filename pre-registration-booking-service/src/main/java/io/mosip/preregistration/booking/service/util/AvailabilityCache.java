@@ -0,0 +1,235 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.dto.AvailabilityDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+
+/**
+ * This class caches the availability calendar and the availability summary
+ * returned for a registration center. Entries are evicted whenever a kiosk of
+ * the center is booked or released, again once a slot inventory writing
+ * behind has written the change to the table, and expire after
+ * ${preregistration.booking.availability.cache.ttl.seconds} to pick up slots
+ * changed by the availability sync. Every eviction moves the generation of the
+ * center on, and a value read from the database is only put if the generation
+ * taken before the read is still current, so that a read which started before
+ * a change cannot put the old value back after the eviction.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class AvailabilityCache {
+
+	/**
+	 * Reference for ${preregistration.booking.availability.cache.size} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.availability.cache.size:1000}")
+	private int maxSize;
+
+	/**
+	 * Reference for ${preregistration.booking.availability.cache.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.availability.cache.ttl.seconds:30}")
+	private long ttlSeconds;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private TtlCache<String, CachedAvailability> cache;
+
+	private TtlCache<String, CachedSummary> summaries;
+
+	/** Generation of each center evicted so far, bounded by the number of centers. */
+	private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+	private Counter hits;
+
+	private Counter misses;
+
+	private Counter summaryHits;
+
+	private Counter summaryMisses;
+
+	@PostConstruct
+	public void setupCache() {
+		cache = new TtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+		summaries = new TtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		hits = Counter.builder("prereg.booking.availability.cache.requests").tag("cache", "calendar")
+				.tag("result", "hit").register(registry);
+		misses = Counter.builder("prereg.booking.availability.cache.requests").tag("cache", "calendar")
+				.tag("result", "miss").register(registry);
+		summaryHits = Counter.builder("prereg.booking.availability.cache.requests").tag("cache", "summary")
+				.tag("result", "hit").register(registry);
+		summaryMisses = Counter.builder("prereg.booking.availability.cache.requests").tag("cache", "summary")
+				.tag("result", "miss").register(registry);
+		Gauge.builder("prereg.booking.availability.cache.size", cache, TtlCache::size).tag("cache", "calendar")
+				.register(registry);
+		Gauge.builder("prereg.booking.availability.cache.size", summaries, TtlCache::size).tag("cache", "summary")
+				.register(registry);
+	}
+
+	/**
+	 * @param regCenterId
+	 * @return the generation of the center, to be taken before reading the
+	 *         value to put
+	 */
+	public long generation(String regCenterId) {
+		return generations.getOrDefault(regCenterId, 0L);
+	}
+
+	/**
+	 * @param regCenterId
+	 * @param fromDate
+	 *            first date of the display window
+	 * @return the cached availability, or null
+	 */
+	public AvailabilityDto get(String regCenterId, LocalDate fromDate) {
+		CachedAvailability cached = cache.get(regCenterId);
+		if (cached == null || !cached.fromDate.equals(fromDate)) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return cached.availability;
+	}
+
+	/**
+	 * @param regCenterId
+	 * @param fromDate
+	 * @param availability
+	 * @param generation
+	 *            generation of the center taken before the availability was read
+	 */
+	public void put(String regCenterId, LocalDate fromDate, AvailabilityDto availability, long generation) {
+		put(cache, regCenterId, new CachedAvailability(fromDate, availability), generation);
+	}
+
+	/**
+	 * @param regCenterId
+	 * @param fromDate
+	 * @param toDate
+	 * @return the cached summary of the date range, or null
+	 */
+	public AvailabilitySummaryDto getSummary(String regCenterId, LocalDate fromDate, LocalDate toDate) {
+		CachedSummary cached = summaries.get(regCenterId);
+		if (cached == null || !cached.fromDate.equals(fromDate) || !cached.toDate.equals(toDate)) {
+			summaryMisses.increment();
+			return null;
+		}
+		summaryHits.increment();
+		return cached.summary;
+	}
+
+	/**
+	 * @param regCenterId
+	 * @param fromDate
+	 * @param toDate
+	 * @param summary
+	 * @param generation
+	 *            generation of the center taken before the summary was read
+	 */
+	public void putSummary(String regCenterId, LocalDate fromDate, LocalDate toDate, AvailabilitySummaryDto summary,
+			long generation) {
+		put(summaries, regCenterId, new CachedSummary(fromDate, toDate, summary), generation);
+	}
+
+	/**
+	 * Puts the value only while the generation of the center is unchanged, and
+	 * takes it out again if an eviction moved the generation on meanwhile.
+	 */
+	private <V> void put(TtlCache<String, V> target, String regCenterId, V value, long generation) {
+		if (generation(regCenterId) != generation) {
+			return;
+		}
+		target.put(regCenterId, value);
+		if (generation(regCenterId) != generation) {
+			target.invalidate(regCenterId);
+		}
+	}
+
+	/**
+	 * Evicts the calendar of the center now and, when called inside a
+	 * transaction, again after commit so that a read between the change and the
+	 * commit is not kept.
+	 *
+	 * @param regCenterId
+	 */
+	public void evict(String regCenterId) {
+		invalidate(regCenterId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					invalidate(regCenterId);
+				}
+			});
+		}
+	}
+
+	private void invalidate(String regCenterId) {
+		generations.merge(regCenterId, 1L, Long::sum);
+		cache.invalidate(regCenterId);
+		summaries.invalidate(regCenterId);
+	}
+
+	public double hitCount() {
+		return hits.count() + summaryHits.count();
+	}
+
+	public double missCount() {
+		return misses.count() + summaryMisses.count();
+	}
+
+	private static final class CachedAvailability {
+
+		private final LocalDate fromDate;
+
+		private final AvailabilityDto availability;
+
+		private CachedAvailability(LocalDate fromDate, AvailabilityDto availability) {
+			this.fromDate = fromDate;
+			this.availability = availability;
+		}
+	}
+
+	private static final class CachedSummary {
+
+		private final LocalDate fromDate;
+
+		private final LocalDate toDate;
+
+		private final AvailabilitySummaryDto summary;
+
+		private CachedSummary(LocalDate fromDate, LocalDate toDate, AvailabilitySummaryDto summary) {
+			this.fromDate = fromDate;
+			this.toDate = toDate;
+			this.summary = summary;
+		}
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.TooManyBookingRequestsException;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class admits the booking requests, so that a burst of bookings queues
+ * in front of the service instead of exhausting the database connections. A
+ * request takes a permit of each of its registration centers, then a global
+ * permit; the permits are handed out first come, first served. At most
+ * ${preregistration.booking.admission.queue.size} requests wait, each for at
+ * most ${preregistration.booking.admission.wait.millis}; the others are
+ * rejected at once with a retry after, spread so the rejected clients do not
+ * come back together. The permits of a center are kept only while requests of
+ * that center hold or wait for them, so unknown center ids do not pile up.
+ * Waiting requests, admitted requests, tracked centers, wait time and
+ * rejections are reported as prereg.booking.admission.*.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class BookingAdmissionControl {
+
+	private Logger log = LoggerConfiguration.logConfig(BookingAdmissionControl.class);
+
+	/**
+	 * Reference for ${preregistration.booking.admission.enabled} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.admission.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * Reference for ${preregistration.booking.admission.global.limit} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.admission.global.limit:50}")
+	private int globalLimit;
+
+	/**
+	 * Reference for ${preregistration.booking.admission.center.limit} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.admission.center.limit:10}")
+	private int centerLimit;
+
+	/**
+	 * Reference for ${preregistration.booking.admission.queue.size} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.admission.queue.size:500}")
+	private int queueSize;
+
+	/**
+	 * Reference for ${preregistration.booking.admission.wait.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.admission.wait.millis:3000}")
+	private long waitMillis;
+
+	/**
+	 * Reference for ${preregistration.booking.admission.retry.after.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.admission.retry.after.seconds:5}")
+	private int retryAfterSeconds;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private final Map<String, CenterPermits> centerPermits = new ConcurrentHashMap<>();
+
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	private Semaphore globalPermits;
+
+	private Timer waitTimer;
+
+	private Counter queueFull;
+
+	private Counter timedOut;
+
+	public BookingAdmissionControl() {
+	}
+
+	public BookingAdmissionControl(int globalLimit, int centerLimit, int queueSize, long waitMillis,
+			int retryAfterSeconds) {
+		this.enabled = true;
+		this.globalLimit = globalLimit;
+		this.centerLimit = centerLimit;
+		this.queueSize = queueSize;
+		this.waitMillis = waitMillis;
+		this.retryAfterSeconds = retryAfterSeconds;
+		setupAdmission();
+	}
+
+	@PostConstruct
+	public void setupAdmission() {
+		globalPermits = new Semaphore(globalLimit, true);
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		Gauge.builder("prereg.booking.admission.waiting", waiting, AtomicInteger::get).register(registry);
+		Gauge.builder("prereg.booking.admission.admitted", globalPermits,
+				permits -> globalLimit - permits.availablePermits()).register(registry);
+		Gauge.builder("prereg.booking.admission.centers", centerPermits, Map::size).register(registry);
+		waitTimer = Timer.builder("prereg.booking.admission.wait").register(registry);
+		queueFull = Counter.builder("prereg.booking.admission.rejected").tag("reason", "queue_full")
+				.register(registry);
+		timedOut = Counter.builder("prereg.booking.admission.rejected").tag("reason", "timeout").register(registry);
+	}
+
+	/**
+	 * This method admits a booking request for the given registration centers,
+	 * waiting in turn for a permit of each of them and a global permit.
+	 *
+	 * @param registrationCenterIds
+	 *            centers of the request, none if not known
+	 * @return the admission, to be closed when the request completes
+	 * @throws TooManyBookingRequestsException
+	 *             if the queue is full or the request could not be admitted in
+	 *             time
+	 */
+	public Admission admit(Collection<String> registrationCenterIds) {
+		if (!enabled) {
+			return new Admission(new ArrayList<>(), new ArrayList<>(), centerPermits);
+		}
+		if (waiting.incrementAndGet() > queueSize) {
+			waiting.decrementAndGet();
+			queueFull.increment();
+			throw rejection();
+		}
+		List<Semaphore> acquired = new ArrayList<>();
+		List<String> joined = new ArrayList<>();
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+		try {
+			List<Semaphore> permits = new ArrayList<>();
+			for (String registrationCenterId : new TreeSet<>(filterNulls(registrationCenterIds))) {
+				permits.add(join(registrationCenterId));
+				joined.add(registrationCenterId);
+			}
+			permits.add(globalPermits);
+			for (Semaphore permit : permits) {
+				if (!permit.tryAcquire(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+					release(acquired);
+					leave(centerPermits, joined);
+					timedOut.increment();
+					log.error("sessionId", "idType", "id",
+							"Booking request not admitted in time for Reg centers " + registrationCenterIds);
+					throw rejection();
+				}
+				acquired.add(permit);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			release(acquired);
+			leave(centerPermits, joined);
+			throw rejection();
+		} finally {
+			waiting.decrementAndGet();
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		return new Admission(acquired, joined, centerPermits);
+	}
+
+	/** Takes a share of the permits of the center, creating them if needed. */
+	private CenterPermits join(String registrationCenterId) {
+		return centerPermits.compute(registrationCenterId, (id, permits) -> {
+			CenterPermits joined = permits != null ? permits : new CenterPermits(centerLimit);
+			joined.users++;
+			return joined;
+		});
+	}
+
+	/** Gives the shares back, dropping the permits of a center nobody uses. */
+	private static void leave(Map<String, CenterPermits> centerPermits, List<String> joined) {
+		for (String registrationCenterId : joined) {
+			centerPermits.computeIfPresent(registrationCenterId,
+					(id, permits) -> --permits.users == 0 ? null : permits);
+		}
+		joined.clear();
+	}
+
+	private TooManyBookingRequestsException rejection() {
+		return new TooManyBookingRequestsException(ErrorCodes.PRG_BOOK_RCI_043.getCode(),
+				ErrorMessages.TOO_MANY_BOOKING_REQUESTS.getMessage(),
+				retryAfterSeconds + ThreadLocalRandom.current().nextInt(retryAfterSeconds + 1));
+	}
+
+	private static List<String> filterNulls(Collection<String> registrationCenterIds) {
+		List<String> ids = new ArrayList<>();
+		if (registrationCenterIds != null) {
+			registrationCenterIds.stream().filter(Objects::nonNull).forEach(ids::add);
+		}
+		return ids;
+	}
+
+	private static void release(List<Semaphore> acquired) {
+		for (int i = acquired.size() - 1; i >= 0; i--) {
+			acquired.get(i).release();
+		}
+		acquired.clear();
+	}
+
+	/**
+	 * Permits of a registration center, with the number of requests holding or
+	 * waiting for them. The count is only changed inside the map operations.
+	 */
+	private static final class CenterPermits extends Semaphore {
+
+		private static final long serialVersionUID = 1L;
+
+		private int users;
+
+		private CenterPermits(int permits) {
+			super(permits, true);
+		}
+	}
+
+	/**
+	 * Permits of an admitted request.
+	 */
+	public static final class Admission implements AutoCloseable {
+
+		private final List<Semaphore> acquired;
+
+		private final List<String> joined;
+
+		private final Map<String, CenterPermits> centerPermits;
+
+		private Admission(List<Semaphore> acquired, List<String> joined, Map<String, CenterPermits> centerPermits) {
+			this.acquired = acquired;
+			this.joined = joined;
+			this.centerPermits = centerPermits;
+		}
+
+		/**
+		 * Gives the permits back, once.
+		 */
+		@Override
+		public void close() {
+			synchronized (acquired) {
+				release(acquired);
+				leave(centerPermits, joined);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class gives the committed booking changes their commit sequence. Every
+ * ${preregistration.booking.changes.sequence.interval.millis} the changes not
+ * sequenced yet are stamped a page at a time, each page in one transaction
+ * holding the sequence row. A change becomes visible to the change feed once
+ * sequenced, so a booking transaction committing late is still returned after
+ * the watermarks already handed out.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class BookingChangeSequencer {
+
+	private Logger log = LoggerConfiguration.logConfig(BookingChangeSequencer.class);
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	/**
+	 * Reference for ${preregistration.booking.changes.sequence.interval.millis}
+	 * from property file
+	 */
+	@Value("${preregistration.booking.changes.sequence.interval.millis:1000}")
+	private long sequenceIntervalMillis;
+
+	/**
+	 * Reference for ${preregistration.booking.changes.page.size} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.changes.page.size:1000}")
+	private int pageSize;
+
+	private ScheduledExecutorService sequencer;
+
+	@PostConstruct
+	public void start() {
+		sequencer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "booking-change-sequencer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sequencer.scheduleWithFixedDelay(this::sequence, sequenceIntervalMillis, sequenceIntervalMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sequencer.shutdownNow();
+	}
+
+	/**
+	 * Sequences the committed changes, page by page until a page is not full.
+	 * Called periodically by the sequencer thread.
+	 *
+	 * @return number of sequenced changes
+	 */
+	public int sequence() {
+		int total = 0;
+		try {
+			int count;
+			do {
+				count = bookingDAO.sequenceBookingChanges(pageSize);
+				total += count;
+			} while (count == pageSize);
+		} catch (RuntimeException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Booking changes could not be sequenced - " + ex.getMessage());
+		}
+		return total;
+	}
+
+}
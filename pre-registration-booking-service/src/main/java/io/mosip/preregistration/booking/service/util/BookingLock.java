@@ -1,81 +1,55 @@
-/* 
+/*
  * Copyright
- * 
+ *
  */
 package io.mosip.preregistration.booking.service.util;
 
-import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
 
-import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+import lombok.ToString;
 
 /**
- * This class provides the locking object.
- * 
+ * This class provides the lock key of a single appointment slot, identified by
+ * registration center, registration date and slot start time. Two bookings
+ * contend only when they target the same slot.
+ *
  * @author Rudra Tripathy
+ * @author agent
  * @since 1.0.0
  *
  */
-@Component
 @Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class BookingLock {
-
-	String registrationCenter;
-	String date;
-	String timeslot;
-
-	
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.lang.Object#hashCode()
-	 */
-	@Override
-	public int hashCode() {
-		return 1;
+@ToString
+@EqualsAndHashCode
+public final class BookingLock implements Comparable<BookingLock> {
+
+	private static final Comparator<BookingLock> ORDER = Comparator
+			.comparing(BookingLock::getRegistrationCenterId, Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparing(BookingLock::getRegDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparing(BookingLock::getSlotFromTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+	private final String registrationCenterId;
+	private final LocalDate regDate;
+	private final LocalTime slotFromTime;
+
+	public BookingLock(String registrationCenterId, LocalDate regDate, LocalTime slotFromTime) {
+		this.registrationCenterId = registrationCenterId;
+		this.regDate = regDate;
+		this.slotFromTime = slotFromTime;
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see java.lang.Object#equals(java.lang.Object)
+	 *
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
 	 */
 	@Override
-	public boolean equals(Object obj) {
-		if (this == obj)
-			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass()) {
-			return false;
-		}
-
-		BookingLock other = (BookingLock) obj;
-		if (date == null) {
-			if (other.date != null)
-				return false;
-		} else if (!date.equals(other.date)) {
-			return false;
-		}
-		if (registrationCenter == null) {
-			if (other.registrationCenter != null)
-				return false;
-		} else if (!registrationCenter.equals(other.registrationCenter)) {
-			return false;
-		}
-		if (timeslot == null) {
-			if (other.timeslot != null)
-				return false;
-		} else if (!timeslot.equals(other.timeslot)) {
-			return false;
-		}
-
-		return true;
+	public int compareTo(BookingLock other) {
+		return ORDER.compare(this, other);
 	}
 
 }
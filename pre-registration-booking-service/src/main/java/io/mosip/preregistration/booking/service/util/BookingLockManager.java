@@ -0,0 +1,203 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.AppointmentBookingFailedException;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class provides per slot locking for booking. Slot keys are hashed onto a
+ * fixed number of lock stripes so memory stays bounded regardless of the number
+ * of centers and slots, while bookings on different slots do not contend.
+ * Multiple keys are always acquired in ascending stripe order, so concurrent
+ * multi-slot requests (multi booking, rebook of old and new slot) cannot
+ * deadlock. The time spent waiting for and holding the locks is reported as
+ * prereg.booking.lock.wait and prereg.booking.lock.hold.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class BookingLockManager {
+
+	private Logger log = LoggerConfiguration.logConfig(BookingLockManager.class);
+
+	/**
+	 * Reference for ${preregistration.booking.lock.stripes} from property file
+	 */
+	@Value("${preregistration.booking.lock.stripes:1024}")
+	private int stripeCount;
+
+	/**
+	 * Reference for ${preregistration.booking.lock.timeout.millis} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.lock.timeout.millis:5000}")
+	private long lockTimeout;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private ReentrantLock[] stripes;
+
+	private Timer waitTimer;
+
+	private Timer holdTimer;
+
+	public BookingLockManager() {
+	}
+
+	public BookingLockManager(int stripeCount, long lockTimeout) {
+		this.stripeCount = stripeCount;
+		this.lockTimeout = lockTimeout;
+		setupStripes();
+	}
+
+	@PostConstruct
+	public void setupStripes() {
+		int size = 1;
+		while (size < Math.max(stripeCount, 1)) {
+			size <<= 1;
+		}
+		stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		waitTimer = Timer.builder("prereg.booking.lock.wait").register(registry);
+		holdTimer = Timer.builder("prereg.booking.lock.hold").register(registry);
+	}
+
+	/**
+	 * This method acquires the locks of all the given slots. When called inside a
+	 * transaction the locks are held until the transaction completes, otherwise
+	 * until the returned handle is closed.
+	 *
+	 * @param slots
+	 * @return the acquired locks
+	 * @throws AppointmentBookingFailedException
+	 *             if the locks could not be acquired within the timeout
+	 */
+	public SlotLocks lock(Collection<BookingLock> slots) {
+		TreeSet<Integer> indexes = new TreeSet<>();
+		for (BookingLock slot : slots) {
+			indexes.add(stripeOf(slot));
+		}
+		List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(lockTimeout);
+		try {
+			for (Integer index : indexes) {
+				ReentrantLock stripe = stripes[index];
+				if (!stripe.tryLock(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+					log.error("sessionId", "idType", "id", "Timed out acquiring slot lock for " + slots);
+					throw new AppointmentBookingFailedException(ErrorCodes.PRG_BOOK_RCI_037.getCode(),
+							ErrorMessages.SLOT_LOCK_NOT_ACQUIRED.getMessage());
+				}
+				acquired.add(stripe);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			unlock(acquired);
+			throw new AppointmentBookingFailedException(ErrorCodes.PRG_BOOK_RCI_037.getCode(),
+					ErrorMessages.SLOT_LOCK_NOT_ACQUIRED.getMessage(), ex);
+		} catch (RuntimeException ex) {
+			unlock(acquired);
+			throw ex;
+		}
+		long acquiredAt = System.nanoTime();
+		waitTimer.record(acquiredAt - start, TimeUnit.NANOSECONDS);
+		SlotLocks locks = new SlotLocks(acquired, holdTimer, acquiredAt);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					locks.release();
+				}
+			});
+			locks.transactionBound = true;
+		}
+		return locks;
+	}
+
+	/**
+	 * @param slot
+	 * @return the stripe index of the slot
+	 */
+	int stripeOf(BookingLock slot) {
+		int hash = slot.hashCode();
+		hash ^= (hash >>> 16);
+		return hash & (stripes.length - 1);
+	}
+
+	private static void unlock(List<ReentrantLock> acquired) {
+		for (int i = acquired.size() - 1; i >= 0; i--) {
+			acquired.get(i).unlock();
+		}
+	}
+
+	/**
+	 * Handle of the locks acquired by a single request.
+	 */
+	public static final class SlotLocks implements AutoCloseable {
+
+		private final List<ReentrantLock> acquired;
+
+		private final Timer holdTimer;
+
+		private final long acquiredAt;
+
+		private boolean transactionBound;
+
+		private boolean released;
+
+		private SlotLocks(List<ReentrantLock> acquired, Timer holdTimer, long acquiredAt) {
+			this.acquired = acquired;
+			this.holdTimer = holdTimer;
+			this.acquiredAt = acquiredAt;
+		}
+
+		/**
+		 * Releases the locks, unless they are held until transaction completion.
+		 */
+		@Override
+		public void close() {
+			if (!transactionBound) {
+				release();
+			}
+		}
+
+		private void release() {
+			if (!released) {
+				released = true;
+				unlock(acquired);
+				holdTimer.record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+}
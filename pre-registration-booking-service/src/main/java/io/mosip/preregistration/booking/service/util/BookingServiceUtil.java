@@ -18,7 +18,9 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeSet;
 
 import javax.annotation.PostConstruct;
 
@@ -55,8 +57,11 @@ import io.mosip.preregistration.booking.codes.RequestCodes;
 import io.mosip.preregistration.booking.dto.BookingRequestDTO;
 import io.mosip.preregistration.booking.dto.CancelBookingDTO;
 import io.mosip.preregistration.booking.dto.DateTimeDto;
+import io.mosip.preregistration.booking.dto.HolidayDto;
 import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.RegistrationCenterHolidayDto;
 import io.mosip.preregistration.booking.dto.RegistrationCenterResponseDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
 import io.mosip.preregistration.booking.dto.SlotDto;
 import io.mosip.preregistration.booking.entity.AvailibityEntity;
 import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
@@ -107,6 +112,9 @@ public class BookingServiceUtil {
 	@Autowired
 	private RestTemplate restTemplate;
 
+	@Autowired
+	private RegistrationCenterCache regCenterCache;
+
 	/**
 	 * Reference for ${regCenter.url} from property file
 	 */
@@ -158,11 +166,21 @@ public class BookingServiceUtil {
 	}
 
 	/**
-	 * This method will call kernel service for registration center date.
+	 * This method returns the registration center data, from the center cache
+	 * when present.
 	 * 
 	 * @return List of RegistrationCenterDto
 	 */
 	public List<RegistrationCenterDto> getRegCenterMasterData(String regCenterId) {
+		return regCenterCache.get(regCenterId, this::fetchRegCenterMasterData);
+	}
+
+	/**
+	 * This method will call kernel service for registration center date.
+	 * 
+	 * @return List of RegistrationCenterDto
+	 */
+	public List<RegistrationCenterDto> fetchRegCenterMasterData(String regCenterId) {
 		log.info("sessionId", "idType", "id", "In callRegCenterDateRestService method of Booking Service Util");
 		List<RegistrationCenterDto> regCenter = null;
 		try {
@@ -203,6 +221,88 @@ public class BookingServiceUtil {
 		return regCenter;
 	}
 
+	/**
+	 * This method will call kernel service for the data of all the registration
+	 * centers, one entry per center and language.
+	 * 
+	 * @return List of RegistrationCenterDto
+	 */
+	public List<RegistrationCenterDto> fetchAllRegCenterMasterData() {
+		log.info("sessionId", "idType", "id", "In fetchAllRegCenterMasterData method of Booking Service Util");
+		try {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+			HttpEntity<RequestWrapper<RegistrationCenterResponseDto>> entity = new HttpEntity<>(headers);
+			String uriBuilder = UriComponentsBuilder.fromHttpUrl(regCenterUrl).build().encode().toUriString();
+			ResponseEntity<ResponseWrapper<RegistrationCenterResponseDto>> responseEntity = selfTokenRestTemplate
+					.exchange(uriBuilder, HttpMethod.GET, entity,
+							new ParameterizedTypeReference<ResponseWrapper<RegistrationCenterResponseDto>>() {
+							});
+			ResponseWrapper<RegistrationCenterResponseDto> body = responseEntity.getBody();
+			if (body == null || (body.getErrors() != null && !body.getErrors().isEmpty())
+					|| body.getResponse() == null || body.getResponse().getRegistrationCenters() == null) {
+				throw new MasterDataNotAvailableException(ErrorCodes.PRG_BOOK_RCI_020.getCode(),
+						ErrorMessages.MASTER_DATA_NOT_FOUND.getMessage());
+			}
+			return body.getResponse().getRegistrationCenters();
+		} catch (HttpClientErrorException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id",
+					"In fetchAllRegCenterMasterData method of Booking Service Util for HttpClientErrorException- "
+							+ ex.getMessage());
+			throw new RestCallException(ErrorCodes.PRG_BOOK_RCI_020.getCode(),
+					ErrorMessages.MASTER_DATA_NOT_FOUND.getMessage());
+		}
+	}
+
+	/**
+	 * This method will call kernel service for the holidays of the registration
+	 * center between the dates, one call per year.
+	 * 
+	 * @param regDto
+	 * @param fromDate
+	 * @param toDate
+	 * @return the active holiday dates
+	 */
+	public Set<LocalDate> getHolidayListMasterData(RegistrationCenterDto regDto, LocalDate fromDate,
+			LocalDate toDate) {
+		Set<LocalDate> holidays = new TreeSet<>();
+		for (int year = fromDate.getYear(); year <= toDate.getYear(); year++) {
+			String holidayUrl = new StringBuilder(holidayListUrl).append(regDto.getLangCode()).append("/")
+					.append(regDto.getId()).append("/").append(year).toString();
+			try {
+				HttpHeaders headers = new HttpHeaders();
+				headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+				HttpEntity<RequestWrapper<RegistrationCenterHolidayDto>> entity = new HttpEntity<>(headers);
+				String uriBuilder = UriComponentsBuilder.fromHttpUrl(holidayUrl).build().encode().toUriString();
+				ResponseEntity<ResponseWrapper<RegistrationCenterHolidayDto>> responseEntity = selfTokenRestTemplate
+						.exchange(uriBuilder, HttpMethod.GET, entity,
+								new ParameterizedTypeReference<ResponseWrapper<RegistrationCenterHolidayDto>>() {
+								});
+				ResponseWrapper<RegistrationCenterHolidayDto> body = responseEntity.getBody();
+				if (body == null || (body.getErrors() != null && !body.getErrors().isEmpty())) {
+					throw new MasterDataNotAvailableException(ErrorCodes.PRG_BOOK_RCI_020.getCode(),
+							ErrorMessages.MASTER_DATA_NOT_FOUND.getMessage());
+				}
+				if (body.getResponse() != null && body.getResponse().getHolidays() != null) {
+					for (HolidayDto holiday : body.getResponse().getHolidays()) {
+						if (holiday.getHolidayDate() != null && !Boolean.FALSE.equals(holiday.getIsActive())) {
+							holidays.add(LocalDate.parse(holiday.getHolidayDate()));
+						}
+					}
+				}
+			} catch (HttpClientErrorException ex) {
+				log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+				log.error("sessionId", "idType", "id",
+						"In getHolidayListMasterData method of Booking Service Util for HttpClientErrorException- "
+								+ ex.getMessage());
+				throw new RestCallException(ErrorCodes.PRG_BOOK_RCI_020.getCode(),
+						ErrorMessages.MASTER_DATA_NOT_FOUND.getMessage());
+			}
+		}
+		return holidays;
+	}
+
 	/**
 	 * This method will call demographic service for status.
 	 * 
@@ -422,6 +522,40 @@ public class BookingServiceUtil {
 
 	}
 
+	/**
+	 * This method builds the calendar days from the open slot projections in a
+	 * single pass, the slots being ordered by date and slot time. Days without an
+	 * open slot are left out, as done by slotSetter.
+	 * 
+	 * @param slotList
+	 * @return List of DateTimeDto
+	 */
+	public List<DateTimeDto> dateTimeSetter(List<SlotAvailabilityDto> slotList) {
+		List<DateTimeDto> dateTimeList = new ArrayList<>();
+		LocalDate date = null;
+		DateTimeDto dateTime = null;
+		for (SlotAvailabilityDto slot : slotList) {
+			if (!slot.getRegDate().equals(date)) {
+				date = slot.getRegDate();
+				dateTime = new DateTimeDto();
+				dateTime.setDate(date.toString());
+				dateTime.setHoliday(slot.getSlotsPerDay() == 1);
+			}
+			if (slot.getAvailableKiosks() > 0) {
+				if (dateTime.getTimeSlots() == null) {
+					dateTime.setTimeSlots(new ArrayList<>());
+					dateTimeList.add(dateTime);
+				}
+				SlotDto slots = new SlotDto();
+				slots.setAvailability(slot.getAvailableKiosks());
+				slots.setFromTime(slot.getFromTime());
+				slots.setToTime(slot.getToTime());
+				dateTime.getTimeSlots().add(slots);
+			}
+		}
+		return dateTimeList;
+	}
+
 	/**
 	 * This method will do mandatory parameter check for cancel.
 	 * 
@@ -528,6 +662,20 @@ public class BookingServiceUtil {
 	 */
 	public RegistrationBookingEntity bookingEntitySetter(String preRegistrationId,
 			BookingRequestDTO bookingRequestDTO) {// should set preid
+		return bookingEntitySetter(preRegistrationId, bookingRequestDTO, authUserDetails().getUserId());
+	}
+
+	/**
+	 * Helper method for setting RegistrationBookingEntity created by the given
+	 * user.
+	 * 
+	 * @param preRegistrationId
+	 * @param bookingRequestDTO
+	 * @param userId
+	 * @return RegistrationBookingEntity
+	 */
+	public RegistrationBookingEntity bookingEntitySetter(String preRegistrationId,
+			BookingRequestDTO bookingRequestDTO, String userId) {
 		log.info("sessionId", "idType", "id", "In bookingEntitySetter method of Booking Service Util");
 		RegistrationBookingEntity entity = new RegistrationBookingEntity();
 		//entity.setBookingPK(new RegistrationBookingPK(DateUtils.parseDateToLocalDateTime(new Date())));
@@ -535,7 +683,7 @@ public class BookingServiceUtil {
 		entity.setRegistrationCenterId(bookingRequestDTO.getRegistrationCenterId());
 		entity.setId(UUIDGeneratorUtil.generateId());
 		entity.setLangCode("12L");
-		entity.setCrBy(authUserDetails().getUserId());
+		entity.setCrBy(userId);
 		entity.setCrDate(DateUtils.parseDateToLocalDateTime(new Date()));
 		entity.setRegDate(LocalDate.parse(bookingRequestDTO.getRegDate()));
 		entity.setSlotFromTime(LocalTime.parse(bookingRequestDTO.getSlotFromTime()));
@@ -0,0 +1,307 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class is the spatial index of the registration centers having slots.
+ * Centers are put in a grid of
+ * ${preregistration.booking.center.index.cell.degrees} wide cells by their
+ * masterdata latitude and longitude, and the nearest centers of a location are
+ * found by walking the rings of cells around it. The grid is rebuilt every
+ * ${preregistration.booking.center.index.refresh.seconds}.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class CenterLocator {
+
+	private static final double EARTH_RADIUS_KM = 6371.0088;
+
+	private static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+	private Logger log = LoggerConfiguration.logConfig(CenterLocator.class);
+
+	/**
+	 * Reference for ${preregistration.booking.center.index.cell.degrees} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.center.index.cell.degrees:0.5}")
+	private double cellDegrees;
+
+	/**
+	 * Reference for ${preregistration.booking.center.index.refresh.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.center.index.refresh.seconds:3600}")
+	private long refreshSeconds;
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired
+	private BookingServiceUtil serviceUtil;
+
+	private volatile Grid grid;
+
+	private ScheduledExecutorService refresher;
+
+	@PostConstruct
+	public void start() {
+		refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "center-index-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refresher.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		refresher.shutdownNow();
+	}
+
+	/**
+	 * Rebuilds the grid from the centers having slots from today. Centers
+	 * without a valid location are left out. Called periodically by the refresh
+	 * thread.
+	 */
+	public void refresh() {
+		try {
+			List<RegistrationCenterDto> centers = new ArrayList<>();
+			List<String> regCenterIds = bookingDAO.findRegCenter(LocalDate.now());
+			for (String regCenterId : regCenterIds == null ? Collections.<String>emptyList() : regCenterIds) {
+				try {
+					List<RegistrationCenterDto> masterData = serviceUtil.getRegCenterMasterData(regCenterId);
+					if (masterData != null && !masterData.isEmpty()) {
+						centers.add(masterData.get(0));
+					}
+				} catch (RuntimeException ex) {
+					log.error("sessionId", "idType", "id", "Registration center " + regCenterId
+							+ " could not be indexed - " + ex.getMessage());
+				}
+			}
+			index(centers);
+		} catch (RuntimeException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Registration center index could not be built - " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Replaces the grid with the given centers.
+	 *
+	 * @param centers
+	 */
+	public void index(List<RegistrationCenterDto> centers) {
+		grid = new Grid(centers, cellDegrees);
+	}
+
+	/**
+	 * @param regCenterId
+	 * @return the indexed master data of the center, or null
+	 */
+	public RegistrationCenterDto getCenter(String regCenterId) {
+		Located located = currentGrid().byId.get(regCenterId);
+		return located == null ? null : located.center;
+	}
+
+	/**
+	 * @param regCenterId
+	 * @param latitude
+	 * @param longitude
+	 * @return distance in km from the indexed center, or null if the center is
+	 *         not indexed
+	 */
+	public Double distanceKm(String regCenterId, double latitude, double longitude) {
+		Located located = currentGrid().byId.get(regCenterId);
+		return located == null ? null : distanceKm(latitude, longitude, located.latitude, located.longitude);
+	}
+
+	/**
+	 * Returns the nearest centers of the location, nearest first.
+	 *
+	 * @param latitude
+	 * @param longitude
+	 * @param limit
+	 *            maximum number of centers
+	 * @return List of NearbyCenter
+	 */
+	public List<NearbyCenter> nearest(double latitude, double longitude, int limit) {
+		Grid current = currentGrid();
+		List<NearbyCenter> found = new ArrayList<>();
+		if (current.cells.isEmpty() || limit <= 0) {
+			return found;
+		}
+		long latCell = cell(latitude, current.cellDegrees);
+		long lonCell = cell(longitude, current.cellDegrees);
+		for (int ring = 0;; ring++) {
+			for (long i = latCell - ring; i <= latCell + ring; i++) {
+				for (long j = lonCell - ring; j <= lonCell + ring; j++) {
+					if (Math.abs(i - latCell) != ring && Math.abs(j - lonCell) != ring) {
+						continue;
+					}
+					for (Located located : current.cells.getOrDefault(key(i, j), Collections.emptyList())) {
+						found.add(new NearbyCenter(located.center,
+								distanceKm(latitude, longitude, located.latitude, located.longitude)));
+					}
+				}
+			}
+			boolean gridCovered = latCell - ring <= current.minLatCell && latCell + ring >= current.maxLatCell
+					&& lonCell - ring <= current.minLonCell && lonCell + ring >= current.maxLonCell;
+			if (found.size() >= limit) {
+				found.sort(Comparator.comparingDouble(NearbyCenter::getDistanceKm));
+				/* Cells beyond this ring are at least ring cells away from the location */
+				double maxLatitude = Math.min(90, Math.abs(latitude) + (ring + 1) * current.cellDegrees);
+				double reachKm = ring * current.cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(maxLatitude));
+				if (reachKm >= found.get(limit - 1).getDistanceKm()) {
+					break;
+				}
+			}
+			if (gridCovered) {
+				break;
+			}
+		}
+		found.sort(Comparator.comparingDouble(NearbyCenter::getDistanceKm));
+		return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+	}
+
+	private Grid currentGrid() {
+		Grid current = grid;
+		if (current == null) {
+			synchronized (this) {
+				if (grid == null) {
+					refresh();
+				}
+				current = grid != null ? grid : new Grid(Collections.emptyList(), cellDegrees);
+			}
+		}
+		return current;
+	}
+
+	/** Great circle distance, by the haversine formula. */
+	public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double dLatitude = Math.toRadians(latitude2 - latitude1);
+		double dLongitude = Math.toRadians(longitude2 - longitude1);
+		double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2) + Math.cos(Math.toRadians(latitude1))
+				* Math.cos(Math.toRadians(latitude2)) * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static long cell(double degrees, double cellDegrees) {
+		return (long) Math.floor(degrees / cellDegrees);
+	}
+
+	private static long key(long latCell, long lonCell) {
+		return latCell << 32 | lonCell & 0xffffffffL;
+	}
+
+	/**
+	 * A center with its distance from the searched location.
+	 */
+	public static final class NearbyCenter {
+
+		private final RegistrationCenterDto center;
+
+		private final double distanceKm;
+
+		private NearbyCenter(RegistrationCenterDto center, double distanceKm) {
+			this.center = center;
+			this.distanceKm = distanceKm;
+		}
+
+		public RegistrationCenterDto getCenter() {
+			return center;
+		}
+
+		public double getDistanceKm() {
+			return distanceKm;
+		}
+	}
+
+	private static final class Located {
+
+		private final RegistrationCenterDto center;
+
+		private final double latitude;
+
+		private final double longitude;
+
+		private Located(RegistrationCenterDto center, double latitude, double longitude) {
+			this.center = center;
+			this.latitude = latitude;
+			this.longitude = longitude;
+		}
+	}
+
+	private static final class Grid {
+
+		private final double cellDegrees;
+
+		private final Map<Long, List<Located>> cells = new HashMap<>();
+
+		private final Map<String, Located> byId = new HashMap<>();
+
+		private long minLatCell = Long.MAX_VALUE;
+
+		private long maxLatCell = Long.MIN_VALUE;
+
+		private long minLonCell = Long.MAX_VALUE;
+
+		private long maxLonCell = Long.MIN_VALUE;
+
+		private Grid(List<RegistrationCenterDto> centers, double cellDegrees) {
+			this.cellDegrees = cellDegrees;
+			for (RegistrationCenterDto center : centers) {
+				double latitude;
+				double longitude;
+				try {
+					latitude = Double.parseDouble(center.getLatitude());
+					longitude = Double.parseDouble(center.getLongitude());
+				} catch (NullPointerException | NumberFormatException ex) {
+					continue;
+				}
+				if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+					continue;
+				}
+				Located located = new Located(center, latitude, longitude);
+				long latCell = cell(latitude, cellDegrees);
+				long lonCell = cell(longitude, cellDegrees);
+				cells.computeIfAbsent(key(latCell, lonCell), k -> new ArrayList<>()).add(located);
+				byId.put(center.getId(), located);
+				minLatCell = Math.min(minLatCell, latCell);
+				maxLatCell = Math.max(maxLatCell, latCell);
+				minLonCell = Math.min(minLonCell, lonCell);
+				maxLonCell = Math.max(maxLonCell, lonCell);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+
+/**
+ * This class keeps the earliest open slot of each registration center. The
+ * slots of the centers not indexed yet are loaded with one query. A booking of
+ * the indexed slot drops the entry of the center, as does a kiosk given back
+ * to an earlier slot; bookings and cancellations of other slots leave it
+ * untouched. Entries expire after
+ * ${preregistration.booking.next.slot.cache.ttl.seconds} to pick up slots
+ * added by the availability sync. As in {@link AvailabilityCache}, every
+ * eviction moves the generation of the center on, and a loaded slot is only
+ * put if the generation taken before the load is still current.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class NextOpenSlotIndex {
+
+	/**
+	 * Reference for ${preregistration.booking.next.slot.cache.size} from property
+	 * file
+	 */
+	@Value("${preregistration.booking.next.slot.cache.size:10000}")
+	private int maxSize;
+
+	/**
+	 * Reference for ${preregistration.booking.next.slot.cache.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.next.slot.cache.ttl.seconds:300}")
+	private long ttlSeconds;
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private TtlCache<String, CachedSlot> cache;
+
+	/** Generation of each center evicted so far, bounded by the number of centers. */
+	private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+	private Counter hits;
+
+	private Counter misses;
+
+	@PostConstruct
+	public void setupIndex() {
+		cache = new TtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		hits = Counter.builder("prereg.booking.next.slot.cache.requests").tag("result", "hit").register(registry);
+		misses = Counter.builder("prereg.booking.next.slot.cache.requests").tag("result", "miss")
+				.register(registry);
+		Gauge.builder("prereg.booking.next.slot.cache.size", cache, TtlCache::size).register(registry);
+	}
+
+	/**
+	 * Returns the earliest open slot, on or after the date, of each of the
+	 * centers. The centers missing from the index are loaded together.
+	 *
+	 * @param regCenterIds
+	 * @param fromDate
+	 *            first bookable date
+	 * @return open slot by center id, in the order of the ids, without the
+	 *         centers having no open slot
+	 */
+	public Map<String, OpenSlotDto> get(Collection<String> regCenterIds, LocalDate fromDate) {
+		Map<String, CachedSlot> found = new HashMap<>();
+		List<String> missing = new ArrayList<>();
+		for (String regCenterId : regCenterIds) {
+			CachedSlot cached = cache.get(regCenterId);
+			if (cached != null && cached.fromDate.equals(fromDate)) {
+				found.put(regCenterId, cached);
+			} else {
+				missing.add(regCenterId);
+			}
+		}
+		hits.increment(found.size());
+		misses.increment(missing.size());
+		if (!missing.isEmpty()) {
+			Map<String, Long> generationsBefore = new HashMap<>();
+			for (String regCenterId : missing) {
+				generationsBefore.put(regCenterId, generation(regCenterId));
+			}
+			Map<String, OpenSlotDto> loaded = new HashMap<>();
+			for (OpenSlotDto slot : bookingDAO.findNextOpenSlots(missing, fromDate)) {
+				loaded.putIfAbsent(slot.getRegcntrId(), slot);
+			}
+			for (String regCenterId : missing) {
+				CachedSlot cached = new CachedSlot(fromDate, loaded.get(regCenterId));
+				put(regCenterId, cached, generationsBefore.get(regCenterId));
+				found.put(regCenterId, cached);
+			}
+		}
+		Map<String, OpenSlotDto> slots = new LinkedHashMap<>();
+		for (String regCenterId : regCenterIds) {
+			CachedSlot cached = found.get(regCenterId);
+			if (cached != null && cached.slot != null) {
+				slots.put(regCenterId, cached.slot);
+			}
+		}
+		return slots;
+	}
+
+	/**
+	 * Drops the entry of the center if its kiosk was taken from the indexed
+	 * slot, which may be full now.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param fromTime
+	 * @param toTime
+	 */
+	public void reserved(String regCenterId, LocalDate regDate, LocalTime fromTime, LocalTime toTime) {
+		evictIf(regCenterId, slot -> slot != null && slot.isSlot(regDate, fromTime, toTime));
+	}
+
+	/**
+	 * Drops the entry of the center if the kiosk was given back to a slot
+	 * earlier than the indexed one, or to a center without open slot.
+	 *
+	 * @param regCenterId
+	 * @param regDate
+	 * @param fromTime
+	 */
+	public void released(String regCenterId, LocalDate regDate, LocalTime fromTime) {
+		evictIf(regCenterId, slot -> slot == null || !slot.isBefore(regDate, fromTime));
+	}
+
+	/**
+	 * Evicts now and, when called inside a transaction, again after completion
+	 * so that a load between the change and the commit is not kept.
+	 */
+	private void evictIf(String regCenterId, Predicate<OpenSlotDto> affected) {
+		evictNowIf(regCenterId, affected);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					evictNowIf(regCenterId, affected);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Puts the slot only while the generation of the center is unchanged, and
+	 * takes it out again if an eviction moved the generation on meanwhile.
+	 */
+	private void put(String regCenterId, CachedSlot cached, long generation) {
+		if (generation(regCenterId) != generation) {
+			return;
+		}
+		cache.put(regCenterId, cached);
+		if (generation(regCenterId) != generation) {
+			cache.invalidate(regCenterId);
+		}
+	}
+
+	/**
+	 * Evicts the entry of the center if affected. Without an entry a load may be
+	 * in flight, so the generation is moved on all the same.
+	 */
+	private void evictNowIf(String regCenterId, Predicate<OpenSlotDto> affected) {
+		CachedSlot cached = cache.get(regCenterId);
+		if (cached == null || affected.test(cached.slot)) {
+			evict(regCenterId);
+		}
+	}
+
+	public void evict(String regCenterId) {
+		generations.merge(regCenterId, 1L, Long::sum);
+		cache.invalidate(regCenterId);
+	}
+
+	private long generation(String regCenterId) {
+		return generations.getOrDefault(regCenterId, 0L);
+	}
+
+	private static final class CachedSlot {
+
+		private final LocalDate fromDate;
+
+		/** null when the center has no open slot */
+		private final OpenSlotDto slot;
+
+		private CachedSlot(LocalDate fromDate, OpenSlotDto slot) {
+			this.fromDate = fromDate;
+			this.slot = slot;
+		}
+	}
+
+}
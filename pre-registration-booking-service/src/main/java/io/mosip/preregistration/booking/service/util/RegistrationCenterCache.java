@@ -0,0 +1,255 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class caches the registration center master data of a center. Entries
+ * are reloaded in the background once they are older than
+ * ${preregistration.booking.regcenter.cache.refresh.seconds}, so that a center
+ * in use never expires while the masterdata service is up. An entry older than
+ * that is served at once and reloaded in the background, one reload at a time
+ * per center; past ${preregistration.booking.regcenter.cache.ttl.seconds} it is
+ * reported as stale. Only an entry older than
+ * ${preregistration.booking.regcenter.cache.stale.seconds} is loaded on the
+ * request path. Centers not requested for
+ * ${preregistration.booking.regcenter.cache.ttl.seconds} are dropped.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class RegistrationCenterCache {
+
+	private Logger log = LoggerConfiguration.logConfig(RegistrationCenterCache.class);
+
+	/**
+	 * Reference for ${preregistration.booking.regcenter.cache.ttl.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.regcenter.cache.ttl.seconds:3600}")
+	private long ttlSeconds;
+
+	/**
+	 * Reference for ${preregistration.booking.regcenter.cache.refresh.seconds}
+	 * from property file
+	 */
+	@Value("${preregistration.booking.regcenter.cache.refresh.seconds:2700}")
+	private long refreshSeconds;
+
+	/**
+	 * Reference for
+	 * ${preregistration.booking.regcenter.cache.refresh.interval.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.regcenter.cache.refresh.interval.seconds:60}")
+	private long refreshIntervalSeconds;
+
+	/**
+	 * Reference for ${preregistration.booking.regcenter.cache.stale.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.regcenter.cache.stale.seconds:86400}")
+	private long staleSeconds;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private LongSupplier ticker = System::nanoTime;
+
+	private final Map<String, CachedCenter> entries = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService refresher;
+
+	private Executor reloader;
+
+	private Counter hits;
+
+	private Counter misses;
+
+	private Counter staleHits;
+
+	@PostConstruct
+	public void setupCache() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		hits = Counter.builder("prereg.booking.regcenter.cache.requests").tag("result", "hit").register(registry);
+		misses = Counter.builder("prereg.booking.regcenter.cache.requests").tag("result", "miss")
+				.register(registry);
+		staleHits = Counter.builder("prereg.booking.regcenter.cache.requests").tag("result", "stale")
+				.register(registry);
+		Gauge.builder("prereg.booking.regcenter.cache.size", entries, Map::size).register(registry);
+		refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "regcenter-cache-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalSeconds, refreshIntervalSeconds,
+				TimeUnit.SECONDS);
+		if (reloader == null) {
+			reloader = refresher;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		refresher.shutdownNow();
+	}
+
+	/**
+	 * Returns the cached master data of the center, loading it with the loader
+	 * if absent or too old to be served. An entry due for refresh is served as
+	 * it is and reloaded in the background.
+	 *
+	 * @param regCenterId
+	 * @param loader
+	 *            remote call to the masterdata service
+	 * @return List of RegistrationCenterDto
+	 */
+	public List<RegistrationCenterDto> get(String regCenterId, Function<String, List<RegistrationCenterDto>> loader) {
+		long now = ticker.getAsLong();
+		CachedCenter cached = entries.get(regCenterId);
+		if (cached != null && now - cached.loadedAt < TimeUnit.SECONDS.toNanos(staleSeconds)) {
+			cached.lastAccess = now;
+			if (now - cached.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+				hits.increment();
+			} else {
+				staleHits.increment();
+			}
+			if (now - cached.loadedAt >= TimeUnit.SECONDS.toNanos(refreshSeconds)) {
+				reloadInBackground(regCenterId, cached);
+			}
+			return cached.centers;
+		}
+		misses.increment();
+		try {
+			List<RegistrationCenterDto> centers = loader.apply(regCenterId);
+			entries.put(regCenterId, new CachedCenter(centers, loader, now));
+			return centers;
+		} catch (RuntimeException ex) {
+			entries.remove(regCenterId);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Reloads the centers due for refresh and drops the centers not requested
+	 * within the TTL. Called periodically by the refresh thread.
+	 */
+	public void refresh() {
+		long now = ticker.getAsLong();
+		for (Map.Entry<String, CachedCenter> entry : entries.entrySet()) {
+			CachedCenter cached = entry.getValue();
+			if (now - cached.lastAccess >= TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+				entries.remove(entry.getKey(), cached);
+			} else if (now - cached.loadedAt >= TimeUnit.SECONDS.toNanos(refreshSeconds)
+					&& cached.reloading.compareAndSet(false, true)) {
+				reload(entry.getKey(), cached);
+			}
+		}
+	}
+
+	private void reloadInBackground(String regCenterId, CachedCenter cached) {
+		if (!cached.reloading.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			reloader.execute(() -> reload(regCenterId, cached));
+		} catch (RuntimeException ex) {
+			cached.reloading.set(false);
+			log.error("sessionId", "idType", "id",
+					"Refresh of registration center " + regCenterId + " not scheduled - " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Replaces the entry with a fresh load. An outage keeps the entry, to be
+	 * reloaded again later; any other failure drops it.
+	 */
+	private void reload(String regCenterId, CachedCenter cached) {
+		try {
+			CachedCenter reloaded = new CachedCenter(cached.loader.apply(regCenterId), cached.loader,
+					ticker.getAsLong());
+			reloaded.lastAccess = cached.lastAccess;
+			entries.replace(regCenterId, cached, reloaded);
+		} catch (RuntimeException ex) {
+			log.error("sessionId", "idType", "id",
+					"Refresh of registration center " + regCenterId + " failed - " + ex.getMessage());
+			if (!isOutage(ex)) {
+				entries.remove(regCenterId, cached);
+			}
+		} finally {
+			cached.reloading.set(false);
+		}
+	}
+
+	/** Server errors and I/O errors, as opposed to an answer of masterdata. */
+	private static boolean isOutage(RuntimeException ex) {
+		return ex instanceof RestClientException && !(ex instanceof HttpClientErrorException);
+	}
+
+	/**
+	 * Drops the cached master data of the center, so that the next request loads
+	 * it again.
+	 *
+	 * @param regCenterId
+	 */
+	public void evict(String regCenterId) {
+		entries.remove(regCenterId);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private static final class CachedCenter {
+
+		private final List<RegistrationCenterDto> centers;
+
+		private final Function<String, List<RegistrationCenterDto>> loader;
+
+		private final long loadedAt;
+
+		private volatile long lastAccess;
+
+		private final AtomicBoolean reloading = new AtomicBoolean();
+
+		private CachedCenter(List<RegistrationCenterDto> centers, Function<String, List<RegistrationCenterDto>> loader,
+				long loadedAt) {
+			this.centers = centers;
+			this.loader = loader;
+			this.loadedAt = loadedAt;
+			this.lastAccess = loadedAt;
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.AppointmentBookingFailedException;
+
+/**
+ * This class commits the new bookings of a slot in groups. Requests for the
+ * same slot wait in a queue; the first of them becomes the leader and commits
+ * the bookings of all the waiting requests, up to
+ * ${preregistration.booking.group.commit.max.batch}, in one transaction, while
+ * the requests arriving meanwhile form the next group. The other requests are
+ * completed when that transaction completes: booked or rejected on commit, and
+ * booked alone in their own transaction if it rolls back. Requests join the
+ * queue before opening any transaction and the group commit opens the one
+ * transaction of the group, so waiting requests hold no pooled connection and
+ * the group size is not bounded by the pool. Each request carries the id of
+ * its own user, for the rows the leader writes for it. Group sizes are
+ * reported as prereg.booking.group.commit.size.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class SlotCommitQueue {
+
+	/**
+	 * Commit of the bookings of a group.
+	 */
+	@FunctionalInterface
+	public interface GroupCommit {
+
+		/**
+		 * Commits the bookings of the given pre registration ids, granted in order,
+		 * so when the first one is rejected none is committed.
+		 *
+		 * @param userIds
+		 *            the user booking each distinct pre registration id, in
+		 *            order, the leader first
+		 * @return the reason of rejection of each rejected id
+		 */
+		Map<String, RuntimeException> commit(LinkedHashMap<String, String> userIds);
+	}
+
+	private enum Outcome {
+		LEAD, BOOKED, ALONE
+	}
+
+	/**
+	 * Reference for ${preregistration.booking.group.commit.max.batch} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.group.commit.max.batch:50}")
+	private int maxBatch;
+
+	/**
+	 * Reference for ${preregistration.booking.group.commit.wait.millis} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.group.commit.wait.millis:10000}")
+	private long waitMillis;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private final Map<BookingLock, SlotQueue> queues = new ConcurrentHashMap<>();
+
+	private DistributionSummary groupSize;
+
+	private Counter committedAlone;
+
+	public SlotCommitQueue() {
+	}
+
+	public SlotCommitQueue(int maxBatch, long waitMillis) {
+		this.maxBatch = maxBatch;
+		this.waitMillis = waitMillis;
+		setupQueue();
+	}
+
+	@PostConstruct
+	public void setupQueue() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		groupSize = DistributionSummary.builder("prereg.booking.group.commit.size").register(registry);
+		committedAlone = Counter.builder("prereg.booking.group.commit.alone").register(registry);
+	}
+
+	/**
+	 * This method books the pre registration id on the slot in a group with the
+	 * other requests waiting for the slot. It is to be called outside any
+	 * transaction, with a group commit and an alone commit each opening their
+	 * own, and returns once the booking is committed. When called inside a
+	 * transaction anyway, the leader returns once that transaction is
+	 * registered to commit the group.
+	 *
+	 * @param slot
+	 * @param preRegistrationId
+	 * @param userId
+	 *            the user booking, as seen by the request
+	 * @param groupCommit
+	 *            commit of a group, called by the leader
+	 * @param alone
+	 *            commit of this booking alone, called if its group rolled back
+	 * @throws RuntimeException
+	 *             the reason of rejection of the booking
+	 */
+	public void book(BookingLock slot, String preRegistrationId, String userId, GroupCommit groupCommit,
+			Runnable alone) {
+		Ticket ticket = join(slot, preRegistrationId, userId);
+		Outcome outcome = await(slot, ticket);
+		if (outcome == Outcome.BOOKED) {
+			return;
+		}
+		if (outcome == Outcome.ALONE) {
+			committedAlone.increment();
+			alone.run();
+			return;
+		}
+		List<Ticket> group = drain(slot);
+		groupSize.record(group.size());
+		LinkedHashMap<String, String> userIds = new LinkedHashMap<>();
+		group.forEach(member -> userIds.putIfAbsent(member.preRegistrationId, member.userId));
+		Map<String, RuntimeException> rejected;
+		try {
+			rejected = groupCommit.commit(userIds);
+		} catch (RuntimeException ex) {
+			complete(slot, group, ticket, null);
+			throw ex;
+		}
+		RuntimeException ownRejection = rejected.get(preRegistrationId);
+		if (ownRejection != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			complete(slot, group, ticket, rejected);
+		} else {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					complete(slot, group, ticket,
+							status == TransactionSynchronization.STATUS_COMMITTED ? rejected : null);
+				}
+			});
+		}
+		if (ownRejection != null) {
+			throw ownRejection;
+		}
+	}
+
+	private Ticket join(BookingLock slot, String preRegistrationId, String userId) {
+		Ticket ticket = new Ticket(preRegistrationId, userId);
+		queues.compute(slot, (key, queue) -> {
+			SlotQueue slotQueue = queue != null ? queue : new SlotQueue();
+			slotQueue.waiting.add(ticket);
+			if (!slotQueue.leading) {
+				slotQueue.leading = true;
+				ticket.outcome.complete(Outcome.LEAD);
+			}
+			return slotQueue;
+		});
+		return ticket;
+	}
+
+	private List<Ticket> drain(BookingLock slot) {
+		List<Ticket> group = new ArrayList<>();
+		queues.computeIfPresent(slot, (key, queue) -> {
+			while (group.size() < maxBatch && !queue.waiting.isEmpty()) {
+				group.add(queue.waiting.poll());
+			}
+			return queue;
+		});
+		return group;
+	}
+
+	/**
+	 * Completes the other members of the group, with their rejection or as
+	 * booked, or to book alone if the group was not committed, and hands the
+	 * lead over to the next waiting request.
+	 */
+	private void complete(BookingLock slot, List<Ticket> group, Ticket leader,
+			Map<String, RuntimeException> rejected) {
+		for (Ticket member : group) {
+			if (member == leader) {
+				continue;
+			}
+			if (rejected == null) {
+				member.outcome.complete(Outcome.ALONE);
+			} else if (rejected.containsKey(member.preRegistrationId)) {
+				member.outcome.completeExceptionally(rejected.get(member.preRegistrationId));
+			} else {
+				member.outcome.complete(Outcome.BOOKED);
+			}
+		}
+		queues.computeIfPresent(slot, (key, queue) -> {
+			Ticket next = queue.waiting.peek();
+			if (next == null) {
+				return null;
+			}
+			next.outcome.complete(Outcome.LEAD);
+			return queue;
+		});
+	}
+
+	private Outcome await(BookingLock slot, Ticket ticket) {
+		try {
+			return ticket.outcome.get(waitMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			if (leave(slot, ticket)) {
+				throw new AppointmentBookingFailedException(ErrorCodes.PRG_BOOK_RCI_037.getCode(),
+						ErrorMessages.SLOT_LOCK_NOT_ACQUIRED.getMessage(), ex);
+			}
+		} catch (InterruptedException ex) {
+			if (leave(slot, ticket)) {
+				Thread.currentThread().interrupt();
+				throw new AppointmentBookingFailedException(ErrorCodes.PRG_BOOK_RCI_037.getCode(),
+						ErrorMessages.SLOT_LOCK_NOT_ACQUIRED.getMessage(), ex);
+			}
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			throw (RuntimeException) ex.getCause();
+		}
+		/* Already taken into a group, its outcome is on the way */
+		try {
+			return ticket.outcome.join();
+		} catch (CompletionException ex) {
+			throw (RuntimeException) ex.getCause();
+		}
+	}
+
+	/** @return true if the ticket left the queue before being led or grouped */
+	private boolean leave(BookingLock slot, Ticket ticket) {
+		boolean[] left = new boolean[1];
+		queues.computeIfPresent(slot, (key, queue) -> {
+			left[0] = !ticket.outcome.isDone() && queue.waiting.remove(ticket);
+			return queue;
+		});
+		return left[0];
+	}
+
+	/** Requests waiting for a slot, and whether one of them leads. */
+	private static final class SlotQueue {
+
+		private final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+
+		private boolean leading;
+	}
+
+	private static final class Ticket {
+
+		private final String preRegistrationId;
+
+		private final String userId;
+
+		private final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+
+		private Ticket(String preRegistrationId, String userId) {
+			this.preRegistrationId = preRegistrationId;
+			this.userId = userId;
+		}
+	}
+
+}
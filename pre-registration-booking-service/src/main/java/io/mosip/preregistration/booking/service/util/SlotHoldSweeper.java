@@ -0,0 +1,121 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.entity.SlotHoldEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingServiceIntf;
+import io.mosip.preregistration.core.config.LoggerConfiguration;
+
+/**
+ * This class gives back the kiosks of the expired slot holds. Every
+ * ${preregistration.booking.hold.sweep.interval.seconds} the expired holds are
+ * grouped by slot, and the holds of each slot are removed and their kiosks
+ * released with one update.
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+@Component
+public class SlotHoldSweeper {
+
+	private Logger log = LoggerConfiguration.logConfig(SlotHoldSweeper.class);
+
+	@Autowired
+	private BookingServiceIntf bookingService;
+
+	@Autowired
+	private BookingDAO bookingDAO;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Reference for ${preregistration.booking.hold.sweep.interval.seconds} from
+	 * property file
+	 */
+	@Value("${preregistration.booking.hold.sweep.interval.seconds:30}")
+	private long sweepIntervalSeconds;
+
+	private ScheduledExecutorService sweeper;
+
+	private Counter released;
+
+	@PostConstruct
+	public void start() {
+		MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+		released = Counter.builder("prereg.booking.hold.released").register(registry);
+		sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "slot-hold-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sweeper.shutdownNow();
+	}
+
+	/**
+	 * Releases the holds expired by now, one update per slot. Called
+	 * periodically by the sweeper thread.
+	 *
+	 * @return number of released holds
+	 */
+	public int sweep() {
+		LocalDateTime now = LocalDateTime.now();
+		int total = 0;
+		try {
+			Set<BookingRequestDTO> slots = new LinkedHashSet<>();
+			for (SlotHoldEntity hold : bookingDAO.findExpiredSlotHolds(now)) {
+				BookingRequestDTO slot = new BookingRequestDTO();
+				slot.setRegistrationCenterId(hold.getRegcntrId());
+				slot.setRegDate(hold.getRegDate().toString());
+				slot.setSlotFromTime(hold.getFromTime().toString());
+				slot.setSlotToTime(hold.getToTime().toString());
+				slots.add(slot);
+			}
+			for (BookingRequestDTO slot : slots) {
+				try {
+					int count = bookingService.releaseExpiredHolds(slot, now);
+					released.increment(count);
+					total += count;
+				} catch (RuntimeException ex) {
+					log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+					log.error("sessionId", "idType", "id", "Expired holds of Reg center " + slot.getRegistrationCenterId()
+							+ " could not be released - " + ex.getMessage());
+				}
+			}
+		} catch (RuntimeException ex) {
+			log.debug("sessionId", "idType", "id", ExceptionUtils.getStackTrace(ex));
+			log.error("sessionId", "idType", "id", "Expired holds could not be read - " + ex.getMessage());
+		}
+		return total;
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright
+ *
+ */
+package io.mosip.preregistration.booking.service.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * This class provides a size bounded, least recently used cache whose entries
+ * expire a fixed time after they were written.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @author agent
+ * @since 1.0.0
+ *
+ */
+public class TtlCache<K, V> {
+
+	private final long ttlNanos;
+
+	private final LongSupplier ticker;
+
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	public TtlCache(int maxSize, Duration ttl) {
+		this(maxSize, ttl, System::nanoTime);
+	}
+
+	public TtlCache(int maxSize, Duration ttl, LongSupplier ticker) {
+		this.ttlNanos = ttl.toNanos();
+		this.ticker = ticker;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param key
+	 * @return the value, or null if absent or expired
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (ticker.getAsLong() - entry.writtenAt >= ttlNanos) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<>(value, ticker.getAsLong()));
+	}
+
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public synchronized void invalidateAll() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long writtenAt;
+
+		private Entry(V value, long writtenAt) {
+			this.value = value;
+			this.writtenAt = writtenAt;
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package io.mosip.preregistration.booking.test.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.mosip.preregistration.booking.dto.DateTimeDto;
+import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository;
+
+/**
+ * Benchmark of the allocation of the availability calendar built from the
+ * hydrated entities and from the open slot projection, run with the benchmark
+ * profile.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = BookingAvailabilityRepositoryTest.SlotJpaConfig.class)
+public class BookingAvailabilityRepositoryBenchmark {
+
+	private static final int REQUESTS = 200;
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	private BookingAvailabilityRepository bookingAvailabilityRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Before
+	public void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		BookingAvailabilityRepositoryTest.saveCalendar(transactionTemplate, bookingAvailabilityRepository);
+	}
+
+	/**
+	 * Compares the bytes allocated to build the calendar of a center from the
+	 * hydrated entities and from the projection, 14 days of 36 slots.
+	 */
+	@Test
+	public void projectionAllocationBenchmark() {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		Supplier<List<DateTimeDto>> entityCalendar = BookingAvailabilityRepositoryTest
+				.entityCalendar(transactionTemplate, bookingAvailabilityRepository);
+		Supplier<List<DateTimeDto>> projectionCalendar = BookingAvailabilityRepositoryTest
+				.projectionCalendar(transactionTemplate, bookingAvailabilityRepository);
+		assertEquals(entityCalendar.get().toString(), projectionCalendar.get().toString());
+
+		long entityBytes = allocatedPerRequest(threadBean, entityCalendar);
+		long projectionBytes = allocatedPerRequest(threadBean, projectionCalendar);
+
+		logger.info(String.format("Availability calendar allocation (bytes/request) entity: %d, projection: %d",
+				entityBytes, projectionBytes));
+	}
+
+	private long allocatedPerRequest(com.sun.management.ThreadMXBean threadBean, Supplier<?> request) {
+		for (int i = 0; i < REQUESTS; i++) {
+			request.get();
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < REQUESTS; i++) {
+			request.get();
+		}
+		return (threadBean.getThreadAllocatedBytes(threadId) - before) / REQUESTS;
+	}
+
+}
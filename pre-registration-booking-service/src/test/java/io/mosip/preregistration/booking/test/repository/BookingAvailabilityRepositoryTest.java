@@ -0,0 +1,372 @@
+package io.mosip.preregistration.booking.test.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.preregistration.booking.dto.DateTimeDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Test class for the guarded kiosk reservation and the open slot projection of
+ * {@link BookingAvailabilityRepository}, and the batched slot writes of the
+ * availability sync, against an in memory H2 database.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = BookingAvailabilityRepositoryTest.SlotJpaConfig.class)
+public class BookingAvailabilityRepositoryTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.of(2019, 6, 10);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final int KIOSKS = 10;
+	private static final LocalDate CALENDAR_END = REG_DATE.plusDays(13);
+
+	@Autowired
+	private BookingAvailabilityRepository bookingAvailabilityRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Configuration
+	@EnableTransactionManagement
+	@EnableJpaRepositories(basePackageClasses = BookingAvailabilityRepository.class, includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = BookingAvailabilityRepository.class), repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class SlotJpaConfig {
+
+		@Bean
+		public DataSource dataSource() {
+			return new DriverManagerDataSource(
+					"jdbc:h2:mem:slotdb;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000;INIT=CREATE SCHEMA IF NOT EXISTS PREREG\\;"
+							+ "CREATE TABLE IF NOT EXISTS PREREG.REG_APPOINTMENT (PREREG_ID VARCHAR(36), REGCNTR_ID VARCHAR(10), "
+							+ "APPOINTMENT_DATE DATE, SLOT_FROM_TIME TIME, SLOT_TO_TIME TIME)",
+					"sa", "");
+		}
+
+		@Bean
+		public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+			factory.setDataSource(dataSource);
+			factory.setPackagesToScan(AvailibityEntity.class.getPackage().getName());
+			factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			Properties properties = new Properties();
+			properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+			properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+			factory.setJpaProperties(properties);
+			return factory;
+		}
+
+		@Bean
+		public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.execute(status -> {
+			bookingAvailabilityRepository.deleteAll();
+			return bookingAvailabilityRepository.save(slot(REG_CENTER_ID, REG_DATE, FROM_TIME, KIOSKS));
+		});
+		new JdbcTemplate(dataSource).update("DELETE FROM PREREG.REG_APPOINTMENT");
+	}
+
+	private void book(String preRegistrationId, LocalDate regDate, LocalTime fromTime) {
+		new JdbcTemplate(dataSource).update("INSERT INTO PREREG.REG_APPOINTMENT VALUES (?, ?, ?, ?, ?)",
+				preRegistrationId, REG_CENTER_ID, Date.valueOf(regDate), Time.valueOf(fromTime),
+				Time.valueOf(fromTime.plusMinutes(15)));
+	}
+
+	@Test
+	public void reserveAndReleaseKioskTest() {
+		assertEquals(1, reserve());
+		assertEquals(KIOSKS - 1, availableKiosks());
+		assertEquals(1, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.releaseKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME)));
+		assertEquals(KIOSKS, availableKiosks());
+	}
+
+	@Test
+	public void deleteSlotsOfDateTest() {
+		transactionTemplate.execute(status -> {
+			bookingAvailabilityRepository.save(slot(REG_CENTER_ID, REG_DATE, FROM_TIME.plusMinutes(15), KIOSKS));
+			bookingAvailabilityRepository.save(slot(REG_CENTER_ID, REG_DATE, FROM_TIME.plusMinutes(30), KIOSKS));
+			return bookingAvailabilityRepository.save(slot(REG_CENTER_ID, REG_DATE.plusDays(1), FROM_TIME, KIOSKS));
+		});
+		book("98746563542672", REG_DATE, FROM_TIME.plusMinutes(30));
+
+		assertEquals(2, (int) transactionTemplate.execute(
+				status -> bookingAvailabilityRepository.deleteByRegcntrIdAndRegDate(REG_CENTER_ID, REG_DATE)));
+		assertEquals(2, bookingAvailabilityRepository.count());
+	}
+
+	@Test
+	public void reserveSeveralKiosksTest() {
+		assertEquals(1, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.reserveKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, KIOSKS - 3)));
+		assertEquals(0, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.reserveKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, 4)));
+		assertEquals(3, availableKiosks());
+		assertEquals(1, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.releaseKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, 2)));
+		assertEquals(5, availableKiosks());
+		assertEquals(1, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.releaseKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, -4)));
+		assertEquals(1, availableKiosks());
+	}
+
+	@Test
+	public void reserveKioskOnUnknownSlotTest() {
+		assertEquals(0, (int) transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.reserveKiosk(REG_DATE, REG_CENTER_ID, TO_TIME, FROM_TIME)));
+	}
+
+	@Test
+	public void noOverbookingUnderParallelBookersTest() throws Exception {
+		int bookers = 300;
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(bookers);
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		for (int i = 0; i < bookers; i++) {
+			pool.submit(() -> {
+				try {
+					start.await();
+					if (reserve() == 1) {
+						booked.incrementAndGet();
+					} else {
+						rejected.incrementAndGet();
+					}
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		start.countDown();
+		assertTrue(done.await(120, TimeUnit.SECONDS));
+		pool.shutdown();
+
+		assertEquals(KIOSKS, booked.get());
+		assertEquals(bookers - KIOSKS, rejected.get());
+		assertEquals(0, availableKiosks());
+	}
+
+	@Test
+	public void slotAvailabilityProjectionTest() {
+		LocalDate holiday = REG_DATE.plusDays(1);
+		transactionTemplate.execute(status -> {
+			bookingAvailabilityRepository.save(slot(REG_CENTER_ID, holiday, LocalTime.MIDNIGHT, 0));
+			bookingAvailabilityRepository.save(slot(REG_CENTER_ID, REG_DATE, TO_TIME, 0));
+			return bookingAvailabilityRepository.save(slot("10002", REG_DATE, TO_TIME, 3));
+		});
+
+		List<SlotAvailabilityDto> slots = transactionTemplate.execute(
+				status -> bookingAvailabilityRepository.findSlotAvailability(REG_CENTER_ID, REG_DATE, holiday));
+
+		assertEquals(3, slots.size());
+		assertEquals(REG_DATE, slots.get(0).getRegDate());
+		assertEquals(FROM_TIME, slots.get(0).getFromTime());
+		assertEquals(TO_TIME, slots.get(0).getToTime());
+		assertEquals(KIOSKS, slots.get(0).getAvailableKiosks());
+		assertEquals(TO_TIME, slots.get(1).getFromTime());
+		assertEquals(holiday, slots.get(2).getRegDate());
+	}
+
+	@Test
+	public void applyAvailabilityChangesTest() {
+		AvailibityEntity removed = slot("10002", REG_DATE, FROM_TIME, 3);
+		transactionTemplate.execute(status -> bookingAvailabilityRepository.save(removed));
+		BookingDAO bookingDAO = new BookingDAO();
+		ReflectionTestUtils.setField(bookingDAO, "entityManager",
+				SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+		ReflectionTestUtils.setField(bookingDAO, "jdbcBatchSize", 2);
+		List<AvailibityEntity> inserted = new ArrayList<>();
+		for (int slot = 1; slot <= 3; slot++) {
+			inserted.add(slot(REG_CENTER_ID, REG_DATE, FROM_TIME.plusMinutes(15L * slot), KIOSKS));
+		}
+
+		transactionTemplate.execute(status -> {
+			bookingDAO.applyAvailabilityChanges(Collections.singletonList(removed),
+					Collections.singletonList(new SlotCountDto(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, -3)),
+					inserted, "sync");
+			return null;
+		});
+
+		List<AvailibityEntity> slots = transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.findByRegcntrIdAndRegDateGreaterThanEqualAndRegDateLessThanEqualOrderByFromTimeAsc(REG_CENTER_ID,
+						REG_DATE, REG_DATE));
+		assertEquals(4, slots.size());
+		assertEquals(KIOSKS - 3, slots.get(0).getAvailableKiosks());
+		assertEquals("sync", slots.get(0).getUpBy());
+		assertEquals(LocalTime.of(9, 45), slots.get(3).getFromTime());
+		assertEquals(LocalTime.of(10, 0), slots.get(3).getToTime());
+		assertEquals(KIOSKS, slots.get(3).getAvailableKiosks());
+		assertEquals("sync", slots.get(3).getCrBy());
+		assertTrue(transactionTemplate
+				.execute(status -> bookingAvailabilityRepository.findAvaialableSlots(REG_DATE, "10002")).isEmpty());
+	}
+
+	@Test
+	public void bookedOrChangedSlotIsNotDeletedTest() {
+		AvailibityEntity booked = slot(REG_CENTER_ID, REG_DATE, FROM_TIME.plusMinutes(15), KIOSKS);
+		AvailibityEntity changed = slot(REG_CENTER_ID, REG_DATE, FROM_TIME, KIOSKS);
+		transactionTemplate.execute(status -> bookingAvailabilityRepository.save(booked));
+		book("98746563542672", REG_DATE, FROM_TIME.plusMinutes(15));
+		changed.setAvailableKiosks(KIOSKS + 1);
+		BookingDAO bookingDAO = new BookingDAO();
+		ReflectionTestUtils.setField(bookingDAO, "entityManager",
+				SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+		ReflectionTestUtils.setField(bookingDAO, "jdbcBatchSize", 50);
+
+		int notDeleted = transactionTemplate.execute(status -> bookingDAO.applyAvailabilityChanges(
+				Arrays.asList(booked, changed), Collections.emptyList(),
+				Collections.singletonList(slot(REG_CENTER_ID, REG_DATE, FROM_TIME.plusMinutes(60), KIOSKS)), "sync"));
+
+		assertEquals(2, notDeleted);
+		assertEquals(2, bookingAvailabilityRepository.count());
+	}
+
+	/**
+	 * The calendar of a center built from the projection matches the one built
+	 * from the hydrated entities, 14 days of 36 slots.
+	 */
+	@Test
+	public void projectionCalendarMatchesEntityCalendarTest() {
+		saveCalendar(transactionTemplate, bookingAvailabilityRepository);
+
+		List<DateTimeDto> entityCalendar = entityCalendar(transactionTemplate, bookingAvailabilityRepository).get();
+
+		assertEquals(14, entityCalendar.size());
+		assertEquals(entityCalendar.toString(),
+				projectionCalendar(transactionTemplate, bookingAvailabilityRepository).get().toString());
+	}
+
+	/** Replaces the slots with 14 days of 36 slots of the center. */
+	static void saveCalendar(TransactionTemplate transactionTemplate,
+			BookingAvailabilityRepository bookingAvailabilityRepository) {
+		transactionTemplate.execute(status -> {
+			bookingAvailabilityRepository.deleteAll();
+			for (LocalDate date = REG_DATE; !date.isAfter(CALENDAR_END); date = date.plusDays(1)) {
+				for (int slot = 0; slot < 36; slot++) {
+					LocalTime from = LocalTime.of(9, 0).plusMinutes(15L * slot);
+					bookingAvailabilityRepository.save(slot(REG_CENTER_ID, date, from, slot % 3));
+				}
+			}
+			return null;
+		});
+	}
+
+	/** The calendar of the center built from the hydrated entities. */
+	static Supplier<List<DateTimeDto>> entityCalendar(TransactionTemplate transactionTemplate,
+			BookingAvailabilityRepository bookingAvailabilityRepository) {
+		BookingServiceUtil serviceUtil = new BookingServiceUtil();
+		return () -> transactionTemplate.execute(status -> {
+			List<DateTimeDto> dateTimeList = new ArrayList<>();
+			bookingAvailabilityRepository
+					.findByRegcntrIdAndRegDateGreaterThanEqualAndRegDateLessThanEqualOrderByFromTimeAsc(REG_CENTER_ID,
+							REG_DATE, CALENDAR_END)
+					.stream()
+					.collect(Collectors.groupingBy(AvailibityEntity::getRegDate, TreeMap::new, Collectors.toList()))
+					.forEach((date, slots) -> serviceUtil.slotSetter(date, dateTimeList, new DateTimeDto(), slots));
+			return dateTimeList;
+		});
+	}
+
+	/** The calendar of the center built from the open slot projection. */
+	static Supplier<List<DateTimeDto>> projectionCalendar(TransactionTemplate transactionTemplate,
+			BookingAvailabilityRepository bookingAvailabilityRepository) {
+		BookingServiceUtil serviceUtil = new BookingServiceUtil();
+		BookingDAO bookingDAO = new BookingDAO();
+		ReflectionTestUtils.setField(bookingDAO, "bookingAvailabilityRepository", bookingAvailabilityRepository);
+		return () -> transactionTemplate.execute(status -> serviceUtil
+				.dateTimeSetter(bookingDAO.findSlotAvailability(REG_CENTER_ID, REG_DATE, CALENDAR_END)));
+	}
+
+	private static AvailibityEntity slot(String regCenterId, LocalDate regDate, LocalTime fromTime, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(regCenterId);
+		slot.setRegDate(regDate);
+		slot.setFromTime(fromTime);
+		slot.setToTime(fromTime.plusMinutes(15));
+		slot.setAvailableKiosks(kiosks);
+		slot.setCrBy("test");
+		slot.setCrDate(LocalDateTime.now());
+		return slot;
+	}
+
+	private int reserve() {
+		return transactionTemplate.execute(
+				status -> bookingAvailabilityRepository.reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME));
+	}
+
+	private int availableKiosks() {
+		return transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME)
+				.getAvailableKiosks());
+	}
+
+}
@@ -0,0 +1,151 @@
+package io.mosip.preregistration.booking.test.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Properties;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity.ChangeType;
+import io.mosip.preregistration.booking.repository.BookingChangeRepository;
+import io.mosip.preregistration.booking.repository.BookingChangeSequenceRepository;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+
+/**
+ * Test class for the commit sequence of the booking change log, against an in
+ * memory H2 database.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = BookingChangeSequenceTest.ChangeJpaConfig.class)
+public class BookingChangeSequenceTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.of(2019, 6, 10);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Autowired
+	private BookingChangeRepository bookingChangeRepository;
+
+	@Autowired
+	private BookingChangeSequenceRepository bookingChangeSequenceRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private TransactionTemplate transactionTemplate;
+
+	private BookingDAO bookingDAO = new BookingDAO();
+
+	@Configuration
+	@EnableTransactionManagement
+	@EnableJpaRepositories(basePackageClasses = BookingChangeRepository.class, includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+			BookingChangeRepository.class,
+			BookingChangeSequenceRepository.class }), repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class ChangeJpaConfig {
+
+		@Bean
+		public DataSource dataSource() {
+			return new DriverManagerDataSource(
+					"jdbc:h2:mem:changedb;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS PREREG", "sa", "");
+		}
+
+		@Bean
+		public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+			factory.setDataSource(dataSource);
+			factory.setPackagesToScan(BookingChangeEntity.class.getPackage().getName());
+			factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			Properties properties = new Properties();
+			properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+			properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+			factory.setJpaProperties(properties);
+			return factory;
+		}
+
+		@Bean
+		public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.execute(status -> {
+			bookingChangeRepository.deleteAll();
+			bookingChangeSequenceRepository.deleteAll();
+			return null;
+		});
+		ReflectionTestUtils.setField(bookingDAO, "bookingChangeRepository", bookingChangeRepository);
+		ReflectionTestUtils.setField(bookingDAO, "bookingChangeSequenceRepository", bookingChangeSequenceRepository);
+	}
+
+	private int sequence() {
+		return transactionTemplate.execute(status -> bookingDAO.sequenceBookingChanges(10));
+	}
+
+	@Test
+	public void changeCommittedLateIsReturnedAfterTheWatermarkTest() {
+		transactionTemplate.execute(status -> bookingChangeRepository.save(
+				new BookingChangeEntity("98746563542672", REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, ChangeType.BOOKED)));
+		assertEquals(1, sequence());
+		List<BookingChangeEntity> first = bookingDAO.findBookingChanges(REG_CENTER_ID, 0, 10);
+		assertEquals(1, first.size());
+		long watermark = first.get(0).getCommitSeq();
+
+		/* committed after the first read, with a change id below the one already read */
+		new JdbcTemplate(dataSource).update(
+				"INSERT INTO PREREG.REG_APPOINTMENT_CHANGE (CHANGE_ID, PREREG_ID, REGCNTR_ID, APPOINTMENT_DATE, "
+						+ "SLOT_FROM_TIME, SLOT_TO_TIME, CHANGE_TYPE, CR_DTIMES) VALUES (0, ?, ?, ?, ?, ?, ?, ?)",
+				"98746563542673", REG_CENTER_ID, Date.valueOf(REG_DATE), Time.valueOf(FROM_TIME),
+				Time.valueOf(TO_TIME), ChangeType.CANCELLED.name(), Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)));
+		assertEquals(0, bookingDAO.findBookingChanges(REG_CENTER_ID, watermark, 10).size());
+		assertEquals(1, sequence());
+		assertEquals(0, sequence());
+
+		List<BookingChangeEntity> second = bookingDAO.findBookingChanges(REG_CENTER_ID, watermark, 10);
+		assertEquals(1, second.size());
+		assertEquals("98746563542673", second.get(0).getPreregistrationId());
+		assertEquals(watermark + 1, (long) second.get(0).getCommitSeq());
+		assertEquals(watermark + 1, bookingDAO.findLatestBookingChangeSeq());
+	}
+
+}
@@ -0,0 +1,273 @@
+package io.mosip.preregistration.booking.test.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.BookedAppointmentDto;
+import io.mosip.preregistration.booking.dto.BookingCursor;
+import io.mosip.preregistration.booking.dto.DateTimeDto;
+import io.mosip.preregistration.booking.dto.SlotAvailabilityDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.exception.AvailablityNotFoundException;
+import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository;
+import io.mosip.preregistration.booking.repository.DemographicRepository;
+import io.mosip.preregistration.booking.repository.RegistrationBookingRepository;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Test class for the availability window query of {@link BookingDAO}, checked
+ * against the former entity based calendar, the in place booking move, the
+ * booking stream and the keyset booking pages.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingDAOTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate FROM_DATE = LocalDate.of(2019, 6, 3);
+	private static final long DISPLAY_DAYS = 7;
+
+	@Mock
+	private BookingAvailabilityRepository bookingAvailabilityRepository;
+
+	@Mock
+	private RegistrationBookingRepository registrationBookingRepository;
+
+	@Mock
+	private DemographicRepository demographicRepository;
+
+	@InjectMocks
+	private BookingDAO bookingDAO;
+
+	private List<AvailibityEntity> table;
+
+	private BookingServiceUtil serviceUtil = new BookingServiceUtil();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingDAO, "overFetchDays", 7L);
+		when(bookingAvailabilityRepository.findByRegcntrIdAndRegDateGreaterThanEqualAndRegDateLessThanEqualOrderByFromTimeAsc(
+				eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class))).thenAnswer(invocation -> {
+					LocalDate start = invocation.getArgument(1);
+					LocalDate end = invocation.getArgument(2);
+					return table.stream().filter(slot -> !slot.getRegDate().isBefore(start)
+							&& !slot.getRegDate().isAfter(end)).collect(Collectors.toList());
+				});
+		when(bookingAvailabilityRepository.findSlotAvailability(eq(REG_CENTER_ID), any(LocalDate.class),
+				any(LocalDate.class))).thenAnswer(invocation -> {
+					LocalDate start = invocation.getArgument(1);
+					LocalDate end = invocation.getArgument(2);
+					return table.stream()
+							.filter(slot -> !slot.getRegDate().isBefore(start) && !slot.getRegDate().isAfter(end))
+							.map(slot -> new SlotAvailabilityDto(slot.getRegDate(), slot.getFromTime(),
+									slot.getToTime(), slot.getAvailableKiosks()))
+							.collect(Collectors.toList());
+				});
+	}
+
+	/**
+	 * Builds 60 days of slots, where the given day offsets are holidays and the
+	 * given gap offsets have no slots at all. The first slot of every day and all
+	 * the slots of every tenth day are full.
+	 */
+	private List<AvailibityEntity> slots(Set<Integer> holidays, Set<Integer> gaps) {
+		List<AvailibityEntity> slots = new ArrayList<>();
+		for (int day = 0; day < 60; day++) {
+			if (gaps.contains(day)) {
+				continue;
+			}
+			LocalDate date = FROM_DATE.plusDays(day);
+			if (holidays.contains(day)) {
+				slots.add(slot(date, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, 0));
+			} else {
+				for (int hour = 9; hour < 12; hour++) {
+					int kiosks = hour == 9 || day % 10 == 4 ? 0 : 2;
+					slots.add(slot(date, LocalTime.of(hour, 0), LocalTime.of(hour, 15), kiosks));
+				}
+			}
+		}
+		return slots;
+	}
+
+	private AvailibityEntity slot(LocalDate date, LocalTime from, LocalTime to, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(date);
+		slot.setFromTime(from);
+		slot.setToTime(to);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	/** The query loop formerly done by getAvailability. */
+	private List<AvailibityEntity> legacyWindow() {
+		LocalDate fromDate = FROM_DATE;
+		LocalDate endDate = FROM_DATE.plusDays(DISPLAY_DAYS - 1);
+		List<AvailibityEntity> result = new ArrayList<>();
+		List<AvailibityEntity> chunk = bookingDAO.findAvailability(REG_CENTER_ID, fromDate, endDate);
+		long noOfHoliday = holidays(chunk);
+		result.addAll(chunk);
+		while (noOfHoliday > 0) {
+			fromDate = endDate.plusDays(1);
+			endDate = endDate.plusDays(noOfHoliday);
+			chunk = bookingDAO.findAvailability(REG_CENTER_ID, fromDate, endDate);
+			noOfHoliday = holidays(chunk);
+			result.addAll(chunk);
+		}
+		return result;
+	}
+
+	private long holidays(List<AvailibityEntity> chunk) {
+		Map<LocalDate, List<AvailibityEntity>> byDate = chunk.stream()
+				.collect(Collectors.groupingBy(AvailibityEntity::getRegDate, TreeMap::new, Collectors.toList()));
+		return byDate.values().stream().filter(slots -> slots.size() == 1).count();
+	}
+
+	/** The calendar formerly built by getSlot from the hydrated entities. */
+	private String legacyCalendar(List<AvailibityEntity> window) {
+		List<DateTimeDto> dateTimeList = new ArrayList<>();
+		window.stream()
+				.collect(Collectors.groupingBy(AvailibityEntity::getRegDate, TreeMap::new, Collectors.toList()))
+				.forEach((date, slots) -> serviceUtil.slotSetter(date, dateTimeList, new DateTimeDto(), slots));
+		return dateTimeList.toString();
+	}
+
+	private void assertSameAsLegacy(Set<Integer> holidays, Set<Integer> gaps, int expectedQueries) {
+		table = slots(holidays, gaps);
+		String expected = legacyCalendar(legacyWindow());
+		Mockito.clearInvocations(bookingAvailabilityRepository);
+
+		List<SlotAvailabilityDto> window = bookingDAO.findAvailabilityWindow(REG_CENTER_ID, FROM_DATE, DISPLAY_DAYS);
+
+		assertEquals(expected, serviceUtil.dateTimeSetter(window).toString());
+		verify(bookingAvailabilityRepository, times(expectedQueries)).findSlotAvailability(eq(REG_CENTER_ID),
+				any(LocalDate.class), any(LocalDate.class));
+	}
+
+	@Test
+	public void windowWithoutHolidaysTest() {
+		assertSameAsLegacy(new HashSet<>(), new HashSet<>(), 1);
+	}
+
+	@Test
+	public void windowWithChainedHolidaysTest() {
+		assertSameAsLegacy(new HashSet<>(Arrays.asList(1, 5, 7, 8)), new HashSet<>(Arrays.asList(3)), 1);
+	}
+
+	@Test
+	public void windowBeyondOverFetchTest() {
+		assertSameAsLegacy(new HashSet<>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15)),
+				new HashSet<>(), 2);
+	}
+
+	@Test
+	public void windowAtEndOfDataTest() {
+		table = slots(new HashSet<>(Arrays.asList(55, 56)), new HashSet<>());
+		assertEquals(0, bookingDAO.findAvailabilityWindow(REG_CENTER_ID, FROM_DATE.plusDays(70), DISPLAY_DAYS).size());
+		assertSameAsLegacy(new HashSet<>(Arrays.asList(0, 6)), new HashSet<>(Arrays.asList(7, 8, 9)), 1);
+	}
+
+	@Test
+	public void moveKioskInSlotOrderTest() {
+		LocalDate regDate = FROM_DATE.plusDays(1);
+		LocalTime early = LocalTime.of(9, 0);
+		LocalTime late = LocalTime.of(11, 0);
+		when(bookingAvailabilityRepository.reserveKiosk(any(LocalDate.class), eq(REG_CENTER_ID), any(LocalTime.class),
+				any(LocalTime.class))).thenReturn(1);
+		when(bookingAvailabilityRepository.releaseKiosk(any(LocalDate.class), eq(REG_CENTER_ID), any(LocalTime.class),
+				any(LocalTime.class))).thenReturn(1);
+
+		bookingDAO.moveKiosk(regDate, REG_CENTER_ID, late, late.plusMinutes(15), regDate, REG_CENTER_ID, early,
+				early.plusMinutes(15));
+		bookingDAO.moveKiosk(regDate, REG_CENTER_ID, early, early.plusMinutes(15), regDate, REG_CENTER_ID, late,
+				late.plusMinutes(15));
+
+		InOrder inOrder = Mockito.inOrder(bookingAvailabilityRepository);
+		inOrder.verify(bookingAvailabilityRepository).reserveKiosk(regDate, REG_CENTER_ID, early,
+				early.plusMinutes(15));
+		inOrder.verify(bookingAvailabilityRepository).releaseKiosk(regDate, REG_CENTER_ID, late,
+				late.plusMinutes(15));
+		inOrder.verify(bookingAvailabilityRepository).releaseKiosk(regDate, REG_CENTER_ID, early,
+				early.plusMinutes(15));
+		inOrder.verify(bookingAvailabilityRepository).reserveKiosk(regDate, REG_CENTER_ID, late,
+				late.plusMinutes(15));
+	}
+
+	@Test(expected = AvailablityNotFoundException.class)
+	public void moveKioskToFullSlotTest() {
+		LocalDate regDate = FROM_DATE.plusDays(1);
+		when(bookingAvailabilityRepository.reserveKiosk(any(LocalDate.class), eq(REG_CENTER_ID), any(LocalTime.class),
+				any(LocalTime.class))).thenReturn(0);
+		when(bookingAvailabilityRepository.releaseKiosk(any(LocalDate.class), eq(REG_CENTER_ID), any(LocalTime.class),
+				any(LocalTime.class))).thenReturn(1);
+
+		bookingDAO.moveKiosk(regDate, REG_CENTER_ID, LocalTime.of(9, 0), LocalTime.of(9, 15), regDate, REG_CENTER_ID,
+				LocalTime.of(11, 0), LocalTime.of(11, 15));
+	}
+
+	@Test
+	public void findBookingPageSeeksPastCursorTest() {
+		LocalDate cursorDate = FROM_DATE.plusDays(2);
+		LocalTime cursorTime = LocalTime.of(10, 0);
+		BookingCursor cursor = new BookingCursor(cursorDate, cursorTime, "98746563542672");
+
+		bookingDAO.findBookingPage(FROM_DATE, FROM_DATE.plusDays(6), REG_CENTER_ID, null, 11);
+		bookingDAO.findBookingPage(FROM_DATE, FROM_DATE.plusDays(6), REG_CENTER_ID, cursor, 11);
+
+		verify(registrationBookingRepository).findBookingPage(FROM_DATE, FROM_DATE.plusDays(6), REG_CENTER_ID,
+				PageRequest.of(0, 11));
+		verify(registrationBookingRepository).findBookingPageAfter(cursorDate, FROM_DATE.plusDays(6), REG_CENTER_ID,
+				cursorDate, cursorTime, "98746563542672", PageRequest.of(0, 11));
+	}
+
+	@Test
+	public void streamBookedAppointmentsClosesCursorTest() {
+		AtomicBoolean closed = new AtomicBoolean();
+		when(registrationBookingRepository.streamBookedAppointments(FROM_DATE, FROM_DATE.plusDays(6), REG_CENTER_ID))
+				.thenReturn(Stream.of(new BookedAppointmentDto("98746563542672", FROM_DATE, LocalTime.of(9, 0),
+						LocalTime.of(9, 15)), new BookedAppointmentDto("98746563542673", FROM_DATE,
+								LocalTime.of(9, 15), LocalTime.of(9, 30)))
+						.onClose(() -> closed.set(true)));
+		List<String> preIds = new ArrayList<>();
+
+		long count = bookingDAO.streamBookedAppointments(FROM_DATE, FROM_DATE.plusDays(6), REG_CENTER_ID,
+				appointment -> preIds.add(appointment.getPreRegistrationId()));
+
+		assertEquals(2, count);
+		assertEquals(Arrays.asList("98746563542672", "98746563542673"), preIds);
+		assertTrue(closed.get());
+	}
+
+}
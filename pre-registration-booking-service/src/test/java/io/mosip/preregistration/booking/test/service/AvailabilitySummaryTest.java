@@ -0,0 +1,119 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+import io.mosip.preregistration.booking.dto.DateSummaryDto;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+
+/**
+ * Test class for the availability summary of {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AvailabilitySummaryTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate FROM_DATE = LocalDate.now().plusDays(2);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "availabilityOffset", 2);
+		ReflectionTestUtils.setField(bookingService, "displayDays", 7);
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		when(serviceUtil.validateFromDateAndToDate(any(), any(), anyString())).thenReturn(true);
+		when(serviceUtil.isValidRegCenter(REG_CENTER_ID)).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void summaryFromAggregateTest() {
+		LocalDate toDate = FROM_DATE.plusDays(6);
+		when(bookingDAO.findAvailabilitySummary(REG_CENTER_ID, FROM_DATE, toDate))
+				.thenReturn(Arrays.asList(new DateSummaryDto(FROM_DATE, 32L, 120L, 28L),
+						new DateSummaryDto(FROM_DATE.plusDays(1), 1L, 0L, 0L)));
+
+		MainResponseDTO<AvailabilitySummaryDto> response = bookingService.getAvailabilitySummary(REG_CENTER_ID,
+				null, null);
+
+		assertNull(response.getErrors());
+		AvailabilitySummaryDto summary = response.getResponse();
+		assertEquals(FROM_DATE.toString(), summary.getFromDate());
+		assertEquals(toDate.toString(), summary.getToDate());
+		assertEquals(2, summary.getDates().size());
+		assertFalse(summary.getDates().get(0).isHoliday());
+		assertEquals(120, summary.getDates().get(0).getAvailableKiosks());
+		assertEquals(28, summary.getDates().get(0).getOpenSlots());
+		assertTrue(summary.getDates().get(1).isHoliday());
+		verify(availabilityCache).putSummary(REG_CENTER_ID, FROM_DATE, toDate, summary, 0L);
+	}
+
+	@Test
+	public void cachedSummaryTest() {
+		LocalDate toDate = FROM_DATE.plusDays(30);
+		AvailabilitySummaryDto cached = new AvailabilitySummaryDto();
+		when(availabilityCache.getSummary(REG_CENTER_ID, FROM_DATE, toDate)).thenReturn(cached);
+
+		MainResponseDTO<AvailabilitySummaryDto> response = bookingService.getAvailabilitySummary(REG_CENTER_ID,
+				FROM_DATE.toString(), toDate.toString());
+
+		assertSame(cached, response.getResponse());
+		verify(bookingDAO, never()).findAvailabilitySummary(anyString(), any(), any());
+		verify(serviceUtil, never()).isValidRegCenter(anyString());
+	}
+
+}
@@ -0,0 +1,99 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mosip.preregistration.booking.dto.BookedAppointmentDto;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the streamed export of the booked pre registrations of
+ * {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookedAppointmentExportTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate FROM_DATE = LocalDate.of(2019, 6, 3);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamOneLinePerBookingTest() throws IOException {
+		when(serviceUtil.validateFromDateAndToDate(anyString(), anyString(), anyString())).thenReturn(true);
+		when(bookingDAO.streamBookedAppointments(eq(FROM_DATE), eq(FROM_DATE.plusDays(20)), eq(REG_CENTER_ID),
+				any(Consumer.class))).thenAnswer(invocation -> {
+					Consumer<BookedAppointmentDto> consumer = invocation.getArgument(3);
+					for (int i = 0; i < 1000; i++) {
+						consumer.accept(new BookedAppointmentDto(String.valueOf(98746563542000L + i),
+								FROM_DATE.plusDays(i % 21), LocalTime.of(9, 0), LocalTime.of(9, 15)));
+					}
+					return 1000L;
+				});
+
+		StreamingResponseBody body = bookingService.streamBookedPreRegistrations(FROM_DATE.toString(),
+				FROM_DATE.plusDays(20).toString(), REG_CENTER_ID);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.writeTo(out);
+
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(1000, lines.length);
+		JsonNode first = new ObjectMapper().readTree(lines[0]);
+		assertEquals("98746563542000", first.get("preRegistrationId").asText());
+		assertEquals("2019-06-03", first.get("appointment_date").asText());
+		assertEquals("09:00:00", first.get("time_slot_from").asText());
+		assertEquals("09:15:00", first.get("time_slot_to").asText());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void invalidRequestFailsBeforeStreamingTest() {
+		when(serviceUtil.validateFromDateAndToDate(anyString(), anyString(), anyString())).thenReturn(true);
+
+		try {
+			bookingService.streamBookedPreRegistrations(FROM_DATE.toString(), null, "");
+			fail();
+		} catch (InvalidRequestParameterException ex) {
+			verify(bookingDAO, never()).streamBookedAppointments(any(LocalDate.class), any(LocalDate.class),
+					anyString(), any(Consumer.class));
+		}
+	}
+
+}
@@ -0,0 +1,295 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingChangesDto;
+import io.mosip.preregistration.booking.dto.BookingCursor;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity;
+import io.mosip.preregistration.booking.entity.BookingChangeEntity.ChangeType;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the booking change log and the change feed of
+ * {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingChangeFeedTest {
+
+	private static final String PRE_ID = "98746563542672";
+	private static final String REG_CENTER_ID = "10001";
+	private static final String NEW_REG_CENTER_ID = "10002";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", new BookingLockManager(16, 1000));
+		ReflectionTestUtils.setField(bookingService, "changesPageSize", 2);
+		bookingService.setupBookingService();
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheckforCancel(PRE_ID)).thenReturn(true);
+		when(serviceUtil.getDemographicStatusForCancel(PRE_ID)).thenReturn(true);
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class)))
+				.thenReturn(new RegistrationBookingEntity());
+		when(serviceUtil.getRegCenterMasterData(anyString())).thenAnswer(invocation -> {
+			RegistrationCenterDto center = new RegistrationCenterDto();
+			center.setId(invocation.getArgument(0));
+			return Collections.singletonList(center);
+		});
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setAvailableKiosks(10);
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(LocalDate.class), anyString(),
+				any(LocalTime.class), any(LocalTime.class))).thenReturn(slot);
+		when(bookingDAO.findByPreRegistrationId(PRE_ID)).thenReturn(booking());
+		when(bookingDAO.moveBooking(anyString(), anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class), any())).thenReturn(true);
+		when(slotInventory.reserve(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
+				.thenReturn(true);
+		when(slotInventory.release(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
+				.thenReturn(true);
+		when(slotInventory.move(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class))).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private RegistrationBookingEntity booking() {
+		RegistrationBookingEntity entity = new RegistrationBookingEntity();
+		entity.setPreregistrationId(PRE_ID);
+		entity.setRegistrationCenterId(REG_CENTER_ID);
+		entity.setRegDate(REG_DATE);
+		entity.setSlotFromTime(FROM_TIME);
+		entity.setSlotToTime(TO_TIME);
+		return entity;
+	}
+
+	private MainRequestDTO<BookingRequestDTO> bookingRequest(String regCenterId) {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegistrationCenterId(regCenterId);
+		bookingRequest.setRegDate(REG_DATE.toString());
+		bookingRequest.setSlotFromTime(TO_TIME.toString());
+		bookingRequest.setSlotToTime(TO_TIME.plusMinutes(15).toString());
+		MainRequestDTO<BookingRequestDTO> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(bookingRequest);
+		return request;
+	}
+
+	/** A change committed in reverse order of its change id. */
+	private BookingChangeEntity change(long commitSeq) {
+		BookingChangeEntity change = new BookingChangeEntity(PRE_ID + commitSeq, REG_CENTER_ID, REG_DATE, FROM_TIME,
+				TO_TIME, ChangeType.BOOKED);
+		change.setChangeId(100 - commitSeq);
+		change.setCommitSeq(commitSeq);
+		return change;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<BookingChangeEntity> recordedChanges() {
+		ArgumentCaptor<List<BookingChangeEntity>> recorded = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, Mockito.atLeastOnce()).saveBookingChanges(recorded.capture());
+		List<BookingChangeEntity> changes = new ArrayList<>();
+		recorded.getAllValues().forEach(changes::addAll);
+		return changes;
+	}
+
+	@Test
+	public void bookRecordsBookedTest() {
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.PENDING_APPOINTMENT.getCode());
+
+		bookingService.bookAppointment(bookingRequest(REG_CENTER_ID), PRE_ID);
+
+		List<BookingChangeEntity> changes = recordedChanges();
+		assertEquals(1, changes.size());
+		assertEquals(ChangeType.BOOKED, changes.get(0).getChangeType());
+		assertEquals(REG_CENTER_ID, changes.get(0).getRegcntrId());
+		assertEquals(TO_TIME, changes.get(0).getFromTime());
+	}
+
+	@Test
+	public void rebookRecordsCancelledAndBookedTest() {
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.BOOKED.getCode());
+
+		bookingService.bookAppointment(bookingRequest(NEW_REG_CENTER_ID), PRE_ID);
+
+		List<BookingChangeEntity> changes = recordedChanges();
+		assertEquals(2, changes.size());
+		assertEquals(ChangeType.CANCELLED, changes.get(0).getChangeType());
+		assertEquals(REG_CENTER_ID, changes.get(0).getRegcntrId());
+		assertEquals(ChangeType.BOOKED, changes.get(1).getChangeType());
+		assertEquals(NEW_REG_CENTER_ID, changes.get(1).getRegcntrId());
+	}
+
+	@Test
+	public void cancelRecordsCancelledTest() {
+		bookingService.cancelBooking(PRE_ID, true);
+
+		List<BookingChangeEntity> changes = recordedChanges();
+		assertEquals(1, changes.size());
+		assertEquals(ChangeType.CANCELLED, changes.get(0).getChangeType());
+		assertEquals(FROM_TIME, changes.get(0).getFromTime());
+	}
+
+	@Test
+	public void changeFeedPagingTest() {
+		List<BookingChangeEntity> page = new ArrayList<>();
+		page.add(change(11));
+		page.add(change(12));
+		page.add(change(13));
+		when(bookingDAO.findBookingChanges(eq(REG_CENTER_ID), eq(10L), eq(3)))
+				.thenReturn(page);
+		when(bookingDAO.findBookingChanges(eq(REG_CENTER_ID), eq(12L), eq(3)))
+				.thenReturn(page.subList(2, 3));
+		when(bookingDAO.findLatestBookingChangeSeq()).thenReturn(42L);
+
+		MainResponseDTO<BookingChangesDto> first = bookingService.getBookingChanges(REG_CENTER_ID, 10L);
+		assertEquals(2, first.getResponse().getChanges().size());
+		assertTrue(first.getResponse().isHasMore());
+		assertEquals(Long.valueOf(12), first.getResponse().getWatermark());
+		assertEquals("BOOKED", first.getResponse().getChanges().get(0).getChangeType());
+
+		MainResponseDTO<BookingChangesDto> second = bookingService.getBookingChanges(REG_CENTER_ID, 12L);
+		assertEquals(1, second.getResponse().getChanges().size());
+		assertFalse(second.getResponse().isHasMore());
+		assertEquals(Long.valueOf(13), second.getResponse().getWatermark());
+
+		MainResponseDTO<BookingChangesDto> initial = bookingService.getBookingChanges(REG_CENTER_ID, null);
+		assertTrue(initial.getResponse().getChanges().isEmpty());
+		assertEquals(Long.valueOf(42), initial.getResponse().getWatermark());
+		verify(bookingDAO, Mockito.times(2)).findBookingChanges(anyString(), anyLong(), anyInt());
+	}
+
+	@Test
+	public void snapshotPagingTest() {
+		RegistrationBookingEntity second = booking();
+		second.setPreregistrationId(PRE_ID + "2");
+		RegistrationBookingEntity third = booking();
+		third.setPreregistrationId(PRE_ID + "3");
+		when(bookingDAO.findLatestBookingChangeSeq()).thenReturn(42L, 43L);
+		when(bookingDAO.findBookingPage(any(LocalDate.class), any(LocalDate.class), eq(REG_CENTER_ID), isNull(),
+				eq(3))).thenReturn(new ArrayList<>(Arrays.asList(booking(), second, third)));
+		when(bookingDAO.findBookingPage(any(LocalDate.class), any(LocalDate.class), eq(REG_CENTER_ID),
+				eq(BookingCursor.of(second)), eq(3))).thenReturn(new ArrayList<>(Arrays.asList(third)));
+
+		BookingChangesDto first = bookingService.getBookingChanges(REG_CENTER_ID, null, null).getResponse();
+		assertEquals(Arrays.asList(PRE_ID, PRE_ID + "2"), preRegistrationIds(first));
+		assertEquals("BOOKED", first.getChanges().get(0).getChangeType());
+		assertEquals(FROM_TIME.toString(), first.getChanges().get(0).getSlotFromTime());
+		assertTrue(first.isHasMore());
+		assertEquals(Long.valueOf(42), first.getWatermark());
+
+		/* The last page keeps the watermark read before the first one */
+		BookingChangesDto last = bookingService.getBookingChanges(REG_CENTER_ID, null, first.getNextCursor())
+				.getResponse();
+		assertEquals(Arrays.asList(PRE_ID + "3"), preRegistrationIds(last));
+		assertFalse(last.isHasMore());
+		assertNull(last.getNextCursor());
+		assertEquals(Long.valueOf(42), last.getWatermark());
+
+		InOrder inOrder = Mockito.inOrder(bookingDAO);
+		inOrder.verify(bookingDAO).findLatestBookingChangeSeq();
+		inOrder.verify(bookingDAO, Mockito.times(2)).findBookingPage(any(LocalDate.class), any(LocalDate.class),
+				eq(REG_CENTER_ID), any(), eq(3));
+		verify(bookingDAO, Mockito.times(1)).findLatestBookingChangeSeq();
+	}
+
+	@Test(expected = InvalidRequestParameterException.class)
+	public void invalidSnapshotCursorTest() {
+		bookingService.getBookingChanges(REG_CENTER_ID, null, "watermark." + BookingCursor.of(booking()).encode());
+	}
+
+	private static List<String> preRegistrationIds(BookingChangesDto bookingChangesDto) {
+		List<String> ids = new ArrayList<>();
+		bookingChangesDto.getChanges().forEach(change -> ids.add(change.getPreRegistrationId()));
+		return ids;
+	}
+
+}
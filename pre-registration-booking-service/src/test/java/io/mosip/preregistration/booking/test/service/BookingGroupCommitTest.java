@@ -0,0 +1,232 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.BookingStatusDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.booking.service.util.SlotCommitQueue;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the group commit mode of booking in {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingGroupCommitTest {
+
+	private static final String PRE_ID = "98746563542672";
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", new BookingLockManager(16, 1000));
+		ReflectionTestUtils.setField(bookingService, "slotCommitQueue", new SlotCommitQueue(50, 1000));
+		ReflectionTestUtils.setField(bookingService, "groupCommit", true);
+		bookingService.setupBookingService();
+		authenticate("user");
+
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class), any()))
+				.thenAnswer(invocation -> {
+					RegistrationBookingEntity booking = new RegistrationBookingEntity();
+					booking.setPreregistrationId(invocation.getArgument(0));
+					booking.setCrBy(invocation.getArgument(2));
+					return booking;
+				});
+		when(serviceUtil.getRegCenterMasterData(anyString())).thenAnswer(invocation -> {
+			RegistrationCenterDto center = new RegistrationCenterDto();
+			center.setId(invocation.getArgument(0));
+			return Collections.singletonList(center);
+		});
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setAvailableKiosks(10);
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(LocalDate.class), anyString(),
+				any(LocalTime.class), any(LocalTime.class))).thenReturn(slot);
+		when(slotInventory.reserve(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenReturn(true);
+		when(slotInventory.move(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class))).thenReturn(true);
+		when(bookingDAO.moveBooking(anyString(), anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class), any())).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private static void authenticate(String userId) {
+		AuthUserDetails user = Mockito.mock(AuthUserDetails.class);
+		when(user.getUserId()).thenReturn(userId);
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(user);
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+	}
+
+	private MainRequestDTO<BookingRequestDTO> bookingRequest() {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+		bookingRequest.setRegDate(REG_DATE.toString());
+		bookingRequest.setSlotFromTime(FROM_TIME.toString());
+		bookingRequest.setSlotToTime(TO_TIME.toString());
+		MainRequestDTO<BookingRequestDTO> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(bookingRequest);
+		return request;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void newBookingIsCommittedInGroupTest() {
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.PENDING_APPOINTMENT.getCode());
+
+		MainResponseDTO<BookingStatusDTO> response = bookingService.bookAppointment(bookingRequest(), PRE_ID);
+
+		assertEquals("Appointment booked successfully", response.getResponse().getBookingMessage());
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 1);
+		ArgumentCaptor<List<RegistrationBookingEntity>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, times(1)).saveRegistrationEntitiesForBooking(inserted.capture());
+		assertEquals(1, inserted.getValue().size());
+		verify(bookingDAO, never()).saveRegistrationEntityForBooking(any());
+		verify(serviceUtil, times(1)).bookingEntitySetter(eq(PRE_ID), any(BookingRequestDTO.class), eq("user"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void bookingsOfAGroupKeepTheirOwnUserTest() throws Exception {
+		when(serviceUtil.getApplicationBookingStatus(anyString()))
+				.thenReturn(StatusCodes.PENDING_APPOINTMENT.getCode());
+		CountDownLatch leading = new CountDownLatch(1);
+		CountDownLatch othersWaiting = new CountDownLatch(1);
+		when(slotInventory.reserve(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenAnswer(invocation -> {
+					leading.countDown();
+					othersWaiting.await(10, TimeUnit.SECONDS);
+					return true;
+				});
+		Thread first = bookAs("first", "98746563542001");
+		assertTrue(leading.await(10, TimeUnit.SECONDS));
+		Thread second = bookAs("second", "98746563542002");
+		Thread third = bookAs("third", "98746563542003");
+		TimeUnit.MILLISECONDS.sleep(200);
+		othersWaiting.countDown();
+		first.join(10000);
+		second.join(10000);
+		third.join(10000);
+
+		ArgumentCaptor<List<RegistrationBookingEntity>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, times(2)).saveRegistrationEntitiesForBooking(inserted.capture());
+		List<RegistrationBookingEntity> group = inserted.getAllValues().get(1);
+		assertEquals(2, group.size());
+		for (RegistrationBookingEntity booking : group) {
+			assertEquals(booking.getPreregistrationId().endsWith("2") ? "second" : "third", booking.getCrBy());
+		}
+		/* One transaction per group, none opened by the requests waiting for it */
+		verify(transactionManager, times(2)).getTransaction(any());
+	}
+
+	private Thread bookAs(String userId, String preRegistrationId) {
+		Thread thread = new Thread(() -> {
+			authenticate(userId);
+			bookingService.bookAppointment(bookingRequest(), preRegistrationId);
+		});
+		thread.start();
+		return thread;
+	}
+
+	@Test
+	public void rebookIsNotGroupedTest() {
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.BOOKED.getCode());
+		RegistrationBookingEntity booking = new RegistrationBookingEntity();
+		booking.setPreregistrationId(PRE_ID);
+		booking.setRegistrationCenterId(REG_CENTER_ID);
+		booking.setRegDate(REG_DATE);
+		booking.setSlotFromTime(TO_TIME);
+		booking.setSlotToTime(TO_TIME.plusMinutes(15));
+		when(bookingDAO.findByPreRegistrationId(PRE_ID)).thenReturn(booking);
+
+		bookingService.bookAppointment(bookingRequest(), PRE_ID);
+
+		verify(bookingDAO, times(1)).moveBooking(eq(PRE_ID), eq(REG_CENTER_ID), eq(REG_DATE), eq(FROM_TIME),
+				eq(TO_TIME), any());
+		verify(bookingDAO, never()).saveRegistrationEntitiesForBooking(any());
+	}
+
+}
@@ -0,0 +1,293 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository;
+import io.mosip.preregistration.booking.repository.BookingChangeRepository;
+import io.mosip.preregistration.booking.repository.RegistrationBookingRepository;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.inventory.DbSlotInventory;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the statements of moving a booked appointment to a new slot
+ * in {@link BookingService}, counted by the Hibernate statistics against an in
+ * memory H2 database, compared with the former delete, release and book.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = BookingMoveStatementsTest.MoveJpaConfig.class)
+public class BookingMoveStatementsTest {
+
+	private static final String PRE_ID = "98746563542672";
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime OLD_FROM_TIME = LocalTime.of(11, 0);
+	private static final LocalTime NEW_FROM_TIME = LocalTime.of(9, 0);
+	private static final int KIOSKS = 10;
+
+	@Autowired
+	private BookingAvailabilityRepository bookingAvailabilityRepository;
+
+	@Autowired
+	private RegistrationBookingRepository registrationBookingRepository;
+
+	@Autowired
+	private BookingChangeRepository bookingChangeRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private TransactionTemplate transactionTemplate;
+
+	private Statistics statistics;
+
+	private BookingService bookingService;
+
+	private TransactionTemplate commitTransaction;
+
+	/** Statements of the last commit transaction. */
+	private long commitStatements;
+
+	@Configuration
+	@EnableTransactionManagement
+	@EnableJpaRepositories(basePackageClasses = BookingAvailabilityRepository.class, includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+			BookingAvailabilityRepository.class, RegistrationBookingRepository.class,
+			BookingChangeRepository.class }), repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class MoveJpaConfig {
+
+		@Bean
+		public DataSource dataSource() {
+			return new DriverManagerDataSource(
+					"jdbc:h2:mem:movedb;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS PREREG", "sa", "");
+		}
+
+		@Bean
+		public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+			factory.setDataSource(dataSource);
+			factory.setPackagesToScan(AvailibityEntity.class.getPackage().getName(),
+					RegistrationBookingEntity.class.getPackage().getName());
+			factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			Properties properties = new Properties();
+			properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+			properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+			properties.setProperty("hibernate.generate_statistics", "true");
+			factory.setJpaProperties(properties);
+			return factory;
+		}
+
+		@Bean
+		public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		BookingDAO bookingDAO = new BookingDAO();
+		ReflectionTestUtils.setField(bookingDAO, "bookingAvailabilityRepository", bookingAvailabilityRepository);
+		ReflectionTestUtils.setField(bookingDAO, "registrationBookingRepository", registrationBookingRepository);
+		ReflectionTestUtils.setField(bookingDAO, "bookingChangeRepository", bookingChangeRepository);
+		ReflectionTestUtils.setField(bookingDAO, "entityManager",
+				SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+		DbSlotInventory slotInventory = new DbSlotInventory();
+		ReflectionTestUtils.setField(slotInventory, "bookingDAO", bookingDAO);
+		BookingLockManager bookingLockManager = new BookingLockManager();
+		ReflectionTestUtils.setField(bookingLockManager, "stripeCount", 16);
+		ReflectionTestUtils.setField(bookingLockManager, "lockTimeout", 1000L);
+		ReflectionTestUtils.setField(bookingLockManager, "meterRegistry", new SimpleMeterRegistry());
+		bookingLockManager.setupStripes();
+
+		BookingServiceUtil serviceUtil = mock(BookingServiceUtil.class);
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.BOOKED.getCode());
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenReturn(Collections.singletonList(center));
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class)))
+				.thenAnswer(invocation -> new BookingServiceUtil().bookingEntitySetter(invocation.getArgument(0),
+						invocation.getArgument(1), "user"));
+
+		bookingService = new BookingService();
+		ReflectionTestUtils.setField(bookingService, "serviceUtil", serviceUtil);
+		ReflectionTestUtils.setField(bookingService, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(bookingService, "slotInventory", slotInventory);
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", bookingLockManager);
+		ReflectionTestUtils.setField(bookingService, "availabilityCache", mock(AvailabilityCache.class));
+		ReflectionTestUtils.setField(bookingService, "nextOpenSlotIndex", mock(NextOpenSlotIndex.class));
+		ReflectionTestUtils.setField(bookingService, "auditQueue", mock(AuditQueue.class));
+		ReflectionTestUtils.setField(bookingService, "transactionManager", transactionManager);
+		bookingService.setupBookingService();
+		commitTransaction = new TransactionTemplate(transactionManager) {
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				statistics.clear();
+				T result = super.execute(action);
+				commitStatements = statistics.getPrepareStatementCount();
+				return result;
+			}
+		};
+		commitTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		ReflectionTestUtils.setField(bookingService, "commitTransaction", commitTransaction);
+
+		Authentication authentication = mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		transactionTemplate.execute(status -> {
+			bookingChangeRepository.deleteAll();
+			registrationBookingRepository.deleteAll();
+			bookingAvailabilityRepository.deleteAll();
+			bookingAvailabilityRepository.save(slot(OLD_FROM_TIME, KIOSKS - 1));
+			bookingAvailabilityRepository.save(slot(NEW_FROM_TIME, KIOSKS));
+			return registrationBookingRepository.save(new BookingServiceUtil().bookingEntitySetter(PRE_ID,
+					request(OLD_FROM_TIME), "user"));
+		});
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private static AvailibityEntity slot(LocalTime fromTime, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(fromTime);
+		slot.setToTime(fromTime.plusMinutes(15));
+		slot.setAvailableKiosks(kiosks);
+		slot.setCrBy("test");
+		slot.setCrDate(LocalDateTime.now());
+		return slot;
+	}
+
+	private static BookingRequestDTO request(LocalTime fromTime) {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+		bookingRequest.setRegDate(REG_DATE.toString());
+		bookingRequest.setSlotFromTime(fromTime.toString());
+		bookingRequest.setSlotToTime(fromTime.plusMinutes(15).toString());
+		return bookingRequest;
+	}
+
+	/** @return the statements of the commit transaction run by the call */
+	private long statements(Supplier<?> call) {
+		commitStatements = -1;
+		call.get();
+		return commitStatements;
+	}
+
+	private int availableKiosks(LocalTime fromTime) {
+		return transactionTemplate.execute(status -> bookingAvailabilityRepository
+				.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, fromTime,
+						fromTime.plusMinutes(15))
+				.getAvailableKiosks());
+	}
+
+	private RegistrationBookingEntity booking() {
+		return transactionTemplate
+				.execute(status -> registrationBookingRepository.getDemographicEntityPreRegistrationId(PRE_ID));
+	}
+
+	private void assertMovedKiosk() {
+		assertEquals(KIOSKS, availableKiosks(OLD_FROM_TIME));
+		assertEquals(KIOSKS - 1, availableKiosks(NEW_FROM_TIME));
+		assertEquals(NEW_FROM_TIME, booking().getSlotFromTime());
+	}
+
+	@Test
+	public void moveBookingStatementsTest() {
+		MainRequestDTO<BookingRequestDTO> bookingRequest = new MainRequestDTO<>();
+		bookingRequest.setRequest(request(NEW_FROM_TIME));
+		bookingRequest.setRequesttime(new Date());
+
+		/* Former rebook of a booked application: delete the row, release, reserve and insert */
+		long former = statements(() -> commitTransaction.execute(status -> {
+			bookingService.deleteOldBooking(PRE_ID);
+			bookingService.increaseAvailability(request(OLD_FROM_TIME));
+			return bookingService.book(PRE_ID, request(NEW_FROM_TIME));
+		}));
+		assertMovedKiosk();
+
+		/* bookAppointment moves the row and the kiosk in place */
+		setUp();
+		String bookingId = booking().getId();
+		long moved = statements(() -> bookingService.bookAppointment(bookingRequest, PRE_ID));
+		assertMovedKiosk();
+		assertEquals(bookingId, booking().getId());
+
+		assertEquals(6, former);
+		assertEquals(5, moved);
+	}
+
+}
@@ -0,0 +1,238 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.BookingStatus;
+import io.mosip.preregistration.booking.dto.MultiBookingRequest;
+import io.mosip.preregistration.booking.dto.MultiBookingRequestDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.exception.AvailablityNotFoundException;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the statements issued by the group by slot multi booking of
+ * {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingMultiAppointmentTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private ApplicationStatusClient applicationStatusClient;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	private final Map<String, String> statuses = new LinkedHashMap<>();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", new BookingLockManager(16, 1000));
+		bookingService.setupBookingService();
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenReturn(Collections.singletonList(center));
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class))).thenAnswer(invocation -> {
+			BookingRequestDTO slot = invocation.getArgument(1);
+			return booking(invocation.getArgument(0), LocalTime.parse(slot.getSlotFromTime()),
+					LocalTime.parse(slot.getSlotToTime()));
+		});
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(LocalDate.class), eq(REG_CENTER_ID),
+				any(LocalTime.class), any(LocalTime.class))).thenAnswer(invocation -> {
+					AvailibityEntity slot = new AvailibityEntity();
+					slot.setRegcntrId(REG_CENTER_ID);
+					slot.setRegDate(invocation.getArgument(0));
+					slot.setFromTime(invocation.getArgument(2));
+					slot.setToTime(invocation.getArgument(3));
+					slot.setAvailableKiosks(10);
+					return slot;
+				});
+		when(bookingDAO.deleteByPreRegistrationId(anyString())).thenReturn(1);
+		when(slotInventory.reserve(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenReturn(true);
+		when(slotInventory.release(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenReturn(true);
+		when(applicationStatusClient.getApplicationStatuses(any())).thenReturn(statuses);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private RegistrationBookingEntity booking(String preRegistrationId, LocalTime fromTime, LocalTime toTime) {
+		RegistrationBookingEntity entity = new RegistrationBookingEntity();
+		entity.setPreregistrationId(preRegistrationId);
+		entity.setRegistrationCenterId(REG_CENTER_ID);
+		entity.setRegDate(REG_DATE);
+		entity.setSlotFromTime(fromTime);
+		entity.setSlotToTime(toTime);
+		return entity;
+	}
+
+	private MainRequestDTO<MultiBookingRequest> family(int applicants, LocalTime fromTime, LocalTime toTime,
+			StatusCodes status) {
+		List<MultiBookingRequestDTO> bookingRequests = new ArrayList<>();
+		for (int i = 0; i < applicants; i++) {
+			MultiBookingRequestDTO bookingRequest = new MultiBookingRequestDTO();
+			bookingRequest.setPreRegistrationId("9874656354267" + statuses.size());
+			bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+			bookingRequest.setRegDate(REG_DATE.toString());
+			bookingRequest.setSlotFromTime(fromTime.toString());
+			bookingRequest.setSlotToTime(toTime.toString());
+			bookingRequests.add(bookingRequest);
+			statuses.put(bookingRequest.getPreRegistrationId(), status.getCode());
+		}
+		MultiBookingRequest multiBookingRequest = new MultiBookingRequest();
+		multiBookingRequest.setBookingRequest(bookingRequests);
+		MainRequestDTO<MultiBookingRequest> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(multiBookingRequest);
+		return request;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<RegistrationBookingEntity> insertedBookings() {
+		ArgumentCaptor<List<RegistrationBookingEntity>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, times(1)).saveRegistrationEntitiesForBooking(inserted.capture());
+		return inserted.getValue();
+	}
+
+	@Test
+	public void sameSlotFamilyTest() {
+		MainResponseDTO<BookingStatus> response = bookingService
+				.bookMultiAppointment(family(6, FROM_TIME, TO_TIME, StatusCodes.PENDING_APPOINTMENT));
+
+		assertEquals(6, response.getResponse().getBookingStatusResponse().size());
+		verify(bookingDAO, times(1)).findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID,
+				FROM_TIME, TO_TIME);
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 6);
+		verify(slotInventory, never()).reserve(anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class));
+		verify(bookingDAO, never()).saveRegistrationEntityForBooking(any(RegistrationBookingEntity.class));
+		assertEquals(6, insertedBookings().size());
+	}
+
+	@Test
+	public void oneUpdatePerDistinctSlotTest() {
+		MainRequestDTO<MultiBookingRequest> request = family(3, FROM_TIME, TO_TIME, StatusCodes.PENDING_APPOINTMENT);
+		request.getRequest().getBookingRequest()
+				.addAll(family(2, TO_TIME, TO_TIME.plusMinutes(15), StatusCodes.CANCELLED).getRequest()
+						.getBookingRequest());
+
+		bookingService.bookMultiAppointment(request);
+
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 3);
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, TO_TIME, TO_TIME.plusMinutes(15), 2);
+		verify(bookingDAO, times(2)).findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(LocalDate.class),
+				anyString(), any(LocalTime.class), any(LocalTime.class));
+		assertEquals(5, insertedBookings().size());
+	}
+
+	@Test
+	public void rebookReleasesOldSlotOnceTest() {
+		LocalTime oldFromTime = LocalTime.of(11, 0);
+		LocalTime oldToTime = LocalTime.of(11, 15);
+		when(bookingDAO.findByPreRegistrationId(anyString()))
+				.thenAnswer(invocation -> booking(invocation.getArgument(0), oldFromTime, oldToTime));
+
+		bookingService.bookMultiAppointment(family(4, FROM_TIME, TO_TIME, StatusCodes.BOOKED));
+
+		verify(bookingDAO, times(4)).deleteByPreRegistrationId(anyString());
+		verify(slotInventory, times(1)).release(REG_CENTER_ID, REG_DATE, oldFromTime, oldToTime, 4);
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 4);
+		assertEquals(4, insertedBookings().size());
+	}
+
+	@Test
+	public void fullSlotBooksNobodyTest() {
+		when(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 6)).thenReturn(false);
+
+		try {
+			bookingService.bookMultiAppointment(family(6, FROM_TIME, TO_TIME, StatusCodes.PENDING_APPOINTMENT));
+			fail();
+		} catch (AvailablityNotFoundException ex) {
+			verify(bookingDAO, never()).saveRegistrationEntitiesForBooking(any());
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.BookingCursor;
+import io.mosip.preregistration.booking.dto.BookingDataByRegIdDto;
+import io.mosip.preregistration.booking.dto.PreRegIdsByRegCenterIdPageDTO;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.dto.PreRegIdsByRegCenterIdResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the keyset paging of the bookings of a registration center in
+ * {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingPageTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate FROM_DATE = LocalDate.now().plusDays(1);
+	private static final LocalDate TO_DATE = FROM_DATE.plusDays(2);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	private final List<RegistrationBookingEntity> table = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "bookingPageMaxSize", 4);
+		/* Several pre registrations share a slot, so the pre registration id breaks the ties */
+		for (int day = 0; day < 3; day++) {
+			for (int slot = 0; slot < 2; slot++) {
+				for (int applicant = 0; applicant < 3; applicant++) {
+					RegistrationBookingEntity entity = new RegistrationBookingEntity();
+					entity.setPreregistrationId("9874656354267" + (8 - applicant) + day + slot);
+					entity.setRegistrationCenterId(REG_CENTER_ID);
+					entity.setRegDate(FROM_DATE.plusDays(day));
+					entity.setSlotFromTime(LocalTime.of(9 + slot, 0));
+					entity.setSlotToTime(LocalTime.of(9 + slot, 15));
+					table.add(entity);
+				}
+			}
+		}
+		table.sort(Comparator.comparing(RegistrationBookingEntity::getRegDate)
+				.thenComparing(RegistrationBookingEntity::getSlotFromTime)
+				.thenComparing(RegistrationBookingEntity::getPreregistrationId));
+		when(bookingDAO.findBookingPage(eq(FROM_DATE), eq(TO_DATE), eq(REG_CENTER_ID), any(), anyInt()))
+				.thenAnswer(invocation -> {
+					BookingCursor after = invocation.getArgument(3);
+					int limit = invocation.getArgument(4);
+					return table.stream().filter(entity -> after == null || isAfter(entity, after)).limit(limit)
+							.collect(Collectors.toList());
+				});
+	}
+
+	private boolean isAfter(RegistrationBookingEntity entity, BookingCursor cursor) {
+		int compare = entity.getRegDate().compareTo(cursor.getRegDate());
+		if (compare == 0) {
+			compare = entity.getSlotFromTime().compareTo(cursor.getSlotFromTime());
+		}
+		if (compare == 0) {
+			compare = entity.getPreregistrationId().compareTo(cursor.getPreRegistrationId());
+		}
+		return compare > 0;
+	}
+
+	@Test
+	public void walkAllPagesTest() {
+		List<String> preIds = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			MainResponseDTO<PreRegIdsByRegCenterIdResponseDTO> response = bookingService
+					.getBookedPreRegistrationByDate(FROM_DATE.toString(), TO_DATE.toString(), REG_CENTER_ID, cursor, 5);
+			PreRegIdsByRegCenterIdPageDTO page = (PreRegIdsByRegCenterIdPageDTO) response.getResponse();
+			assertEquals(REG_CENTER_ID, page.getRegistrationCenterId());
+			preIds.addAll(page.getPreRegistrationIds());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(5, pages);
+		assertEquals(table.stream().map(RegistrationBookingEntity::getPreregistrationId).collect(Collectors.toList()),
+				preIds);
+	}
+
+	@Test
+	public void lastPageHasNoCursorTest() {
+		String cursor = BookingCursor.of(table.get(table.size() - 3)).encode();
+
+		MainResponseDTO<BookingDataByRegIdDto> response = bookingService.getBookedPreRegistrations(
+				FROM_DATE.toString(), TO_DATE.toString(), REG_CENTER_ID, cursor, 2);
+
+		assertEquals(2, response.getResponse().getIdsWithAppointmentDate().size());
+		assertNull(response.getResponse().getNextCursor());
+	}
+
+	@Test
+	public void pageSizeCappedTest() {
+		MainResponseDTO<BookingDataByRegIdDto> response = bookingService.getBookedPreRegistrations(
+				FROM_DATE.toString(), TO_DATE.toString(), REG_CENTER_ID, null, 1000);
+
+		assertEquals(4, response.getResponse().getIdsWithAppointmentDate().size());
+		assertNotNull(response.getResponse().getNextCursor());
+		assertEquals(BookingCursor.of(table.get(3)), BookingCursor.decode(response.getResponse().getNextCursor()));
+	}
+
+	@Test(expected = InvalidRequestParameterException.class)
+	public void invalidCursorTest() {
+		bookingService.getBookedPreRegistrations(FROM_DATE.toString(), TO_DATE.toString(), REG_CENTER_ID,
+				"bm90LWEtY3Vyc29y", 2);
+	}
+
+}
@@ -0,0 +1,232 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.MultiBookingRequest;
+import io.mosip.preregistration.booking.dto.MultiBookingRequestDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the lock free pre-flight and the locked commit phase of
+ * booking in {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BookingPhaseTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final long REMOTE_MILLIS = 50;
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private ApplicationStatusClient applicationStatusClient;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private ReentrantLock[] stripes;
+
+	private final AtomicInteger remoteCallsUnderLock = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		BookingLockManager bookingLockManager = new BookingLockManager();
+		ReflectionTestUtils.setField(bookingLockManager, "stripeCount", 16);
+		ReflectionTestUtils.setField(bookingLockManager, "lockTimeout", 1000L);
+		ReflectionTestUtils.setField(bookingLockManager, "meterRegistry", meterRegistry);
+		bookingLockManager.setupStripes();
+		stripes = (ReentrantLock[]) ReflectionTestUtils.getField(bookingLockManager, "stripes");
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", bookingLockManager);
+		ReflectionTestUtils.setField(bookingService, "meterRegistry", meterRegistry);
+		bookingService.setupBookingService();
+
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenAnswer(invocation -> {
+			remoteCall();
+			return Collections.singletonList(center);
+		});
+		when(serviceUtil.getApplicationBookingStatus(anyString())).thenAnswer(invocation -> {
+			remoteCall();
+			return StatusCodes.PENDING_APPOINTMENT.getCode();
+		});
+		when(applicationStatusClient.getApplicationStatuses(any())).thenAnswer(invocation -> {
+			remoteCall();
+			Map<String, String> statuses = new LinkedHashMap<>();
+			for (String preId : invocation.<List<String>>getArgument(0)) {
+				statuses.put(preId, StatusCodes.PENDING_APPOINTMENT.getCode());
+			}
+			return statuses;
+		});
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class)))
+				.thenReturn(new RegistrationBookingEntity());
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setAvailableKiosks(10);
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot);
+		when(slotInventory.reserve(eq(REG_CENTER_ID), eq(REG_DATE), eq(FROM_TIME), eq(TO_TIME))).thenReturn(true);
+		when(slotInventory.reserve(eq(REG_CENTER_ID), eq(REG_DATE), eq(FROM_TIME), eq(TO_TIME), anyInt()))
+				.thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private void remoteCall() throws InterruptedException {
+		if (Arrays.stream(stripes).anyMatch(ReentrantLock::isLocked)) {
+			remoteCallsUnderLock.incrementAndGet();
+		}
+		Thread.sleep(REMOTE_MILLIS);
+	}
+
+	private BookingRequestDTO slot() {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+		bookingRequest.setRegDate(REG_DATE.toString());
+		bookingRequest.setSlotFromTime(FROM_TIME.toString());
+		bookingRequest.setSlotToTime(TO_TIME.toString());
+		return bookingRequest;
+	}
+
+	private Timer timer(String name, String operation, String phase) {
+		if (operation == null) {
+			return meterRegistry.get(name).timer();
+		}
+		return meterRegistry.get(name).tag("operation", operation).tag("phase", phase).timer();
+	}
+
+	/** Lock hold time must be the commit alone, well below one remote call. */
+	private void assertLockHeldForCommitOnly(String operation) {
+		assertEquals(0, remoteCallsUnderLock.get());
+		assertEquals(1, timer("prereg.booking.phase", operation, "preflight").count());
+		assertEquals(1, timer("prereg.booking.phase", operation, "commit").count());
+		assertEquals(1, timer("prereg.booking.lock.hold", null, null).count());
+		double preflightMillis = timer("prereg.booking.phase", operation, "preflight")
+				.totalTime(TimeUnit.MILLISECONDS);
+		double holdMillis = timer("prereg.booking.lock.hold", null, null).totalTime(TimeUnit.MILLISECONDS);
+		assertTrue("pre-flight took " + preflightMillis + " ms", preflightMillis >= 2 * REMOTE_MILLIS);
+		assertTrue("lock held " + holdMillis + " ms", holdMillis < REMOTE_MILLIS);
+	}
+
+	@Test
+	public void bookAppointmentTest() {
+		MainRequestDTO<BookingRequestDTO> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(slot());
+
+		bookingService.bookAppointment(request, "98746563542672");
+
+		assertLockHeldForCommitOnly("book");
+	}
+
+	@Test
+	public void bookMultiAppointmentTest() {
+		List<MultiBookingRequestDTO> bookingRequests = new ArrayList<>();
+		for (String preId : Arrays.asList("98746563542672", "98746563542673", "98746563542674")) {
+			MultiBookingRequestDTO bookingRequest = new MultiBookingRequestDTO();
+			bookingRequest.setPreRegistrationId(preId);
+			bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+			bookingRequest.setRegDate(REG_DATE.toString());
+			bookingRequest.setSlotFromTime(FROM_TIME.toString());
+			bookingRequest.setSlotToTime(TO_TIME.toString());
+			bookingRequests.add(bookingRequest);
+		}
+		MultiBookingRequest multiBookingRequest = new MultiBookingRequest();
+		multiBookingRequest.setBookingRequest(bookingRequests);
+		MainRequestDTO<MultiBookingRequest> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(multiBookingRequest);
+
+		bookingService.bookMultiAppointment(request);
+
+		assertLockHeldForCommitOnly("multibook");
+	}
+
+}
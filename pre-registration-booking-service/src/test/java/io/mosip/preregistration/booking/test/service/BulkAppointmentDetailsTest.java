@@ -0,0 +1,123 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.AppointmentDetailsDto;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the bulk appointment details lookup of {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BulkAppointmentDetailsTest {
+
+	private static final String BOOKED = "98746563542672";
+	private static final String NOT_BOOKED = "98746563542673";
+	private static final String NOT_OWNED = "98746563542674";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private ApplicationStatusClient applicationStatusClient;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "detailsMaxIds", 3);
+		when(applicationStatusClient.getApplicationStatusResponses(any())).thenAnswer(invocation -> {
+			Map<String, MainResponseDTO<String>> responses = new LinkedHashMap<>();
+			for (String preId : invocation.<Collection<String>>getArgument(0)) {
+				MainResponseDTO<String> response = new MainResponseDTO<>();
+				if (preId.equals(NOT_OWNED)) {
+					response.setErrors(Collections.singletonList(new ExceptionJSONInfoDTO("PRG_PAM_APP_017",
+							"Requested preregistration id does not belong to the user")));
+				} else {
+					response.setResponse(StatusCodes.BOOKED.getCode());
+				}
+				responses.put(preId, response);
+			}
+			return responses;
+		});
+		RegistrationBookingEntity entity = new RegistrationBookingEntity();
+		entity.setPreregistrationId(BOOKED);
+		entity.setRegistrationCenterId("10001");
+		entity.setRegDate(REG_DATE);
+		entity.setSlotFromTime(LocalTime.of(9, 0));
+		entity.setSlotToTime(LocalTime.of(9, 15));
+		when(bookingDAO.findByPreRegistrationIds(any())).thenReturn(Collections.singletonList(entity));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void perIdResultsWithOneQueryTest() {
+		MainResponseDTO<List<AppointmentDetailsDto>> response = bookingService
+				.getAppointmentDetails(Arrays.asList(NOT_OWNED, BOOKED, NOT_BOOKED, BOOKED));
+
+		List<AppointmentDetailsDto> details = response.getResponse();
+		assertEquals(3, details.size());
+		assertEquals(NOT_OWNED, details.get(0).getPreRegistrationId());
+		assertEquals("PRG_PAM_APP_017", details.get(0).getErrors().get(0).getErrorCode());
+		assertNull(details.get(0).getAppointment());
+		assertEquals(REG_DATE.toString(), details.get(1).getAppointment().getRegDate());
+		assertNull(details.get(1).getErrors());
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_013.getCode(), details.get(2).getErrors().get(0).getErrorCode());
+
+		ArgumentCaptor<Collection<String>> queried = ArgumentCaptor.forClass(Collection.class);
+		verify(applicationStatusClient, times(1)).getApplicationStatusResponses(any());
+		verify(bookingDAO, times(1)).findByPreRegistrationIds(queried.capture());
+		assertEquals(Arrays.asList(BOOKED, NOT_BOOKED), new ArrayList<>(queried.getValue()));
+		verify(bookingDAO, never()).findByPreRegistrationId(anyString());
+		verify(serviceUtil, never()).checkApplicationStatus(anyString());
+	}
+
+	@Test(expected = InvalidRequestParameterException.class)
+	public void tooManyIdsTest() {
+		bookingService.getAppointmentDetails(Arrays.asList(BOOKED, NOT_BOOKED, NOT_OWNED, "98746563542675"));
+	}
+
+}
@@ -0,0 +1,140 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.EarliestSlotDto;
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.CenterLocator;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the earliest availability search of {@link BookingService}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class EarliestAvailabilityTest {
+
+	private static final LocalDate FROM_DATE = LocalDate.now().plusDays(2);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private CenterLocator centerLocator;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "availabilityOffset", 2);
+		ReflectionTestUtils.setField(bookingService, "earliestDefaultCenters", 10);
+		ReflectionTestUtils.setField(bookingService, "earliestMaxCenters", 2);
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		when(serviceUtil.isNull(any())).thenAnswer(invocation -> {
+			Object key = invocation.getArgument(0);
+			return key == null || key.toString().trim().isEmpty();
+		});
+
+		Map<String, OpenSlotDto> slots = new LinkedHashMap<>();
+		slots.put("10001", new OpenSlotDto("10001", FROM_DATE.plusDays(3), LocalTime.of(9, 0), LocalTime.of(9, 15), 2));
+		slots.put("10002", new OpenSlotDto("10002", FROM_DATE, LocalTime.of(14, 0), LocalTime.of(14, 15), 1));
+		when(nextOpenSlotIndex.get(any(), any(LocalDate.class))).thenReturn(slots);
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setName("Center A");
+		when(centerLocator.getCenter("10001")).thenReturn(center);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void earliestFirstTest() {
+		MainResponseDTO<List<EarliestSlotDto>> response = bookingService.getEarliestAvailability(null, null,
+				Arrays.asList("10001", "10002", "10001"), null);
+
+		assertNull(response.getErrors());
+		List<EarliestSlotDto> earliestSlots = response.getResponse();
+		assertEquals(2, earliestSlots.size());
+		assertEquals("10002", earliestSlots.get(0).getRegistrationCenterId());
+		assertEquals(FROM_DATE.toString(), earliestSlots.get(0).getRegDate());
+		assertEquals("Center A", earliestSlots.get(1).getRegistrationCenterName());
+		assertNull(earliestSlots.get(1).getDistanceKm());
+		ArgumentCaptor<Collection<String>> searched = ArgumentCaptor.forClass(Collection.class);
+		verify(nextOpenSlotIndex).get(searched.capture(), eq(FROM_DATE));
+		assertEquals(Arrays.asList("10001", "10002"), new ArrayList<>(searched.getValue()));
+		verify(centerLocator, never()).nearest(anyDouble(), anyDouble(), anyInt());
+	}
+
+	private String searchErrorCode(String latitude, String longitude, List<String> regCenterIds) {
+		try {
+			bookingService.getEarliestAvailability(latitude, longitude, regCenterIds, null);
+		} catch (InvalidRequestParameterException ex) {
+			return ex.getErrorCode();
+		}
+		return null;
+	}
+
+	@Test
+	public void invalidSearchTest() {
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_041.getCode(), searchErrorCode(null, " ", null));
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_041.getCode(), searchErrorCode("91", "10", null));
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_042.getCode(),
+				searchErrorCode(null, null, Arrays.asList("10001", "10002", "10003")));
+		verify(nextOpenSlotIndex, never()).get(any(), any(LocalDate.class));
+		verify(centerLocator, never()).distanceKm(anyString(), anyDouble(), anyDouble());
+	}
+
+}
@@ -0,0 +1,265 @@
+package io.mosip.preregistration.booking.test.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingRequestDTO;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotHoldDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.entity.SlotHoldEntity;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.DemographicGetStatusException;
+import io.mosip.preregistration.booking.exception.RecordNotFoundException;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.BookingService;
+import io.mosip.preregistration.booking.service.BookingServiceIntf;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.booking.service.util.SlotHoldSweeper;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.MainRequestDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the temporary slot holds of {@link BookingService} and their
+ * expiry by {@link SlotHoldSweeper}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SlotHoldTest {
+
+	private static final String PRE_ID = "98746563542672";
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@Mock
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	@Mock
+	private ApplicationStatusClient applicationStatusClient;
+
+	@Mock
+	private AuditQueue auditQueue;
+
+	@InjectMocks
+	private BookingService bookingService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(bookingService, "bookingLockManager", new BookingLockManager(16, 1000));
+		ReflectionTestUtils.setField(bookingService, "holdTtlSeconds", 600L);
+		bookingService.setupBookingService();
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(Mockito.mock(AuthUserDetails.class));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		when(serviceUtil.validateAppointmentDate(anyMap())).thenReturn(true);
+		when(serviceUtil.mandatoryParameterCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.slotTimeValidCheck(anyString(), any(BookingRequestDTO.class))).thenReturn(true);
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.PENDING_APPOINTMENT.getCode());
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenReturn(Collections.singletonList(center));
+		when(serviceUtil.bookingEntitySetter(anyString(), any(BookingRequestDTO.class)))
+				.thenReturn(new RegistrationBookingEntity());
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setAvailableKiosks(10);
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(LocalDate.class), eq(REG_CENTER_ID),
+				any(LocalTime.class), any(LocalTime.class))).thenReturn(slot);
+		when(slotInventory.reserve(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenReturn(true);
+		when(slotInventory.release(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
+				.thenReturn(true);
+		when(slotInventory.release(anyString(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class),
+				anyInt())).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private MainRequestDTO<BookingRequestDTO> request(LocalTime fromTime, LocalTime toTime) {
+		BookingRequestDTO bookingRequest = new BookingRequestDTO();
+		bookingRequest.setRegistrationCenterId(REG_CENTER_ID);
+		bookingRequest.setRegDate(REG_DATE.toString());
+		bookingRequest.setSlotFromTime(fromTime.toString());
+		bookingRequest.setSlotToTime(toTime.toString());
+		MainRequestDTO<BookingRequestDTO> request = new MainRequestDTO<>();
+		request.setRequesttime(new Date());
+		request.setRequest(bookingRequest);
+		return request;
+	}
+
+	private SlotHoldEntity hold(String preRegistrationId, LocalTime fromTime, LocalTime toTime,
+			LocalDateTime expiresAt) {
+		SlotHoldEntity hold = new SlotHoldEntity();
+		hold.setPreregistrationId(preRegistrationId);
+		hold.setRegcntrId(REG_CENTER_ID);
+		hold.setRegDate(REG_DATE);
+		hold.setFromTime(fromTime);
+		hold.setToTime(toTime);
+		hold.setExpiresAt(expiresAt);
+		return hold;
+	}
+
+	@Test
+	public void holdReservesKioskUntilExpiryTest() {
+		LocalDateTime before = LocalDateTime.now();
+
+		MainResponseDTO<SlotHoldDto> response = bookingService.holdSlot(request(FROM_TIME, TO_TIME), PRE_ID);
+
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 1);
+		ArgumentCaptor<SlotHoldEntity> saved = ArgumentCaptor.forClass(SlotHoldEntity.class);
+		verify(bookingDAO, times(1)).saveSlotHold(saved.capture());
+		assertEquals(PRE_ID, saved.getValue().getPreregistrationId());
+		assertTrue(!saved.getValue().getExpiresAt().isBefore(before.plusSeconds(600)));
+		assertEquals(saved.getValue().getExpiresAt().toString(), response.getResponse().getExpiresAt());
+		verify(bookingDAO, never()).saveRegistrationEntityForBooking(any(RegistrationBookingEntity.class));
+	}
+
+	@Test
+	public void holdRejectsConsumedApplicationTest() {
+		when(serviceUtil.getApplicationBookingStatus(PRE_ID)).thenReturn(StatusCodes.CONSUMED.getCode());
+
+		try {
+			bookingService.holdSlot(request(FROM_TIME, TO_TIME), PRE_ID);
+			fail();
+		} catch (DemographicGetStatusException ex) {
+			assertEquals(ErrorCodes.PRG_BOOK_RCI_036.getCode(), ex.getErrorCode());
+		}
+		verify(slotInventory, never()).reserve(anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class), anyInt());
+		verify(bookingDAO, never()).saveSlotHold(any(SlotHoldEntity.class));
+	}
+
+	@Test
+	public void holdReplacesPreviousHoldTest() {
+		LocalTime oldFromTime = LocalTime.of(11, 0);
+		LocalTime oldToTime = LocalTime.of(11, 15);
+		when(bookingDAO.findSlotHold(PRE_ID))
+				.thenReturn(hold(PRE_ID, oldFromTime, oldToTime, LocalDateTime.now().plusMinutes(5)));
+		when(bookingDAO.deleteSlotHold(PRE_ID)).thenReturn(true);
+
+		bookingService.holdSlot(request(FROM_TIME, TO_TIME), PRE_ID);
+
+		verify(slotInventory, times(1)).release(REG_CENTER_ID, REG_DATE, oldFromTime, oldToTime);
+		verify(slotInventory, times(1)).reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 1);
+		verify(bookingDAO, times(1)).saveSlotHold(any(SlotHoldEntity.class));
+	}
+
+	@Test
+	public void confirmBooksHeldKioskTest() {
+		when(bookingDAO.findSlotHold(PRE_ID))
+				.thenReturn(hold(PRE_ID, FROM_TIME, TO_TIME, LocalDateTime.now().plusMinutes(5)));
+		when(bookingDAO.deleteSlotHold(PRE_ID)).thenReturn(true);
+
+		MainResponseDTO<?> response = bookingService.confirmSlotHold(PRE_ID);
+
+		assertEquals(null, response.getErrors());
+		verify(bookingDAO, times(1)).saveRegistrationEntityForBooking(any(RegistrationBookingEntity.class));
+		verify(slotInventory, never()).reserve(anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class));
+		verify(slotInventory, never()).reserve(anyString(), any(LocalDate.class), any(LocalTime.class),
+				any(LocalTime.class), anyInt());
+	}
+
+	@Test
+	public void confirmExpiredHoldTest() {
+		when(bookingDAO.findSlotHold(PRE_ID))
+				.thenReturn(hold(PRE_ID, FROM_TIME, TO_TIME, LocalDateTime.now().minusSeconds(1)));
+
+		try {
+			bookingService.confirmSlotHold(PRE_ID);
+			fail();
+		} catch (RecordNotFoundException ex) {
+			assertEquals("PRG_BOOK_RCI_038", ex.getErrorCode());
+			verify(bookingDAO, never()).saveRegistrationEntityForBooking(any(RegistrationBookingEntity.class));
+		}
+	}
+
+	@Test
+	public void sweepReleasesExpiredHoldsPerSlotTest() {
+		LocalTime otherFromTime = LocalTime.of(11, 0);
+		LocalTime otherToTime = LocalTime.of(11, 15);
+		LocalDateTime expired = LocalDateTime.now().minusMinutes(1);
+		when(bookingDAO.findExpiredSlotHolds(any(LocalDateTime.class))).thenReturn(Arrays.asList(
+				hold("98746563542672", FROM_TIME, TO_TIME, expired), hold("98746563542673", FROM_TIME, TO_TIME, expired),
+				hold("98746563542674", FROM_TIME, TO_TIME, expired),
+				hold("98746563542675", otherFromTime, otherToTime, expired)));
+		when(bookingDAO.deleteExpiredSlotHolds(eq(REG_CENTER_ID), eq(REG_DATE), eq(FROM_TIME), eq(TO_TIME),
+				any(LocalDateTime.class))).thenReturn(3);
+		when(bookingDAO.deleteExpiredSlotHolds(eq(REG_CENTER_ID), eq(REG_DATE), eq(otherFromTime), eq(otherToTime),
+				any(LocalDateTime.class))).thenReturn(1);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		SlotHoldSweeper sweeper = new SlotHoldSweeper();
+		ReflectionTestUtils.setField(sweeper, "bookingService", (BookingServiceIntf) bookingService);
+		ReflectionTestUtils.setField(sweeper, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(sweeper, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(sweeper, "sweepIntervalSeconds", 3600L);
+		sweeper.start();
+
+		assertEquals(4, sweeper.sweep());
+		sweeper.shutdown();
+
+		verify(slotInventory, times(1)).release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 3);
+		verify(slotInventory, times(1)).release(REG_CENTER_ID, REG_DATE, otherFromTime, otherToTime, 1);
+		assertEquals(4, meterRegistry.get("prereg.booking.hold.released").counter().count(), 0);
+	}
+
+}
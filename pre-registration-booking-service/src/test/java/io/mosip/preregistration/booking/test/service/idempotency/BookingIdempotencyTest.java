@@ -0,0 +1,213 @@
+package io.mosip.preregistration.booking.test.service.idempotency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.mosip.kernel.core.authmanager.authadapter.model.AuthUserDetails;
+import io.mosip.preregistration.booking.dto.BookingStatusDTO;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.IdempotencyKeyReusedException;
+import io.mosip.preregistration.booking.exception.IdempotentRequestRunningException;
+import io.mosip.preregistration.booking.service.idempotency.BookingIdempotency;
+import io.mosip.preregistration.booking.service.idempotency.LocalIdempotencyStore;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+import io.mosip.preregistration.core.exception.InvalidRequestParameterException;
+
+/**
+ * Test class for the idempotency keys of booking requests.
+ *
+ * @since 1.0.0
+ *
+ */
+public class BookingIdempotencyTest {
+
+	private static final TypeReference<MainResponseDTO<BookingStatusDTO>> RESPONSE = new TypeReference<MainResponseDTO<BookingStatusDTO>>() {
+	};
+
+	private static final String OPERATION = "book:98746563542672";
+
+	private static final String BODY = "{\"registration_center_id\":\"10001\"}";
+
+	private LocalIdempotencyStore store = new LocalIdempotencyStore(100, 3600);
+
+	private BookingIdempotency bookingIdempotency;
+
+	@Before
+	public void setUp() {
+		bookingIdempotency = new BookingIdempotency(store, 16, 10000, 120);
+		login("user1");
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private static void login(String userId) {
+		AuthUserDetails user = Mockito.mock(AuthUserDetails.class);
+		when(user.getUserId()).thenReturn(userId);
+		Authentication authentication = Mockito.mock(Authentication.class);
+		when(authentication.getPrincipal()).thenReturn(user);
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+	}
+
+	private static MainResponseDTO<BookingStatusDTO> booked(AtomicInteger bookings) {
+		bookings.incrementAndGet();
+		BookingStatusDTO status = new BookingStatusDTO();
+		status.setBookingMessage("Appointment booked successfully");
+		MainResponseDTO<BookingStatusDTO> response = new MainResponseDTO<>();
+		response.setResponsetime("2019-06-10T09:00:00.000Z");
+		response.setResponse(status);
+		return response;
+	}
+
+	@Test
+	public void retryGetsStoredResponseTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+		MainResponseDTO<BookingStatusDTO> replay = bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE,
+				() -> booked(bookings));
+
+		assertEquals(1, bookings.get());
+		assertEquals("Appointment booked successfully", replay.getResponse().getBookingMessage());
+		assertEquals("2019-06-10T09:00:00.000Z", replay.getResponsetime());
+
+		bookingIdempotency.execute(null, OPERATION, BODY, RESPONSE, () -> booked(bookings));
+		bookingIdempotency.execute(" ", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+		assertEquals(3, bookings.get());
+	}
+
+	@Test
+	public void failedRequestIsNotStoredTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		MainResponseDTO<BookingStatusDTO> error = new MainResponseDTO<>();
+		error.setErrors(Collections.singletonList(
+				new ExceptionJSONInfoDTO(ErrorCodes.PRG_BOOK_RCI_002.getCode(), "Availability not found")));
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> error);
+		try {
+			bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> {
+				throw new IllegalStateException("Booking failed");
+			});
+			fail("Exception of the request not thrown");
+		} catch (IllegalStateException ex) {
+			assertEquals("Booking failed", ex.getMessage());
+		}
+
+		MainResponseDTO<BookingStatusDTO> retry = bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE,
+				() -> booked(bookings));
+		assertEquals(1, bookings.get());
+		assertEquals("Appointment booked successfully", retry.getResponse().getBookingMessage());
+	}
+
+	@Test
+	public void keyIsScopedByUserAndOperationTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+		bookingIdempotency.execute("key-1", "book:98746563542673", BODY, RESPONSE, () -> booked(bookings));
+		login("user2");
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+
+		assertEquals(3, bookings.get());
+	}
+
+	@Test
+	public void concurrentDuplicatesRunOnceTest() throws Exception {
+		AtomicInteger bookings = new AtomicInteger();
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> messages = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(5);
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		for (int i = 0; i < 5; i++) {
+			new Thread(() -> {
+				SecurityContextHolder.getContext().setAuthentication(authentication);
+				try {
+					messages.add(bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> {
+						running.countDown();
+						try {
+							release.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+						}
+						return booked(bookings);
+					}).getResponse().getBookingMessage());
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+		TimeUnit.MILLISECONDS.sleep(200);
+		release.countDown();
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(1, bookings.get());
+		assertEquals(5, messages.size());
+	}
+
+	@Test
+	public void keyReusedWithAnotherBodyIsRejectedTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+		try {
+			bookingIdempotency.execute("key-1", OPERATION, "{\"registration_center_id\":\"10002\"}", RESPONSE,
+					() -> booked(bookings));
+			fail("Key reused with another body");
+		} catch (IdempotencyKeyReusedException ex) {
+			assertEquals(ErrorCodes.PRG_BOOK_RCI_047.getCode(), ex.getErrorCode());
+		}
+		assertEquals(1, bookings.get());
+	}
+
+	@Test
+	public void attemptRunningOnAnotherInstanceTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		BookingIdempotency otherInstance = new BookingIdempotency(store, 16, 200, 120);
+		bookingIdempotency.execute("key-1", OPERATION, BODY, RESPONSE, () -> {
+			try {
+				otherInstance.execute("key-1", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+				fail("Retry ran while the first attempt is running");
+			} catch (IdempotentRequestRunningException ex) {
+				assertEquals(ErrorCodes.PRG_BOOK_RCI_048.getCode(), ex.getErrorCode());
+			}
+			return booked(bookings);
+		});
+
+		MainResponseDTO<BookingStatusDTO> replay = otherInstance.execute("key-1", OPERATION, BODY, RESPONSE,
+				() -> booked(bookings));
+		assertEquals(1, bookings.get());
+		assertEquals("Appointment booked successfully", replay.getResponse().getBookingMessage());
+	}
+
+	@Test
+	public void overlongKeyIsRejectedTest() {
+		AtomicInteger bookings = new AtomicInteger();
+		try {
+			bookingIdempotency.execute("12345678901234567", OPERATION, BODY, RESPONSE, () -> booked(bookings));
+			fail("Overlong key accepted");
+		} catch (InvalidRequestParameterException ex) {
+			assertEquals(ErrorCodes.PRG_BOOK_RCI_044.getCode(), ex.getExptionList().get(0).getErrorCode());
+		}
+		assertEquals(0, bookings.get());
+	}
+
+}
@@ -0,0 +1,105 @@
+package io.mosip.preregistration.booking.test.service.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.InMemorySlotInventory;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Benchmark of the in-memory slot inventory against the guarded update on the
+ * database, run with the benchmark profile.
+ *
+ * @since 1.0.0
+ *
+ */
+public class InMemorySlotInventoryBenchmark {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final int OPERATIONS = 20000;
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private BookingDAO bookingDAO = Mockito.mock(BookingDAO.class);
+
+	private InMemorySlotInventory slotInventory = new InMemorySlotInventory();
+
+	@After
+	public void tearDown() {
+		slotInventory.shutdown();
+	}
+
+	/**
+	 * Compares reserve throughput of the in-memory counters with the guarded
+	 * update on the database, 16 bookers on one slot.
+	 */
+	@Test
+	public void reserveThroughputBenchmark() throws Exception {
+		ReflectionTestUtils.setField(slotInventory, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(slotInventory, "serviceUtil", Mockito.mock(BookingServiceUtil.class));
+		ReflectionTestUtils.setField(slotInventory, "availabilityCache", Mockito.mock(AvailabilityCache.class));
+		ReflectionTestUtils.setField(slotInventory, "syncDays", 7);
+		ReflectionTestUtils.setField(slotInventory, "flushIntervalMillis", 60000L);
+		slotInventory.setupFlusher();
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(FROM_TIME);
+		slot.setToTime(TO_TIME);
+		slot.setAvailableKiosks(OPERATIONS);
+		when(bookingDAO.findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Collections.singletonList(slot));
+		AtomicInteger reserved = new AtomicInteger();
+
+		double memoryRate = measure(OPERATIONS, () -> {
+			if (slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME)) {
+				reserved.incrementAndGet();
+			}
+		});
+		slotInventory.flush();
+		assertEquals(OPERATIONS / 16 * 16, reserved.get());
+
+		logger.info(String.format("Slot reserve throughput (ops/s) memory: %.0f, database: %.0f", memoryRate,
+				guardedUpdateRate("memoryinventorydb")));
+	}
+
+	/** Throughput of the reservations split over 16 threads. */
+	static double measure(int operations, Runnable reserve) throws InterruptedException {
+		long start = System.nanoTime();
+		InMemorySlotInventoryTest.runConcurrently(operations, reserve);
+		return operations / ((System.nanoTime() - start) / 1e9);
+	}
+
+	/** Throughput of the guarded kiosk update on one row of an H2 table. */
+	static double guardedUpdateRate(String database) throws InterruptedException {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+				"jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000", "sa", ""));
+		jdbcTemplate.execute("create table slot (id int primary key, available_kiosks int)");
+		jdbcTemplate.update("insert into slot values (1, ?)", OPERATIONS);
+		return measure(OPERATIONS, () -> jdbcTemplate
+				.update("update slot set available_kiosks = available_kiosks - 1 where id = 1 and available_kiosks > 0"));
+	}
+
+}
@@ -0,0 +1,319 @@
+package io.mosip.preregistration.booking.test.service.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.InMemorySlotInventory;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Test class for the in-memory slot inventory and its write behind.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class InMemorySlotInventoryTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final LocalTime NEXT_TO_TIME = LocalTime.of(9, 30);
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@InjectMocks
+	private InMemorySlotInventory slotInventory;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(slotInventory, "syncDays", 7);
+		ReflectionTestUtils.setField(slotInventory, "flushIntervalMillis", 60000L);
+		slotInventory.setupFlusher();
+	}
+
+	@After
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		slotInventory.shutdown();
+	}
+
+	private AvailibityEntity slot(LocalTime fromTime, LocalTime toTime, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(fromTime);
+		slot.setToTime(toTime);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	private void givenSlots(AvailibityEntity... slots) {
+		when(bookingDAO.findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Arrays.asList(slots));
+	}
+
+	private void givenCenterKiosks(int kiosks) {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		center.setNumberOfKiosks((short) kiosks);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenReturn(Collections.singletonList(center));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<SlotCountDto> writtenChanges() {
+		ArgumentCaptor<List<SlotCountDto>> written = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, times(1)).adjustKiosks(written.capture());
+		return written.getValue();
+	}
+
+	@Test
+	public void reserveStopsWhenFullAndFlushAddsUpChangesTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 2), slot(TO_TIME, NEXT_TO_TIME, 2));
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, TO_TIME, NEXT_TO_TIME, 3));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, NEXT_TO_TIME));
+		assertEquals(5, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, TO_TIME, NEXT_TO_TIME).getAsInt());
+
+		verify(availabilityCache, never()).evict(REG_CENTER_ID);
+		assertEquals(2, slotInventory.flush());
+		verify(availabilityCache, times(1)).evict(REG_CENTER_ID);
+		List<SlotCountDto> changes = writtenChanges();
+		assertEquals(FROM_TIME, changes.get(0).getFromTime());
+		assertEquals(-2, changes.get(0).getCount());
+		assertEquals(TO_TIME, changes.get(1).getFromTime());
+		assertEquals(3, changes.get(1).getCount());
+		assertEquals(0, slotInventory.flush());
+		verify(bookingDAO, times(1)).findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class));
+	}
+
+	@Test
+	public void concurrentReservesDoNotOversellTest() throws InterruptedException {
+		givenSlots(slot(FROM_TIME, TO_TIME, 100));
+		AtomicInteger reserved = new AtomicInteger();
+
+		runConcurrently(1600, () -> {
+			if (slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME)) {
+				reserved.incrementAndGet();
+			}
+		});
+
+		assertEquals(100, reserved.get());
+		assertEquals(0, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+		slotInventory.flush();
+		assertEquals(-100, writtenChanges().get(0).getCount());
+	}
+
+	@Test
+	public void rollbackUndoesReservationTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 1));
+		TransactionSynchronizationManager.initSynchronization();
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+
+		assertEquals(0, slotInventory.flush());
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals(1, slotInventory.flush());
+		verify(bookingDAO, times(1)).adjustKiosks(anyList());
+	}
+
+	private static void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (status == TransactionSynchronization.STATUS_COMMITTED) {
+				synchronization.afterCommit();
+			}
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	public void releaseIsGivenBackOnCommitTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 1));
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals(0, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals(0, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(1, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+
+		assertEquals(0, slotInventory.flush());
+		verify(bookingDAO, never()).adjustKiosks(anyList());
+	}
+
+	@Test
+	public void evictHandsOverOpenReservationsTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 2), slot(TO_TIME, NEXT_TO_TIME, 2));
+		givenCenterKiosks(2);
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+
+		slotInventory.evict(Collections.singletonList(slot(FROM_TIME, TO_TIME, 2)));
+		assertEquals(1, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(1, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+
+		assertEquals(1, slotInventory.flush());
+		assertEquals(-1, writtenChanges().get(0).getCount());
+		verify(bookingDAO, times(2)).findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class));
+	}
+
+	@Test
+	public void failedFlushIsRetriedTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 3));
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		doThrow(new RuntimeException("connection lost")).doNothing().when(bookingDAO).adjustKiosks(anyList());
+
+		try {
+			slotInventory.flush();
+		} catch (RuntimeException ex) {
+			assertEquals("connection lost", ex.getMessage());
+		}
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals(1, slotInventory.flush());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<SlotCountDto>> written = ArgumentCaptor.forClass(List.class);
+		verify(bookingDAO, times(2)).adjustKiosks(written.capture());
+		assertEquals(-2, written.getValue().get(0).getCount());
+	}
+
+	@Test
+	public void rebuildRecoversCountersFromBookingsTest() {
+		when(bookingDAO.findRegCenter(any(LocalDate.class))).thenReturn(Collections.singletonList(REG_CENTER_ID));
+		givenSlots(slot(FROM_TIME, TO_TIME, 4), slot(TO_TIME, NEXT_TO_TIME, 4));
+		givenCenterKiosks(4);
+		when(bookingDAO.findTakenKiosks(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Arrays.asList(new SlotCountDto(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 2),
+						new SlotCountDto(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 1)));
+
+		slotInventory.rebuild();
+
+		assertEquals(1, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+		assertEquals(4, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, TO_TIME, NEXT_TO_TIME).getAsInt());
+		assertFalse(slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, NEXT_TO_TIME).isPresent());
+
+		assertEquals(1, slotInventory.flush());
+		SlotCountDto correction = writtenChanges().get(0);
+		assertEquals(FROM_TIME, correction.getFromTime());
+		assertEquals(-3, correction.getCount());
+	}
+
+	@Test
+	public void holidayKeepsTableCounterTest() {
+		givenSlots(slot(FROM_TIME, TO_TIME, 0));
+		givenCenterKiosks(4);
+
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals(0, slotInventory.flush());
+		verify(bookingDAO, never()).adjustKiosks(anyList());
+	}
+
+	@Test
+	public void writeDuringLoadReadsDayAgainTest() {
+		AvailibityEntity otherSlot = slot(FROM_TIME, TO_TIME, 3);
+		otherSlot.setRegcntrId("10002");
+		when(bookingDAO.findAvailability(eq("10002"), any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Collections.singletonList(otherSlot));
+		assertTrue(slotInventory.reserve("10002", REG_DATE, FROM_TIME, TO_TIME));
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		when(bookingDAO.findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class)))
+				.thenAnswer(invocation -> {
+					/* the write behind must not wait for the load */
+					assertEquals(Integer.valueOf(1), writer.submit(slotInventory::flush).get(5, TimeUnit.SECONDS));
+					return Collections.singletonList(slot(FROM_TIME, TO_TIME, 2));
+				}).thenReturn(Collections.singletonList(slot(FROM_TIME, TO_TIME, 2)));
+
+		assertEquals(2, slotInventory.availableKiosks(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME).getAsInt());
+		writer.shutdown();
+		verify(bookingDAO, times(2)).findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class));
+	}
+
+	/** Runs the reservations split over 16 threads. */
+	static void runConcurrently(int operations, Runnable reserve) throws InterruptedException {
+		int threads = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch done = new CountDownLatch(threads);
+		List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+		for (int t = 0; t < threads; t++) {
+			pool.submit(() -> {
+				try {
+					for (int i = 0; i < operations / threads; i++) {
+						reserve.run();
+					}
+				} catch (RuntimeException ex) {
+					failures.add(ex);
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(120, TimeUnit.SECONDS));
+		pool.shutdown();
+		assertTrue(failures.toString(), failures.isEmpty());
+	}
+
+}
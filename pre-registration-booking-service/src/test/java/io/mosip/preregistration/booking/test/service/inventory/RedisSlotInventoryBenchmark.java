@@ -0,0 +1,102 @@
+package io.mosip.preregistration.booking.test.service.inventory;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.RedisSlotInventory;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import redis.clients.jedis.Jedis;
+
+/**
+ * Benchmark of the Redis slot inventory against the guarded update on the
+ * database, run with the benchmark profile on the Redis server given by
+ * ${redis.cache.hostname} and ${redis.cache.port}; skipped if it cannot be
+ * reached.
+ *
+ * @since 1.0.0
+ *
+ */
+public class RedisSlotInventoryBenchmark {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final String KEY = "prereg:slot:{" + REG_CENTER_ID + ":" + REG_DATE + ":" + FROM_TIME + "-"
+			+ TO_TIME + "}";
+	private static final int OPERATIONS = 20000;
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final String hostName = System.getProperty("redis.cache.hostname", "localhost");
+
+	private final int port = Integer.getInteger("redis.cache.port", 6379);
+
+	/**
+	 * Compares reserve throughput of the Redis scripts with the guarded update on
+	 * the database, 16 bookers on one slot.
+	 */
+	@Test
+	public void reserveThroughputBenchmark() throws Exception {
+		Assume.assumeTrue("Redis not reachable", redisAvailable());
+		JedisConnectionFactory connectionFactory = new JedisConnectionFactory();
+		connectionFactory.setHostName(hostName);
+		connectionFactory.setPort(port);
+		connectionFactory.afterPropertiesSet();
+		StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+		redisTemplate.afterPropertiesSet();
+		BookingDAO bookingDAO = Mockito.mock(BookingDAO.class);
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(FROM_TIME);
+		slot.setToTime(TO_TIME);
+		slot.setAvailableKiosks(OPERATIONS);
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot);
+		when(bookingDAO.reserveKiosk(any(), any(), any(), any())).thenReturn(true);
+		RedisSlotInventory slotInventory = new RedisSlotInventory();
+		ReflectionTestUtils.setField(slotInventory, "redisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(slotInventory, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(slotInventory, "serviceUtil", Mockito.mock(BookingServiceUtil.class));
+		ReflectionTestUtils.setField(slotInventory, "availabilityCache", Mockito.mock(AvailabilityCache.class));
+		ReflectionTestUtils.setField(slotInventory, "syncDays", 7);
+		ReflectionTestUtils.setField(slotInventory, "pendingTtlSeconds", 300L);
+		slotInventory.setupWriteBehind();
+		redisTemplate.delete(Arrays.asList(KEY, KEY + ":pending", KEY + ":stale"));
+
+		double redisRate = InMemorySlotInventoryBenchmark.measure(OPERATIONS,
+				() -> slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		slotInventory.flush();
+		redisTemplate.delete(Arrays.asList(KEY, KEY + ":pending", KEY + ":stale"));
+		connectionFactory.destroy();
+
+		logger.info(String.format("Slot reserve throughput (ops/s) redis: %.0f, database: %.0f", redisRate,
+				InMemorySlotInventoryBenchmark.guardedUpdateRate("redisinventorydb")));
+	}
+
+	private boolean redisAvailable() {
+		try (Jedis jedis = new Jedis(hostName, port, 500)) {
+			return "PONG".equals(jedis.ping());
+		} catch (RuntimeException ex) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+package io.mosip.preregistration.booking.test.service.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.RedisSlotInventory;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Test class running the Lua scripts of the Redis slot inventory on a Redis
+ * server, given by ${redis.cache.hostname} and ${redis.cache.port}. Run with
+ * the redis-it profile.
+ *
+ * @since 1.0.0
+ *
+ */
+public class RedisSlotInventoryRedisIT {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+	private static final String KEY = "prereg:slot:{" + REG_CENTER_ID + ":" + REG_DATE + ":" + FROM_TIME + "-"
+			+ TO_TIME + "}";
+	private static final List<String> KEYS = Arrays.asList(KEY, KEY + ":pending", KEY + ":stale");
+
+	private JedisConnectionFactory connectionFactory;
+
+	private StringRedisTemplate redisTemplate;
+
+	private BookingDAO bookingDAO = Mockito.mock(BookingDAO.class);
+
+	private RedisSlotInventory slotInventory = new RedisSlotInventory();
+
+	@Before
+	public void setUp() {
+		connectionFactory = new JedisConnectionFactory();
+		connectionFactory.setHostName(System.getProperty("redis.cache.hostname", "localhost"));
+		connectionFactory.setPort(Integer.getInteger("redis.cache.port", 6379));
+		connectionFactory.afterPropertiesSet();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		redisTemplate.afterPropertiesSet();
+		redisTemplate.delete(KEYS);
+
+		ReflectionTestUtils.setField(slotInventory, "redisTemplate", redisTemplate);
+		ReflectionTestUtils.setField(slotInventory, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(slotInventory, "serviceUtil", Mockito.mock(BookingServiceUtil.class));
+		ReflectionTestUtils.setField(slotInventory, "availabilityCache", Mockito.mock(AvailabilityCache.class));
+		ReflectionTestUtils.setField(slotInventory, "pendingTtlSeconds", 300L);
+		slotInventory.setupWriteBehind();
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+		when(bookingDAO.reserveKiosk(any(), any(), any(), any())).thenReturn(true);
+		when(bookingDAO.releaseKiosk(any(), any(), any(), any())).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		slotInventory.flush();
+		redisTemplate.delete(KEYS);
+		connectionFactory.destroy();
+	}
+
+	private AvailibityEntity slot(int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(FROM_TIME);
+		slot.setToTime(TO_TIME);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	private void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private String get(int key) {
+		return redisTemplate.opsForValue().get(KEYS.get(key));
+	}
+
+	@Test
+	public void reserveReleaseAndRollbackTest() throws InterruptedException {
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals("0", get(0));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals("1", get(0));
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals("1", get(0));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals("2", get(0));
+		slotInventory.flush();
+		assertNull(get(1));
+	}
+
+	@Test
+	public void evictWaitsForPendingWritesTest() throws InterruptedException {
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals("1", get(1));
+
+		slotInventory.evict(Collections.singletonList(slot(2)));
+		assertEquals("1", get(0));
+		assertEquals("1", get(2));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		slotInventory.flush();
+		assertNull(get(0));
+		assertNull(get(1));
+		assertNull(get(2));
+	}
+
+	@Test
+	public void pendingChangesReserveInDatabaseTest() {
+		redisTemplate.opsForValue().set(KEYS.get(1), "1");
+		TransactionSynchronizationManager.initSynchronization();
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		verify(bookingDAO).reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+		assertNull(get(0));
+		assertEquals("2", get(1));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals("1", get(1));
+	}
+
+	@Test
+	public void refusedWriteBehindReloadsCounterTest() throws InterruptedException {
+		when(bookingDAO.reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME)).thenReturn(false);
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		slotInventory.flush();
+
+		assertNull(get(0));
+		assertNull(get(1));
+		assertNull(get(2));
+	}
+
+}
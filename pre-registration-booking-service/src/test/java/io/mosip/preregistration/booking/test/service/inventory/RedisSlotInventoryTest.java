@@ -0,0 +1,370 @@
+package io.mosip.preregistration.booking.test.service.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.RedisSlotInventory;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+
+/**
+ * Test class for the Redis slot inventory. The unit tests run against an in
+ * memory stand-in of the Redis scripts, the scripts themselves are run by
+ * {@link RedisSlotInventoryRedisIT} and their throughput is measured by
+ * {@link RedisSlotInventoryBenchmark}.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class RedisSlotInventoryTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.now().plusDays(3);
+	private static final LocalTime FROM_TIME = LocalTime.of(9, 0);
+	private static final LocalTime TO_TIME = LocalTime.of(9, 15);
+
+	@Mock
+	private StringRedisTemplate redisTemplate;
+
+	@Mock
+	private BookingDAO bookingDAO;
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private AvailabilityCache availabilityCache;
+
+	@InjectMocks
+	private RedisSlotInventory slotInventory;
+
+	private final Map<String, Integer> redis = new ConcurrentHashMap<>();
+
+	private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+
+	private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+	@Before
+	public void setUp() {
+		slotInventory.setupWriteBehind();
+		ReflectionTestUtils.setField(slotInventory, "syncDays", 7);
+		ReflectionTestUtils.setField(slotInventory, "pendingTtlSeconds", 300L);
+		when(bookingDAO.reserveKiosk(any(), any(), any(), any())).thenReturn(true);
+		when(bookingDAO.releaseKiosk(any(), any(), any(), any())).thenReturn(true);
+		when(bookingDAO.reserveKiosks(any(), any(), any(), any(), anyInt())).thenReturn(true);
+		when(bookingDAO.releaseKiosks(any(), any(), any(), any(), anyInt())).thenReturn(true);
+
+		RedisConnection connection = mock(RedisConnection.class);
+		when(connection.eval(any(byte[].class), any(ReturnType.class), eq(3), any(byte[].class)))
+				.thenAnswer(invocation -> {
+					Object[] arguments = invocation.getArguments();
+					List<String> keys = new ArrayList<>();
+					String[] args = new String[arguments.length - 6];
+					for (int i = 3; i < arguments.length; i++) {
+						String value = new String((byte[]) arguments[i], StandardCharsets.UTF_8);
+						if (i < 6) {
+							keys.add(value);
+						} else {
+							args[i - 6] = value;
+						}
+					}
+					return evaluate(script("LOAD_SCRIPT"), keys, args);
+				});
+		doAnswer(invocation -> {
+			Object[] arguments = invocation.getArguments();
+			String[] args = new String[arguments.length - 2];
+			for (int i = 2; i < arguments.length; i++) {
+				args[i - 2] = (String) arguments[i];
+			}
+			return evaluate(invocation.getArgument(0), invocation.getArgument(1), args);
+		}).when(redisTemplate).execute(any(RedisScript.class), anyList(), any());
+		when(redisTemplate.hasKey(anyString())).thenAnswer(invocation -> redis.containsKey(invocation.getArgument(0)));
+		doAnswer(invocation -> {
+			((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+			return Collections.emptyList();
+		}).when(redisTemplate).executePipelined(any(RedisCallback.class));
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		slotInventory.flush();
+	}
+
+	private static RedisScript<?> script(String name) {
+		return (RedisScript<?>) ReflectionTestUtils.getField(RedisSlotInventory.class, name);
+	}
+
+	/** Same semantics as the Lua scripts of RedisSlotInventory. */
+	private synchronized Long evaluate(RedisScript<?> script, List<String> keys, String... args) {
+		String key = keys.get(0);
+		Integer kiosks = redis.get(key);
+		if (script == script("RESERVE_SCRIPT")) {
+			if (kiosks == null) {
+				return -1L;
+			}
+			if (kiosks < Integer.parseInt(args[0])) {
+				return 0L;
+			}
+			redis.put(key, kiosks - Integer.parseInt(args[0]));
+			pending.merge(key, 1, Integer::sum);
+		} else if (script == script("RELEASE_SCRIPT")) {
+			pending.merge(key, 1, Integer::sum);
+			if (kiosks == null) {
+				return -1L;
+			}
+			redis.put(key, kiosks + Integer.parseInt(args[0]));
+		} else if (script == script("PENDING_SCRIPT")) {
+			pending.merge(key, 1, Integer::sum);
+		} else if (script == script("COMPLETE_SCRIPT") || script == script("UNDO_SCRIPT")) {
+			if (script == script("UNDO_SCRIPT") && kiosks != null) {
+				redis.put(key, kiosks + Integer.parseInt(args[0]));
+			}
+			if (pending.merge(key, -1, Integer::sum) > 0) {
+				return 0L;
+			}
+			pending.remove(key);
+			if (stale.remove(key)) {
+				redis.remove(key);
+			}
+		} else if (script == script("EVICT_SCRIPT")) {
+			if (pending.getOrDefault(key, 0) > 0) {
+				stale.add(key);
+				return 0L;
+			}
+			redis.remove(key);
+		} else if (script == script("LOAD_SCRIPT")) {
+			if (pending.containsKey(key)) {
+				return 0L;
+			}
+			redis.putIfAbsent(key, Integer.valueOf(args[0]));
+		}
+		return 1L;
+	}
+
+	private void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private AvailibityEntity slot(int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(FROM_TIME);
+		slot.setToTime(TO_TIME);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	@Test
+	public void reserveLoadsSlotAndStopsWhenFullTest() {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+
+		verify(bookingDAO, times(1)).findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID,
+				FROM_TIME, TO_TIME);
+		verify(bookingDAO, timeout(5000).times(2)).reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+		/* the calendar read before each write is evicted once the row is written */
+		verify(availabilityCache, timeout(5000).times(2)).evict(REG_CENTER_ID);
+	}
+
+	@Test
+	public void reserveSeveralKiosksTest() {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(5));
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 3));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 3));
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 2));
+
+		assertEquals(Integer.valueOf(4), redis.values().iterator().next());
+		verify(bookingDAO, timeout(5000)).reserveKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, 3);
+		verify(bookingDAO, timeout(5000)).releaseKiosks(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME, 2);
+	}
+
+	@Test
+	public void releaseWritesThroughTest() throws InterruptedException {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(0));
+
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		slotInventory.flush();
+
+		/* the counter is loaded later from the table, which has the release */
+		verify(bookingDAO).releaseKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+		verify(availabilityCache).evict(REG_CENTER_ID);
+		assertTrue(redis.isEmpty());
+		assertTrue(pending.isEmpty());
+	}
+
+	@Test
+	public void rollbackUndoesReservationTest() throws InterruptedException {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(1));
+		TransactionSynchronizationManager.initSynchronization();
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		slotInventory.flush();
+		verify(bookingDAO, times(1)).reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+	}
+
+	@Test
+	public void rebuildLoadsOpenSlotsTest() {
+		when(bookingDAO.findRegCenter(any(LocalDate.class))).thenReturn(Collections.singletonList(REG_CENTER_ID));
+		when(bookingDAO.findAvailability(eq(REG_CENTER_ID), any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Collections.singletonList(slot(3)));
+
+		slotInventory.rebuild();
+
+		assertEquals(1, redis.size());
+		assertEquals(Integer.valueOf(3), redis.values().iterator().next());
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		verify(bookingDAO, never()).findByRegDateAndRegcntrIdAndFromTimeAndToTime(any(), any(), any(), any());
+	}
+
+	@Test
+	public void counterIsLoadedFromBookingsTest() {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setNumberOfKiosks((short) 4);
+		when(serviceUtil.getRegCenterMasterData(REG_CENTER_ID)).thenReturn(Collections.singletonList(center));
+		/* the table still has a kiosk whose write behind was lost */
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+		when(bookingDAO.findTakenKiosks(REG_CENTER_ID, REG_DATE, REG_DATE)).thenReturn(
+				Arrays.asList(new SlotCountDto(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 2),
+						new SlotCountDto(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME, 1)));
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertEquals(Integer.valueOf(0), redis.get(key()));
+	}
+
+	@Test
+	public void releaseIsGivenBackOnCommitTest() throws InterruptedException {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(1));
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		TransactionSynchronizationManager.initSynchronization();
+
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		assertFalse(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals(Integer.valueOf(0), redis.values().iterator().next());
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.release(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(Integer.valueOf(1), redis.values().iterator().next());
+		slotInventory.flush();
+		verify(bookingDAO, times(1)).releaseKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+		assertTrue(pending.isEmpty());
+	}
+
+	@Test
+	public void refusedWriteBehindReloadsCounterTest() throws InterruptedException {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+		when(bookingDAO.reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME)).thenReturn(false);
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		slotInventory.flush();
+
+		assertTrue(redis.isEmpty());
+		assertTrue(pending.isEmpty());
+		assertTrue(stale.isEmpty());
+		verify(availabilityCache, never()).evict(REG_CENTER_ID);
+	}
+
+	@Test
+	public void evictWaitsForPendingWritesTest() throws InterruptedException {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+		TransactionSynchronizationManager.initSynchronization();
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+
+		slotInventory.evict(Collections.singletonList(slot(2)));
+		assertEquals(Integer.valueOf(1), redis.values().iterator().next());
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		slotInventory.flush();
+		assertTrue(redis.isEmpty());
+		assertTrue(stale.isEmpty());
+	}
+
+	@Test
+	public void pendingChangesReserveInDatabaseTest() {
+		when(bookingDAO.findByRegDateAndRegcntrIdAndFromTimeAndToTime(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME))
+				.thenReturn(slot(2));
+		pending.put(key(), 1);
+		TransactionSynchronizationManager.initSynchronization();
+
+		assertTrue(slotInventory.reserve(REG_CENTER_ID, REG_DATE, FROM_TIME, TO_TIME));
+		verify(bookingDAO).reserveKiosk(REG_DATE, REG_CENTER_ID, FROM_TIME, TO_TIME);
+		assertTrue(redis.isEmpty());
+		assertEquals(Integer.valueOf(2), pending.get(key()));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(Integer.valueOf(1), pending.get(key()));
+	}
+
+	private static String key() {
+		return "prereg:slot:{" + REG_CENTER_ID + ":" + REG_DATE + ":" + FROM_TIME + "-" + TO_TIME + "}";
+	}
+
+}
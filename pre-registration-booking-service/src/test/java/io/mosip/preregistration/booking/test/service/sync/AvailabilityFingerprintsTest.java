@@ -0,0 +1,79 @@
+package io.mosip.preregistration.booking.test.service.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+import io.mosip.preregistration.booking.service.sync.AvailabilityFingerprints;
+
+/**
+ * Test class for the availability fingerprints of the registration centers.
+ *
+ * @since 1.0.0
+ *
+ */
+public class AvailabilityFingerprintsTest {
+
+	private static final LocalDate FROM_DATE = LocalDate.of(2019, 6, 10);
+	private static final LocalDate TO_DATE = LocalDate.of(2019, 6, 14);
+
+	private AvailabilityFingerprints availabilityFingerprints = new AvailabilityFingerprints();
+
+	private static RegistrationCenterDto center() {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId("10001");
+		center.setCenterStartTime(LocalTime.of(9, 0));
+		center.setCenterEndTime(LocalTime.of(17, 0));
+		center.setPerKioskProcessTime(LocalTime.of(0, 15));
+		center.setNumberOfKiosks((short) 4);
+		center.setIsActive(true);
+		return center;
+	}
+
+	@Test
+	public void holidaysOfSyncedDatesAreKeptTest() {
+		AvailabilityFingerprintEntity fingerprint = availabilityFingerprints.fingerprint(center(),
+				new HashSet<>(Arrays.asList(TO_DATE.plusDays(3), FROM_DATE.plusDays(2), FROM_DATE.minusDays(1))),
+				FROM_DATE, TO_DATE, "sync-user");
+
+		assertEquals("10001", fingerprint.getRegcntrId());
+		assertEquals("2019-06-12", fingerprint.getHolidayDates());
+		assertEquals(TO_DATE, fingerprint.getSyncedTo());
+		assertEquals(32, fingerprint.getCenterFingerprint().length());
+	}
+
+	@Test
+	public void onlyChangedDatesAreAffectedTest() {
+		AvailabilityFingerprintEntity synced = availabilityFingerprints.fingerprint(center(),
+				Collections.singleton(FROM_DATE.plusDays(1)), FROM_DATE.minusDays(1), TO_DATE.minusDays(1), "");
+
+		AvailabilityFingerprintEntity unchanged = availabilityFingerprints.fingerprint(center(),
+				Collections.singleton(FROM_DATE.plusDays(1)), FROM_DATE, TO_DATE.minusDays(1), "");
+		assertTrue(availabilityFingerprints.affectedDates(synced, unchanged, FROM_DATE, TO_DATE.minusDays(1))
+				.isEmpty());
+
+		AvailabilityFingerprintEntity moved = availabilityFingerprints.fingerprint(center(),
+				Collections.singleton(FROM_DATE.plusDays(2)), FROM_DATE, TO_DATE, "");
+		assertEquals(Arrays.asList(FROM_DATE.plusDays(1), FROM_DATE.plusDays(2), TO_DATE),
+				availabilityFingerprints.affectedDates(synced, moved, FROM_DATE, TO_DATE));
+
+		RegistrationCenterDto moreKiosks = center();
+		moreKiosks.setNumberOfKiosks((short) 5);
+		AvailabilityFingerprintEntity changed = availabilityFingerprints.fingerprint(moreKiosks,
+				Collections.singleton(FROM_DATE.plusDays(1)), FROM_DATE, TO_DATE, "");
+		assertNotEquals(synced.getCenterFingerprint(), changed.getCenterFingerprint());
+		assertEquals(5, availabilityFingerprints.affectedDates(synced, changed, FROM_DATE, TO_DATE).size());
+		assertEquals(5, availabilityFingerprints.affectedDates(null, changed, FROM_DATE, TO_DATE).size());
+	}
+
+}
@@ -0,0 +1,183 @@
+package io.mosip.preregistration.booking.test.service.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator.SlotChanges;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the slot generation and the slot diff of the availability
+ * sync.
+ *
+ * @since 1.0.0
+ *
+ */
+public class AvailabilityGeneratorTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.of(2019, 6, 10);
+
+	private AvailabilityGenerator availabilityGenerator = new AvailabilityGenerator();
+
+	private static RegistrationCenterDto center() {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(REG_CENTER_ID);
+		center.setCenterStartTime(LocalTime.of(9, 0));
+		center.setLunchStartTime(LocalTime.of(10, 10));
+		center.setLunchEndTime(LocalTime.of(11, 0));
+		center.setCenterEndTime(LocalTime.of(12, 0));
+		center.setPerKioskProcessTime(LocalTime.of(0, 20));
+		center.setNumberOfKiosks((short) 4);
+		center.setIsActive(true);
+		return center;
+	}
+
+	private static AvailibityEntity slot(LocalTime fromTime, LocalTime toTime, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(fromTime);
+		slot.setToTime(toTime);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	private static RegistrationBookingEntity booking(String preId, LocalTime fromTime, LocalTime toTime) {
+		RegistrationBookingEntity booking = new RegistrationBookingEntity();
+		booking.setPreregistrationId(preId);
+		booking.setRegistrationCenterId(REG_CENTER_ID);
+		booking.setRegDate(REG_DATE);
+		booking.setSlotFromTime(fromTime);
+		booking.setSlotToTime(toTime);
+		return booking;
+	}
+
+	@Test
+	public void workingDayAndHolidayTest() {
+		List<AvailibityEntity> slots = availabilityGenerator.generate(center(),
+				Collections.singleton(REG_DATE.plusDays(1)), REG_DATE, REG_DATE.plusDays(1));
+
+		assertEquals(7, slots.size());
+		assertEquals(LocalTime.of(9, 0), slots.get(0).getFromTime());
+		assertEquals(LocalTime.of(9, 20), slots.get(0).getToTime());
+		assertEquals(4, slots.get(0).getAvailableKiosks());
+		assertEquals(LocalTime.of(9, 40), slots.get(2).getFromTime());
+		assertEquals(LocalTime.of(10, 10), slots.get(2).getToTime());
+		assertEquals(LocalTime.of(11, 0), slots.get(3).getFromTime());
+		assertEquals(LocalTime.of(11, 40), slots.get(5).getFromTime());
+		assertEquals(LocalTime.of(12, 0), slots.get(5).getToTime());
+		AvailibityEntity holiday = slots.get(6);
+		assertEquals(REG_DATE.plusDays(1), holiday.getRegDate());
+		assertEquals(AvailabilityGenerator.HOLIDAY_TIME, holiday.getFromTime());
+		assertEquals(AvailabilityGenerator.HOLIDAY_TIME, holiday.getToTime());
+		assertEquals(0, holiday.getAvailableKiosks());
+	}
+
+	@Test
+	public void closedCenterHasNoSlotsTest() {
+		RegistrationCenterDto inactive = center();
+		inactive.setIsActive(false);
+		RegistrationCenterDto noHours = center();
+		noHours.setCenterStartTime(null);
+
+		assertTrue(availabilityGenerator.generate(inactive, Collections.emptySet(), REG_DATE, REG_DATE).isEmpty());
+		assertTrue(availabilityGenerator.generate(noHours, Collections.emptySet(), REG_DATE, REG_DATE).isEmpty());
+	}
+
+	@Test
+	public void diffWritesOnlyChangedSlotsTest() {
+		List<AvailibityEntity> generated = Arrays.asList(slot(LocalTime.of(9, 0), LocalTime.of(9, 20), 4),
+				slot(LocalTime.of(9, 20), LocalTime.of(9, 40), 4), slot(LocalTime.of(9, 40), LocalTime.of(10, 0), 4),
+				slot(LocalTime.of(10, 0), LocalTime.of(10, 30), 4), slot(LocalTime.of(10, 30), LocalTime.of(10, 50), 4));
+		List<AvailibityEntity> existing = Arrays.asList(slot(LocalTime.of(9, 0), LocalTime.of(9, 20), 3),
+				slot(LocalTime.of(9, 20), LocalTime.of(9, 40), 2), slot(LocalTime.of(9, 40), LocalTime.of(10, 10), 3),
+				slot(LocalTime.of(10, 0), LocalTime.of(10, 20), 3), slot(LocalTime.of(12, 0), LocalTime.of(12, 20), 3),
+				slot(LocalTime.of(12, 20), LocalTime.of(12, 40), 1));
+		List<SlotCountDto> taken = Arrays.asList(
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 0), LocalTime.of(9, 20), 1),
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 20), LocalTime.of(9, 40), 1),
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 40), LocalTime.of(10, 10), 1),
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(12, 20), LocalTime.of(12, 40), 2));
+
+		SlotChanges changes = availabilityGenerator.diff(generated, existing, taken);
+
+		/* 9:00 unchanged, 9:20 back to 3, 9:40 and 12:20 booked and closed */
+		assertEquals(3, changes.getUpdated().size());
+		assertEquals(LocalTime.of(9, 20), changes.getUpdated().get(0).getFromTime());
+		assertEquals(1, changes.getUpdated().get(0).getCount());
+		assertEquals(LocalTime.of(9, 40), changes.getUpdated().get(1).getFromTime());
+		assertEquals(LocalTime.of(10, 10), changes.getUpdated().get(1).getToTime());
+		assertEquals(-3, changes.getUpdated().get(1).getCount());
+		assertEquals(-1, changes.getUpdated().get(2).getCount());
+		assertEquals(2, changes.getKeptBooked());
+		/* 10:00 replaced with its new end time, 12:00 removed */
+		assertEquals(2, changes.getDeleted().size());
+		assertEquals(LocalTime.of(10, 0), changes.getDeleted().get(0).getFromTime());
+		assertEquals(LocalTime.of(12, 0), changes.getDeleted().get(1).getFromTime());
+		assertEquals(2, changes.getInserted().size());
+		assertEquals(LocalTime.of(10, 30), changes.getInserted().get(0).getToTime());
+		assertEquals(LocalTime.of(10, 30), changes.getInserted().get(1).getFromTime());
+		assertEquals(4, changes.getInserted().get(1).getAvailableKiosks());
+		assertEquals(7, changes.getChangedSlots().size());
+
+		assertTrue(availabilityGenerator.diff(generated.subList(0, 1), existing.subList(0, 1), taken).isEmpty());
+	}
+
+	@Test
+	public void bookingsOfRemovedSlotsAreMovedOrCancelledTest() {
+		List<AvailibityEntity> generated = Arrays.asList(slot(LocalTime.of(9, 0), LocalTime.of(9, 20), 2),
+				slot(LocalTime.of(9, 20), LocalTime.of(9, 50), 2));
+		List<AvailibityEntity> existing = Arrays.asList(slot(LocalTime.of(9, 0), LocalTime.of(9, 20), 1),
+				slot(LocalTime.of(9, 20), LocalTime.of(9, 40), 0), slot(LocalTime.of(9, 40), LocalTime.of(10, 0), 1));
+		List<SlotCountDto> taken = Arrays.asList(
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 0), LocalTime.of(9, 20), 1),
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 20), LocalTime.of(9, 40), 2),
+				new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 40), LocalTime.of(10, 0), 1));
+		List<RegistrationBookingEntity> bookings = Arrays.asList(
+				booking("1", LocalTime.of(9, 0), LocalTime.of(9, 20)),
+				booking("2", LocalTime.of(9, 20), LocalTime.of(9, 40)),
+				booking("3", LocalTime.of(9, 20), LocalTime.of(9, 40)),
+				booking("4", LocalTime.of(9, 40), LocalTime.of(10, 0)));
+
+		SlotChanges changes = availabilityGenerator.diff(generated, existing, taken, bookings);
+
+		/* 9:20 reshaped to 9:50 takes two bookings, the last one goes to 9:00 */
+		assertEquals(2, changes.getMoved().size());
+		assertEquals(3, changes.getMovedCount());
+		assertTrue(changes.getCancelled().isEmpty());
+		List<RegistrationBookingEntity> movedTo920 = changes.getMoved().get(generated.get(1));
+		assertEquals("2", movedTo920.get(0).getPreregistrationId());
+		assertEquals("3", movedTo920.get(1).getPreregistrationId());
+		assertEquals("4", changes.getMoved().get(generated.get(0)).get(0).getPreregistrationId());
+		assertEquals(1, changes.getUpdated().size());
+		assertEquals(-1, changes.getUpdated().get(0).getCount());
+		assertEquals(2, changes.getDeleted().size());
+		assertEquals(1, changes.getInserted().size());
+		assertEquals(0, changes.getInserted().get(0).getAvailableKiosks());
+		assertTrue(changes.getClearedDates().isEmpty());
+		assertEquals(0, changes.getKeptBooked());
+
+		SlotChanges holiday = availabilityGenerator.diff(
+				Collections.singletonList(slot(AvailabilityGenerator.HOLIDAY_TIME, AvailabilityGenerator.HOLIDAY_TIME, 0)),
+				existing, taken, bookings);
+		assertEquals(4, holiday.getCancelled().size());
+		assertEquals(Collections.singletonList(REG_DATE), holiday.getClearedDates());
+		assertTrue(holiday.getDeleted().isEmpty());
+		assertEquals(3, holiday.getDeletedCount());
+		assertEquals(1, holiday.getInserted().size());
+	}
+
+}
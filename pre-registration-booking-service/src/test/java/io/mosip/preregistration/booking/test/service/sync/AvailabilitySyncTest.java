@@ -0,0 +1,203 @@
+package io.mosip.preregistration.booking.test.service.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.AvailabilitySyncDto;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.inventory.SlotInventory;
+import io.mosip.preregistration.booking.service.sync.AvailabilityFingerprints;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator.SlotChanges;
+import io.mosip.preregistration.booking.service.sync.AvailabilitySync;
+import io.mosip.preregistration.booking.service.sync.AvailabilityWriter;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+import io.mosip.preregistration.booking.service.util.RegistrationCenterCache;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+import io.mosip.preregistration.core.exception.RestCallException;
+
+/**
+ * Test class for the parallel availability sync of the registration centers.
+ *
+ * @since 1.0.0
+ *
+ */
+public class AvailabilitySyncTest {
+
+	private BookingServiceUtil serviceUtil = Mockito.mock(BookingServiceUtil.class);
+
+	private BookingDAO bookingDAO = Mockito.mock(BookingDAO.class);
+
+	private SlotInventory slotInventory = Mockito.mock(SlotInventory.class);
+
+	private AvailabilityCache availabilityCache = Mockito.mock(AvailabilityCache.class);
+
+	private NextOpenSlotIndex nextOpenSlotIndex = Mockito.mock(NextOpenSlotIndex.class);
+
+	private RegistrationCenterCache regCenterCache = Mockito.mock(RegistrationCenterCache.class);
+
+	private AvailabilityWriter availabilityWriter = Mockito.mock(AvailabilityWriter.class);
+
+	private AvailabilityFingerprints availabilityFingerprints = new AvailabilityFingerprints();
+
+	private AvailabilitySync availabilitySync = new AvailabilitySync();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(availabilitySync, "syncDays", 2);
+		ReflectionTestUtils.setField(availabilitySync, "parallelism", 2);
+		ReflectionTestUtils.setField(availabilitySync, "serviceUtil", serviceUtil);
+		ReflectionTestUtils.setField(availabilitySync, "bookingDAO", bookingDAO);
+		ReflectionTestUtils.setField(availabilitySync, "availabilityGenerator", new AvailabilityGenerator());
+		ReflectionTestUtils.setField(availabilitySync, "availabilityFingerprints", availabilityFingerprints);
+		ReflectionTestUtils.setField(availabilitySync, "availabilityWriter", availabilityWriter);
+		ReflectionTestUtils.setField(availabilitySync, "slotInventory", slotInventory);
+		ReflectionTestUtils.setField(availabilitySync, "availabilityCache", availabilityCache);
+		ReflectionTestUtils.setField(availabilitySync, "nextOpenSlotIndex", nextOpenSlotIndex);
+		ReflectionTestUtils.setField(availabilitySync, "regCenterCache", regCenterCache);
+		availabilitySync.setupSync();
+	}
+
+	private static RegistrationCenterDto center(String id) {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(id);
+		center.setCenterStartTime(LocalTime.of(9, 0));
+		center.setCenterEndTime(LocalTime.of(10, 0));
+		center.setPerKioskProcessTime(LocalTime.of(0, 30));
+		center.setNumberOfKiosks((short) 2);
+		center.setIsActive(true);
+		return center;
+	}
+
+	private static AvailibityEntity slot(String regCenterId, LocalDate regDate, LocalTime fromTime, LocalTime toTime,
+			int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(regCenterId);
+		slot.setRegDate(regDate);
+		slot.setFromTime(fromTime);
+		slot.setToTime(toTime);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	@Test
+	public void syncWritesChangedCentersTest() {
+		LocalDate today = LocalDate.now();
+		RegistrationCenterDto synced = center("10001");
+		RegistrationCenterDto failing = center("10002");
+		when(serviceUtil.fetchAllRegCenterMasterData()).thenReturn(Arrays.asList(synced, failing, center("10001")));
+		when(serviceUtil.getHolidayListMasterData(synced, today, today.plusDays(1)))
+				.thenReturn(Collections.singleton(today.plusDays(1)));
+		when(serviceUtil.getHolidayListMasterData(failing, today, today.plusDays(1)))
+				.thenThrow(new RestCallException("PRG_BOOK_RCI_020", "MASTER_DATA_NOT_FOUND"));
+		when(bookingDAO.findAvailability("10001", today, today.plusDays(1))).thenReturn(
+				Collections.singletonList(slot("10001", today, LocalTime.of(9, 0), LocalTime.of(9, 30), 2)));
+
+		AvailabilitySyncDto outcome = availabilitySync.sync("sync-user");
+
+		assertEquals(today.toString(), outcome.getFromDate());
+		assertEquals(today.plusDays(1).toString(), outcome.getToDate());
+		assertEquals(1, outcome.getSyncedCenters());
+		assertEquals(Collections.singletonList("10002"), outcome.getFailedCenters());
+		assertEquals(2, outcome.getInsertedSlots());
+		assertEquals(0, outcome.getUpdatedSlots());
+		assertEquals(0, outcome.getDeletedSlots());
+		assertEquals(2, outcome.getChangedRows());
+		ArgumentCaptor<SlotChanges> changes = ArgumentCaptor.forClass(SlotChanges.class);
+		ArgumentCaptor<AvailabilityFingerprintEntity> fingerprint = ArgumentCaptor
+				.forClass(AvailabilityFingerprintEntity.class);
+		verify(availabilityWriter).write(eq("10001"), changes.capture(), fingerprint.capture(), eq("sync-user"));
+		List<AvailibityEntity> inserted = changes.getValue().getInserted();
+		assertEquals(LocalTime.of(9, 30), inserted.get(0).getFromTime());
+		assertEquals(AvailabilityGenerator.HOLIDAY_TIME, inserted.get(1).getFromTime());
+		assertEquals(today.plusDays(1).toString(), fingerprint.getValue().getHolidayDates());
+		assertEquals(today.plusDays(1), fingerprint.getValue().getSyncedTo());
+		verify(slotInventory).evict(any());
+		verify(availabilityCache).evict("10001");
+		verify(nextOpenSlotIndex).evict("10001");
+		verify(regCenterCache).evict("10001");
+		verify(availabilityCache, never()).evict("10002");
+		assertNotNull(outcome.toString());
+	}
+
+	@Test
+	public void unchangedCenterIsSkippedTest() {
+		LocalDate today = LocalDate.now();
+		RegistrationCenterDto center = center("10001");
+		when(serviceUtil.fetchAllRegCenterMasterData()).thenReturn(Collections.singletonList(center));
+		when(serviceUtil.getHolidayListMasterData(center, today, today.plusDays(1)))
+				.thenReturn(Collections.emptySet());
+		when(bookingDAO.findAvailabilityFingerprints()).thenReturn(Collections.singletonList(
+				availabilityFingerprints.fingerprint(center, Collections.emptySet(), today, today.plusDays(1), "")));
+
+		AvailabilitySyncDto outcome = availabilitySync.sync("sync-user");
+
+		assertEquals(0, outcome.getSyncedCenters());
+		assertEquals(1, outcome.getSkippedCenters());
+		assertEquals(0, outcome.getChangedRows());
+		verify(bookingDAO, never()).findAvailability(any(), any(), any());
+		verify(availabilityWriter, never()).write(any(), any(), any(), any());
+		verify(regCenterCache, never()).evict(any());
+	}
+
+	@Test
+	public void newHolidayCancelsOrMovesBookingsTest() {
+		LocalDate today = LocalDate.now();
+		LocalDate tomorrow = today.plusDays(1);
+		RegistrationCenterDto center = center("10001");
+		when(serviceUtil.fetchAllRegCenterMasterData()).thenReturn(Collections.singletonList(center));
+		when(serviceUtil.getHolidayListMasterData(center, today, tomorrow))
+				.thenReturn(Collections.singleton(tomorrow));
+		when(bookingDAO.findAvailabilityFingerprints()).thenReturn(Collections.singletonList(
+				availabilityFingerprints.fingerprint(center, Collections.emptySet(), today, tomorrow, "")));
+		when(bookingDAO.findAvailability("10001", tomorrow, tomorrow)).thenReturn(
+				Arrays.asList(slot("10001", tomorrow, LocalTime.of(9, 0), LocalTime.of(9, 30), 1),
+						slot("10001", tomorrow, LocalTime.of(9, 30), LocalTime.of(10, 0), 2)));
+		when(bookingDAO.findTakenKiosks("10001", tomorrow, tomorrow)).thenReturn(Collections
+				.singletonList(new SlotCountDto("10001", tomorrow, LocalTime.of(9, 0), LocalTime.of(9, 30), 1)));
+		RegistrationBookingEntity booking = new RegistrationBookingEntity();
+		booking.setPreregistrationId("98746563542672");
+		booking.setRegistrationCenterId("10001");
+		booking.setRegDate(tomorrow);
+		booking.setSlotFromTime(LocalTime.of(9, 0));
+		booking.setSlotToTime(LocalTime.of(9, 30));
+		when(bookingDAO.findAllPreIds("10001", tomorrow)).thenReturn(Collections.singletonList(booking));
+
+		AvailabilitySyncDto outcome = availabilitySync.sync("sync-user");
+
+		assertEquals(1, outcome.getSyncedCenters());
+		assertEquals(1, outcome.getCancelledBookings());
+		assertEquals(2, outcome.getDeletedSlots());
+		assertEquals(1, outcome.getInsertedSlots());
+		assertEquals(4, outcome.getChangedRows());
+		verify(bookingDAO, never()).findAllPreIds("10001", today);
+		ArgumentCaptor<SlotChanges> changes = ArgumentCaptor.forClass(SlotChanges.class);
+		verify(availabilityWriter).write(eq("10001"), changes.capture(), any(), eq("sync-user"));
+		assertEquals(Collections.singletonList(tomorrow), changes.getValue().getClearedDates());
+		assertEquals(Collections.singletonList(booking), changes.getValue().getCancelled());
+	}
+
+}
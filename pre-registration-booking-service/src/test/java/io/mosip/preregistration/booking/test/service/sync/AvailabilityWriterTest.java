@@ -0,0 +1,119 @@
+package io.mosip.preregistration.booking.test.service.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.SlotCountDto;
+import io.mosip.preregistration.booking.entity.AvailabilityFingerprintEntity;
+import io.mosip.preregistration.booking.entity.AvailibityEntity;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.AvailabilityUpdationFailedException;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator;
+import io.mosip.preregistration.booking.service.sync.AvailabilityGenerator.SlotChanges;
+import io.mosip.preregistration.booking.service.sync.AvailabilityWriter;
+import io.mosip.preregistration.core.common.entity.RegistrationBookingEntity;
+
+/**
+ * Test class for the guarded write of the slot changes of a center.
+ *
+ * @since 1.0.0
+ *
+ */
+public class AvailabilityWriterTest {
+
+	private static final String REG_CENTER_ID = "10001";
+	private static final LocalDate REG_DATE = LocalDate.of(2019, 6, 10);
+
+	private BookingDAO bookingDAO = Mockito.mock(BookingDAO.class);
+
+	private AvailabilityWriter availabilityWriter = new AvailabilityWriter();
+
+	private AvailabilityFingerprintEntity fingerprint = new AvailabilityFingerprintEntity();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(availabilityWriter, "bookingDAO", bookingDAO);
+	}
+
+	private static AvailibityEntity slot(LocalTime fromTime, LocalTime toTime, int kiosks) {
+		AvailibityEntity slot = new AvailibityEntity();
+		slot.setRegcntrId(REG_CENTER_ID);
+		slot.setRegDate(REG_DATE);
+		slot.setFromTime(fromTime);
+		slot.setToTime(toTime);
+		slot.setAvailableKiosks(kiosks);
+		return slot;
+	}
+
+	private static RegistrationBookingEntity booking(String preId, LocalTime fromTime, LocalTime toTime) {
+		RegistrationBookingEntity booking = new RegistrationBookingEntity();
+		booking.setPreregistrationId(preId);
+		booking.setRegistrationCenterId(REG_CENTER_ID);
+		booking.setRegDate(REG_DATE);
+		booking.setSlotFromTime(fromTime);
+		booking.setSlotToTime(toTime);
+		return booking;
+	}
+
+	/** The only slot of the day reshaped to end at 9:50, with its bookings. */
+	private static SlotChanges reshapedSlot() {
+		return new AvailabilityGenerator().diff(
+				Collections.singletonList(slot(LocalTime.of(9, 20), LocalTime.of(9, 50), 2)),
+				Collections.singletonList(slot(LocalTime.of(9, 20), LocalTime.of(9, 40), 0)),
+				Collections.singletonList(
+						new SlotCountDto(REG_CENTER_ID, REG_DATE, LocalTime.of(9, 20), LocalTime.of(9, 40), 2)),
+				Arrays.asList(booking("1", LocalTime.of(9, 20), LocalTime.of(9, 40)),
+						booking("2", LocalTime.of(9, 20), LocalTime.of(9, 40))));
+	}
+
+	@Test
+	public void bookingRebookedMeanwhileIsSkippedTest() {
+		when(bookingDAO.lockBookings(anyList())).thenReturn(Arrays.asList(
+				booking("1", LocalTime.of(9, 20), LocalTime.of(9, 40)),
+				booking("2", LocalTime.of(11, 0), LocalTime.of(11, 20))));
+		when(bookingDAO.deleteSlots(REG_CENTER_ID, REG_DATE)).thenReturn(1);
+
+		assertEquals(1, availabilityWriter.write(REG_CENTER_ID, reshapedSlot(), fingerprint, "sync"));
+
+		verify(bookingDAO).moveBookings(eq(Collections.singletonList("1")), eq(REG_CENTER_ID), eq(REG_DATE),
+				eq(LocalTime.of(9, 20)), eq(LocalTime.of(9, 50)), eq("sync"));
+		verify(bookingDAO).saveBookingChanges(Mockito.argThat(changes -> ((List<?>) changes).size() == 1));
+		verify(bookingDAO).saveAvailabilityFingerprint(fingerprint);
+	}
+
+	@Test
+	public void slotBookedMeanwhileFailsTheCenterTest() {
+		when(bookingDAO.lockBookings(anyList())).thenReturn(Arrays.asList(
+				booking("1", LocalTime.of(9, 20), LocalTime.of(9, 40)),
+				booking("2", LocalTime.of(9, 20), LocalTime.of(9, 40))));
+		when(bookingDAO.deleteSlots(REG_CENTER_ID, REG_DATE)).thenReturn(0);
+
+		try {
+			availabilityWriter.write(REG_CENTER_ID, reshapedSlot(), fingerprint, "sync");
+			fail();
+		} catch (AvailabilityUpdationFailedException ex) {
+			assertEquals(ErrorCodes.PRG_BOOK_RCI_046.getCode(), ex.getErrorCode());
+		}
+		verify(bookingDAO, never()).applyAvailabilityChanges(anyList(), anyList(), anyList(), any());
+		verify(bookingDAO, never()).saveAvailabilityFingerprint(any());
+	}
+
+}
@@ -0,0 +1,233 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.exception.DemographicGetStatusException;
+import io.mosip.preregistration.booking.service.util.ApplicationStatusClient;
+import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.core.code.StatusCodes;
+import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
+import io.mosip.preregistration.core.common.dto.MainResponseDTO;
+
+/**
+ * Test class for the bulk application status client.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ApplicationStatusClientTest {
+
+	private static final List<String> PRE_IDS = Arrays.asList("98746563542672", "98746563542673", "98746563542674",
+			"98746563542675", "98746563542676", "98746563542677", "98746563542678", "98746563542679");
+
+	private static final long REMOTE_MILLIS = 100;
+
+	@Mock
+	private BookingServiceUtil serviceUtil;
+
+	@Mock
+	private RestTemplate restTemplate;
+
+	@InjectMocks
+	private ApplicationStatusClient statusClient;
+
+	private SecurityContext securityContext;
+
+	private final Set<SecurityContext> seenContexts = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(statusClient, "parallelism", 4);
+		ReflectionTestUtils.setField(statusClient, "timeoutMillis", 30000L);
+		securityContext = new SecurityContextImpl();
+		securityContext.setAuthentication(Mockito.mock(Authentication.class));
+		SecurityContextHolder.setContext(securityContext);
+		when(serviceUtil.getApplicationBookingStatus(anyString())).thenAnswer(invocation -> {
+			seenContexts.add(SecurityContextHolder.getContext());
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			Thread.sleep(REMOTE_MILLIS);
+			inFlight.decrementAndGet();
+			return StatusCodes.PENDING_APPOINTMENT.getCode();
+		});
+	}
+
+	@After
+	public void tearDown() {
+		statusClient.shutdown();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void parallelFallbackTest() {
+		statusClient.setupPool();
+		long start = System.nanoTime();
+
+		Map<String, String> statuses = statusClient.getApplicationStatuses(PRE_IDS);
+
+		long elapsedMillis = (System.nanoTime() - start) / 1000000;
+		assertEquals(PRE_IDS, Arrays.asList(statuses.keySet().toArray()));
+		assertEquals(StatusCodes.PENDING_APPOINTMENT.getCode(), statuses.get(PRE_IDS.get(7)));
+		assertEquals(4, maxInFlight.get());
+		assertTrue("took " + elapsedMillis + " ms", elapsedMillis < PRE_IDS.size() * REMOTE_MILLIS);
+		assertEquals(1, seenContexts.size());
+		assertSame(securityContext, seenContexts.iterator().next());
+	}
+
+	@Test(expected = DemographicGetStatusException.class)
+	public void parallelFallbackFailureTest() {
+		statusClient.setupPool();
+		when(serviceUtil.getApplicationBookingStatus(PRE_IDS.get(3)))
+				.thenThrow(new DemographicGetStatusException(ErrorCodes.PRG_BOOK_RCI_036.getCode(),
+						ErrorMessages.APPOINTMENT_CANNOT_BE_BOOKED_FOR_INCOMPLETE_APPLICATION.getMessage()));
+		statusClient.getApplicationStatuses(PRE_IDS);
+	}
+
+	@Test
+	public void bulkRequestTest() {
+		ReflectionTestUtils.setField(statusClient, "bulkStatusUrl", "http://localhost:9092/applications/status");
+		statusClient.setupPool();
+		Map<String, String> bulk = new HashMap<>();
+		PRE_IDS.forEach(preId -> bulk.put(preId, StatusCodes.BOOKED.getCode()));
+		MainResponseDTO<Map<String, String>> body = new MainResponseDTO<>();
+		body.setResponse(bulk);
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+		Map<String, String> statuses = statusClient.getApplicationStatuses(PRE_IDS);
+
+		assertEquals(StatusCodes.BOOKED.getCode(), statuses.get(PRE_IDS.get(0)));
+		verify(serviceUtil, never()).getApplicationBookingStatus(anyString());
+	}
+
+	@Test
+	public void bulkMissingStatusFallsBackTest() {
+		ReflectionTestUtils.setField(statusClient, "bulkStatusUrl", "http://localhost:9092/applications/status");
+		statusClient.setupPool();
+		Map<String, String> bulk = new HashMap<>();
+		PRE_IDS.forEach(preId -> bulk.put(preId, StatusCodes.BOOKED.getCode()));
+		bulk.put(PRE_IDS.get(2), null);
+		bulk.remove(PRE_IDS.get(5));
+		bulk.put("98746563542699", StatusCodes.BOOKED.getCode());
+		MainResponseDTO<Map<String, String>> body = new MainResponseDTO<>();
+		body.setResponse(bulk);
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+		Map<String, String> statuses = statusClient.getApplicationStatuses(PRE_IDS);
+
+		assertEquals(PRE_IDS, Arrays.asList(statuses.keySet().toArray()));
+		assertEquals(StatusCodes.PENDING_APPOINTMENT.getCode(), statuses.get(PRE_IDS.get(2)));
+		assertEquals(StatusCodes.PENDING_APPOINTMENT.getCode(), statuses.get(PRE_IDS.get(5)));
+		assertEquals(StatusCodes.BOOKED.getCode(), statuses.get(PRE_IDS.get(0)));
+		verify(serviceUtil, times(2)).getApplicationBookingStatus(anyString());
+	}
+
+	@Test
+	public void bulkNotAvailableTest() {
+		ReflectionTestUtils.setField(statusClient, "bulkStatusUrl", "http://localhost:9092/applications/status");
+		statusClient.setupPool();
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+		statusClient.getApplicationStatuses(PRE_IDS);
+		statusClient.getApplicationStatuses(PRE_IDS);
+
+		verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class));
+		verify(serviceUtil, times(2 * PRE_IDS.size())).getApplicationBookingStatus(anyString());
+	}
+
+	@Test
+	public void statusResponsesKeepPerIdErrorsTest() {
+		statusClient.setupPool();
+		MainResponseDTO<String> notOwned = new MainResponseDTO<>();
+		notOwned.setErrors(Collections.singletonList(
+				new ExceptionJSONInfoDTO("PRG_PAM_APP_017", "Requested preregistration id does not belong to the user")));
+		MainResponseDTO<String> owned = new MainResponseDTO<>();
+		owned.setResponse(StatusCodes.BOOKED.getCode());
+		when(serviceUtil.getApplicationStatus(anyString())).thenReturn(owned);
+		when(serviceUtil.getApplicationStatus(PRE_IDS.get(7))).thenReturn(notOwned);
+
+		Map<String, MainResponseDTO<String>> responses = statusClient.getApplicationStatusResponses(PRE_IDS);
+
+		assertEquals(PRE_IDS, Arrays.asList(responses.keySet().toArray()));
+		assertEquals(StatusCodes.BOOKED.getCode(), responses.get(PRE_IDS.get(0)).getResponse());
+		assertEquals("PRG_PAM_APP_017", responses.get(PRE_IDS.get(7)).getErrors().get(0).getErrorCode());
+		verify(serviceUtil, times(PRE_IDS.size())).getApplicationStatus(anyString());
+		verify(serviceUtil, never()).getApplicationBookingStatus(anyString());
+	}
+
+	@Test
+	public void bulkStatusResponsesOfOtherUsersTest() {
+		ReflectionTestUtils.setField(statusClient, "bulkStatusUrl", "http://localhost:9092/applications/status");
+		statusClient.setupPool();
+		Map<String, String> bulk = new HashMap<>();
+		PRE_IDS.subList(0, 7).forEach(preId -> bulk.put(preId, StatusCodes.BOOKED.getCode()));
+		bulk.put(PRE_IDS.get(6), null);
+		MainResponseDTO<Map<String, String>> body = new MainResponseDTO<>();
+		body.setResponse(bulk);
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+		Map<String, MainResponseDTO<String>> responses = statusClient.getApplicationStatusResponses(PRE_IDS);
+
+		assertEquals(PRE_IDS, Arrays.asList(responses.keySet().toArray()));
+		assertEquals(StatusCodes.BOOKED.getCode(), responses.get(PRE_IDS.get(5)).getResponse());
+		assertNull(responses.get(PRE_IDS.get(5)).getErrors());
+		/* Mapped to no status or left out, the id is not the caller's */
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_049.getCode(),
+				responses.get(PRE_IDS.get(6)).getErrors().get(0).getErrorCode());
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_049.getCode(),
+				responses.get(PRE_IDS.get(7)).getErrors().get(0).getErrorCode());
+		assertNull(responses.get(PRE_IDS.get(7)).getResponse());
+		verify(serviceUtil, never()).getApplicationStatus(anyString());
+	}
+
+}
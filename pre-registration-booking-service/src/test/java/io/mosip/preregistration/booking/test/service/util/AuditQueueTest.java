@@ -0,0 +1,278 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.service.util.AuditQueue;
+import io.mosip.preregistration.booking.service.util.AuditQueue.OverflowPolicy;
+import io.mosip.preregistration.core.common.dto.AuditRequestDto;
+import io.mosip.preregistration.core.util.AuditLogUtil;
+
+/**
+ * Test class for the asynchronous audit queue.
+ *
+ * @since 1.0.0
+ *
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AuditQueueTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private AuditLogUtil auditLogUtil;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private File spillFile;
+
+	private AuditQueue auditQueue;
+
+	private final CountDownLatch workerBusy = new CountDownLatch(1);
+
+	private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+	private final Set<Authentication> seenAuthentications = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> rejectedOnce = ConcurrentHashMap.newKeySet();
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		spillFile = new File(folder.getRoot(), "audit.ndjson");
+		doAnswer(invocation -> {
+			seenAuthentications.add(SecurityContextHolder.getContext().getAuthentication());
+			workerBusy.countDown();
+			releaseWorker.await(10, TimeUnit.SECONDS);
+			AuditRequestDto record = invocation.getArgument(0);
+			return !rejected.contains(record.getId()) && !rejectedOnce.remove(record.getId());
+		}).when(auditLogUtil).callAuditManager(any(AuditRequestDto.class));
+		SecurityContextHolder.getContext().setAuthentication(Mockito.mock(Authentication.class));
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		releaseWorker.countDown();
+		auditQueue.flush();
+		SecurityContextHolder.clearContext();
+	}
+
+	private AuditQueue start(int capacity, OverflowPolicy overflowPolicy) {
+		AuditQueue queue = new AuditQueue();
+		ReflectionTestUtils.setField(queue, "auditLogUtil", auditLogUtil);
+		ReflectionTestUtils.setField(queue, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(queue, "capacity", capacity);
+		ReflectionTestUtils.setField(queue, "batchSize", 10);
+		ReflectionTestUtils.setField(queue, "overflowPolicy", overflowPolicy);
+		ReflectionTestUtils.setField(queue, "blockTimeoutMillis", 5000L);
+		ReflectionTestUtils.setField(queue, "spillFile", spillFile.getPath());
+		ReflectionTestUtils.setField(queue, "shutdownTimeoutSeconds", 10L);
+		ReflectionTestUtils.setField(queue, "retryDelayMillis", 10L);
+		queue.start();
+		return queue;
+	}
+
+	private AuditRequestDto audit(String id) {
+		AuditRequestDto auditRequestDto = new AuditRequestDto();
+		auditRequestDto.setEventId("PRE_402");
+		auditRequestDto.setId(id);
+		auditRequestDto.setSessionUserId("user");
+		return auditRequestDto;
+	}
+
+	private double records(String result) {
+		return meterRegistry.get("prereg.booking.audit.records").tag("result", result).counter().count();
+	}
+
+	/** Fills the queue while the worker is stuck on a slow audit manager. */
+	private void submitWhileWorkerBusy(int records) throws InterruptedException {
+		auditQueue.submit(audit("0"));
+		assertTrue(workerBusy.await(10, TimeUnit.SECONDS));
+		long start = System.nanoTime();
+		for (int i = 1; i <= records; i++) {
+			auditQueue.submit(audit(String.valueOf(i)));
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void flushSendsQueuedRecordsTest() throws InterruptedException {
+		auditQueue = start(100, OverflowPolicy.DROP);
+		submitWhileWorkerBusy(20);
+		releaseWorker.countDown();
+		auditQueue.flush();
+
+		ArgumentCaptor<AuditRequestDto> records = ArgumentCaptor.forClass(AuditRequestDto.class);
+		verify(auditLogUtil, times(21)).callAuditManager(records.capture());
+		verify(auditLogUtil, never()).saveAuditDetails(any(AuditRequestDto.class));
+		assertTrue(records.getAllValues().stream().allMatch(record -> record.getActionTimeStamp() != null
+				&& "user".equals(record.getSessionUserId()) && "SYSTEM".equals(record.getCreatedBy())));
+		assertEquals(21, records("sent"), 0);
+		assertEquals(1, seenAuthentications.size());
+		assertEquals(0, auditQueue.size());
+	}
+
+	@Test
+	public void dropPolicyTest() throws InterruptedException {
+		auditQueue = start(2, OverflowPolicy.DROP);
+		submitWhileWorkerBusy(5);
+
+		assertEquals(3, records("dropped"), 0);
+		assertEquals(2, auditQueue.size());
+	}
+
+	@Test
+	public void blockPolicyTest() throws InterruptedException {
+		auditQueue = start(1, OverflowPolicy.BLOCK);
+		auditQueue.submit(audit("0"));
+		assertTrue(workerBusy.await(10, TimeUnit.SECONDS));
+		auditQueue.submit(audit("1"));
+		new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			releaseWorker.countDown();
+		}).start();
+		auditQueue.submit(audit("2"));
+		auditQueue.flush();
+
+		assertEquals(0, records("dropped"), 0);
+		assertEquals(3, records("sent"), 0);
+	}
+
+	@Test
+	public void submitCompletesTheRecordTest() throws InterruptedException {
+		auditQueue = start(100, OverflowPolicy.DROP);
+		AuditRequestDto auditRequestDto = audit("");
+		auditRequestDto.setSessionUserName(null);
+		LocalDateTime before = LocalDateTime.now(ZoneId.of("UTC"));
+		auditQueue.submit(auditRequestDto);
+		releaseWorker.countDown();
+		auditQueue.flush();
+
+		ArgumentCaptor<AuditRequestDto> record = ArgumentCaptor.forClass(AuditRequestDto.class);
+		verify(auditLogUtil).callAuditManager(record.capture());
+		assertTrue(!record.getValue().getActionTimeStamp().isBefore(before));
+		assertEquals("NO_ID", record.getValue().getId());
+		assertEquals("SYSTEM", record.getValue().getSessionUserName());
+		assertNull(auditRequestDto.getActionTimeStamp());
+	}
+
+	@Test
+	public void spillPolicyTest() throws InterruptedException, IOException {
+		auditQueue = start(3, OverflowPolicy.SPILL);
+		submitWhileWorkerBusy(6);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (records("spilled") < 3 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(3, records("spilled"), 0);
+		assertEquals(3, Files.readAllLines(spillFile.toPath()).size());
+		releaseWorker.countDown();
+		auditQueue.flush();
+		verify(auditLogUtil, times(7)).callAuditManager(any(AuditRequestDto.class));
+		assertTrue(!spillFile.exists());
+	}
+
+	@Test
+	public void rejectedSpilledRecordsStayInTheFileTest() throws InterruptedException, IOException {
+		List<String> lines = new ArrayList<>();
+		for (String id : Arrays.asList("s0", "s1", "s2")) {
+			lines.add(mapper.writeValueAsString(audit(id)));
+		}
+		Files.write(spillFile.toPath(), lines);
+		rejected.add("s1");
+		releaseWorker.countDown();
+
+		auditQueue = start(100, OverflowPolicy.SPILL);
+		auditQueue.submit(audit("0"));
+		auditQueue.flush();
+
+		assertEquals(2, records("sent"), 0);
+		assertEquals(1, records("failed"), 0);
+		assertEquals(lines.subList(1, 3), Files.readAllLines(spillFile.toPath()));
+	}
+
+	@Test
+	public void rejectedRecordsAreSpilledTest() throws InterruptedException, IOException {
+		auditQueue = start(100, OverflowPolicy.SPILL);
+		rejected.add("1");
+		submitWhileWorkerBusy(2);
+		releaseWorker.countDown();
+		auditQueue.flush();
+
+		assertEquals(1, records("sent"), 0);
+		assertEquals(1, records("failed"), 0);
+		assertEquals(2, records("spilled"), 0);
+		assertEquals(0, records("dropped"), 0);
+		List<String> lines = Files.readAllLines(spillFile.toPath());
+		assertEquals(2, lines.size());
+		assertEquals("1", mapper.readValue(lines.get(0), AuditRequestDto.class).getId());
+		assertEquals("2", mapper.readValue(lines.get(1), AuditRequestDto.class).getId());
+	}
+
+	@Test
+	public void rejectedRecordsAreQueuedAgainTest() throws InterruptedException {
+		auditQueue = start(100, OverflowPolicy.DROP);
+		rejectedOnce.add("1");
+		submitWhileWorkerBusy(2);
+		releaseWorker.countDown();
+		auditQueue.flush();
+
+		ArgumentCaptor<AuditRequestDto> records = ArgumentCaptor.forClass(AuditRequestDto.class);
+		verify(auditLogUtil, times(4)).callAuditManager(records.capture());
+		List<String> ids = new ArrayList<>();
+		records.getAllValues().forEach(record -> ids.add(record.getId()));
+		assertEquals(Arrays.asList("0", "1", "1", "2"), ids);
+		assertEquals(3, records("sent"), 0);
+		assertEquals(1, records("failed"), 0);
+		assertEquals(0, records("dropped"), 0);
+		assertEquals(0, auditQueue.size());
+	}
+
+}
@@ -0,0 +1,125 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.dto.AvailabilityDto;
+import io.mosip.preregistration.booking.dto.AvailabilitySummaryDto;
+import io.mosip.preregistration.booking.service.util.AvailabilityCache;
+import io.mosip.preregistration.booking.service.util.TtlCache;
+
+/**
+ * Test class for the availability calendar cache.
+ *
+ * @since 1.0.0
+ *
+ */
+public class AvailabilityCacheTest {
+
+	private static final LocalDate FROM_DATE = LocalDate.of(2019, 6, 10);
+
+	private AvailabilityCache availabilityCache;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		availabilityCache = new AvailabilityCache();
+		ReflectionTestUtils.setField(availabilityCache, "maxSize", 2);
+		ReflectionTestUtils.setField(availabilityCache, "ttlSeconds", 30L);
+		ReflectionTestUtils.setField(availabilityCache, "meterRegistry", meterRegistry);
+		availabilityCache.setupCache();
+	}
+
+	@Test
+	public void hitAndMissTest() {
+		AvailabilityDto availability = new AvailabilityDto();
+		assertNull(availabilityCache.get("10001", FROM_DATE));
+		availabilityCache.put("10001", FROM_DATE, availability, 0L);
+
+		assertSame(availability, availabilityCache.get("10001", FROM_DATE));
+		assertNull(availabilityCache.get("10001", FROM_DATE.plusDays(1)));
+
+		assertEquals(1, availabilityCache.hitCount(), 0);
+		assertEquals(2, availabilityCache.missCount(), 0);
+		assertEquals(1, meterRegistry.get("prereg.booking.availability.cache.requests").tag("cache", "calendar")
+				.tag("result", "hit").counter().count(), 0);
+		assertEquals(1, meterRegistry.get("prereg.booking.availability.cache.size").tag("cache", "calendar").gauge()
+				.value(), 0);
+	}
+
+	@Test
+	public void evictTest() {
+		availabilityCache.put("10001", FROM_DATE, new AvailabilityDto(), 0L);
+		availabilityCache.put("10002", FROM_DATE, new AvailabilityDto(), 0L);
+		availabilityCache.evict("10001");
+
+		assertNull(availabilityCache.get("10001", FROM_DATE));
+		assertEquals(AvailabilityDto.class, availabilityCache.get("10002", FROM_DATE).getClass());
+	}
+
+	@Test
+	public void summaryRangeAndEvictTest() {
+		AvailabilitySummaryDto summary = new AvailabilitySummaryDto();
+		availabilityCache.putSummary("10001", FROM_DATE, FROM_DATE.plusDays(30), summary, 0L);
+
+		assertSame(summary, availabilityCache.getSummary("10001", FROM_DATE, FROM_DATE.plusDays(30)));
+		assertNull(availabilityCache.getSummary("10001", FROM_DATE, FROM_DATE.plusDays(6)));
+
+		availabilityCache.evict("10001");
+		assertNull(availabilityCache.getSummary("10001", FROM_DATE, FROM_DATE.plusDays(30)));
+		assertEquals(1, meterRegistry.get("prereg.booking.availability.cache.requests").tag("cache", "summary")
+				.tag("result", "hit").counter().count(), 0);
+		assertEquals(2, meterRegistry.get("prereg.booking.availability.cache.requests").tag("cache", "summary")
+				.tag("result", "miss").counter().count(), 0);
+		assertEquals(0, meterRegistry.get("prereg.booking.availability.cache.requests").tag("cache", "calendar")
+				.tag("result", "miss").counter().count(), 0);
+	}
+
+	@Test
+	public void readBeforeEvictionIsNotPutTest() {
+		long generation = availabilityCache.generation("10001");
+		availabilityCache.evict("10001");
+
+		availabilityCache.put("10001", FROM_DATE, new AvailabilityDto(), generation);
+		availabilityCache.putSummary("10001", FROM_DATE, FROM_DATE.plusDays(30), new AvailabilitySummaryDto(),
+				generation);
+		assertNull(availabilityCache.get("10001", FROM_DATE));
+		assertNull(availabilityCache.getSummary("10001", FROM_DATE, FROM_DATE.plusDays(30)));
+
+		AvailabilityDto availability = new AvailabilityDto();
+		availabilityCache.put("10001", FROM_DATE, availability, availabilityCache.generation("10001"));
+		assertSame(availability, availabilityCache.get("10001", FROM_DATE));
+	}
+
+	@Test
+	public void ttlCacheExpiryAndBoundTest() {
+		AtomicLong now = new AtomicLong();
+		TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofSeconds(10), now::get);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals("1", cache.get("a"));
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertNull(cache.get("a"));
+		assertNull(cache.get("c"));
+	}
+
+}
@@ -0,0 +1,125 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.TooManyBookingRequestsException;
+import io.mosip.preregistration.booking.service.util.BookingAdmissionControl;
+import io.mosip.preregistration.booking.service.util.BookingAdmissionControl.Admission;
+
+/**
+ * Test class for the admission control of booking requests.
+ *
+ * @since 1.0.0
+ *
+ */
+public class BookingAdmissionControlTest {
+
+	private static TooManyBookingRequestsException rejected(BookingAdmissionControl admissionControl,
+			List<String> registrationCenterIds) {
+		try (Admission admission = admissionControl.admit(registrationCenterIds)) {
+			fail("Request admitted over the limit");
+			return null;
+		} catch (TooManyBookingRequestsException ex) {
+			return ex;
+		}
+	}
+
+	@Test
+	public void centerAndGlobalLimitsTest() {
+		BookingAdmissionControl admissionControl = new BookingAdmissionControl(2, 1, 10, 100, 5);
+
+		Admission first = admissionControl.admit(Collections.singletonList("10001"));
+		TooManyBookingRequestsException ex = rejected(admissionControl, Collections.singletonList("10001"));
+		assertEquals(ErrorCodes.PRG_BOOK_RCI_043.getCode(), ex.getErrorCode());
+		assertTrue(ex.getRetryAfterSeconds() >= 5 && ex.getRetryAfterSeconds() <= 10);
+
+		Admission second = admissionControl.admit(Collections.singletonList("10002"));
+		rejected(admissionControl, Collections.singletonList("10003"));
+		rejected(admissionControl, Collections.emptyList());
+
+		first.close();
+		first.close();
+		try (Admission third = admissionControl.admit(Arrays.asList("10001", null))) {
+			rejected(admissionControl, Collections.singletonList("10003"));
+		}
+		second.close();
+		admissionControl.admit(Arrays.asList("10001", "10002")).close();
+	}
+
+	@Test
+	public void unusedCentersAreForgottenTest() {
+		BookingAdmissionControl admissionControl = new BookingAdmissionControl(10, 1, 10, 50, 5);
+		Map<?, ?> centerPermits = (Map<?, ?>) ReflectionTestUtils.getField(admissionControl, "centerPermits");
+
+		Admission first = admissionControl.admit(Arrays.asList("10001", "10002"));
+		rejected(admissionControl, Arrays.asList("10002", "unknown"));
+		assertEquals(2, centerPermits.size());
+		for (int i = 0; i < 100; i++) {
+			admissionControl.admit(Collections.singletonList("unknown-" + i)).close();
+		}
+		assertEquals(2, centerPermits.size());
+
+		first.close();
+		assertTrue(centerPermits.isEmpty());
+	}
+
+	@Test
+	public void fullQueueRejectsAtOnceTest() throws Exception {
+		BookingAdmissionControl admissionControl = new BookingAdmissionControl(1, 10, 1, 10000, 5);
+		Admission first = admissionControl.admit(Collections.emptyList());
+		CountDownLatch admitted = new CountDownLatch(1);
+		Thread waiter = new Thread(() -> {
+			try (Admission admission = admissionControl.admit(Collections.emptyList())) {
+				admitted.countDown();
+			}
+		});
+		waiter.start();
+		TimeUnit.MILLISECONDS.sleep(200);
+
+		long start = System.nanoTime();
+		rejected(admissionControl, Collections.emptyList());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+		first.close();
+		assertTrue(admitted.await(5, TimeUnit.SECONDS));
+		waiter.join(5000);
+	}
+
+	@Test
+	public void waitingRequestsAreAdmittedInOrderTest() throws Exception {
+		BookingAdmissionControl admissionControl = new BookingAdmissionControl(1, 10, 10, 10000, 5);
+		Admission first = admissionControl.admit(Collections.singletonList("10001"));
+		List<Integer> order = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(5);
+		for (int i = 0; i < 5; i++) {
+			int request = i;
+			new Thread(() -> {
+				try (Admission admission = admissionControl.admit(Collections.singletonList("10001"))) {
+					order.add(request);
+				} finally {
+					done.countDown();
+				}
+			}).start();
+			TimeUnit.MILLISECONDS.sleep(50);
+		}
+
+		first.close();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+	}
+
+}
@@ -0,0 +1,85 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mosip.preregistration.booking.service.util.BookingLock;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingLockManager.SlotLocks;
+
+/**
+ * Benchmark of the per slot booking lock manager, run with the benchmark
+ * profile.
+ *
+ * @since 1.0.0
+ *
+ */
+public class BookingLockManagerBenchmark {
+
+	private static final LocalDate DATE = LocalDate.of(2019, 6, 10);
+
+	private static final int THREADS = 8;
+
+	private static final int OPS_PER_THREAD = 50;
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * Throughput of 8 bookers with a 1ms critical section, spread over an
+	 * increasing number of distinct slots. With the former JVM wide monitor the
+	 * throughput was flat; per slot locking scales with the number of slots.
+	 */
+	@Test
+	public void throughputByDistinctSlotsBenchmark() throws Exception {
+		double single = throughput(1);
+		double four = throughput(4);
+		double eight = throughput(8);
+		logger.info(String.format("Booking lock throughput (ops/s) slots=1: %.0f, slots=4: %.0f, slots=8: %.0f",
+				single, four, eight));
+	}
+
+	private double throughput(int distinctSlots) throws Exception {
+		BookingLockManager manager = new BookingLockManager(1024, 5000);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch done = new CountDownLatch(THREADS);
+		AtomicLong ops = new AtomicLong();
+		long start = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			BookingLock key = new BookingLock("1000" + (t % distinctSlots), DATE,
+					LocalTime.of(9 + (t % distinctSlots), 0));
+			pool.submit(() -> {
+				try {
+					for (int i = 0; i < OPS_PER_THREAD; i++) {
+						try (SlotLocks locks = manager.lock(Collections.singletonList(key))) {
+							Thread.sleep(1);
+							ops.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(60, TimeUnit.SECONDS));
+		double rate = ops.get() / ((System.nanoTime() - start) / 1e9);
+		pool.shutdown();
+		assertEquals(THREADS * OPS_PER_THREAD, ops.get());
+		return rate;
+	}
+
+}
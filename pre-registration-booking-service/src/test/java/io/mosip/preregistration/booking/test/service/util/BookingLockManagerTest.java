@@ -0,0 +1,121 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.AppointmentBookingFailedException;
+import io.mosip.preregistration.booking.service.util.BookingLock;
+import io.mosip.preregistration.booking.service.util.BookingLockManager;
+import io.mosip.preregistration.booking.service.util.BookingLockManager.SlotLocks;
+
+/**
+ * Test class for the per slot booking lock manager.
+ *
+ * @since 1.0.0
+ *
+ */
+public class BookingLockManagerTest {
+
+	private static final LocalDate DATE = LocalDate.of(2019, 6, 10);
+
+	private BookingLock slot(String center, int hour) {
+		return new BookingLock(center, DATE, LocalTime.of(hour, 0));
+	}
+
+	@Test
+	public void sameSlotKeyEqualityTest() {
+		assertEquals(slot("10001", 9), slot("10001", 9));
+		assertTrue(slot("10001", 9).compareTo(slot("10001", 10)) < 0);
+	}
+
+	@Test
+	public void sameSlotMutualExclusionTest() throws Exception {
+		BookingLockManager manager = new BookingLockManager(1024, 5000);
+		AtomicInteger inside = new AtomicInteger();
+		AtomicInteger maxInside = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		CountDownLatch done = new CountDownLatch(200);
+		for (int i = 0; i < 200; i++) {
+			pool.submit(() -> {
+				try (SlotLocks locks = manager.lock(Collections.singletonList(slot("10001", 9)))) {
+					maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+					inside.decrementAndGet();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		pool.shutdown();
+		assertEquals(1, maxInside.get());
+	}
+
+	@Test
+	public void multiSlotNoDeadlockTest() throws Exception {
+		BookingLockManager manager = new BookingLockManager(1024, 5000);
+		BookingLock oldSlot = slot("10001", 9);
+		BookingLock newSlot = slot("10002", 11);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		CountDownLatch done = new CountDownLatch(2);
+		AtomicInteger failures = new AtomicInteger();
+		for (BookingLock[] order : new BookingLock[][] { { oldSlot, newSlot }, { newSlot, oldSlot } }) {
+			pool.submit(() -> {
+				try {
+					for (int i = 0; i < 2000; i++) {
+						try (SlotLocks locks = manager.lock(Arrays.asList(order))) {
+							Thread.yield();
+						}
+					}
+				} catch (AppointmentBookingFailedException ex) {
+					failures.incrementAndGet();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(60, TimeUnit.SECONDS));
+		pool.shutdown();
+		assertEquals(0, failures.get());
+	}
+
+	@Test
+	public void lockTimeoutTest() throws Exception {
+		BookingLockManager manager = new BookingLockManager(16, 50);
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try (SlotLocks locks = manager.lock(Collections.singletonList(slot("10001", 9)))) {
+				held.countDown();
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.start();
+		held.await();
+		try {
+			manager.lock(Collections.singletonList(slot("10001", 9)));
+			fail("Expected lock timeout");
+		} catch (AppointmentBookingFailedException ex) {
+			assertEquals(ErrorCodes.PRG_BOOK_RCI_037.getCode(), ex.getErrorCode());
+		} finally {
+			release.countDown();
+			holder.join();
+		}
+	}
+
+}
@@ -67,6 +67,7 @@ import io.mosip.preregistration.booking.repository.BookingAvailabilityRepository
 import io.mosip.preregistration.booking.repository.RegistrationBookingRepository;
 import io.mosip.preregistration.booking.repository.impl.BookingDAO;
 import io.mosip.preregistration.booking.service.util.BookingServiceUtil;
+import io.mosip.preregistration.booking.service.util.RegistrationCenterCache;
 import io.mosip.preregistration.core.common.dto.BookingRegistrationDTO;
 import io.mosip.preregistration.core.common.dto.ExceptionJSONInfoDTO;
 import io.mosip.preregistration.core.common.dto.MainRequestDTO;
@@ -100,6 +101,9 @@ public class BookingServiceUtilTest {
 	@Autowired
 	private BookingServiceUtil serviceUtil;
 
+	@Autowired
+	private RegistrationCenterCache regCenterCache;
+
 	@MockBean
 	private BookingDAO bookingDAO;
 
@@ -155,6 +159,7 @@ public class BookingServiceUtilTest {
 		centerDto.setNumberOfKiosks((short) 4);
 		centerList.add(centerDto);
 		regCenDto.setRegistrationCenters(centerList);
+		regCenterCache.evict("10001");
 	}
 
 	@Test
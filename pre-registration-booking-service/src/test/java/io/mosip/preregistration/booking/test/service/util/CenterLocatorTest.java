@@ -0,0 +1,85 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.service.util.CenterLocator;
+import io.mosip.preregistration.booking.service.util.CenterLocator.NearbyCenter;
+
+/**
+ * Test class for the spatial index of the registration centers.
+ *
+ * @since 1.0.0
+ *
+ */
+public class CenterLocatorTest {
+
+	private CenterLocator centerLocator;
+
+	@Before
+	public void setUp() {
+		centerLocator = new CenterLocator();
+		ReflectionTestUtils.setField(centerLocator, "cellDegrees", 0.5);
+	}
+
+	private static RegistrationCenterDto center(String id, String latitude, String longitude) {
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(id);
+		center.setLatitude(latitude);
+		center.setLongitude(longitude);
+		return center;
+	}
+
+	@Test
+	public void nearestMatchesFullScanTest() {
+		Random random = new Random(42);
+		List<RegistrationCenterDto> centers = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			centers.add(center(String.valueOf(10000 + i), String.valueOf(30 + random.nextDouble() * 10),
+					String.valueOf(-10 + random.nextDouble() * 20)));
+		}
+		centerLocator.index(centers);
+
+		for (int i = 0; i < 20; i++) {
+			double latitude = 29 + random.nextDouble() * 12;
+			double longitude = -11 + random.nextDouble() * 22;
+			List<String> expected = centers.stream()
+					.sorted(Comparator.comparingDouble(center -> CenterLocator.distanceKm(latitude, longitude,
+							Double.parseDouble(center.getLatitude()), Double.parseDouble(center.getLongitude()))))
+					.limit(10).map(RegistrationCenterDto::getId).collect(Collectors.toList());
+
+			List<NearbyCenter> nearest = centerLocator.nearest(latitude, longitude, 10);
+
+			assertEquals(expected, nearest.stream().map(nearby -> nearby.getCenter().getId())
+					.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void centersWithoutLocationSkippedTest() {
+		centerLocator.index(Arrays.asList(center("10001", "34.0", "-6.8"), center("10002", null, "-6.8"),
+				center("10003", "north", "-6.8"), center("10004", "95", "-6.8")));
+
+		List<NearbyCenter> nearest = centerLocator.nearest(34.02, -6.84, 5);
+
+		assertEquals(1, nearest.size());
+		assertEquals("10001", nearest.get(0).getCenter().getId());
+		assertTrue(nearest.get(0).getDistanceKm() < 5);
+		assertNull(centerLocator.getCenter("10002"));
+		assertNull(centerLocator.distanceKm("10003", 34.02, -6.84));
+	}
+
+}
@@ -0,0 +1,103 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.preregistration.booking.dto.OpenSlotDto;
+import io.mosip.preregistration.booking.repository.impl.BookingDAO;
+import io.mosip.preregistration.booking.service.util.NextOpenSlotIndex;
+
+/**
+ * Test class for the next open slot index of the registration centers.
+ *
+ * @since 1.0.0
+ *
+ */
+public class NextOpenSlotIndexTest {
+
+	private static final LocalDate FROM_DATE = LocalDate.of(2019, 6, 10);
+	private static final LocalTime NINE = LocalTime.of(9, 0);
+	private static final LocalTime NINE_FIFTEEN = LocalTime.of(9, 15);
+	private static final LocalTime NINE_THIRTY = LocalTime.of(9, 30);
+
+	private NextOpenSlotIndex nextOpenSlotIndex;
+
+	private BookingDAO bookingDAO;
+
+	@Before
+	public void setUp() {
+		bookingDAO = mock(BookingDAO.class);
+		nextOpenSlotIndex = new NextOpenSlotIndex();
+		ReflectionTestUtils.setField(nextOpenSlotIndex, "maxSize", 100);
+		ReflectionTestUtils.setField(nextOpenSlotIndex, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(nextOpenSlotIndex, "bookingDAO", bookingDAO);
+		nextOpenSlotIndex.setupIndex();
+		when(bookingDAO.findNextOpenSlots(anyCollection(), eq(FROM_DATE))).thenReturn(Arrays.asList(
+				new OpenSlotDto("10001", FROM_DATE.plusDays(1), NINE_FIFTEEN, NINE_THIRTY, 3),
+				new OpenSlotDto("10001", FROM_DATE.plusDays(1), NINE_THIRTY, LocalTime.of(9, 45), 5),
+				new OpenSlotDto("10002", FROM_DATE, NINE, NINE_FIFTEEN, 1)));
+	}
+
+	@Test
+	public void batchLoadAndHitTest() {
+		Map<String, OpenSlotDto> slots = nextOpenSlotIndex.get(Arrays.asList("10002", "10001", "10003"), FROM_DATE);
+
+		assertEquals(Arrays.asList("10002", "10001"), Arrays.asList(slots.keySet().toArray()));
+		assertEquals(NINE_FIFTEEN, slots.get("10001").getFromTime());
+
+		assertSame(slots.get("10001"), nextOpenSlotIndex.get(Collections.singletonList("10001"), FROM_DATE).get("10001"));
+		assertFalse(nextOpenSlotIndex.get(Collections.singletonList("10003"), FROM_DATE).containsKey("10003"));
+		verify(bookingDAO, times(1)).findNextOpenSlots(anyCollection(), eq(FROM_DATE));
+	}
+
+	@Test
+	public void bookingAndCancellationUpdateTest() {
+		nextOpenSlotIndex.get(Arrays.asList("10001", "10002", "10003"), FROM_DATE);
+
+		/* Neither a later slot booked nor a later kiosk given back changes the earliest slot */
+		nextOpenSlotIndex.reserved("10001", FROM_DATE.plusDays(1), NINE_THIRTY, LocalTime.of(9, 45));
+		nextOpenSlotIndex.released("10002", FROM_DATE.plusDays(2), NINE);
+		nextOpenSlotIndex.get(Arrays.asList("10001", "10002"), FROM_DATE);
+		verify(bookingDAO, times(1)).findNextOpenSlots(anyCollection(), eq(FROM_DATE));
+
+		/* Booking the earliest slot, an earlier kiosk and a kiosk of a full center reload these centers only */
+		nextOpenSlotIndex.reserved("10001", FROM_DATE.plusDays(1), NINE_FIFTEEN, NINE_THIRTY);
+		nextOpenSlotIndex.released("10002", FROM_DATE.minusDays(1), NINE);
+		nextOpenSlotIndex.released("10003", FROM_DATE.plusDays(5), NINE);
+		nextOpenSlotIndex.get(Arrays.asList("10001", "10002", "10003"), FROM_DATE);
+		verify(bookingDAO, times(2)).findNextOpenSlots(Arrays.asList("10001", "10002", "10003"), FROM_DATE);
+		verify(bookingDAO, times(2)).findNextOpenSlots(anyCollection(), eq(FROM_DATE));
+	}
+
+	@Test
+	public void loadBeforeBookingIsNotPutTest() {
+		OpenSlotDto slot = new OpenSlotDto("10002", FROM_DATE, NINE, NINE_FIFTEEN, 1);
+		when(bookingDAO.findNextOpenSlots(Collections.singletonList("10002"), FROM_DATE)).thenAnswer(invocation -> {
+			/* the last kiosk of the slot is booked while the load is running */
+			nextOpenSlotIndex.reserved("10002", FROM_DATE, NINE, NINE_FIFTEEN);
+			return Collections.singletonList(slot);
+		});
+
+		assertSame(slot, nextOpenSlotIndex.get(Collections.singletonList("10002"), FROM_DATE).get("10002"));
+		nextOpenSlotIndex.get(Collections.singletonList("10002"), FROM_DATE);
+		verify(bookingDAO, times(2)).findNextOpenSlots(Collections.singletonList("10002"), FROM_DATE);
+	}
+
+}
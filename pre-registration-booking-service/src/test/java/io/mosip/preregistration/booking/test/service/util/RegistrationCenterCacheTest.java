@@ -0,0 +1,181 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.preregistration.booking.dto.RegistrationCenterDto;
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.errorcodes.ErrorMessages;
+import io.mosip.preregistration.booking.service.util.RegistrationCenterCache;
+import io.mosip.preregistration.core.exception.MasterDataNotAvailableException;
+
+/**
+ * Test class for the registration center master data cache.
+ *
+ * @since 1.0.0
+ *
+ */
+public class RegistrationCenterCacheTest {
+
+	private static final String REG_CENTER_ID = "10001";
+
+	private RegistrationCenterCache regCenterCache;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final AtomicInteger remoteCalls = new AtomicInteger();
+
+	private RuntimeException remoteFailure;
+
+	private final List<Runnable> reloads = new ArrayList<>();
+
+	private final Function<String, List<RegistrationCenterDto>> loader = regCenterId -> {
+		remoteCalls.incrementAndGet();
+		if (remoteFailure != null) {
+			throw remoteFailure;
+		}
+		RegistrationCenterDto center = new RegistrationCenterDto();
+		center.setId(regCenterId);
+		List<RegistrationCenterDto> centers = new ArrayList<>();
+		centers.add(center);
+		return centers;
+	};
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		regCenterCache = new RegistrationCenterCache();
+		ReflectionTestUtils.setField(regCenterCache, "ttlSeconds", 3600L);
+		ReflectionTestUtils.setField(regCenterCache, "refreshSeconds", 2700L);
+		ReflectionTestUtils.setField(regCenterCache, "refreshIntervalSeconds", 3600L);
+		ReflectionTestUtils.setField(regCenterCache, "staleSeconds", 86400L);
+		ReflectionTestUtils.setField(regCenterCache, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(regCenterCache, "ticker", (LongSupplier) now::get);
+		ReflectionTestUtils.setField(regCenterCache, "reloader", (Executor) reloads::add);
+		regCenterCache.setupCache();
+	}
+
+	@After
+	public void tearDown() {
+		regCenterCache.shutdown();
+	}
+
+	private void advance(long seconds) {
+		now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+
+	private void runReloads() {
+		List<Runnable> pending = new ArrayList<>(reloads);
+		reloads.clear();
+		pending.forEach(Runnable::run);
+	}
+
+	@Test
+	public void steadyStateMakesNoRemoteCallTest() {
+		List<RegistrationCenterDto> centers = regCenterCache.get(REG_CENTER_ID, loader);
+		for (int i = 0; i < 100; i++) {
+			advance(60);
+			regCenterCache.refresh();
+			assertEquals(REG_CENTER_ID, regCenterCache.get(REG_CENTER_ID, loader).get(0).getId());
+		}
+
+		/* 6000 seconds: one load and two refresh-ahead reloads, none on the request path */
+		assertEquals(3, remoteCalls.get());
+		assertEquals(1, meterRegistry.get("prereg.booking.regcenter.cache.requests").tag("result", "miss")
+				.counter().count(), 0);
+		assertEquals(100, meterRegistry.get("prereg.booking.regcenter.cache.requests").tag("result", "hit")
+				.counter().count(), 0);
+		assertEquals(REG_CENTER_ID, centers.get(0).getId());
+	}
+
+	@Test
+	public void staleWhileMasterdataDownTest() {
+		List<RegistrationCenterDto> centers = regCenterCache.get(REG_CENTER_ID, loader);
+		remoteFailure = new ResourceAccessException("Connection refused");
+		advance(2700);
+		regCenterCache.refresh();
+		advance(3600);
+
+		assertSame(centers, regCenterCache.get(REG_CENTER_ID, loader));
+		assertEquals(1, meterRegistry.get("prereg.booking.regcenter.cache.requests").tag("result", "stale")
+				.counter().count(), 0);
+		runReloads();
+		assertEquals(3, remoteCalls.get());
+
+		remoteFailure = null;
+		assertSame(centers, regCenterCache.get(REG_CENTER_ID, loader));
+		runReloads();
+		assertNotSame(centers, regCenterCache.get(REG_CENTER_ID, loader));
+		assertEquals(4, remoteCalls.get());
+	}
+
+	@Test
+	public void dueEntryIsServedAndReloadedOnceTest() {
+		List<RegistrationCenterDto> centers = regCenterCache.get(REG_CENTER_ID, loader);
+		advance(2700);
+		for (int i = 0; i < 10; i++) {
+			assertSame(centers, regCenterCache.get(REG_CENTER_ID, loader));
+		}
+
+		/* ten requests served without a remote call, one reload in flight */
+		assertEquals(1, remoteCalls.get());
+		assertEquals(1, reloads.size());
+		runReloads();
+		assertEquals(2, remoteCalls.get());
+		assertNotSame(centers, regCenterCache.get(REG_CENTER_ID, loader));
+		assertEquals(0, reloads.size());
+	}
+
+	@Test(expected = ResourceAccessException.class)
+	public void staleLimitTest() {
+		regCenterCache.get(REG_CENTER_ID, loader);
+		remoteFailure = new ResourceAccessException("Connection refused");
+		advance(86400);
+		regCenterCache.get(REG_CENTER_ID, loader);
+	}
+
+	@Test
+	public void removedCenterIsEvictedTest() {
+		regCenterCache.get(REG_CENTER_ID, loader);
+		remoteFailure = new MasterDataNotAvailableException(ErrorCodes.PRG_BOOK_RCI_020.getCode(),
+				ErrorMessages.MASTER_DATA_NOT_FOUND.getMessage());
+		advance(2700);
+		regCenterCache.refresh();
+
+		assertEquals(0, regCenterCache.size());
+	}
+
+	@Test
+	public void unusedCenterExpiresTest() {
+		regCenterCache.get(REG_CENTER_ID, loader);
+		regCenterCache.get("10002", loader);
+		advance(1800);
+		regCenterCache.get("10002", loader);
+		advance(1800);
+		regCenterCache.refresh();
+
+		assertEquals(1, regCenterCache.size());
+		regCenterCache.evict("10002");
+		assertEquals(0, regCenterCache.size());
+	}
+
+}
@@ -0,0 +1,56 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import io.mosip.preregistration.booking.service.util.SlotCommitQueue;
+import io.mosip.preregistration.booking.test.service.util.SlotCommitQueueTest.FakeSlotTable;
+
+/**
+ * Benchmark of the group commit of the bookings of a slot, run with the
+ * benchmark profile.
+ *
+ * @since 1.0.0
+ *
+ */
+public class SlotCommitQueueBenchmark {
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * Load test on a single hot slot: 16 bookers, each booking committed in its
+	 * own transaction against committed in groups.
+	 */
+	@Test
+	public void hotSlotThroughputBenchmark() throws Exception {
+		int requests = 2000;
+		int kiosks = 1500;
+
+		FakeSlotTable aloneTable = new FakeSlotTable(kiosks);
+		long start = System.nanoTime();
+		int aloneRejected = SlotCommitQueueTest.bookConcurrently(SlotCommitQueueTest.preRegistrationIds(requests),
+				aloneTable::commitAlone, TransactionSynchronization.STATUS_COMMITTED);
+		double aloneRate = requests / ((System.nanoTime() - start) / 1e9);
+
+		SlotCommitQueue queue = new SlotCommitQueue(50, 10000);
+		FakeSlotTable groupTable = new FakeSlotTable(kiosks);
+		start = System.nanoTime();
+		int groupRejected = SlotCommitQueueTest.bookConcurrently(SlotCommitQueueTest.preRegistrationIds(requests),
+				preRegistrationId -> queue.book(SlotCommitQueueTest.SLOT, preRegistrationId,
+						SlotCommitQueueTest.USER_ID, groupTable::commit,
+						() -> groupTable.commitAlone(preRegistrationId)),
+				TransactionSynchronization.STATUS_COMMITTED);
+		double groupRate = requests / ((System.nanoTime() - start) / 1e9);
+
+		assertEquals(requests - kiosks, aloneRejected);
+		assertEquals(requests - kiosks, groupRejected);
+		logger.info(String.format(
+				"Hot slot booking throughput (ops/s) alone: %.0f, group commit: %.0f in %d transactions", aloneRate,
+				groupRate, groupTable.transactions.get()));
+	}
+
+}
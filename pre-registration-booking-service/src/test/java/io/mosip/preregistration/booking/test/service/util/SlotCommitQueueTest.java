@@ -0,0 +1,257 @@
+package io.mosip.preregistration.booking.test.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.mosip.preregistration.booking.errorcodes.ErrorCodes;
+import io.mosip.preregistration.booking.exception.AvailablityNotFoundException;
+import io.mosip.preregistration.booking.service.util.BookingLock;
+import io.mosip.preregistration.booking.service.util.SlotCommitQueue;
+import io.mosip.preregistration.booking.service.util.SlotCommitQueue.GroupCommit;
+
+/**
+ * Test class for the group commit of the bookings of a slot.
+ *
+ * @since 1.0.0
+ *
+ */
+public class SlotCommitQueueTest {
+
+	static final BookingLock SLOT = new BookingLock("10001", LocalDate.of(2019, 6, 10), LocalTime.of(9, 0));
+
+	static final String USER_ID = "user";
+
+	/**
+	 * Stand-in for the slot table and the booking table: each commit is one
+	 * transaction on the slot row, taking about a millisecond.
+	 */
+	static final class FakeSlotTable {
+
+		private final ReentrantLock row = new ReentrantLock();
+
+		final List<String> bookings = Collections.synchronizedList(new ArrayList<>());
+
+		final AtomicInteger transactions = new AtomicInteger();
+
+		private int kiosks;
+
+		FakeSlotTable(int kiosks) {
+			this.kiosks = kiosks;
+		}
+
+		Map<String, RuntimeException> commit(LinkedHashMap<String, String> userIds) {
+			return commit(new ArrayList<>(userIds.keySet()));
+		}
+
+		private Map<String, RuntimeException> commit(List<String> preRegistrationIds) {
+			row.lock();
+			try {
+				transactions.incrementAndGet();
+				TimeUnit.MICROSECONDS.sleep(1000);
+				int granted = Math.min(kiosks, preRegistrationIds.size());
+				kiosks -= granted;
+				bookings.addAll(preRegistrationIds.subList(0, granted));
+				Map<String, RuntimeException> rejected = new HashMap<>();
+				for (String preRegistrationId : preRegistrationIds.subList(granted, preRegistrationIds.size())) {
+					rejected.put(preRegistrationId, new AvailablityNotFoundException(
+							ErrorCodes.PRG_BOOK_RCI_002.getCode(), "Availability not found"));
+				}
+				return rejected;
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(ex);
+			} finally {
+				row.unlock();
+			}
+		}
+
+		void commitAlone(String preRegistrationId) {
+			RuntimeException rejection = commit(Collections.singletonList(preRegistrationId)).get(preRegistrationId);
+			if (rejection != null) {
+				throw rejection;
+			}
+		}
+	}
+
+	/**
+	 * Books the pre registration ids from 16 threads, in a transaction rolled
+	 * back or committed as given.
+	 *
+	 * @return number of rejected bookings
+	 */
+	static int bookConcurrently(List<String> preRegistrationIds, BookingCall call, int transactionStatus)
+			throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(preRegistrationIds.size());
+		for (String preRegistrationId : preRegistrationIds) {
+			pool.submit(() -> {
+				TransactionSynchronizationManager.initSynchronization();
+				try {
+					call.book(preRegistrationId);
+				} catch (AvailablityNotFoundException ex) {
+					rejected.incrementAndGet();
+				} finally {
+					for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+							.getSynchronizations()) {
+						synchronization.afterCompletion(transactionStatus);
+					}
+					TransactionSynchronizationManager.clearSynchronization();
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(120, TimeUnit.SECONDS));
+		pool.shutdown();
+		return rejected.get();
+	}
+
+	@FunctionalInterface
+	interface BookingCall {
+		void book(String preRegistrationId);
+	}
+
+	/** Lets the leading group commit once the other requests are waiting. */
+	private static void releaseWhenJoined(CountDownLatch joining, CountDownLatch othersWaiting) {
+		new Thread(() -> {
+			try {
+				joining.await(10, TimeUnit.SECONDS);
+				TimeUnit.MILLISECONDS.sleep(200);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			othersWaiting.countDown();
+		}).start();
+	}
+
+	static List<String> preRegistrationIds(int count) {
+		List<String> preRegistrationIds = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			preRegistrationIds.add(String.valueOf(98746563542000L + i));
+		}
+		return preRegistrationIds;
+	}
+
+	@Test
+	public void waitingRequestsAreCommittedInOneGroupTest() throws Exception {
+		SlotCommitQueue queue = new SlotCommitQueue(50, 10000);
+		FakeSlotTable table = new FakeSlotTable(4);
+		List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch leading = new CountDownLatch(1);
+		CountDownLatch othersWaiting = new CountDownLatch(1);
+		GroupCommit groupCommit = userIds -> {
+			groupSizes.add(userIds.size());
+			leading.countDown();
+			try {
+				othersWaiting.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return table.commit(userIds);
+		};
+
+		Thread first = new Thread(() -> queue.book(SLOT, "98746563541999", USER_ID, groupCommit,
+				() -> table.commitAlone("98746563541999")));
+		first.start();
+		assertTrue(leading.await(10, TimeUnit.SECONDS));
+		CountDownLatch joining = new CountDownLatch(5);
+		releaseWhenJoined(joining, othersWaiting);
+		int rejected = bookConcurrently(preRegistrationIds(5), preRegistrationId -> {
+			joining.countDown();
+			queue.book(SLOT, preRegistrationId, USER_ID, groupCommit, () -> table.commitAlone(preRegistrationId));
+		}, TransactionSynchronization.STATUS_COMMITTED);
+		first.join(10000);
+
+		assertEquals(2, groupSizes.size());
+		assertEquals(Integer.valueOf(1), groupSizes.get(0));
+		assertEquals(Integer.valueOf(5), groupSizes.get(1));
+		assertEquals(2, rejected);
+		assertEquals(4, table.bookings.size());
+		assertEquals(2, table.transactions.get());
+	}
+
+	@Test
+	public void rolledBackGroupBooksAloneTest() throws Exception {
+		SlotCommitQueue queue = new SlotCommitQueue(50, 10000);
+		FakeSlotTable table = new FakeSlotTable(100);
+		CountDownLatch leading = new CountDownLatch(1);
+		CountDownLatch othersWaiting = new CountDownLatch(1);
+		AtomicInteger groups = new AtomicInteger();
+		GroupCommit groupCommit = userIds -> {
+			if (groups.getAndIncrement() == 0) {
+				leading.countDown();
+				try {
+					othersWaiting.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return table.commit(userIds);
+			}
+			/* The later groups roll back: nothing is written */
+			return Collections.emptyMap();
+		};
+		AtomicInteger alone = new AtomicInteger();
+
+		Thread first = new Thread(() -> queue.book(SLOT, "98746563541999", USER_ID, groupCommit,
+				() -> table.commitAlone("98746563541999")));
+		first.start();
+		assertTrue(leading.await(10, TimeUnit.SECONDS));
+		CountDownLatch joining = new CountDownLatch(5);
+		releaseWhenJoined(joining, othersWaiting);
+		int rejected = bookConcurrently(preRegistrationIds(5), preRegistrationId -> {
+			joining.countDown();
+			queue.book(SLOT, preRegistrationId, USER_ID, groupCommit, () -> {
+				alone.incrementAndGet();
+				table.commitAlone(preRegistrationId);
+			});
+		}, TransactionSynchronization.STATUS_ROLLED_BACK);
+		first.join(10000);
+
+		assertEquals(0, rejected);
+		assertEquals(4, alone.get());
+		assertEquals(5, table.bookings.size());
+		assertTrue(table.bookings.contains("98746563541999"));
+	}
+
+	/**
+	 * 16 bookers on a single hot slot with fewer kiosks than requests: each kiosk
+	 * is granted once and the other requests are rejected.
+	 */
+	@Test
+	public void hotSlotGrantsEachKioskOnceTest() throws Exception {
+		int requests = 400;
+		int kiosks = 300;
+		SlotCommitQueue queue = new SlotCommitQueue(50, 10000);
+		FakeSlotTable table = new FakeSlotTable(kiosks);
+
+		int rejected = bookConcurrently(preRegistrationIds(requests),
+				preRegistrationId -> queue.book(SLOT, preRegistrationId, USER_ID, table::commit,
+						() -> table.commitAlone(preRegistrationId)),
+				TransactionSynchronization.STATUS_COMMITTED);
+
+		assertEquals(requests - kiosks, rejected);
+		assertEquals(kiosks, table.bookings.size());
+		assertEquals(kiosks, new HashSet<>(table.bookings).size());
+	}
+
+}